@@ -0,0 +1,509 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Streaming importer for class assertions and object property assertions held
+ * in CSV or TSV files. Rows are read one at a time, entities are declared the
+ * first time they are seen and axioms are applied to the ontology in batches
+ * with a single applyChanges call per batch, so heap use does not grow with the
+ * number of rows. Cells may hold either a name in the importer's namespace or a
+ * full IRI (optionally in angle brackets). Each batch (or off-heap record) is
+ * written while holding a lock, which OWLAPILiteFactory shares with its other
+ * writers and readers.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class ABoxImporter {
+	/**
+	 * default number of axioms applied per change batch
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 10000;
+	/**
+	 * the ontology to import into
+	 */
+	private final OWLOntology ontology;
+	/**
+	 * namespace used for cells which are not full IRIs
+	 */
+	private final IRI namespace;
+	/**
+	 * Parser whose vocabulary is extended with imported entities
+	 */
+	private final Parser parser;
+	/**
+	 * session dictionary used to resolve names and track declared entities
+	 */
+	private final EntityDictionary dictionary;
+	/**
+	 * off-heap ABox store to import into instead of the ontology (may be null)
+	 */
+	private final OffHeapABoxStore store;
+	/**
+	 * OWLDataFactory instance
+	 */
+	private final OWLDataFactory dataFactory;
+	/**
+	 * dictionary ids of the entities declared so far
+	 */
+	private final BitSet declared = new BitSet();
+	/**
+	 * number of axioms applied per change batch
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	/**
+	 * field delimiter, or 0 to choose by file extension
+	 */
+	private char delimiter;
+	/**
+	 * whether the first row of each file is a header row
+	 */
+	private boolean header;
+	/**
+	 * pending changes of the current batch
+	 */
+	private final List<OWLOntologyChange> batch = new ArrayList<OWLOntologyChange>();
+	/**
+	 * held while a batch is applied or a record is written to the store
+	 */
+	private final Lock lock;
+
+	/**
+	 * ABoxImporter constructor
+	 *
+	 * @param ontology   the OWLOntology to import into
+	 * @param namespace  the namespace IRI for cells which are not full IRIs
+	 * @param parser     the Parser whose vocabulary should include imported
+	 *                   entities
+	 * @param dictionary the session EntityDictionary
+	 * @param store      an OffHeapABoxStore to write assertions to instead of the
+	 *                   ontology, or null
+	 */
+	public ABoxImporter(OWLOntology ontology, IRI namespace, Parser parser, EntityDictionary dictionary,
+			OffHeapABoxStore store) {
+		this(ontology, namespace, parser, dictionary, store, new ReentrantLock());
+	}
+
+	/**
+	 * ABoxImporter constructor
+	 *
+	 * @param ontology   the OWLOntology to import into
+	 * @param namespace  the namespace IRI for cells which are not full IRIs
+	 * @param parser     the Parser whose vocabulary should include imported
+	 *                   entities
+	 * @param dictionary the session EntityDictionary
+	 * @param store      an OffHeapABoxStore to write assertions to instead of the
+	 *                   ontology, or null
+	 * @param lock       the lock held while a batch is applied, shared with the
+	 *                   other users of the ontology
+	 */
+	public ABoxImporter(OWLOntology ontology, IRI namespace, Parser parser, EntityDictionary dictionary,
+			OffHeapABoxStore store, Lock lock) {
+		this.lock = lock;
+		this.ontology = ontology;
+		this.namespace = namespace;
+		this.parser = parser;
+		this.dictionary = dictionary;
+		this.store = store;
+		this.dataFactory = ontology.getOWLOntologyManager().getOWLDataFactory();
+	}
+
+	/**
+	 * Sets the number of axioms applied to the ontology in a single change
+	 *
+	 * @param batchSize a positive number of axioms
+	 * @return this ABoxImporter
+	 */
+	public ABoxImporter setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+		return this;
+	}
+
+	/**
+	 * Sets the field delimiter. By default files ending in .tsv or .tab are split
+	 * on tabs and all other files on commas.
+	 *
+	 * @param delimiter the field delimiter character
+	 * @return this ABoxImporter
+	 */
+	public ABoxImporter setDelimiter(char delimiter) {
+		this.delimiter = delimiter;
+		return this;
+	}
+
+	/**
+	 * Sets whether the first row of each file is a header row to skip
+	 *
+	 * @param header true if files start with a header row
+	 * @return this ABoxImporter
+	 */
+	public ABoxImporter setHeader(boolean header) {
+		this.header = header;
+		return this;
+	}
+
+	/**
+	 * Imports class assertions from a delimited file
+	 *
+	 * @param file             the CSV or TSV file
+	 * @param individualColumn zero-based column of the individual
+	 * @param classColumn      zero-based column of the class
+	 * @return a Report of the import
+	 * @throws IOException if the file cannot be read
+	 */
+	public Report importClassAssertions(Path file, int individualColumn, int classColumn) throws IOException {
+		return importRows(file, "Class assertions", new int[] { individualColumn, classColumn });
+	}
+
+	/**
+	 * Imports object property assertions from a delimited file
+	 *
+	 * @param file           the CSV or TSV file
+	 * @param subjectColumn  zero-based column of the subject individual
+	 * @param propertyColumn zero-based column of the object property
+	 * @param objectColumn   zero-based column of the object individual
+	 * @return a Report of the import
+	 * @throws IOException if the file cannot be read
+	 */
+	public Report importObjectPropertyAssertions(Path file, int subjectColumn, int propertyColumn, int objectColumn)
+			throws IOException {
+		return importRows(file, "Object property assertions",
+				new int[] { subjectColumn, propertyColumn, objectColumn });
+	}
+
+	/**
+	 * Streams the rows of a file and turns each into an assertion
+	 */
+	private Report importRows(Path file, String kind, int[] columns) throws IOException {
+		char sep = delimiter != 0 ? delimiter : defaultDelimiter(file);
+		long start = System.nanoTime();
+		long rows = 0;
+		long skipped = 0;
+		long imported = 0;
+		int maxColumn = 0;
+		for (int c : columns)
+			maxColumn = Math.max(maxColumn, c);
+		String[] cells = new String[maxColumn + 1];
+		IRI[] iris = new IRI[columns.length];
+
+		try (BufferedReader in = new BufferedReader(
+				new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), 1 << 20)) {
+			String line;
+			boolean first = header;
+			while ((line = in.readLine()) != null) {
+				if (first) {
+					first = false;
+					continue;
+				}
+				if (line.isBlank())
+					continue;
+				rows++;
+				if (!split(line, sep, cells)) {
+					skipped++;
+					continue;
+				}
+				boolean valid = true;
+				for (int i = 0; i < columns.length && valid; i++) {
+					iris[i] = resolve(cells[columns[i]]);
+					valid = iris[i] != null;
+				}
+				if (!valid) {
+					skipped++;
+					continue;
+				}
+				if (columns.length == 2)
+					addClassAssertion(iris[0], iris[1]);
+				else
+					addObjectPropertyAssertion(iris[0], iris[1], iris[2]);
+				imported++;
+			}
+		}
+		flush();
+		return new Report(kind, file, rows, imported, skipped, System.nanoTime() - start);
+	}
+
+	/**
+	 * Adds a class assertion and any missing declarations
+	 */
+	private void addClassAssertion(IRI individual, IRI cls) {
+		OWLNamedIndividual i = dataFactory.getOWLNamedIndividual(individual);
+		OWLClass c = dataFactory.getOWLClass(cls);
+		int indId = declare(i);
+		int clsId = declare(c);
+		if (store != null) {
+			lock.lock();
+			try {
+				store.addClassAssertion(indId, clsId);
+			} finally {
+				lock.unlock();
+			}
+		} else {
+			add(dataFactory.getOWLClassAssertionAxiom(c, i));
+		}
+	}
+
+	/**
+	 * Adds an object property assertion and any missing declarations
+	 */
+	private void addObjectPropertyAssertion(IRI subject, IRI property, IRI object) {
+		OWLNamedIndividual s = dataFactory.getOWLNamedIndividual(subject);
+		OWLObjectProperty p = dataFactory.getOWLObjectProperty(property);
+		OWLNamedIndividual o = dataFactory.getOWLNamedIndividual(object);
+		int subjectId = declare(s);
+		int propertyId = declare(p);
+		int objectId = declare(o);
+		if (store != null) {
+			lock.lock();
+			try {
+				store.addObjectPropertyAssertion(subjectId, propertyId, objectId);
+			} finally {
+				lock.unlock();
+			}
+		} else {
+			add(dataFactory.getOWLObjectPropertyAssertionAxiom(p, s, o));
+		}
+	}
+
+	/**
+	 * Declares an entity the first time it is seen and returns its dictionary id
+	 */
+	private int declare(OWLEntity entity) {
+		int id = dictionary.encode(entity.getIRI());
+		if (!declared.get(id)) {
+			declared.set(id);
+			parser.addVocab(entity);
+			if (store != null && entity.isOWLNamedIndividual()) {
+				lock.lock();
+				try {
+					store.addIndividual(id);
+				} finally {
+					lock.unlock();
+				}
+			} else if (!ontology.containsEntityInSignature(entity)) {
+				add(dataFactory.getOWLDeclarationAxiom(entity));
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * Queues an axiom, applying the batch once it is full
+	 */
+	private void add(OWLAxiom axiom) {
+		batch.add(new AddAxiom(ontology, axiom));
+		if (batch.size() >= batchSize)
+			flush();
+	}
+
+	/**
+	 * Applies all queued changes in a single change
+	 */
+	private void flush() {
+		if (!batch.isEmpty()) {
+			lock.lock();
+			try {
+				ontology.getOWLOntologyManager().applyChanges(batch);
+			} finally {
+				lock.unlock();
+			}
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Resolves a cell to an IRI: full IRIs are used as they are, other values are
+	 * treated as names in the importer namespace
+	 */
+	private IRI resolve(String cell) {
+		if (cell == null)
+			return null;
+		String value = cell.strip();
+		if (value.isEmpty())
+			return null;
+		if (value.startsWith("<") && value.endsWith(">"))
+			return IRI.create(value.substring(1, value.length() - 1));
+		if (value.indexOf("://") > 0 || value.startsWith("urn:"))
+			return IRI.create(value);
+		if (value.indexOf(' ') >= 0)
+			return null;
+		return dictionary.getIRI(dictionary.encode(namespace, value));
+	}
+
+	/**
+	 * Splits a delimited line into cells, honouring double-quoted cells
+	 *
+	 * @return false if the line has fewer cells than required
+	 */
+	static boolean split(String line, char sep, String[] cells) {
+		int cell = 0;
+		int i = 0;
+		int n = line.length();
+		StringBuilder quoted = null;
+		while (cell < cells.length && i <= n) {
+			if (i < n && line.charAt(i) == '"') {
+				if (quoted == null)
+					quoted = new StringBuilder();
+				quoted.setLength(0);
+				i++;
+				while (i < n) {
+					char ch = line.charAt(i++);
+					if (ch == '"') {
+						if (i < n && line.charAt(i) == '"') {
+							quoted.append('"');
+							i++;
+						} else {
+							break;
+						}
+					} else {
+						quoted.append(ch);
+					}
+				}
+				cells[cell++] = quoted.toString();
+				while (i < n && line.charAt(i) != sep)
+					i++;
+				i++;
+			} else {
+				int end = line.indexOf(sep, i);
+				if (end < 0)
+					end = n;
+				cells[cell++] = line.substring(i, end);
+				i = end + 1;
+			}
+		}
+		return cell == cells.length;
+	}
+
+	/**
+	 * Chooses the delimiter from the file extension
+	 */
+	private static char defaultDelimiter(Path file) {
+		String name = file.getFileName().toString().toLowerCase();
+		return name.endsWith(".tsv") || name.endsWith(".tab") ? '\t' : ',';
+	}
+
+	/**
+	 * Outcome of importing one file
+	 */
+	public static class Report {
+		/**
+		 * kind of assertions imported
+		 */
+		private final String kind;
+		/**
+		 * the imported file
+		 */
+		private final Path file;
+		/**
+		 * number of data rows read
+		 */
+		private final long rows;
+		/**
+		 * number of assertions imported
+		 */
+		private final long imported;
+		/**
+		 * number of rows skipped because of missing or invalid cells
+		 */
+		private final long skipped;
+		/**
+		 * elapsed time in nanoseconds
+		 */
+		private final long nanos;
+
+		Report(String kind, Path file, long rows, long imported, long skipped, long nanos) {
+			this.kind = kind;
+			this.file = file;
+			this.rows = rows;
+			this.imported = imported;
+			this.skipped = skipped;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * @return the number of data rows read
+		 */
+		public long getRows() {
+			return rows;
+		}
+
+		/**
+		 * @return the number of assertions imported
+		 */
+		public long getImported() {
+			return imported;
+		}
+
+		/**
+		 * @return the number of rows skipped
+		 */
+		public long getSkipped() {
+			return skipped;
+		}
+
+		/**
+		 * @return the elapsed time in milliseconds
+		 */
+		public long getMillis() {
+			return nanos / 1000000;
+		}
+
+		/**
+		 * @return the number of rows read per second
+		 */
+		public long getRowsPerSecond() {
+			return nanos == 0 ? rows : rows * 1000000000L / nanos;
+		}
+
+		/**
+		 * returns a summary of the import
+		 *
+		 * @return a one line summary of the import
+		 */
+		public String toString() {
+			return kind + " from '" + file + "': imported " + imported + " of " + rows + " rows in " + getMillis()
+					+ " ms (" + getRowsPerSecond() + " rows/s), skipped " + skipped + " rows";
+		}
+	}
+}
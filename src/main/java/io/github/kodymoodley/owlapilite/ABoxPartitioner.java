@@ -0,0 +1,406 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDifferentIndividualsAxiom;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Checks the consistency of, and realises, an ontology by parts of its ABox, in
+ * parallel. The individuals are split into connected components (two
+ * individuals are connected if they occur in the same assertion, e.g. an
+ * object property assertion, a same individual axiom or a class assertion
+ * with a nominal). Without nominals in the TBox, the assertions of one
+ * component cannot affect the types of the individuals of another one, and
+ * the ontology is consistent if and only if the TBox is consistent with the
+ * assertions of every component. DifferentIndividuals axioms therefore do not
+ * connect components: each component only receives the part of the axiom
+ * about its own individuals.
+ *
+ * Components are packed into shards of at most MIN_SHARD_SIZE assertions, or
+ * the number of assertions of the largest component if that is larger, so
+ * that thousands of small components do not need thousands of reasoners. Each
+ * shard is checked and realised by its own reasoner over the shared TBox and
+ * the assertions of the shard on the given executor, so the memory needed per
+ * reasoner is bounded by the size of the largest shard rather than the whole
+ * ABox. If the ontology uses nominals or anonymous individuals in the TBox,
+ * keys, rules or owl:topObjectProperty, any two individuals may interact and
+ * the ABox is kept as one component. Realisation.differences compares the
+ * merged result with a reasoner over the whole ontology. Only the assertions
+ * of the ontology (and its imports closure) are partitioned: assertions held
+ * in an OffHeapABoxStore are not seen.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class ABoxPartitioner {
+	/**
+	 * the number of assertions which shards are filled up to with small
+	 * components
+	 */
+	public static final int MIN_SHARD_SIZE = 1000;
+	/**
+	 * factory of the reasoners which check and realise the shards
+	 */
+	private final OWLReasonerFactory reasonerFactory;
+	/**
+	 * the TBox and RBox axioms of the ontology (with its imports closure), shared
+	 * by all shards
+	 */
+	private final List<OWLAxiom> tbox;
+	/**
+	 * the connected components of the ABox, largest first
+	 */
+	private final List<Component> components;
+
+	/**
+	 * ABoxPartitioner constructor: computes the connected components of the
+	 * ABox of the ontology
+	 *
+	 * @param reasonerFactory factory of the reasoners to check the shards with
+	 * @param ontology        the ontology to check and realise (with its imports
+	 *                        closure)
+	 */
+	public ABoxPartitioner(OWLReasonerFactory reasonerFactory, OWLOntology ontology) {
+		this.reasonerFactory = reasonerFactory;
+		List<OWLAxiom> axioms = ontology.importsClosure().flatMap(OWLOntology::logicalAxioms)
+				.collect(Collectors.toList());
+		this.tbox = axioms.stream().filter(ax -> !AxiomType.ABoxAxiomTypes.contains(ax.getAxiomType()))
+				.collect(Collectors.toList());
+		List<OWLAxiom> abox = axioms.stream().filter(ax -> AxiomType.ABoxAxiomTypes.contains(ax.getAxiomType()))
+				.collect(Collectors.toList());
+		boolean connected = tbox.stream()
+				.anyMatch(ax -> individuals(ax).findAny().isPresent() || ax.isOfType(AxiomType.HAS_KEY)
+						|| ax.isOfType(AxiomType.SWRL_RULE))
+				|| axioms.stream().flatMap(OWLAxiom::objectPropertiesInSignature)
+						.anyMatch(OWLObjectProperty::isOWLTopObjectProperty);
+		this.components = partition(ontology, abox, connected);
+	}
+
+	/**
+	 * @return the connected components of the ABox (named and anonymous
+	 *         individuals), largest first
+	 */
+	public List<Set<OWLIndividual>> getPartitions() {
+		return Collections.unmodifiableList(
+				components.stream().map(c -> Collections.unmodifiableSet(c.individuals)).collect(Collectors.toList()));
+	}
+
+	private static Stream<OWLIndividual> individuals(OWLAxiom ax) {
+		return Stream.concat(ax.individualsInSignature(), ax.anonymousIndividuals());
+	}
+
+	/**
+	 * Computes the connected components of the individuals with union-find and
+	 * distributes the assertions over them
+	 */
+	private static List<Component> partition(OWLOntology ontology, List<OWLAxiom> abox, boolean connected) {
+		Map<OWLIndividual, Integer> ids = new HashMap<OWLIndividual, Integer>();
+		List<OWLIndividual> individuals = new ArrayList<OWLIndividual>();
+		List<Integer> parent = new ArrayList<Integer>();
+		Stream.concat(abox.stream().flatMap(ABoxPartitioner::individuals),
+				ontology.importsClosure().flatMap(OWLOntology::individualsInSignature)).forEach(i -> {
+					if (!ids.containsKey(i)) {
+						ids.put(i, individuals.size());
+						parent.add(individuals.size());
+						individuals.add(i);
+					}
+				});
+		for (OWLAxiom ax : abox) {
+			// different individuals cannot be merged across components
+			if (ax instanceof OWLDifferentIndividualsAxiom && !connected)
+				continue;
+			int first = -1;
+			for (OWLIndividual i : (Iterable<OWLIndividual>) individuals(ax)::iterator) {
+				int id = ids.get(i);
+				if (first < 0)
+					first = id;
+				else
+					parent.set(find(parent, id), find(parent, first));
+			}
+		}
+		for (int i = 1; connected && i < individuals.size(); i++)
+			parent.set(find(parent, i), find(parent, 0));
+		Map<Integer, Component> roots = new LinkedHashMap<Integer, Component>();
+		for (int i = 0; i < individuals.size(); i++)
+			roots.computeIfAbsent(find(parent, i), k -> new Component()).individuals.add(individuals.get(i));
+		for (OWLAxiom ax : abox) {
+			if (ax instanceof OWLDifferentIndividualsAxiom && !connected) {
+				// each component receives the part of the axiom about its individuals
+				Map<Integer, List<OWLIndividual>> parts = new LinkedHashMap<Integer, List<OWLIndividual>>();
+				((OWLDifferentIndividualsAxiom) ax).individuals().forEach(
+						i -> parts.computeIfAbsent(find(parent, ids.get(i)), k -> new ArrayList<OWLIndividual>()).add(i));
+				for (Map.Entry<Integer, List<OWLIndividual>> part : parts.entrySet())
+					if (part.getValue().size() > 1)
+						roots.get(part.getKey()).axioms.add(
+								OWLAPILiteReasoner.dataFactory.getOWLDifferentIndividualsAxiom(part.getValue()));
+				continue;
+			}
+			individuals(ax).findFirst().ifPresent(i -> roots.get(find(parent, ids.get(i))).axioms.add(ax));
+		}
+		List<Component> result = new ArrayList<Component>(roots.values());
+		result.sort((a, b) -> Integer.compare(b.size(), a.size()));
+		return result;
+	}
+
+	private static int find(List<Integer> parent, int i) {
+		while (parent.get(i) != i) {
+			parent.set(i, parent.get(parent.get(i)));
+			i = parent.get(i);
+		}
+		return i;
+	}
+
+	/**
+	 * Packs the components (largest first) into shards of at most MIN_SHARD_SIZE
+	 * assertions, or the size of the largest component if that is larger
+	 *
+	 * @return the shards, each a list of components
+	 */
+	List<List<Component>> shards() {
+		List<List<Component>> shards = new ArrayList<List<Component>>();
+		int capacity = Math.max(MIN_SHARD_SIZE, components.isEmpty() ? 0 : components.get(0).size());
+		List<Component> shard = new ArrayList<Component>();
+		int size = 0;
+		for (Component component : components) {
+			if (!shard.isEmpty() && size + component.size() > capacity) {
+				shards.add(shard);
+				shard = new ArrayList<Component>();
+				size = 0;
+			}
+			shard.add(component);
+			size += component.size();
+		}
+		// without individuals, one shard checks the consistency of the TBox
+		shards.add(shard);
+		return shards;
+	}
+
+	/**
+	 * Checks the consistency of every shard and realises its named individuals,
+	 * each shard with its own reasoner on the executor, and merges the results
+	 *
+	 * @param executor the executor to run the shard reasoners on
+	 * @return the types of the named individuals of the ontology
+	 */
+	public Realisation realise(Executor executor) {
+		List<CompletableFuture<Realisation>> tasks = new ArrayList<CompletableFuture<Realisation>>();
+		for (List<Component> shard : shards())
+			tasks.add(CompletableFuture.supplyAsync(() -> realise(shard), executor));
+		Realisation realisation = new Realisation();
+		realisation.partitions = components.size();
+		try {
+			for (CompletableFuture<Realisation> task : tasks)
+				realisation.merge(task.join());
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+		if (!realisation.consistent)
+			realisation.types.clear();
+		return realisation;
+	}
+
+	/**
+	 * Checks and realises one shard with a new reasoner over the TBox and the
+	 * assertions of the shard
+	 *
+	 * @return the types of the named individuals of the shard
+	 */
+	private Realisation realise(List<Component> shard) {
+		Realisation realisation = new Realisation();
+		realisation.shards = 1;
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLOntology part;
+		try {
+			part = manager.createOntology(tbox.stream());
+		} catch (OWLOntologyCreationException e) {
+			throw new IllegalStateException(e);
+		}
+		List<OWLNamedIndividual> named = new ArrayList<OWLNamedIndividual>();
+		for (Component component : shard) {
+			manager.addAxioms(part, component.axioms.stream());
+			for (OWLIndividual i : component.individuals)
+				if (i.isNamed()) {
+					named.add(i.asOWLNamedIndividual());
+					// individuals without assertions are still realised
+					manager.addAxiom(part,
+							OWLAPILiteReasoner.dataFactory.getOWLDeclarationAxiom(i.asOWLNamedIndividual()));
+				}
+		}
+		OWLReasoner reasoner = reasonerFactory.createNonBufferingReasoner(part);
+		try {
+			if (!reasoner.isConsistent()) {
+				realisation.consistent = false;
+				return realisation;
+			}
+			for (OWLNamedIndividual i : named)
+				realisation.types.put(i, reasoner.getTypes(i, false).entities().filter(c -> !c.isOWLThing())
+						.collect(Collectors.toCollection(LinkedHashSet::new)));
+		} finally {
+			reasoner.dispose();
+		}
+		return realisation;
+	}
+
+	/**
+	 * A connected component of the ABox: its individuals and their assertions
+	 */
+	static final class Component {
+		private final Set<OWLIndividual> individuals = new LinkedHashSet<OWLIndividual>();
+		private final List<OWLAxiom> axioms = new ArrayList<OWLAxiom>();
+
+		/**
+		 * @return the number of assertions of the component (at least one)
+		 */
+		int size() {
+			return Math.max(1, axioms.size());
+		}
+	}
+
+	/**
+	 * The consistency of an ontology and the types of its named individuals
+	 *
+	 * @author Kody Moodley
+	 * @author https://kodymoodley.github.io
+	 * @version 1.0.1
+	 */
+	public static final class Realisation {
+		/**
+		 * named types (other than owl:Thing) of each named individual
+		 */
+		private final Map<OWLNamedIndividual, Set<OWLClass>> types = new HashMap<OWLNamedIndividual, Set<OWLClass>>();
+		/**
+		 * false if a shard (and so the ontology) is inconsistent
+		 */
+		private boolean consistent = true;
+		/**
+		 * number of shards checked by a reasoner
+		 */
+		private int shards;
+		/**
+		 * number of connected components of the ABox
+		 */
+		private int partitions;
+
+		private void merge(Realisation other) {
+			types.putAll(other.types);
+			consistent &= other.consistent;
+			shards += other.shards;
+		}
+
+		/**
+		 * @return false if the ontology is inconsistent (there are then no types)
+		 */
+		public boolean isConsistent() {
+			return consistent;
+		}
+
+		/**
+		 * @return the number of shards which were checked by a reasoner
+		 */
+		public int getShardCount() {
+			return shards;
+		}
+
+		/**
+		 * @return the number of connected components of the ABox
+		 */
+		public int getPartitionCount() {
+			return partitions;
+		}
+
+		/**
+		 * @return the realised named individuals
+		 */
+		public Set<OWLNamedIndividual> getIndividuals() {
+			return Collections.unmodifiableSet(types.keySet());
+		}
+
+		/**
+		 * @param i a named individual
+		 * @return true if the individual was realised
+		 */
+		public boolean contains(OWLNamedIndividual i) {
+			return types.containsKey(i);
+		}
+
+		/**
+		 * @param i a realised named individual
+		 * @return its named types other than owl:Thing
+		 */
+		public Set<OWLClass> typesOf(OWLNamedIndividual i) {
+			return Collections.unmodifiableSet(types.getOrDefault(i, Collections.<OWLClass>emptySet()));
+		}
+
+		/**
+		 * Compares the realisation with a reasoner over the whole ontology
+		 *
+		 * @param reference a reasoner for the whole ontology
+		 * @return a description of every individual whose types differ, or of the
+		 *         consistency if it differs (empty if the results agree)
+		 */
+		public List<String> differences(OWLReasoner reference) {
+			List<String> differences = new ArrayList<String>();
+			if (consistent != reference.isConsistent()) {
+				differences.add("consistency: " + consistent + " instead of " + !consistent);
+				return differences;
+			}
+			if (!consistent)
+				return differences;
+			for (OWLNamedIndividual i : (Iterable<OWLNamedIndividual>) reference.getRootOntology()
+					.individualsInSignature(Imports.INCLUDED)::iterator) {
+				Set<OWLClass> expected = reference.getTypes(i, false).entities().filter(c -> !c.isOWLThing())
+						.collect(Collectors.toSet());
+				if (!contains(i))
+					differences.add(i + " was not realised");
+				else if (!expected.equals(typesOf(i)))
+					differences.add(i + " types: " + typesOf(i) + " instead of " + expected);
+			}
+			return differences;
+		}
+	}
+}
@@ -0,0 +1,428 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Asynchronous query API over an OWLAPILiteReasoner. Each query returns a
+ * CompletableFuture and runs on an executor, by default one virtual thread per
+ * query, so callers such as a web tier do not tie up a platform thread while
+ * the reasoner works.
+ *
+ * OWL reasoners are not thread safe, so the queries of one AsyncReasoner are
+ * evaluated one at a time, under a lock which can be shared with other users
+ * of the reasoner (OWLAPILiteFactory passes the lock under which it changes
+ * the ontologies). Identical queries which are requested while the
+ * same query is still pending or running share a single evaluation. Cancelling
+ * a returned future detaches that caller; once every caller of an evaluation
+ * has cancelled, the evaluation is cancelled too (interrupting the thread and
+ * the underlying OWLReasoner if it is already running).
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class AsyncReasoner implements AutoCloseable {
+	/**
+	 * the reasoner which answers the queries (replaced under the lock, see
+	 * setReasoner)
+	 */
+	private volatile OWLAPILiteReasoner reasoner;
+	/**
+	 * the executor which runs the queries
+	 */
+	private final ExecutorService executor;
+	/**
+	 * whether the executor was created by (and is shut down with) this instance
+	 */
+	private final boolean ownsExecutor;
+	/**
+	 * serialises access to the reasoner (and the shared parser)
+	 */
+	private final Lock lock;
+	/**
+	 * the evaluation currently running on the reasoner (guarded by
+	 * runningGuard)
+	 */
+	private Evaluation<?> current;
+	/**
+	 * guards current, so that a cancelled evaluation can only interrupt the
+	 * reasoner while it is still the one running
+	 */
+	private final Object runningGuard = new Object();
+	/**
+	 * pending or running evaluations by query key
+	 */
+	private final ConcurrentHashMap<String, Evaluation<?>> inFlight = new ConcurrentHashMap<String, Evaluation<?>>();
+	/**
+	 * number of requests which joined an evaluation that was already in flight
+	 */
+	private final AtomicLong coalesced = new AtomicLong();
+
+	/**
+	 * AsyncReasoner constructor which runs each query on a new virtual thread
+	 *
+	 * @param reasoner the OWLAPILiteReasoner to query
+	 */
+	public AsyncReasoner(OWLAPILiteReasoner reasoner) {
+		this(reasoner, Executors.newVirtualThreadPerTaskExecutor(), true, new ReentrantLock());
+	}
+
+	/**
+	 * AsyncReasoner constructor which runs each query on a new virtual thread
+	 *
+	 * @param reasoner the OWLAPILiteReasoner to query
+	 * @param lock     the lock held while a query uses the reasoner, shared with
+	 *                 the other code which uses or changes it
+	 */
+	public AsyncReasoner(OWLAPILiteReasoner reasoner, Lock lock) {
+		this(reasoner, Executors.newVirtualThreadPerTaskExecutor(), true, lock);
+	}
+
+	/**
+	 * AsyncReasoner constructor
+	 *
+	 * @param reasoner the OWLAPILiteReasoner to query
+	 * @param executor the executor to run queries on (not shut down by close)
+	 */
+	public AsyncReasoner(OWLAPILiteReasoner reasoner, ExecutorService executor) {
+		this(reasoner, executor, false, new ReentrantLock());
+	}
+
+	/**
+	 * AsyncReasoner constructor
+	 *
+	 * @param reasoner the OWLAPILiteReasoner to query
+	 * @param executor the executor to run queries on (not shut down by close)
+	 * @param lock     the lock held while a query uses the reasoner, shared with
+	 *                 the other code which uses or changes it
+	 */
+	public AsyncReasoner(OWLAPILiteReasoner reasoner, ExecutorService executor, Lock lock) {
+		this(reasoner, executor, false, lock);
+	}
+
+	private AsyncReasoner(OWLAPILiteReasoner reasoner, ExecutorService executor, boolean ownsExecutor, Lock lock) {
+		this.reasoner = reasoner;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.lock = lock;
+	}
+
+	/**
+	 * @return the OWLAPILiteReasoner answering the queries
+	 */
+	public OWLAPILiteReasoner getReasoner() {
+		return reasoner;
+	}
+
+	/**
+	 * Points this instance at another reasoner, e.g. after the reasoner of the
+	 * workspace was replaced. Call it while holding the lock, so that no query is
+	 * using the old reasoner; queries which are still waiting for the lock run on
+	 * the new one.
+	 *
+	 * @param reasoner the OWLAPILiteReasoner to query from now on
+	 */
+	public void setReasoner(OWLAPILiteReasoner reasoner) {
+		this.reasoner = reasoner;
+	}
+
+	/**
+	 * @return the number of requests which shared an evaluation already in flight
+	 */
+	public long getCoalesced() {
+		return coalesced.get();
+	}
+
+	/**
+	 * @return the number of evaluations currently pending or running
+	 */
+	public int getInFlight() {
+		return inFlight.size();
+	}
+
+	/**
+	 * Computes all atomic subclasses (direct and indirect) of a class expression
+	 *
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @return a future of the subclasses
+	 */
+	public CompletableFuture<Set<OWLClass>> subClasses(String classEx) {
+		return submit("subClasses", classEx, () -> reasoner.subClassesOf(classEx));
+	}
+
+	/**
+	 * Computes all atomic superclasses (direct and indirect) of a class expression
+	 *
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @return a future of the superclasses
+	 */
+	public CompletableFuture<Set<OWLClass>> superClasses(String classEx) {
+		return submit("superClasses", classEx, () -> reasoner.superClassesOf(classEx));
+	}
+
+	/**
+	 * Computes all instances of a class expression
+	 *
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @return a future of the instances
+	 */
+	public CompletableFuture<Set<OWLNamedIndividual>> instances(String classEx) {
+		return submit("instances", classEx, () -> reasoner.instancesOf(classEx));
+	}
+
+	/**
+	 * Computes all atomic types of an individual
+	 *
+	 * @param ind an individual name in the ontology
+	 * @return a future of the types
+	 */
+	public CompletableFuture<Set<OWLClass>> types(String ind) {
+		return submit("types", ind, () -> reasoner.typesOf(ind));
+	}
+
+	/**
+	 * Checks whether an axiom is entailed by the ontology
+	 *
+	 * @param axiomStr an axiom in Manchester OWL Syntax
+	 * @return a future which completes with true if the axiom is entailed
+	 */
+	public CompletableFuture<Boolean> isEntailed(String axiomStr) {
+		return submit("isEntailed", axiomStr, () -> reasoner.entails(axiomStr));
+	}
+
+	/**
+	 * Computes the explanations (justifications) for the entailment of an axiom
+	 *
+	 * @param axiomStr an axiom in Manchester OWL Syntax
+	 * @return a future of the justifications
+	 */
+	public CompletableFuture<Set<Set<OWLAxiom>>> explanations(String axiomStr) {
+		return submit("explanations", axiomStr, () -> reasoner.explanationsOf(axiomStr));
+	}
+
+	/**
+	 * Computes the answers to a conjunctive query (see ConjunctiveQuery)
+	 *
+	 * @param query comma separated concept and role atoms
+	 * @return a future of the answers, one map from variable name to individual
+	 *         per answer
+	 */
+	public CompletableFuture<List<Map<String, OWLNamedIndividual>>> answers(String query) {
+		return submit("answers", query, () -> reasoner.answersOf(query));
+	}
+
+	/**
+	 * Checks whether the ontology is consistent
+	 *
+	 * @return a future which completes with true if the ontology is consistent
+	 */
+	public CompletableFuture<Boolean> isConsistent() {
+		return submit("isConsistent", "", () -> {
+			reasoner.reasoner.flush();
+			return reasoner.reasoner.isConsistent();
+		});
+	}
+
+	/**
+	 * Streams the instances of a class expression with backpressure. Results are
+	 * computed as the subscriber requests them (see QueryPublisher).
+	 *
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @return a publisher of the instances
+	 */
+	public Flow.Publisher<OWLNamedIndividual> instancesPublisher(String classEx) {
+		return new QueryPublisher<OWLNamedIndividual>(() -> reasoner.instancesStream(classEx), executor, lock);
+	}
+
+	/**
+	 * Streams the atomic subclasses (direct and indirect) of a class expression
+	 * with backpressure
+	 *
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @return a publisher of the subclasses
+	 */
+	public Flow.Publisher<OWLClass> subClassesPublisher(String classEx) {
+		return new QueryPublisher<OWLClass>(() -> reasoner.subClassesStream(classEx), executor, lock);
+	}
+
+	/**
+	 * Streams the entailed assertions of an object property with backpressure.
+	 * The property values of each individual are only computed once the
+	 * subscriber has requested that far.
+	 *
+	 * @param opropStr string representing an object property
+	 * @return a publisher of the object property assertions
+	 */
+	public Flow.Publisher<OWLObjectPropertyAssertionAxiom> objectPropertyAssertionsPublisher(String opropStr) {
+		return new QueryPublisher<OWLObjectPropertyAssertionAxiom>(
+				() -> reasoner.objectPropertyAssertionsStream(opropStr), executor, lock);
+	}
+
+	/**
+	 * Runs a query, or joins the evaluation of an identical query in flight, and
+	 * returns a future for this caller
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> CompletableFuture<T> submit(String operation, String argument, Callable<T> query) {
+		String key = operation + '\u0000' + argument;
+		Evaluation<T> evaluation = (Evaluation<T>) inFlight.compute(key, (k, existing) -> {
+			if (existing != null && existing.join()) {
+				coalesced.incrementAndGet();
+				return existing;
+			}
+			Evaluation<T> created = new Evaluation<T>(key);
+			created.task = executor.submit(() -> created.run(query));
+			return created;
+		});
+		CompletableFuture<T> caller = new CompletableFuture<T>() {
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				boolean cancelled = super.cancel(mayInterruptIfRunning);
+				if (cancelled)
+					evaluation.leave();
+				return cancelled;
+			}
+		};
+		evaluation.result.whenComplete((value, error) -> {
+			if (error != null)
+				caller.completeExceptionally(error);
+			else
+				caller.complete(value);
+		});
+		return caller;
+	}
+
+	/**
+	 * Shuts down the executor if it was created by this instance. Queries which
+	 * have not started yet are cancelled.
+	 */
+	@Override
+	public void close() {
+		if (ownsExecutor)
+			executor.shutdownNow();
+	}
+
+	/**
+	 * A single evaluation of a query, shared by all callers which requested it
+	 * while it was in flight
+	 */
+	private final class Evaluation<T> {
+		private final String key;
+		private final CompletableFuture<T> result = new CompletableFuture<T>();
+		private final AtomicInteger callers = new AtomicInteger(1);
+		private volatile Future<?> task;
+
+		Evaluation(String key) {
+			this.key = key;
+			result.whenComplete((value, error) -> inFlight.remove(key, this));
+		}
+
+		/**
+		 * Adds a caller, unless the evaluation has finished or been abandoned
+		 */
+		boolean join() {
+			int n;
+			do {
+				n = callers.get();
+				if (n == 0 || result.isDone())
+					return false;
+			} while (!callers.compareAndSet(n, n + 1));
+			return true;
+		}
+
+		/**
+		 * Removes a caller and cancels the evaluation when none is left
+		 */
+		void leave() {
+			if (callers.decrementAndGet() > 0)
+				return;
+			result.cancel(false);
+			Future<?> t = task;
+			if (t != null)
+				t.cancel(true);
+			// only interrupt the reasoner while this evaluation is the one using it,
+			// so that a later query (or another holder of the lock) is not hit
+			synchronized (runningGuard) {
+				if (current == this) {
+					try {
+						reasoner.reasoner.interrupt();
+					} catch (RuntimeException e) {
+						// not every reasoner supports interruption
+					}
+				}
+			}
+		}
+
+		void run(Callable<T> query) {
+			try {
+				lock.lockInterruptibly();
+			} catch (InterruptedException e) {
+				result.cancel(false);
+				return;
+			}
+			try {
+				if (result.isDone())
+					return;
+				synchronized (runningGuard) {
+					current = this;
+				}
+				T value = query.call();
+				// leave inFlight before the callers see the result (completion
+				// runs the dependants newest first, so the callback above is last)
+				inFlight.remove(key, this);
+				result.complete(value);
+			} catch (Throwable t) {
+				inFlight.remove(key, this);
+				result.completeExceptionally(t);
+			} finally {
+				synchronized (runningGuard) {
+					if (current == this)
+						current = null;
+				}
+				lock.unlock();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return key;
+		}
+	}
+}
@@ -0,0 +1,497 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyExpression;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNaryAxiom;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubDataPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLUnaryPropertyAxiom;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Encodes common axioms as compact binary records of int string ids and decodes
+ * them again. Only axioms whose operands are all named entities (or literals)
+ * and which carry no axiom annotations have a compact encoding; callers are
+ * expected to serialise any other axiom some other way. Strings (IRIs, lexical
+ * forms, language tags) are interned in a string table which the caller writes
+ * alongside the records.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class AxiomCodec {
+	/**
+	 * record tags
+	 */
+	static final byte END = 0;
+	static final byte DECLARATION = 1;
+	static final byte SUBCLASS_OF = 2;
+	static final byte EQUIVALENT_CLASSES = 3;
+	static final byte DISJOINT_CLASSES = 4;
+	static final byte CLASS_ASSERTION = 5;
+	static final byte OBJECT_PROPERTY_ASSERTION = 6;
+	static final byte DATA_PROPERTY_ASSERTION = 7;
+	static final byte SUB_OBJECT_PROPERTY = 8;
+	static final byte SUB_DATA_PROPERTY = 9;
+	static final byte OBJECT_PROPERTY_DOMAIN = 10;
+	static final byte OBJECT_PROPERTY_RANGE = 11;
+	static final byte ANNOTATION_ASSERTION = 12;
+	static final byte PROPERTY_CHARACTERISTIC = 13;
+	static final byte SAME_INDIVIDUAL = 14;
+	static final byte DIFFERENT_INDIVIDUALS = 15;
+	/**
+	 * string id used for an absent string (e.g. no language tag)
+	 */
+	static final int NONE = -1;
+	/**
+	 * entity types in the order of their encoded index
+	 */
+	private static final List<EntityType<?>> ENTITY_TYPES = List.of(EntityType.CLASS, EntityType.OBJECT_PROPERTY,
+			EntityType.DATA_PROPERTY, EntityType.ANNOTATION_PROPERTY, EntityType.NAMED_INDIVIDUAL,
+			EntityType.DATATYPE);
+	/**
+	 * property characteristic axiom types in the order of their encoded index
+	 */
+	private static final List<AxiomType<?>> CHARACTERISTICS = List.of(AxiomType.TRANSITIVE_OBJECT_PROPERTY,
+			AxiomType.SYMMETRIC_OBJECT_PROPERTY, AxiomType.ASYMMETRIC_OBJECT_PROPERTY,
+			AxiomType.REFLEXIVE_OBJECT_PROPERTY, AxiomType.IRREFLEXIVE_OBJECT_PROPERTY,
+			AxiomType.FUNCTIONAL_OBJECT_PROPERTY, AxiomType.INVERSE_FUNCTIONAL_OBJECT_PROPERTY,
+			AxiomType.FUNCTIONAL_DATA_PROPERTY);
+	/**
+	 * OWLDataFactory used when decoding
+	 */
+	private final OWLDataFactory dataFactory;
+	/**
+	 * string table: id to string
+	 */
+	private final List<String> strings = new ArrayList<String>();
+	/**
+	 * string table: string to id (only used when encoding)
+	 */
+	private final Map<String, Integer> ids = new HashMap<String, Integer>();
+	/**
+	 * IRIs created for string ids while decoding, so that each IRI is created once
+	 */
+	private final List<IRI> iris = new ArrayList<IRI>();
+
+	/**
+	 * AxiomCodec constructor
+	 *
+	 * @param dataFactory the OWLDataFactory used to create decoded axioms
+	 */
+	public AxiomCodec(OWLDataFactory dataFactory) {
+		this.dataFactory = dataFactory;
+	}
+
+	/**
+	 * @return the number of strings in the string table
+	 */
+	public int stringCount() {
+		return strings.size();
+	}
+
+	/**
+	 * Returns a string from the string table
+	 *
+	 * @param id a string id
+	 * @return the string with this id
+	 */
+	public String getString(int id) {
+		return strings.get(id);
+	}
+
+	/**
+	 * Returns the id of a string, adding it to the string table if necessary
+	 *
+	 * @param s a string
+	 * @return the string id
+	 */
+	public int intern(String s) {
+		Integer id = ids.get(s);
+		if (id == null) {
+			id = strings.size();
+			strings.add(s);
+			ids.put(s, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the IRI for a string id, creating it only once
+	 *
+	 * @param id a string id
+	 * @return the IRI
+	 */
+	public IRI getIRI(int id) {
+		while (iris.size() <= id)
+			iris.add(null);
+		IRI iri = iris.get(id);
+		if (iri == null) {
+			iri = IRI.create(strings.get(id));
+			iris.set(id, iri);
+		}
+		return iri;
+	}
+
+	/**
+	 * Writes the strings with ids from (inclusive) onwards as a count followed by
+	 * length-prefixed UTF-8 strings
+	 *
+	 * @param out  the output to write to
+	 * @param from the first string id to write
+	 * @throws IOException if writing fails
+	 */
+	public void writeStrings(DataOutput out, int from) throws IOException {
+		out.writeInt(strings.size() - from);
+		for (int i = from; i < strings.size(); i++) {
+			byte[] bytes = strings.get(i).getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Reads strings written by writeStrings and appends them to the string table
+	 *
+	 * @param in the buffer to read from
+	 */
+	public void readStrings(ByteBuffer in) {
+		int count = in.getInt();
+		for (int i = 0; i < count; i++) {
+			byte[] bytes = new byte[in.getInt()];
+			in.get(bytes);
+			intern(new String(bytes, StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Returns whether an axiom has a compact encoding
+	 *
+	 * @param axiom an OWLAxiom
+	 * @return true if encode would write a record for the axiom
+	 */
+	public boolean supports(OWLAxiom axiom) {
+		if (axiom.isAnnotated())
+			return false;
+		if (axiom instanceof OWLDeclarationAxiom)
+			return ENTITY_TYPES.contains(((OWLDeclarationAxiom) axiom).getEntity().getEntityType());
+		if (axiom instanceof OWLSubClassOfAxiom)
+			return named(((OWLSubClassOfAxiom) axiom).getSubClass()) && named(((OWLSubClassOfAxiom) axiom).getSuperClass());
+		if (axiom.isOfType(AxiomType.EQUIVALENT_CLASSES, AxiomType.DISJOINT_CLASSES, AxiomType.SAME_INDIVIDUAL,
+				AxiomType.DIFFERENT_INDIVIDUALS))
+			return ((OWLNaryAxiom<?>) axiom).getOperandsAsList().stream().allMatch(o -> named((OWLObject) o));
+		if (axiom instanceof OWLClassAssertionAxiom)
+			return named(((OWLClassAssertionAxiom) axiom).getIndividual())
+					&& named(((OWLClassAssertionAxiom) axiom).getClassExpression());
+		if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+			OWLObjectPropertyAssertionAxiom a = (OWLObjectPropertyAssertionAxiom) axiom;
+			return named(a.getSubject()) && named(a.getProperty()) && named(a.getObject());
+		}
+		if (axiom instanceof OWLDataPropertyAssertionAxiom)
+			return named(((OWLDataPropertyAssertionAxiom) axiom).getSubject());
+		if (axiom instanceof OWLSubObjectPropertyOfAxiom)
+			return named(((OWLSubObjectPropertyOfAxiom) axiom).getSubProperty())
+					&& named(((OWLSubObjectPropertyOfAxiom) axiom).getSuperProperty());
+		if (axiom instanceof OWLSubDataPropertyOfAxiom)
+			return true;
+		if (axiom instanceof OWLObjectPropertyDomainAxiom)
+			return named(((OWLObjectPropertyDomainAxiom) axiom).getProperty())
+					&& named(((OWLObjectPropertyDomainAxiom) axiom).getDomain());
+		if (axiom instanceof OWLObjectPropertyRangeAxiom)
+			return named(((OWLObjectPropertyRangeAxiom) axiom).getProperty())
+					&& named(((OWLObjectPropertyRangeAxiom) axiom).getRange());
+		if (axiom instanceof OWLAnnotationAssertionAxiom) {
+			OWLAnnotationAssertionAxiom a = (OWLAnnotationAssertionAxiom) axiom;
+			return a.getSubject().isIRI() && (a.getValue().isIRI() || a.getValue().isLiteral());
+		}
+		if (CHARACTERISTICS.contains(axiom.getAxiomType()))
+			return named(((OWLUnaryPropertyAxiom<?>) axiom).getProperty());
+		return false;
+	}
+
+	/**
+	 * Writes a compact record for an axiom
+	 *
+	 * @param axiom an OWLAxiom for which supports(axiom) is true
+	 * @param out   the output to write to
+	 * @throws IOException              if writing fails
+	 * @throws IllegalArgumentException if the axiom has no compact encoding
+	 */
+	public void encode(OWLAxiom axiom, DataOutput out) throws IOException {
+		if (!supports(axiom))
+			throw new IllegalArgumentException("No compact encoding for axiom: " + axiom);
+		if (axiom instanceof OWLDeclarationAxiom) {
+			OWLEntity e = ((OWLDeclarationAxiom) axiom).getEntity();
+			out.writeByte(DECLARATION);
+			out.writeByte(entityTypeIndex(e));
+			out.writeInt(id(e));
+		} else if (axiom instanceof OWLSubClassOfAxiom) {
+			OWLSubClassOfAxiom a = (OWLSubClassOfAxiom) axiom;
+			out.writeByte(SUBCLASS_OF);
+			out.writeInt(id(a.getSubClass()));
+			out.writeInt(id(a.getSuperClass()));
+		} else if (axiom.isOfType(AxiomType.EQUIVALENT_CLASSES, AxiomType.DISJOINT_CLASSES, AxiomType.SAME_INDIVIDUAL,
+				AxiomType.DIFFERENT_INDIVIDUALS)) {
+			List<?> operands = ((OWLNaryAxiom<?>) axiom).getOperandsAsList();
+			out.writeByte(axiom.isOfType(AxiomType.EQUIVALENT_CLASSES) ? EQUIVALENT_CLASSES
+					: axiom.isOfType(AxiomType.DISJOINT_CLASSES) ? DISJOINT_CLASSES
+							: axiom.isOfType(AxiomType.SAME_INDIVIDUAL) ? SAME_INDIVIDUAL : DIFFERENT_INDIVIDUALS);
+			out.writeInt(operands.size());
+			for (Object o : operands)
+				out.writeInt(id((OWLObject) o));
+		} else if (axiom instanceof OWLClassAssertionAxiom) {
+			OWLClassAssertionAxiom a = (OWLClassAssertionAxiom) axiom;
+			out.writeByte(CLASS_ASSERTION);
+			out.writeInt(id(a.getIndividual()));
+			out.writeInt(id(a.getClassExpression()));
+		} else if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+			OWLObjectPropertyAssertionAxiom a = (OWLObjectPropertyAssertionAxiom) axiom;
+			out.writeByte(OBJECT_PROPERTY_ASSERTION);
+			out.writeInt(id(a.getSubject()));
+			out.writeInt(id(a.getProperty()));
+			out.writeInt(id(a.getObject()));
+		} else if (axiom instanceof OWLDataPropertyAssertionAxiom) {
+			OWLDataPropertyAssertionAxiom a = (OWLDataPropertyAssertionAxiom) axiom;
+			out.writeByte(DATA_PROPERTY_ASSERTION);
+			out.writeInt(id(a.getSubject()));
+			out.writeInt(id(a.getProperty()));
+			writeLiteral(a.getObject(), out);
+		} else if (axiom instanceof OWLSubObjectPropertyOfAxiom) {
+			OWLSubObjectPropertyOfAxiom a = (OWLSubObjectPropertyOfAxiom) axiom;
+			out.writeByte(SUB_OBJECT_PROPERTY);
+			out.writeInt(id(a.getSubProperty()));
+			out.writeInt(id(a.getSuperProperty()));
+		} else if (axiom instanceof OWLSubDataPropertyOfAxiom) {
+			OWLSubDataPropertyOfAxiom a = (OWLSubDataPropertyOfAxiom) axiom;
+			out.writeByte(SUB_DATA_PROPERTY);
+			out.writeInt(id(a.getSubProperty()));
+			out.writeInt(id(a.getSuperProperty()));
+		} else if (axiom instanceof OWLObjectPropertyDomainAxiom) {
+			OWLObjectPropertyDomainAxiom a = (OWLObjectPropertyDomainAxiom) axiom;
+			out.writeByte(OBJECT_PROPERTY_DOMAIN);
+			out.writeInt(id(a.getProperty()));
+			out.writeInt(id(a.getDomain()));
+		} else if (axiom instanceof OWLObjectPropertyRangeAxiom) {
+			OWLObjectPropertyRangeAxiom a = (OWLObjectPropertyRangeAxiom) axiom;
+			out.writeByte(OBJECT_PROPERTY_RANGE);
+			out.writeInt(id(a.getProperty()));
+			out.writeInt(id(a.getRange()));
+		} else if (axiom instanceof OWLAnnotationAssertionAxiom) {
+			OWLAnnotationAssertionAxiom a = (OWLAnnotationAssertionAxiom) axiom;
+			out.writeByte(ANNOTATION_ASSERTION);
+			out.writeInt(intern(a.getSubject().asIRI().get().toString()));
+			out.writeInt(id(a.getProperty()));
+			OWLAnnotationValue value = a.getValue();
+			if (value.isIRI()) {
+				out.writeByte(0);
+				out.writeInt(intern(value.asIRI().get().toString()));
+			} else {
+				out.writeByte(1);
+				writeLiteral(value.asLiteral().get(), out);
+			}
+		} else {
+			out.writeByte(PROPERTY_CHARACTERISTIC);
+			out.writeByte(CHARACTERISTICS.indexOf(axiom.getAxiomType()));
+			out.writeInt(id(((OWLUnaryPropertyAxiom<?>) axiom).getProperty()));
+		}
+	}
+
+	/**
+	 * Reads the next record from a buffer
+	 *
+	 * @param in the buffer to read from, positioned at a record tag
+	 * @return the decoded OWLAxiom, or null if the END tag was read
+	 * @throws IllegalStateException if the record tag is unknown
+	 */
+	public OWLAxiom decode(ByteBuffer in) {
+		byte tag = in.get();
+		switch (tag) {
+		case END:
+			return null;
+		case DECLARATION:
+			byte type = in.get();
+			return dataFactory.getOWLDeclarationAxiom(entity(dataFactory, type, getIRI(in.getInt())));
+		case SUBCLASS_OF:
+			return dataFactory.getOWLSubClassOfAxiom(cls(in.getInt()), cls(in.getInt()));
+		case EQUIVALENT_CLASSES:
+		case DISJOINT_CLASSES: {
+			List<OWLClassExpression> classes = new ArrayList<OWLClassExpression>();
+			for (int i = in.getInt(); i > 0; i--)
+				classes.add(cls(in.getInt()));
+			return tag == EQUIVALENT_CLASSES ? dataFactory.getOWLEquivalentClassesAxiom(classes)
+					: dataFactory.getOWLDisjointClassesAxiom(classes);
+		}
+		case SAME_INDIVIDUAL:
+		case DIFFERENT_INDIVIDUALS: {
+			List<OWLIndividual> inds = new ArrayList<OWLIndividual>();
+			for (int i = in.getInt(); i > 0; i--)
+				inds.add(ind(in.getInt()));
+			return tag == SAME_INDIVIDUAL ? dataFactory.getOWLSameIndividualAxiom(inds)
+					: dataFactory.getOWLDifferentIndividualsAxiom(inds);
+		}
+		case CLASS_ASSERTION: {
+			OWLIndividual ind = ind(in.getInt());
+			return dataFactory.getOWLClassAssertionAxiom(cls(in.getInt()), ind);
+		}
+		case OBJECT_PROPERTY_ASSERTION: {
+			OWLIndividual subject = ind(in.getInt());
+			OWLObjectPropertyExpression property = dataFactory.getOWLObjectProperty(getIRI(in.getInt()));
+			return dataFactory.getOWLObjectPropertyAssertionAxiom(property, subject, ind(in.getInt()));
+		}
+		case DATA_PROPERTY_ASSERTION: {
+			OWLIndividual subject = ind(in.getInt());
+			OWLDataPropertyExpression property = dataFactory.getOWLDataProperty(getIRI(in.getInt()));
+			return dataFactory.getOWLDataPropertyAssertionAxiom(property, subject, readLiteral(in));
+		}
+		case SUB_OBJECT_PROPERTY:
+			return dataFactory.getOWLSubObjectPropertyOfAxiom(dataFactory.getOWLObjectProperty(getIRI(in.getInt())),
+					dataFactory.getOWLObjectProperty(getIRI(in.getInt())));
+		case SUB_DATA_PROPERTY:
+			return dataFactory.getOWLSubDataPropertyOfAxiom(dataFactory.getOWLDataProperty(getIRI(in.getInt())),
+					dataFactory.getOWLDataProperty(getIRI(in.getInt())));
+		case OBJECT_PROPERTY_DOMAIN:
+			return dataFactory.getOWLObjectPropertyDomainAxiom(dataFactory.getOWLObjectProperty(getIRI(in.getInt())),
+					cls(in.getInt()));
+		case OBJECT_PROPERTY_RANGE:
+			return dataFactory.getOWLObjectPropertyRangeAxiom(dataFactory.getOWLObjectProperty(getIRI(in.getInt())),
+					cls(in.getInt()));
+		case ANNOTATION_ASSERTION: {
+			IRI subject = getIRI(in.getInt());
+			IRI property = getIRI(in.getInt());
+			OWLAnnotationValue value = in.get() == 0 ? getIRI(in.getInt()) : readLiteral(in);
+			return dataFactory.getOWLAnnotationAssertionAxiom(dataFactory.getOWLAnnotationProperty(property), subject,
+					value);
+		}
+		case PROPERTY_CHARACTERISTIC:
+			return characteristic(CHARACTERISTICS.get(in.get()), getIRI(in.getInt()));
+		default:
+			throw new IllegalStateException("Unknown axiom record tag: " + tag);
+		}
+	}
+
+	/**
+	 * Returns the encoded index of the entity type of an entity
+	 *
+	 * @param entity an OWLEntity
+	 * @return the entity type index
+	 */
+	static byte entityTypeIndex(OWLEntity entity) {
+		return (byte) ENTITY_TYPES.indexOf(entity.getEntityType());
+	}
+
+	/**
+	 * Creates an entity from an encoded entity type index
+	 *
+	 * @param dataFactory the OWLDataFactory to create the entity with
+	 * @param type        the entity type index
+	 * @param iri         the IRI of the entity
+	 * @return the OWLEntity
+	 */
+	static OWLEntity entity(OWLDataFactory dataFactory, byte type, IRI iri) {
+		return dataFactory.getOWLEntity(ENTITY_TYPES.get(type), iri);
+	}
+
+	private OWLAxiom characteristic(AxiomType<?> type, IRI property) {
+		if (type == AxiomType.FUNCTIONAL_DATA_PROPERTY)
+			return dataFactory.getOWLFunctionalDataPropertyAxiom(dataFactory.getOWLDataProperty(property));
+		OWLObjectPropertyExpression p = dataFactory.getOWLObjectProperty(property);
+		if (type == AxiomType.TRANSITIVE_OBJECT_PROPERTY)
+			return dataFactory.getOWLTransitiveObjectPropertyAxiom(p);
+		if (type == AxiomType.SYMMETRIC_OBJECT_PROPERTY)
+			return dataFactory.getOWLSymmetricObjectPropertyAxiom(p);
+		if (type == AxiomType.ASYMMETRIC_OBJECT_PROPERTY)
+			return dataFactory.getOWLAsymmetricObjectPropertyAxiom(p);
+		if (type == AxiomType.REFLEXIVE_OBJECT_PROPERTY)
+			return dataFactory.getOWLReflexiveObjectPropertyAxiom(p);
+		if (type == AxiomType.IRREFLEXIVE_OBJECT_PROPERTY)
+			return dataFactory.getOWLIrreflexiveObjectPropertyAxiom(p);
+		if (type == AxiomType.FUNCTIONAL_OBJECT_PROPERTY)
+			return dataFactory.getOWLFunctionalObjectPropertyAxiom(p);
+		return dataFactory.getOWLInverseFunctionalObjectPropertyAxiom(p);
+	}
+
+	private void writeLiteral(OWLLiteral literal, DataOutput out) throws IOException {
+		out.writeInt(intern(literal.getLiteral()));
+		if (literal.hasLang()) {
+			out.writeInt(NONE);
+			out.writeInt(intern(literal.getLang()));
+		} else {
+			out.writeInt(intern(literal.getDatatype().getIRI().toString()));
+			out.writeInt(NONE);
+		}
+	}
+
+	private OWLLiteral readLiteral(ByteBuffer in) {
+		String lexical = strings.get(in.getInt());
+		int datatype = in.getInt();
+		int lang = in.getInt();
+		if (lang != NONE)
+			return dataFactory.getOWLLiteral(lexical, strings.get(lang));
+		return dataFactory.getOWLLiteral(lexical, dataFactory.getOWLDatatype(getIRI(datatype)));
+	}
+
+	private OWLClassExpression cls(int id) {
+		return dataFactory.getOWLClass(getIRI(id));
+	}
+
+	private OWLIndividual ind(int id) {
+		return dataFactory.getOWLNamedIndividual(getIRI(id));
+	}
+
+	/**
+	 * Interns the IRI of a named object (entity)
+	 */
+	private int id(OWLObject named) {
+		return intern(((OWLEntity) named).getIRI().toString());
+	}
+
+	private static boolean named(OWLObject o) {
+		return o instanceof OWLEntity;
+	}
+}
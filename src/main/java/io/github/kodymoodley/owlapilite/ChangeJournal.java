@@ -0,0 +1,512 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * An append-only write-ahead journal of the axiom changes made to an ontology.
+ * The journal listens to the ontology's manager, so every AddAxiom and
+ * RemoveAxiom (from createAxiom, createClass, removeAxiom etc.) is recorded.
+ * Changes are buffered and written in groups: a group is flushed when it
+ * reaches the group size, when the flush interval elapses, or on an explicit
+ * flush, and is forced to disk before flush returns. Writing costs O(changes)
+ * rather than the O(ontology) of a full save.
+ *
+ * Journal layout: a header (magic, version) followed by groups of [length,
+ * CRC32, payload]. A payload holds the strings added to the AxiomCodec string
+ * table since the previous group, the compact records (one op byte followed by
+ * an AxiomCodec record, ended by END) and two functional syntax documents with
+ * the added and removed axioms which have no compact encoding. Within a group
+ * only the last change to each axiom is kept, so adds and removes of a group
+ * commute and replaying a group is idempotent.
+ *
+ * Compaction writes the whole ontology to the base document (atomically) and
+ * then starts a fresh journal. It runs under a lock shared with the writers of
+ * the ontology (OWLAPILiteFactory passes its workspace lock), so the base
+ * document is never written while the ontology is being changed; a group flush
+ * which takes the journal over the compaction threshold leaves the compaction
+ * to the next explicit or timed flush. Replay applies the groups of an existing journal
+ * to the ontology loaded from the base document; a torn group at the end (from
+ * a crash during a write) fails its length or checksum test and is discarded.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class ChangeJournal implements OWLOntologyChangeListener {
+	/**
+	 * "OWJL"
+	 */
+	private static final int MAGIC = 0x4F574A4C;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 8;
+	/**
+	 * op byte of a record for an added axiom
+	 */
+	private static final byte ADD = 1;
+	/**
+	 * op byte of a record for a removed axiom
+	 */
+	private static final byte REMOVE = 2;
+	/**
+	 * default number of buffered changes which triggers a group flush
+	 */
+	public static final int DEFAULT_GROUP_SIZE = 1024;
+	/**
+	 * default maximum time (in ms) a change stays buffered
+	 */
+	public static final long DEFAULT_FLUSH_INTERVAL = 200;
+	/**
+	 * default journal size (in bytes) which triggers a compaction
+	 */
+	public static final long DEFAULT_COMPACTION_THRESHOLD = 64L << 20;
+
+	/**
+	 * the journaled ontology
+	 */
+	private final OWLOntology ontology;
+	/**
+	 * the journal file
+	 */
+	private final Path journal;
+	/**
+	 * the base document which compaction writes the ontology to
+	 */
+	private final Path base;
+	/**
+	 * the document format of the base document
+	 */
+	private final SelectedFormat format;
+	/**
+	 * string table shared by all groups of the journal
+	 */
+	private AxiomCodec codec;
+	/**
+	 * number of strings of the string table already in the journal
+	 */
+	private int writtenStrings;
+	/**
+	 * buffered changes: axiom to true (added) or false (removed), last change wins
+	 */
+	private final Map<OWLAxiom, Boolean> pending = new LinkedHashMap<OWLAxiom, Boolean>();
+	private FileChannel channel;
+	private ScheduledExecutorService timer;
+	private int groupSize = DEFAULT_GROUP_SIZE;
+	private long compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+	private long groups;
+	private long replayed;
+	/**
+	 * held while the journal replays into or saves the ontology, always taken
+	 * before the monitor of this journal
+	 */
+	private final Lock lock;
+
+	/**
+	 * ChangeJournal constructor. The journal is not active until open is called.
+	 *
+	 * @param ontology the ontology to journal
+	 * @param journal  the journal file
+	 * @param base     the base document of the ontology, written by compaction
+	 * @param format   the document format of the base document
+	 */
+	public ChangeJournal(OWLOntology ontology, Path journal, Path base, SelectedFormat format) {
+		this(ontology, journal, base, format, new ReentrantLock());
+	}
+
+	/**
+	 * ChangeJournal constructor. The journal is not active until open is called.
+	 *
+	 * @param ontology the ontology to journal
+	 * @param journal  the journal file
+	 * @param base     the base document of the ontology, written by compaction
+	 * @param format   the document format of the base document
+	 * @param lock     the lock held while the journal replays into or saves the
+	 *                 ontology, shared with the other writers of the ontology
+	 */
+	public ChangeJournal(OWLOntology ontology, Path journal, Path base, SelectedFormat format, Lock lock) {
+		this.lock = lock;
+		this.ontology = ontology;
+		this.journal = journal;
+		this.base = base;
+		this.format = format;
+	}
+
+	/**
+	 * Sets the number of buffered changes which triggers a group flush
+	 *
+	 * @param size the group size (at least 1)
+	 */
+	public synchronized void setGroupSize(int size) {
+		groupSize = Math.max(1, size);
+	}
+
+	/**
+	 * Sets the journal size which triggers a compaction after a flush
+	 *
+	 * @param bytes the threshold in bytes (0 or less disables automatic
+	 *              compaction)
+	 */
+	public synchronized void setCompactionThreshold(long bytes) {
+		compactionThreshold = bytes;
+	}
+
+	/**
+	 * @return the number of groups written since the journal was opened
+	 */
+	public synchronized long getGroups() {
+		return groups;
+	}
+
+	/**
+	 * @return the number of changes applied by replay when the journal was opened
+	 */
+	public synchronized long getReplayed() {
+		return replayed;
+	}
+
+	/**
+	 * @return the number of changes waiting to be flushed
+	 */
+	public synchronized int getPending() {
+		return pending.size();
+	}
+
+	/**
+	 * @return the journaled ontology
+	 */
+	public OWLOntology getOntology() {
+		return ontology;
+	}
+
+	/**
+	 * @return the current size of the journal file in bytes
+	 * @throws IOException if the size cannot be determined
+	 */
+	public synchronized long size() throws IOException {
+		return channel == null ? Files.size(journal) : channel.size();
+	}
+
+	/**
+	 * Replays an existing journal into the ontology and starts recording its
+	 * changes. Groups are flushed at least every flushInterval milliseconds.
+	 *
+	 * @param flushInterval maximum time (in ms) a change stays buffered; 0 or
+	 *                      less flushes only by group size or explicitly
+	 * @throws IOException if the journal cannot be read or created
+	 */
+	public void open(long flushInterval) throws IOException {
+		lock.lock();
+		try {
+			synchronized (this) {
+				openJournal(flushInterval);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void openJournal(long flushInterval) throws IOException {
+		if (channel != null)
+			return;
+		codec = new AxiomCodec(ontology.getOWLOntologyManager().getOWLDataFactory());
+		long valid = Files.exists(journal) && Files.size(journal) > 0 ? replay() : 0;
+		channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		if (valid == 0) {
+			channel.truncate(0);
+			channel.write(header(), 0);
+			channel.force(true);
+			valid = HEADER_BYTES;
+		} else {
+			// drop a torn group left behind by a crash
+			channel.truncate(valid);
+		}
+		channel.position(valid);
+		writtenStrings = codec.stringCount();
+		ontology.getOWLOntologyManager().addOntologyChangeListener(this);
+		if (flushInterval > 0) {
+			timer = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "owlapi-lite-journal");
+				t.setDaemon(true);
+				return t;
+			});
+			timer.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Flushes buffered changes and stops recording
+	 *
+	 * @throws IOException if the last group cannot be written
+	 */
+	public synchronized void close() throws IOException {
+		if (channel == null)
+			return;
+		ontology.getOWLOntologyManager().removeOntologyChangeListener(this);
+		if (timer != null) {
+			timer.shutdownNow();
+			timer = null;
+		}
+		try {
+			writeGroup();
+		} finally {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	@Override
+	public synchronized void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+		if (channel == null)
+			return;
+		for (OWLOntologyChange change : changes) {
+			if (!change.getOntology().getOntologyID().equals(ontology.getOntologyID()))
+				continue;
+			if (change.isAddAxiom())
+				pending.put(change.getAxiom(), Boolean.TRUE);
+			else if (change.isRemoveAxiom())
+				pending.put(change.getAxiom(), Boolean.FALSE);
+		}
+		// the listener may run under the monitor only, so compaction (which needs
+		// the lock first) is left to the next flush
+		if (pending.size() >= groupSize) {
+			try {
+				writeGroup();
+			} catch (IOException | RuntimeException e) {
+				reportWriteError(e);
+			}
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (IOException | RuntimeException e) {
+			reportWriteError(e);
+		}
+	}
+
+	private void reportWriteError(Exception e) {
+		System.out.println("OWLAPI-Lite ERROR: could not write to the change journal " + journal + " ("
+				+ e.getMessage() + ").");
+	}
+
+	/**
+	 * Writes the buffered changes as one group and forces it to disk. Compacts the
+	 * journal afterwards if it has grown beyond the compaction threshold.
+	 *
+	 * @throws IOException if the group cannot be written
+	 */
+	public void flush() throws IOException {
+		if (writeGroup())
+			compact();
+	}
+
+	/**
+	 * Writes the buffered changes as one group and forces it to disk
+	 *
+	 * @return true if the journal has grown beyond the compaction threshold
+	 */
+	private synchronized boolean writeGroup() throws IOException {
+		if (channel == null)
+			return false;
+		if (!pending.isEmpty())
+			writePending();
+		return compactionThreshold > 0 && channel.size() > compactionThreshold;
+	}
+
+	private void writePending() throws IOException {
+		ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+		DataOutputStream records = new DataOutputStream(recordBytes);
+		List<OWLAxiom> addedText = new ArrayList<OWLAxiom>();
+		List<OWLAxiom> removedText = new ArrayList<OWLAxiom>();
+		for (Map.Entry<OWLAxiom, Boolean> entry : pending.entrySet()) {
+			OWLAxiom axiom = entry.getKey();
+			if (codec.supports(axiom)) {
+				records.writeByte(entry.getValue() ? ADD : REMOVE);
+				codec.encode(axiom, records);
+			} else {
+				(entry.getValue() ? addedText : removedText).add(axiom);
+			}
+		}
+		records.writeByte(AxiomCodec.END);
+
+		ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(recordBytes.size() + 64);
+		DataOutputStream payload = new DataOutputStream(payloadBytes);
+		codec.writeStrings(payload, writtenStrings);
+		recordBytes.writeTo(payload);
+		writeText(payload, addedText);
+		writeText(payload, removedText);
+
+		byte[] bytes = payloadBytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		ByteBuffer group = ByteBuffer.allocate(8 + bytes.length);
+		group.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes).flip();
+		while (group.hasRemaining())
+			channel.write(group);
+		channel.force(false);
+		writtenStrings = codec.stringCount();
+		pending.clear();
+		groups++;
+	}
+
+	private static void writeText(DataOutputStream out, List<OWLAxiom> axioms) throws IOException {
+		byte[] text = WorkspaceSnapshot.functionalSyntax(axioms, Collections.emptyList());
+		out.writeInt(text.length);
+		out.write(text);
+	}
+
+	/**
+	 * Writes the whole ontology to the base document and starts a new, empty
+	 * journal. Buffered changes are part of the ontology and are therefore
+	 * included in the base document.
+	 *
+	 * @throws IOException if the base document or the journal cannot be written
+	 */
+	public void compact() throws IOException {
+		lock.lock();
+		try {
+			synchronized (this) {
+				compactJournal();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void compactJournal() throws IOException {
+		try {
+			OntologySaver.save(ontology, base, format, false);
+		} catch (OWLOntologyStorageException e) {
+			throw new IOException("Could not write the base document " + base, e);
+		}
+		// the base now holds everything in the journal: start over
+		pending.clear();
+		codec = new AxiomCodec(ontology.getOWLOntologyManager().getOWLDataFactory());
+		writtenStrings = 0;
+		if (channel != null) {
+			channel.truncate(0);
+			channel.write(header(), 0);
+			channel.force(true);
+			channel.position(HEADER_BYTES);
+		} else {
+			Files.write(journal, header().array());
+		}
+	}
+
+	private static ByteBuffer header() {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		header.putInt(MAGIC).putInt(VERSION).flip();
+		return header;
+	}
+
+	/**
+	 * Applies the groups of the journal file to the ontology
+	 *
+	 * @return the length of the valid prefix of the journal, or 0 if the file has
+	 *         no valid header
+	 */
+	private long replay() throws IOException {
+		ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(journal));
+		if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC)
+			throw new IOException(journal + " is not an OWLAPI-Lite change journal");
+		if (in.getInt() != VERSION)
+			throw new IOException("Unsupported change journal version in " + journal);
+		long valid = HEADER_BYTES;
+		while (in.remaining() >= 8) {
+			int length = in.getInt();
+			int checksum = in.getInt();
+			if (length < 0 || length > in.remaining())
+				break;
+			CRC32 crc = new CRC32();
+			crc.update(in.array(), in.position(), length);
+			if ((int) crc.getValue() != checksum)
+				break;
+			ByteBuffer payload = ByteBuffer.wrap(in.array(), in.position(), length).slice();
+			in.position(in.position() + length);
+			replayGroup(payload);
+			valid = in.position();
+		}
+		return valid;
+	}
+
+	private void replayGroup(ByteBuffer in) throws IOException {
+		codec.readStrings(in);
+		List<OWLAxiom> added = new ArrayList<OWLAxiom>();
+		List<OWLAxiom> removed = new ArrayList<OWLAxiom>();
+		byte op;
+		while ((op = in.get()) != AxiomCodec.END) {
+			// the codec reads the record tag itself
+			OWLAxiom axiom = codec.decode(in);
+			(op == ADD ? added : removed).add(axiom);
+		}
+		readText(in, added);
+		readText(in, removed);
+		ontology.removeAxioms(removed);
+		ontology.addAxioms(added);
+		replayed += added.size() + removed.size();
+	}
+
+	private static void readText(ByteBuffer in, List<OWLAxiom> axioms) throws IOException {
+		byte[] text = new byte[in.getInt()];
+		in.get(text);
+		if (text.length == 0)
+			return;
+		try {
+			OWLOntology parsed = OWLManager.createOWLOntologyManager()
+					.loadOntologyFromOntologyDocument(new ByteArrayInputStream(text));
+			// plain declarations always have a compact encoding, so any found here were
+			// added by the functional syntax writer
+			parsed.axioms().filter(a -> a.isAnnotated() || !(a instanceof OWLDeclarationAxiom)).forEach(axioms::add);
+		} catch (OWLOntologyCreationException e) {
+			throw new IOException("Could not replay axioms from the change journal", e);
+		}
+	}
+}
@@ -0,0 +1,257 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.formats.ManchesterSyntaxDocumentFormat;
+import org.semanticweb.owlapi.formats.NTriplesDocumentFormat;
+import org.semanticweb.owlapi.formats.OBODocumentFormat;
+import org.semanticweb.owlapi.formats.OWLXMLDocumentFormat;
+import org.semanticweb.owlapi.formats.RDFXMLDocumentFormat;
+import org.semanticweb.owlapi.formats.TurtleDocumentFormat;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Transparent compression for ontology documents using the codecs available in
+ * the JDK: gzip, zip (first file entry) and raw zlib deflate. Compressed input
+ * is recognised by its leading magic bytes, so the file name does not matter
+ * when loading; when saving, the codec is chosen from the file extension
+ * (.gz, .zip, .zz). All streams are buffered with large buffers.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public final class CompressedIO {
+	/**
+	 * no compression
+	 */
+	public static final String NONE = "none";
+	/**
+	 * gzip compression (magic bytes 1F 8B, extension .gz)
+	 */
+	public static final String GZIP = "gzip";
+	/**
+	 * zip archive holding the document as its first file (magic bytes 50 4B 03
+	 * 04, extension .zip)
+	 */
+	public static final String ZIP = "zip";
+	/**
+	 * zlib deflate stream (magic bytes 78 01, 78 5E, 78 9C or 78 DA, extension
+	 * .zz)
+	 */
+	public static final String DEFLATE = "deflate";
+	/**
+	 * size of the stream buffers in bytes
+	 */
+	public static final int BUFFER_SIZE = 1 << 16;
+
+	private CompressedIO() {
+	}
+
+	/**
+	 * Detects the compression of a file from its first bytes
+	 *
+	 * @param file the file to inspect
+	 * @return one of NONE, GZIP, ZIP or DEFLATE
+	 * @throws IOException if the file cannot be read
+	 */
+	public static String detect(Path file) throws IOException {
+		byte[] head = new byte[4];
+		int n = 0;
+		try (InputStream in = Files.newInputStream(file)) {
+			int r;
+			while (n < head.length && (r = in.read(head, n, head.length - n)) > 0)
+				n += r;
+		}
+		return detect(head, n);
+	}
+
+	/**
+	 * Detects the compression of a document from its first bytes
+	 *
+	 * @param head   the first bytes of the document
+	 * @param length the number of valid bytes in head
+	 * @return one of NONE, GZIP, ZIP or DEFLATE
+	 */
+	static String detect(byte[] head, int length) {
+		int b0 = length > 0 ? head[0] & 0xFF : -1;
+		int b1 = length > 1 ? head[1] & 0xFF : -1;
+		if (b0 == 0x1F && b1 == 0x8B)
+			return GZIP;
+		if (length > 3 && b0 == 'P' && b1 == 'K' && head[2] == 3 && head[3] == 4)
+			return ZIP;
+		if (b0 == 0x78 && (b1 == 0x01 || b1 == 0x5E || b1 == 0x9C || b1 == 0xDA))
+			return DEFLATE;
+		return NONE;
+	}
+
+	/**
+	 * Returns the codec implied by the extension of a file name
+	 *
+	 * @param file a file path
+	 * @return one of NONE, GZIP, ZIP or DEFLATE
+	 */
+	public static String codecForName(Path file) {
+		String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		if (name.endsWith(".gz") || name.endsWith(".gzip"))
+			return GZIP;
+		if (name.endsWith(".zip"))
+			return ZIP;
+		if (name.endsWith(".zz") || name.endsWith(".deflate"))
+			return DEFLATE;
+		return NONE;
+	}
+
+	/**
+	 * Opens a buffered stream over the decompressed content of a file
+	 *
+	 * @param file the file to read
+	 * @return an InputStream of the (decompressed) document
+	 * @throws IOException if the file cannot be read or a zip file has no file
+	 *                     entry
+	 */
+	public static InputStream openInput(Path file) throws IOException {
+		String codec = detect(file);
+		InputStream raw = Files.newInputStream(file);
+		try {
+			switch (codec) {
+			case GZIP:
+				return new BufferedInputStream(new GZIPInputStream(raw, BUFFER_SIZE), BUFFER_SIZE);
+			case DEFLATE:
+				return new BufferedInputStream(new InflaterInputStream(raw), BUFFER_SIZE);
+			case ZIP:
+				ZipInputStream zip = new ZipInputStream(new BufferedInputStream(raw, BUFFER_SIZE));
+				ZipEntry entry;
+				while ((entry = zip.getNextEntry()) != null) {
+					if (!entry.isDirectory())
+						return new BufferedInputStream(zip, BUFFER_SIZE);
+				}
+				throw new IOException("'" + file + "' does not contain a file");
+			default:
+				return new BufferedInputStream(raw, BUFFER_SIZE);
+			}
+		} catch (IOException e) {
+			raw.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens a buffered, compressing stream to a file
+	 *
+	 * @param file  the file to write
+	 * @param codec one of NONE, GZIP, ZIP or DEFLATE
+	 * @return an OutputStream which compresses what is written to it
+	 * @throws IOException if the file cannot be created
+	 */
+	public static OutputStream openOutput(Path file, String codec) throws IOException {
+		return openOutput(file, codec, file);
+	}
+
+	/**
+	 * Opens a buffered, compressing stream to a file which will later replace
+	 * another one (e.g. a temporary file)
+	 *
+	 * @param file   the file to write
+	 * @param codec  one of NONE, GZIP, ZIP or DEFLATE
+	 * @param target the file the document is written for, which names the entry
+	 *               of a zip archive
+	 * @return an OutputStream which compresses what is written to it
+	 * @throws IOException if the file cannot be created
+	 */
+	public static OutputStream openOutput(Path file, String codec, Path target) throws IOException {
+		OutputStream out = Files.newOutputStream(file);
+		switch (codec) {
+		case GZIP:
+			out = new GZIPOutputStream(out, BUFFER_SIZE);
+			break;
+		case DEFLATE:
+			out = new DeflaterOutputStream(out);
+			break;
+		case ZIP:
+			ZipOutputStream zip = new ZipOutputStream(out);
+			zip.putNextEntry(new ZipEntry(stripCompressionExtension(target).getFileName().toString()));
+			out = zip;
+			break;
+		default:
+			break;
+		}
+		return new BufferedOutputStream(out, BUFFER_SIZE);
+	}
+
+	/**
+	 * Guesses the document format of a (possibly compressed) file from the
+	 * extension preceding any compression extension, e.g. ttl for a.ttl.gz.
+	 * Extensions used for several formats (.owl, .xml) give no hint, so the
+	 * parsers detect the format from the content
+	 *
+	 * @param file a file path
+	 * @return an OWLDocumentFormat, or null if the extension does not identify
+	 *         one format
+	 */
+	public static OWLDocumentFormat formatHint(Path file) {
+		String name = stripCompressionExtension(file).getFileName().toString().toLowerCase(Locale.ROOT);
+		String extension = name.substring(name.lastIndexOf('.') + 1);
+		switch (extension) {
+		case "rdf":
+			return new RDFXMLDocumentFormat();
+		case "owx":
+			return new OWLXMLDocumentFormat();
+		case "ttl":
+			return new TurtleDocumentFormat();
+		case "nt":
+			return new NTriplesDocumentFormat();
+		case "ofn":
+			return new FunctionalSyntaxDocumentFormat();
+		case "omn":
+			return new ManchesterSyntaxDocumentFormat();
+		case "obo":
+			return new OBODocumentFormat();
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Removes a compression extension (.gz, .zip, .zz ...) from a file name
+	 */
+	private static Path stripCompressionExtension(Path file) {
+		if (codecForName(file).equals(NONE))
+			return file;
+		String name = file.getFileName().toString();
+		return file.resolveSibling(name.substring(0, name.lastIndexOf('.')));
+	}
+}
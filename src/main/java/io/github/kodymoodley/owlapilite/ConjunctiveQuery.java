@@ -0,0 +1,561 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * A conjunctive query (a basic graph pattern) over the ABox of the ontology of
+ * an OWLAPILiteReasoner. A query is a comma separated list of atoms:
+ * 
+ * <pre>
+ * ?x worksFor ?y, ?y locatedIn ?z, ?z Type: Country
+ * </pre>
+ * 
+ * A concept atom ("term Type: classExpression", or "term : classExpression")
+ * takes any class expression in Manchester OWL Syntax and is answered by the
+ * reasoner. A role atom ("term property term") is answered from the asserted
+ * object property assertions of the property and its sub-properties (including
+ * the off-heap ABox store); other property axioms such as transitivity or
+ * property chains are not applied. Terms are variables (starting with '?') or
+ * individual names.
+ * 
+ * Evaluation first materialises an index per atom (the instances of each class
+ * expression and the subject/object adjacency of each property). Atoms are then
+ * split into independent branches which share no variables; the branches are
+ * joined in parallel (without touching the reasoner) and combined. Within a
+ * branch, atoms are ordered greedily by their estimated number of results,
+ * preferring atoms which only filter bindings and atoms connected to variables
+ * which are already bound.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class ConjunctiveQuery {
+	/**
+	 * concept atom: term, then "Type:" or ":", then a class expression
+	 */
+	private static final Pattern CONCEPT_ATOM = Pattern.compile("^(\\S+)\\s+(?:Type:|:)\\s*(.+)$", Pattern.DOTALL);
+	/**
+	 * the reasoner answering concept atoms
+	 */
+	private final OWLAPILiteReasoner reasoner;
+	/**
+	 * the query string
+	 */
+	private final String query;
+	/**
+	 * variable names (without '?') in order of first appearance
+	 */
+	private final List<String> variables = new ArrayList<String>();
+	/**
+	 * the atoms of the query
+	 */
+	private final List<Atom> atoms = new ArrayList<Atom>();
+	/**
+	 * the atoms of each branch in join order, after evaluation
+	 */
+	private final List<List<String>> plan = new ArrayList<List<String>>();
+
+	/**
+	 * ConjunctiveQuery constructor
+	 * 
+	 * @param reasoner the OWLAPILiteReasoner whose ontology is queried
+	 * @param query    comma separated concept and role atoms
+	 * @throws IllegalArgumentException if an atom is malformed
+	 * @throws org.semanticweb.owlapi.io.OWLParserException if a class expression
+	 *                                                      cannot be parsed
+	 */
+	public ConjunctiveQuery(OWLAPILiteReasoner reasoner, String query) {
+		this.reasoner = reasoner;
+		this.query = query;
+		for (String atom : splitAtoms(query))
+			atoms.add(parseAtom(atom));
+		if (atoms.isEmpty())
+			throw new IllegalArgumentException("the query has no atoms");
+	}
+
+	/**
+	 * @return the variable names of the query (without '?') in order of first
+	 *         appearance
+	 */
+	public List<String> getVariables() {
+		return Collections.unmodifiableList(variables);
+	}
+
+	/**
+	 * @return the atoms of each independent branch in the order they were joined
+	 *         (empty before the first evaluation)
+	 */
+	public List<List<String>> getPlan() {
+		synchronized (plan) {
+			return new ArrayList<List<String>>(plan);
+		}
+	}
+
+	/**
+	 * Evaluates the query, joining independent branches in parallel on the common
+	 * fork/join pool
+	 * 
+	 * @return one map from variable name to individual per answer
+	 */
+	public List<Map<String, OWLNamedIndividual>> evaluate() {
+		return evaluate(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Evaluates the query. The reasoner is only used by the calling thread; the
+	 * joins of independent branches run on the given executor.
+	 * 
+	 * @param executor the executor on which branches are joined
+	 * @return one map from variable name to individual per answer
+	 */
+	public List<Map<String, OWLNamedIndividual>> evaluate(Executor executor) {
+		Map<OWLObjectProperty, RoleIndex> roles = new HashMap<OWLObjectProperty, RoleIndex>();
+		for (Atom atom : atoms)
+			atom.materialise(roles);
+		for (Atom atom : atoms)
+			if (atom.isGround() && !atom.holds(new int[0]))
+				return Collections.emptyList();
+		List<List<Atom>> branches = branches();
+		List<List<String>> branchPlans = new ArrayList<List<String>>();
+		List<CompletableFuture<List<int[]>>> joins = new ArrayList<CompletableFuture<List<int[]>>>();
+		for (List<Atom> branch : branches) {
+			List<Atom> order = order(branch);
+			branchPlans.add(order.stream().map(a -> a.text).collect(Collectors.toList()));
+			joins.add(CompletableFuture.supplyAsync(() -> join(order), executor));
+		}
+		synchronized (plan) {
+			plan.clear();
+			plan.addAll(branchPlans);
+		}
+		List<int[]> rows = Collections.singletonList(unbound());
+		try {
+			for (CompletableFuture<List<int[]>> join : joins)
+				rows = combine(rows, join.join());
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+		List<Map<String, OWLNamedIndividual>> answers = new ArrayList<Map<String, OWLNamedIndividual>>(rows.size());
+		for (int[] row : rows) {
+			Map<String, OWLNamedIndividual> answer = new LinkedHashMap<String, OWLNamedIndividual>();
+			for (int v = 0; v < variables.size(); v++)
+				answer.put(variables.get(v),
+						OWLAPILiteReasoner.dataFactory.getOWLNamedIndividual(reasoner.dictionary.getIRI(row[v])));
+			answers.add(answer);
+		}
+		return answers;
+	}
+
+	@Override
+	public String toString() {
+		return query;
+	}
+
+	/**
+	 * Helper method to split a query into atoms at commas outside of braces and
+	 * parentheses (which may occur in class expressions)
+	 */
+	private static List<String> splitAtoms(String query) {
+		List<String> parts = new ArrayList<String>();
+		int depth = 0;
+		int start = 0;
+		for (int i = 0; i < query.length(); i++) {
+			char c = query.charAt(i);
+			if (c == '(' || c == '{')
+				depth++;
+			else if (c == ')' || c == '}')
+				depth--;
+			else if (c == ',' && depth == 0) {
+				parts.add(query.substring(start, i));
+				start = i + 1;
+			}
+		}
+		parts.add(query.substring(start));
+		return parts.stream().map(String::trim).filter(p -> !p.isEmpty()).collect(Collectors.toList());
+	}
+
+	/**
+	 * Helper method to parse a single atom
+	 */
+	private Atom parseAtom(String text) {
+		Matcher concept = CONCEPT_ATOM.matcher(text);
+		if (concept.matches())
+			return new Atom(text, term(concept.group(1)), null, reasoner.parser.createClassExpression(concept.group(2)),
+					null);
+		String[] tokens = text.split("\\s+");
+		if (tokens.length != 3)
+			throw new IllegalArgumentException("'" + text + "' is neither a concept atom nor a role atom");
+		OWLObjectProperty property = OWLAPILiteReasoner.dataFactory.getOWLObjectProperty(reasoner.entityIRI(tokens[1]));
+		return new Atom(text, term(tokens[0]), term(tokens[2]), null, property);
+	}
+
+	/**
+	 * Helper method to parse a variable or individual name
+	 */
+	private Term term(String token) {
+		if (token.startsWith("?")) {
+			String name = token.substring(1);
+			if (name.isEmpty())
+				throw new IllegalArgumentException("empty variable name");
+			int v = variables.indexOf(name);
+			if (v < 0) {
+				v = variables.size();
+				variables.add(name);
+			}
+			return new Term(v, -1);
+		}
+		return new Term(-1, reasoner.dictionary.encode(reasoner.entityIRI(token)));
+	}
+
+	/**
+	 * Helper method to group the non-ground atoms into branches which share no
+	 * variables
+	 */
+	private List<List<Atom>> branches() {
+		int[] parent = new int[variables.size()];
+		for (int v = 0; v < parent.length; v++)
+			parent[v] = v;
+		for (Atom atom : atoms)
+			if (atom.subject.var >= 0 && atom.object != null && atom.object.var >= 0)
+				parent[find(parent, atom.subject.var)] = find(parent, atom.object.var);
+		Map<Integer, List<Atom>> branches = new LinkedHashMap<Integer, List<Atom>>();
+		for (Atom atom : atoms) {
+			int v = atom.subject.var >= 0 ? atom.subject.var : atom.object != null ? atom.object.var : -1;
+			if (v >= 0)
+				branches.computeIfAbsent(find(parent, v), k -> new ArrayList<Atom>()).add(atom);
+		}
+		return new ArrayList<List<Atom>>(branches.values());
+	}
+
+	private static int find(int[] parent, int v) {
+		while (parent[v] != v) {
+			parent[v] = parent[parent[v]];
+			v = parent[v];
+		}
+		return v;
+	}
+
+	/**
+	 * Helper method to order the atoms of a branch greedily by estimated cost
+	 */
+	private static List<Atom> order(List<Atom> branch) {
+		List<Atom> remaining = new ArrayList<Atom>(branch);
+		List<Atom> order = new ArrayList<Atom>();
+		BitSet bound = new BitSet();
+		while (!remaining.isEmpty()) {
+			Atom best = null;
+			double bestCost = Double.MAX_VALUE;
+			boolean bestConnected = false;
+			for (Atom atom : remaining) {
+				boolean connected = atom.connected(bound);
+				double cost = atom.cost(bound);
+				if ((connected && !bestConnected) || (connected == bestConnected && cost < bestCost)) {
+					best = atom;
+					bestCost = cost;
+					bestConnected = connected;
+				}
+			}
+			remaining.remove(best);
+			order.add(best);
+			if (best.subject.var >= 0)
+				bound.set(best.subject.var);
+			if (best.object != null && best.object.var >= 0)
+				bound.set(best.object.var);
+		}
+		return order;
+	}
+
+	/**
+	 * Helper method to join the atoms of a branch in the given order
+	 */
+	private List<int[]> join(List<Atom> order) {
+		List<int[]> rows = Collections.singletonList(unbound());
+		for (Atom atom : order) {
+			List<int[]> extended = new ArrayList<int[]>();
+			for (int[] row : rows)
+				atom.extend(row, extended);
+			rows = extended;
+			if (rows.isEmpty())
+				break;
+		}
+		return rows;
+	}
+
+	/**
+	 * Helper method to combine the answers of independent branches
+	 */
+	private static List<int[]> combine(List<int[]> left, List<int[]> right) {
+		List<int[]> rows = new ArrayList<int[]>(left.size() * right.size());
+		for (int[] l : left)
+			for (int[] r : right) {
+				int[] row = l.clone();
+				for (int v = 0; v < row.length; v++)
+					if (r[v] >= 0)
+						row[v] = r[v];
+				rows.add(row);
+			}
+		return rows;
+	}
+
+	private int[] unbound() {
+		int[] row = new int[variables.size()];
+		Arrays.fill(row, -1);
+		return row;
+	}
+
+	/**
+	 * A variable (var >= 0) or an individual (dictionary id in constant)
+	 */
+	private static final class Term {
+		private final int var;
+		private final int constant;
+
+		Term(int var, int constant) {
+			this.var = var;
+			this.constant = constant;
+		}
+
+		int value(int[] row) {
+			return var >= 0 ? row[var] : constant;
+		}
+
+		boolean bound(BitSet bound) {
+			return var < 0 || bound.get(var);
+		}
+
+		/**
+		 * Binds the term in a copy of the row, or returns null if it is bound to
+		 * another individual
+		 */
+		int[] bind(int[] row, int value) {
+			int current = value(row);
+			if (current >= 0)
+				return current == value ? row : null;
+			int[] copy = row.clone();
+			copy[var] = value;
+			return copy;
+		}
+	}
+
+	/**
+	 * Subject/object adjacency of an object property (and its sub-properties)
+	 */
+	private static final class RoleIndex {
+		private final Map<Integer, int[]> bySubject = new HashMap<Integer, int[]>();
+		private final Map<Integer, int[]> byObject = new HashMap<Integer, int[]>();
+		private int size;
+
+		RoleIndex(Map<Integer, Set<Integer>> forward) {
+			Map<Integer, Set<Integer>> backward = new HashMap<Integer, Set<Integer>>();
+			for (Map.Entry<Integer, Set<Integer>> e : forward.entrySet()) {
+				bySubject.put(e.getKey(), toSortedArray(e.getValue()));
+				size += e.getValue().size();
+				for (int o : e.getValue())
+					backward.computeIfAbsent(o, k -> new TreeSet<Integer>()).add(e.getKey());
+			}
+			for (Map.Entry<Integer, Set<Integer>> e : backward.entrySet())
+				byObject.put(e.getKey(), toSortedArray(e.getValue()));
+		}
+
+		private static int[] toSortedArray(Set<Integer> values) {
+			int[] a = values.stream().mapToInt(Integer::intValue).toArray();
+			Arrays.sort(a);
+			return a;
+		}
+
+		int[] objects(int subject) {
+			int[] o = bySubject.get(subject);
+			return o == null ? new int[0] : o;
+		}
+
+		int[] subjects(int object) {
+			int[] s = byObject.get(object);
+			return s == null ? new int[0] : s;
+		}
+	}
+
+	/**
+	 * A concept atom (cls != null) or a role atom (property != null)
+	 */
+	private final class Atom {
+		private final String text;
+		private final Term subject;
+		private final Term object;
+		private final OWLClassExpression cls;
+		private final OWLObjectProperty property;
+		private BitSet members;
+		private int memberCount;
+		private RoleIndex role;
+
+		Atom(String text, Term subject, Term object, OWLClassExpression cls, OWLObjectProperty property) {
+			this.text = text;
+			this.subject = subject;
+			this.object = object;
+			this.cls = cls;
+			this.property = property;
+		}
+
+		boolean isGround() {
+			return subject.var < 0 && (object == null || object.var < 0);
+		}
+
+		/**
+		 * Builds the index of this atom: the instances of its class expression
+		 * (using the reasoner) or the adjacency of its property
+		 */
+		void materialise(Map<OWLObjectProperty, RoleIndex> roles) {
+			if (cls != null) {
+				members = new BitSet();
+				reasoner.instancesStream(cls).forEach(i -> members.set(reasoner.dictionary.encode(i.getIRI())));
+				memberCount = members.cardinality();
+			} else {
+				role = roles.computeIfAbsent(property, p -> index(p));
+			}
+		}
+
+		private RoleIndex index(OWLObjectProperty p) {
+			reasoner.reasoner.flush();
+			Set<OWLObjectPropertyExpression> properties = new HashSet<OWLObjectPropertyExpression>();
+			properties.add(p);
+			reasoner.reasoner.getSubObjectProperties(p, false).entities()
+					.filter(sp -> !sp.isOWLBottomObjectProperty()).forEach(properties::add);
+			Map<Integer, Set<Integer>> forward = new HashMap<Integer, Set<Integer>>();
+			EntityDictionary dictionary = reasoner.dictionary;
+			reasoner.ontology.axioms(AxiomType.OBJECT_PROPERTY_ASSERTION, reasoner.imports).forEach(a -> {
+				if (!a.getSubject().isNamed() || !a.getObject().isNamed())
+					return;
+				int s = dictionary.encode(a.getSubject().asOWLNamedIndividual().getIRI());
+				int o = dictionary.encode(a.getObject().asOWLNamedIndividual().getIRI());
+				if (properties.contains(a.getProperty()))
+					forward.computeIfAbsent(s, k -> new HashSet<Integer>()).add(o);
+				if (properties.contains(a.getProperty().getInverseProperty()))
+					forward.computeIfAbsent(o, k -> new HashSet<Integer>()).add(s);
+			});
+			if (reasoner.aboxStore != null) {
+				BitSet ids = new BitSet();
+				properties.stream().filter(OWLObjectPropertyExpression::isNamed)
+						.forEach(sp -> ids.set(dictionary.encode(sp.asOWLObjectProperty().getIRI())));
+				reasoner.aboxStore.propertyValues(ids::get)
+						.forEach(pair -> forward.computeIfAbsent(pair[0], k -> new HashSet<Integer>()).add(pair[1]));
+			}
+			return new RoleIndex(forward);
+		}
+
+		boolean connected(BitSet bound) {
+			return (subject.var >= 0 && bound.get(subject.var)) || subject.var < 0
+					|| (object != null && (object.var < 0 || bound.get(object.var)));
+		}
+
+		/**
+		 * Estimated number of bindings this atom produces per input binding, given
+		 * the variables which are already bound (0 for pure filters)
+		 */
+		double cost(BitSet bound) {
+			if (cls != null)
+				return subject.bound(bound) ? 0 : memberCount;
+			boolean s = subject.bound(bound);
+			boolean o = object.bound(bound);
+			if (s && o)
+				return 0;
+			if (s)
+				return subject.var < 0 ? role.objects(subject.constant).length
+						: (double) role.size / Math.max(1, role.bySubject.size());
+			if (o)
+				return object.var < 0 ? role.subjects(object.constant).length
+						: (double) role.size / Math.max(1, role.byObject.size());
+			return role.size;
+		}
+
+		/**
+		 * Checks a fully bound atom against a row
+		 */
+		boolean holds(int[] row) {
+			if (cls != null)
+				return members.get(subject.value(row));
+			return Arrays.binarySearch(role.objects(subject.value(row)), object.value(row)) >= 0;
+		}
+
+		/**
+		 * Adds the extensions of a row which satisfy this atom
+		 */
+		void extend(int[] row, List<int[]> out) {
+			int s = subject.value(row);
+			if (cls != null) {
+				if (s >= 0) {
+					if (members.get(s))
+						out.add(row);
+				} else {
+					for (int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1))
+						out.add(subject.bind(row, i));
+				}
+				return;
+			}
+			int o = object.value(row);
+			if (s >= 0 && o >= 0) {
+				if (holds(row))
+					out.add(row);
+			} else if (s >= 0) {
+				for (int value : role.objects(s))
+					addIfBound(out, object.bind(row, value));
+			} else if (o >= 0) {
+				for (int value : role.subjects(o))
+					addIfBound(out, subject.bind(row, value));
+			} else {
+				for (Map.Entry<Integer, int[]> e : role.bySubject.entrySet()) {
+					int[] withSubject = subject.bind(row, e.getKey());
+					for (int value : e.getValue())
+						addIfBound(out, object.bind(withSubject, value));
+				}
+			}
+		}
+
+		private void addIfBound(List<int[]> out, int[] row) {
+			if (row != null)
+				out.add(row);
+		}
+	}
+}
@@ -0,0 +1,387 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Session-level dictionary which encodes IRIs as dense int ids. Lookups by full
+ * IRI, by (namespace, name) pair and by short form are served from primitive
+ * open-addressing tables holding only int ids, so that no boxing or fresh IRI
+ * construction is needed once a name has been seen. All public methods are
+ * synchronized, so one dictionary can be shared by the reasoners of several
+ * threads (e.g. the lanes of a ReasoningScheduler). Entries which are no longer
+ * used (e.g. those of a removed ontology) can be released; their ids are not
+ * handed out again.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public final class EntityDictionary {
+	/**
+	 * id returned by lookup methods when no entry exists
+	 */
+	public static final int NO_ID = -1;
+	/**
+	 * initial capacity of the id arrays
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+	/**
+	 * id to IRI
+	 */
+	private IRI[] iris;
+	/**
+	 * id to short form
+	 */
+	private String[] shortForms;
+	/**
+	 * id to the namespace id it was first resolved under, or NO_ID
+	 */
+	private int[] namespaces;
+	/**
+	 * id to the local name it was first resolved under, or null
+	 */
+	private String[] names;
+	/**
+	 * open-addressing table keyed by full IRI
+	 */
+	private int[] iriTable;
+	/**
+	 * open-addressing table keyed by (namespace id, local name)
+	 */
+	private int[] nameTable;
+	/**
+	 * open-addressing table keyed by short form
+	 */
+	private int[] shortFormTable;
+	/**
+	 * number of ids handed out so far
+	 */
+	private int size;
+	/**
+	 * number of occupied slots in nameTable
+	 */
+	private int nameCount;
+	/**
+	 * number of occupied slots in shortFormTable
+	 */
+	private int shortFormCount;
+
+	/**
+	 * EntityDictionary constructor
+	 */
+	public EntityDictionary() {
+		clear();
+	}
+
+	/**
+	 * Removes all entries from the dictionary. Ids handed out before calling this
+	 * method become invalid.
+	 */
+	public synchronized void clear() {
+		iris = new IRI[INITIAL_CAPACITY];
+		shortForms = new String[INITIAL_CAPACITY];
+		namespaces = new int[INITIAL_CAPACITY];
+		names = new String[INITIAL_CAPACITY];
+		iriTable = emptyTable(INITIAL_CAPACITY * 2);
+		nameTable = emptyTable(INITIAL_CAPACITY * 2);
+		shortFormTable = emptyTable(INITIAL_CAPACITY * 2);
+		size = 0;
+		nameCount = 0;
+		shortFormCount = 0;
+	}
+
+	/**
+	 * Releases the entries whose ids are not live, so that their IRIs and names
+	 * can be garbage collected. The namespace of a live entry is kept as well.
+	 * Released ids are never handed out again; getIRI and getShortForm return
+	 * null for them, and encoding a released IRI assigns it a new id.
+	 *
+	 * @param live tells which ids are still in use
+	 * @return the number of entries released
+	 */
+	public synchronized int release(IntPredicate live) {
+		boolean[] keep = new boolean[size];
+		for (int id = 0; id < size; id++)
+			keep[id] = iris[id] != null && live.test(id);
+		for (int id = 0; id < size; id++)
+			if (keep[id] && namespaces[id] != NO_ID)
+				keep[namespaces[id]] = true;
+		int released = 0;
+		for (int id = 0; id < size; id++) {
+			if (iris[id] != null && !keep[id]) {
+				iris[id] = null;
+				shortForms[id] = null;
+				namespaces[id] = NO_ID;
+				names[id] = null;
+				released++;
+			}
+		}
+		if (released == 0)
+			return 0;
+		// rebuild the tables from the remaining entries, in id order so that the
+		// first registered IRI still wins a shared short form
+		iriTable = emptyTable(iriTable.length);
+		nameTable = emptyTable(nameTable.length);
+		shortFormTable = emptyTable(shortFormTable.length);
+		nameCount = 0;
+		shortFormCount = 0;
+		for (int id = 0; id < size; id++) {
+			if (iris[id] == null)
+				continue;
+			insert(iriTable, id, iriHash(id));
+			indexShortForm(id);
+			if (namespaces[id] != NO_ID) {
+				insert(nameTable, id, nameHash(id));
+				nameCount++;
+			}
+		}
+		return released;
+	}
+
+	/**
+	 * Returns the number of IRIs in the dictionary
+	 *
+	 * @return the number of distinct ids handed out, including released ones
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the id for an IRI, assigning a new one if the IRI has not been seen
+	 *
+	 * @param iri an IRI
+	 * @return the int id of the IRI
+	 */
+	public synchronized int encode(IRI iri) {
+		int mask = iriTable.length - 1;
+		int slot = mix(iri.hashCode()) & mask;
+		int id;
+		while ((id = iriTable[slot]) != NO_ID) {
+			if (iris[id].equals(iri))
+				return id;
+			slot = (slot + 1) & mask;
+		}
+		id = append(iri);
+		iriTable[slot] = id;
+		if (size * 2 > iriTable.length)
+			iriTable = rehash(iriTable, size * 4, this::iriHash);
+		indexShortForm(id);
+		return id;
+	}
+
+	/**
+	 * Returns the id for the IRI formed by appending a local name to a namespace,
+	 * assigning a new one if necessary. Repeated calls with the same namespace and
+	 * name neither concatenate strings nor create IRI objects.
+	 *
+	 * @param namespace the namespace IRI
+	 * @param name      the local name
+	 * @return the int id of the namespace + name IRI
+	 */
+	public synchronized int encode(IRI namespace, String name) {
+		int ns = encode(namespace);
+		int id = lookup(ns, name);
+		if (id != NO_ID)
+			return id;
+		id = encode(IRI.create(namespace.toString() + name));
+		if (namespaces[id] == NO_ID) {
+			namespaces[id] = ns;
+			names[id] = name;
+			int mask = nameTable.length - 1;
+			int slot = mix(31 * ns + name.hashCode()) & mask;
+			while (nameTable[slot] != NO_ID)
+				slot = (slot + 1) & mask;
+			nameTable[slot] = id;
+			nameCount++;
+			if (nameCount * 2 > nameTable.length)
+				nameTable = rehash(nameTable, nameTable.length * 2, this::nameHash);
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the id of an IRI without assigning a new one
+	 *
+	 * @param iri an IRI
+	 * @return the int id of the IRI or NO_ID if it is not in the dictionary
+	 */
+	public synchronized int lookup(IRI iri) {
+		int mask = iriTable.length - 1;
+		int slot = mix(iri.hashCode()) & mask;
+		int id;
+		while ((id = iriTable[slot]) != NO_ID) {
+			if (iris[id].equals(iri))
+				return id;
+			slot = (slot + 1) & mask;
+		}
+		return NO_ID;
+	}
+
+	/**
+	 * Returns the id of a short form without assigning a new one. If several IRIs
+	 * share a short form, the first one registered wins.
+	 *
+	 * @param shortForm a short form human-readable label
+	 * @return the int id of an IRI with this short form or NO_ID
+	 */
+	public synchronized int lookupShortForm(String shortForm) {
+		int mask = shortFormTable.length - 1;
+		int slot = mix(shortForm.hashCode()) & mask;
+		int id;
+		while ((id = shortFormTable[slot]) != NO_ID) {
+			if (shortForms[id].equals(shortForm))
+				return id;
+			slot = (slot + 1) & mask;
+		}
+		return NO_ID;
+	}
+
+	/**
+	 * Returns the IRI for an id
+	 *
+	 * @param id an int id previously handed out by this dictionary
+	 * @return the IRI with this id, or null if the id was released
+	 */
+	public synchronized IRI getIRI(int id) {
+		return iris[id];
+	}
+
+	/**
+	 * Returns the short form for an id
+	 *
+	 * @param id an int id previously handed out by this dictionary
+	 * @return the short form of the IRI with this id, or null if the id was
+	 *         released
+	 */
+	public synchronized String getShortForm(int id) {
+		return shortForms[id];
+	}
+
+	/**
+	 * Looks up a (namespace id, name) pair in the name table
+	 */
+	private int lookup(int ns, String name) {
+		int mask = nameTable.length - 1;
+		int slot = mix(31 * ns + name.hashCode()) & mask;
+		int id;
+		while ((id = nameTable[slot]) != NO_ID) {
+			if (namespaces[id] == ns && names[id].equals(name))
+				return id;
+			slot = (slot + 1) & mask;
+		}
+		return NO_ID;
+	}
+
+	/**
+	 * Appends a new IRI to the id arrays, growing them if needed
+	 */
+	private int append(IRI iri) {
+		if (size == iris.length) {
+			int capacity = size * 2;
+			iris = Arrays.copyOf(iris, capacity);
+			shortForms = Arrays.copyOf(shortForms, capacity);
+			namespaces = Arrays.copyOf(namespaces, capacity);
+			names = Arrays.copyOf(names, capacity);
+		}
+		iris[size] = iri;
+		shortForms[size] = iri.getShortForm();
+		namespaces[size] = NO_ID;
+		return size++;
+	}
+
+	/**
+	 * Adds an id to the short form table unless its short form is already taken
+	 */
+	private void indexShortForm(int id) {
+		String shortForm = shortForms[id];
+		int mask = shortFormTable.length - 1;
+		int slot = mix(shortForm.hashCode()) & mask;
+		int other;
+		while ((other = shortFormTable[slot]) != NO_ID) {
+			if (shortForms[other].equals(shortForm))
+				return;
+			slot = (slot + 1) & mask;
+		}
+		shortFormTable[slot] = id;
+		shortFormCount++;
+		if (shortFormCount * 2 > shortFormTable.length)
+			shortFormTable = rehash(shortFormTable, shortFormTable.length * 2, this::shortFormHash);
+	}
+
+	private int iriHash(int id) {
+		return iris[id].hashCode();
+	}
+
+	private int nameHash(int id) {
+		return 31 * namespaces[id] + names[id].hashCode();
+	}
+
+	private int shortFormHash(int id) {
+		return shortForms[id].hashCode();
+	}
+
+	/**
+	 * Creates a table of the given power-of-two capacity with all slots empty
+	 */
+	private static int[] emptyTable(int capacity) {
+		int[] table = new int[capacity];
+		Arrays.fill(table, NO_ID);
+		return table;
+	}
+
+	/**
+	 * Inserts an id into a table which has room for it
+	 */
+	private static void insert(int[] table, int id, int hash) {
+		int mask = table.length - 1;
+		int slot = mix(hash) & mask;
+		while (table[slot] != NO_ID)
+			slot = (slot + 1) & mask;
+		table[slot] = id;
+	}
+
+	/**
+	 * Re-inserts every id of a table into a new table of (at least) the given
+	 * capacity
+	 */
+	private static int[] rehash(int[] table, int capacity, IntUnaryOperator hash) {
+		int[] grown = emptyTable(Integer.highestOneBit(capacity - 1) << 1);
+		for (int id : table)
+			if (id != NO_ID)
+				insert(grown, id, hash.applyAsInt(id));
+		return grown;
+	}
+
+	/**
+	 * Spreads hash bits so that linear probing over a power-of-two table behaves
+	 * well for IRIs sharing long prefixes
+	 */
+	private static int mix(int h) {
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,234 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.IRIDocumentSource;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyIRIMapper;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.OntologyCopy;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Loads an ontology together with its imports closure, resolving the imports
+ * DAG level by level: all documents of one level are parsed concurrently, each
+ * by a worker with its own OWLOntologyManager which does not follow imports,
+ * and are then moved into the target manager. Imports which the target manager
+ * already holds (for example because another loaded ontology shares them) are
+ * reused instead of being loaded again. Document locations are resolved with
+ * the IRI mappers of the target manager, so an OntologyCache also applies.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class ImportsClosureLoader {
+	/**
+	 * the manager which receives the loaded ontologies
+	 */
+	private final OWLOntologyManager manager;
+	/**
+	 * maximum number of documents parsed at the same time
+	 */
+	private final int parallelism;
+	/**
+	 * number of documents parsed by the last load
+	 */
+	private int loaded;
+	/**
+	 * number of imports of the last load which were already in the workspace
+	 */
+	private int reused;
+	/**
+	 * number of import levels of the last load
+	 */
+	private int depth;
+
+	/**
+	 * ImportsClosureLoader constructor
+	 *
+	 * @param manager     the OWLOntologyManager to load ontologies into
+	 * @param parallelism maximum number of documents parsed concurrently
+	 */
+	public ImportsClosureLoader(OWLOntologyManager manager, int parallelism) {
+		this.manager = manager;
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * @return the number of documents parsed by the last load
+	 */
+	public int getLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * @return the number of imports of the last load which were already in the
+	 *         workspace
+	 */
+	public int getReused() {
+		return reused;
+	}
+
+	/**
+	 * @return the number of import levels below the root of the last load
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Loads a document and, recursively, every ontology it imports
+	 *
+	 * @param documentIRI the IRI of the root document (e.g. a file IRI)
+	 * @return the root ontology, in the target manager
+	 * @throws OWLOntologyCreationException if the root or any import cannot be
+	 *                                      loaded
+	 */
+	public OWLOntology load(IRI documentIRI) throws OWLOntologyCreationException {
+		loaded = 0;
+		reused = 0;
+		depth = 0;
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			OWLOntology root = moveIntoManager(parse(documentIRI));
+			Set<IRI> seen = new HashSet<IRI>();
+			Set<IRI> level = imports(root, seen);
+			while (!level.isEmpty()) {
+				depth++;
+				List<CompletableFuture<OWLOntology>> parsed = new ArrayList<CompletableFuture<OWLOntology>>();
+				for (IRI iri : level) {
+					parsed.add(CompletableFuture.supplyAsync(() -> {
+						try {
+							return parse(documentIRI(iri));
+						} catch (OWLOntologyCreationException e) {
+							throw new CompletionException(e);
+						}
+					}, executor));
+				}
+				Set<IRI> next = new LinkedHashSet<IRI>();
+				for (CompletableFuture<OWLOntology> future : parsed) {
+					OWLOntology ontology = moveIntoManager(join(future));
+					next.addAll(imports(ontology, seen));
+				}
+				level = next;
+			}
+			return root;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the import IRIs of an ontology which have not been seen before and
+	 * are not yet in the target manager
+	 */
+	private Set<IRI> imports(OWLOntology ontology, Set<IRI> seen) {
+		Set<IRI> result = new LinkedHashSet<IRI>();
+		for (OWLImportsDeclaration declaration : ontology.importsDeclarations().collect(Collectors.toList())) {
+			IRI iri = declaration.getIRI();
+			if (!seen.add(iri))
+				continue;
+			if (manager.getImportedOntology(declaration) != null)
+				reused++;
+			else
+				result.add(iri);
+		}
+		return result;
+	}
+
+	/**
+	 * Parses one document in a fresh manager without following its imports
+	 */
+	private OWLOntology parse(IRI document) throws OWLOntologyCreationException {
+		OWLOntologyManager worker = OWLManager.createOWLOntologyManager();
+		return worker.loadOntologyFromOntologyDocument(new IRIDocumentSource(document), new IgnoreImports());
+	}
+
+	/**
+	 * Moves a parsed ontology into the target manager, unless an ontology with
+	 * the same id was loaded in the meantime
+	 */
+	private synchronized OWLOntology moveIntoManager(OWLOntology parsed) throws OWLOntologyCreationException {
+		if (!parsed.isAnonymous()) {
+			// not manager.getOntology(id): on a miss it asks the IRI mappers, which
+			// may download the document on this (the calling) thread
+			OWLOntology existing = manager.ontologies().filter(o -> o.getOntologyID().equals(parsed.getOntologyID()))
+					.findFirst().orElse(null);
+			if (existing != null) {
+				reused++;
+				return existing;
+			}
+		}
+		loaded++;
+		return manager.copyOntology(parsed, OntologyCopy.MOVE);
+	}
+
+	/**
+	 * Resolves the document location of an import with the target manager's IRI
+	 * mappers. Called on the worker threads, since a mapper may itself download
+	 * the document (e.g. the OntologyCache), so mappers must be thread safe
+	 */
+	private IRI documentIRI(IRI ontologyIRI) {
+		for (OWLOntologyIRIMapper mapper : manager.getIRIMappers()) {
+			IRI document = mapper.getDocumentIRI(ontologyIRI);
+			if (document != null)
+				return document;
+		}
+		return ontologyIRI;
+	}
+
+	private static OWLOntology join(CompletableFuture<OWLOntology> future) throws OWLOntologyCreationException {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof OWLOntologyCreationException)
+				throw (OWLOntologyCreationException) e.getCause();
+			throw e;
+		}
+	}
+
+	/**
+	 * Loader configuration which treats every import as ignored, so that workers
+	 * only parse the document they are given
+	 */
+	static final class IgnoreImports extends OWLOntologyLoaderConfiguration {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean isIgnoredImport(IRI iri) {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * ReasonerProvider which names its OWLReasonerFactory implementation by class
+ * name and instantiates it reflectively, so the reasoner jar is not loaded (and
+ * need not be on the classpath) until the reasoner is selected. A provider for
+ * a third-party reasoner is a subclass with a no-argument constructor, e.g.
+ * 
+ * <pre>
+ * public class OpenlletProvider extends LazyReasonerProvider {
+ * 	public OpenlletProvider() {
+ * 		super("OPENLLET", "OWL 2 DL", CLASSIFICATION | REALISATION | ENTAILMENT | DATA_PROPERTIES,
+ * 				"openllet.owlapi.OpenlletReasonerFactory");
+ * 	}
+ * }
+ * </pre>
+ * 
+ * registered in META-INF/services/io.github.kodymoodley.owlapilite.ReasonerProvider
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class LazyReasonerProvider implements ReasonerProvider {
+	/**
+	 * name of the reasoner
+	 */
+	private final String name;
+	/**
+	 * OWL 2 profile supported by the reasoner
+	 */
+	private final String profile;
+	/**
+	 * capabilities of the reasoner
+	 */
+	private final int capabilities;
+	/**
+	 * fully qualified class name of the OWLReasonerFactory implementation
+	 */
+	private final String factoryClassName;
+
+	/**
+	 * LazyReasonerProvider constructor
+	 * 
+	 * @param name             unique name of the reasoner
+	 * @param profile          OWL 2 profile supported by the reasoner
+	 * @param capabilities     bitwise OR of ReasonerProvider capability constants
+	 * @param factoryClassName fully qualified class name of the
+	 *                         OWLReasonerFactory implementation (with a public
+	 *                         no-argument constructor)
+	 */
+	public LazyReasonerProvider(String name, String profile, int capabilities, String factoryClassName) {
+		this.name = name;
+		this.profile = profile;
+		this.capabilities = capabilities;
+		this.factoryClassName = factoryClassName;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getProfile() {
+		return profile;
+	}
+
+	@Override
+	public int getCapabilities() {
+		return capabilities;
+	}
+
+	/**
+	 * @return fully qualified class name of the OWLReasonerFactory implementation
+	 */
+	public String getFactoryClassName() {
+		return factoryClassName;
+	}
+
+	@Override
+	public boolean isAvailable() {
+		try {
+			Class.forName(factoryClassName, false, classLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	@Override
+	public OWLReasonerFactory createReasonerFactory() {
+		try {
+			Class<?> cls = Class.forName(factoryClassName, true, classLoader());
+			return (OWLReasonerFactory) cls.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+			throw new IllegalStateException("the reasoner " + name + " cannot be loaded (" + factoryClassName + "): "
+					+ e, e);
+		}
+	}
+
+	/**
+	 * @return the class loader which loaded this provider
+	 */
+	private ClassLoader classLoader() {
+		return getClass().getClassLoader();
+	}
+
+	@Override
+	public String toString() {
+		return name + " - " + profile;
+	}
+}
@@ -0,0 +1,705 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Streaming loader for N-Triples documents. The document is read through an NIO
+ * channel in fixed size chunks; the triples of each chunk are translated to
+ * axioms and applied to the target ontology with a single change before the
+ * next chunk is read, so peak memory is bounded by the chunk size rather than
+ * the document size. Each chunk is applied while holding a lock, which
+ * OWLAPILiteFactory shares with its other writers and readers. Triples which
+ * need a full RDF graph to be interpreted (blank nodes, RDF lists, OWL
+ * restrictions) are counted and skipped, as are
+ * malformed lines. Property axioms (sub-property, domain, range, functional)
+ * whose property has not yet been seen as an object or data property are held
+ * back until the whole document has been read, so that their typing does not
+ * depend on the order of the triples.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class NTriplesStreamLoader {
+	/**
+	 * default chunk size in bytes (8 MB)
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+	/**
+	 * the ontology to load into
+	 */
+	private final OWLOntology ontology;
+	/**
+	 * Parser whose vocabulary is extended with loaded entities
+	 */
+	private final Parser parser;
+	/**
+	 * session dictionary used to resolve IRIs to ids
+	 */
+	private final EntityDictionary dictionary;
+	/**
+	 * OWLDataFactory instance
+	 */
+	private final OWLDataFactory dataFactory;
+	/**
+	 * dictionary ids of entities registered with the parser, per entity kind
+	 */
+	private final BitSet classes = new BitSet();
+	private final BitSet objectProperties = new BitSet();
+	private final BitSet dataProperties = new BitSet();
+	private final BitSet annotationProperties = new BitSet();
+	private final BitSet individuals = new BitSet();
+	/**
+	 * chunk size in bytes
+	 */
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	/**
+	 * whether to print progress after each chunk
+	 */
+	private boolean progress = true;
+	/**
+	 * changes of the chunk being translated
+	 */
+	private final List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+	/**
+	 * held while the changes of a chunk are applied
+	 */
+	private final Lock lock;
+	/**
+	 * (subject, predicate, object) of property axioms held back until the
+	 * property's kind is known
+	 */
+	private final List<IRI[]> deferred = new ArrayList<IRI[]>();
+	/**
+	 * true while the deferred triples are translated at the end of the input
+	 */
+	private boolean resolving;
+	/**
+	 * running totals
+	 */
+	private long triples;
+	private long axioms;
+	private long skipped;
+
+	/**
+	 * NTriplesStreamLoader constructor
+	 *
+	 * @param ontology   the OWLOntology to load triples into
+	 * @param parser     the Parser whose vocabulary should include loaded
+	 *                   entities
+	 * @param dictionary the session EntityDictionary
+	 */
+	public NTriplesStreamLoader(OWLOntology ontology, Parser parser, EntityDictionary dictionary) {
+		this(ontology, parser, dictionary, new ReentrantLock());
+	}
+
+	/**
+	 * NTriplesStreamLoader constructor
+	 *
+	 * @param ontology   the OWLOntology to load triples into
+	 * @param parser     the Parser whose vocabulary should include loaded
+	 *                   entities
+	 * @param dictionary the session EntityDictionary
+	 * @param lock       the lock held while a chunk is applied, shared with the
+	 *                   other users of the ontology
+	 */
+	public NTriplesStreamLoader(OWLOntology ontology, Parser parser, EntityDictionary dictionary, Lock lock) {
+		this.lock = lock;
+		this.ontology = ontology;
+		this.parser = parser;
+		this.dictionary = dictionary;
+		this.dataFactory = ontology.getOWLOntologyManager().getOWLDataFactory();
+		annotationProperties.set(dictionary.encode(OWLRDFVocabulary.RDFS_LABEL.getIRI()));
+		annotationProperties.set(dictionary.encode(OWLRDFVocabulary.RDFS_COMMENT.getIRI()));
+		annotationProperties.set(dictionary.encode(OWLRDFVocabulary.RDFS_SEE_ALSO.getIRI()));
+		annotationProperties.set(dictionary.encode(OWLRDFVocabulary.RDFS_IS_DEFINED_BY.getIRI()));
+	}
+
+	/**
+	 * Sets the number of bytes read and translated at a time
+	 *
+	 * @param chunkSize chunk size in bytes
+	 * @return this NTriplesStreamLoader
+	 */
+	public NTriplesStreamLoader setChunkSize(int chunkSize) {
+		this.chunkSize = Math.max(1024, chunkSize);
+		return this;
+	}
+
+	/**
+	 * Sets whether progress is printed to console output after each chunk
+	 *
+	 * @param progress true to print progress
+	 * @return this NTriplesStreamLoader
+	 */
+	public NTriplesStreamLoader setProgress(boolean progress) {
+		this.progress = progress;
+		return this;
+	}
+
+	/**
+	 * @return the number of triples read so far
+	 */
+	public long getTriples() {
+		return triples;
+	}
+
+	/**
+	 * @return the number of axioms added so far
+	 */
+	public long getAxioms() {
+		return axioms;
+	}
+
+	/**
+	 * @return the number of triples skipped so far
+	 */
+	public long getSkipped() {
+		return skipped;
+	}
+
+	/**
+	 * Streams an N-Triples file into the ontology
+	 *
+	 * @param file path to the N-Triples document
+	 * @throws IOException if the file cannot be read
+	 */
+	public void load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			load(channel, channel.size());
+		}
+	}
+
+	/**
+	 * Streams N-Triples from a channel into the ontology
+	 *
+	 * @param channel the channel to read from
+	 * @param size    the total number of bytes, or -1 if unknown (used for
+	 *                progress only)
+	 * @throws IOException if the channel cannot be read
+	 */
+	public void load(ReadableByteChannel channel, long size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+		long read = 0;
+		long start = System.nanoTime();
+		boolean eof = false;
+		while (!eof) {
+			int n = channel.read(buffer);
+			if (n < 0) {
+				eof = true;
+			} else {
+				read += n;
+				if (buffer.hasRemaining())
+					continue;
+			}
+			buffer.flip();
+			translateLines(buffer, eof);
+			if (!eof && buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+				// a single line is longer than the chunk: grow to fit it
+				ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+				grown.put(buffer);
+				buffer = grown;
+			} else {
+				buffer.compact();
+			}
+			if (eof)
+				resolveDeferred();
+			apply();
+			if (progress)
+				printProgress(read, size, start);
+		}
+	}
+
+	/**
+	 * Translates the held back property axioms, treating properties which were
+	 * never seen as data properties as object properties
+	 */
+	private void resolveDeferred() {
+		resolving = true;
+		try {
+			for (IRI[] triple : deferred)
+				translateResource(triple[0], triple[1], triple[2]);
+			deferred.clear();
+		} finally {
+			resolving = false;
+		}
+	}
+
+	/**
+	 * Translates every complete line in the buffer, leaving a trailing partial
+	 * line in place unless the end of input has been reached
+	 */
+	private void translateLines(ByteBuffer buffer, boolean eof) {
+		byte[] bytes = buffer.array();
+		int lineStart = buffer.position();
+		int limit = buffer.limit();
+		for (int i = lineStart; i < limit; i++) {
+			if (bytes[i] == '\n') {
+				translate(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+				lineStart = i + 1;
+			}
+		}
+		if (eof && lineStart < limit) {
+			translate(new String(bytes, lineStart, limit - lineStart, StandardCharsets.UTF_8));
+			lineStart = limit;
+		}
+		buffer.position(lineStart);
+	}
+
+	/**
+	 * Applies the changes of the current chunk in one change
+	 */
+	private void apply() {
+		if (!changes.isEmpty()) {
+			lock.lock();
+			try {
+				ontology.getOWLOntologyManager().applyChanges(changes);
+			} finally {
+				lock.unlock();
+			}
+			axioms += changes.size();
+			changes.clear();
+		}
+	}
+
+	private void printProgress(long read, long size, long start) {
+		long millis = (System.nanoTime() - start) / 1000000;
+		String percent = size > 0 ? " (" + (100 * read / size) + "%)" : "";
+		System.out.println("Read " + (read >> 20) + " MB" + percent + ": " + triples + " triples, " + axioms
+				+ " axioms, " + skipped + " skipped in " + millis + " ms");
+	}
+
+	/**
+	 * Parses a single N-Triples line and translates the triple
+	 */
+	void translate(String line) {
+		Cursor c = new Cursor(line);
+		c.skipSpace();
+		if (c.atEnd() || c.peek() == '#')
+			return;
+		triples++;
+		Term subject;
+		Term predicate;
+		Term object;
+		try {
+			subject = c.term();
+			c.skipSpace();
+			predicate = c.term();
+			c.skipSpace();
+			object = c.term();
+		} catch (IllegalArgumentException e) {
+			// malformed escape sequence: skip the line like any other malformed line
+			skipped++;
+			return;
+		}
+		if (subject == null || predicate == null || object == null || subject.kind != Term.IRI
+				|| predicate.kind != Term.IRI || object.kind == Term.BLANK) {
+			skipped++;
+			return;
+		}
+		IRI s = IRI.create(subject.value);
+		IRI p = IRI.create(predicate.value);
+		if (object.kind == Term.LITERAL)
+			translateLiteral(s, p, literal(object));
+		else
+			translateResource(s, p, IRI.create(object.value));
+	}
+
+	/**
+	 * Translates a triple with an IRI object
+	 */
+	private void translateResource(IRI s, IRI p, IRI o) {
+		if (p.equals(OWLRDFVocabulary.RDF_TYPE.getIRI())) {
+			translateType(s, o);
+		} else if (p.equals(OWLRDFVocabulary.RDFS_SUBCLASS_OF.getIRI())) {
+			add(dataFactory.getOWLSubClassOfAxiom(owlClass(s), owlClass(o)));
+		} else if (p.equals(OWLRDFVocabulary.OWL_EQUIVALENT_CLASS.getIRI())) {
+			add(dataFactory.getOWLEquivalentClassesAxiom(owlClass(s), owlClass(o)));
+		} else if (p.equals(OWLRDFVocabulary.OWL_DISJOINT_WITH.getIRI())) {
+			add(dataFactory.getOWLDisjointClassesAxiom(owlClass(s), owlClass(o)));
+		} else if (p.equals(OWLRDFVocabulary.RDFS_SUB_PROPERTY_OF.getIRI())) {
+			if (defer(s, p, o, o))
+				return;
+			if (isDataProperty(s) || isDataProperty(o))
+				add(dataFactory.getOWLSubDataPropertyOfAxiom(dataProperty(s), dataProperty(o)));
+			else
+				add(dataFactory.getOWLSubObjectPropertyOfAxiom(objectProperty(s), objectProperty(o)));
+		} else if (p.equals(OWLRDFVocabulary.OWL_INVERSE_OF.getIRI())) {
+			add(dataFactory.getOWLInverseObjectPropertiesAxiom(objectProperty(s), objectProperty(o)));
+		} else if (p.equals(OWLRDFVocabulary.RDFS_DOMAIN.getIRI())) {
+			if (defer(s, p, o, s))
+				return;
+			if (isDataProperty(s))
+				add(dataFactory.getOWLDataPropertyDomainAxiom(dataProperty(s), owlClass(o)));
+			else
+				add(dataFactory.getOWLObjectPropertyDomainAxiom(objectProperty(s), owlClass(o)));
+		} else if (p.equals(OWLRDFVocabulary.RDFS_RANGE.getIRI())) {
+			if (defer(s, p, o, s))
+				return;
+			if (isDataProperty(s))
+				add(dataFactory.getOWLDataPropertyRangeAxiom(dataProperty(s), dataFactory.getOWLDatatype(o)));
+			else
+				add(dataFactory.getOWLObjectPropertyRangeAxiom(objectProperty(s), owlClass(o)));
+		} else if (p.equals(OWLRDFVocabulary.OWL_SAME_AS.getIRI())) {
+			add(dataFactory.getOWLSameIndividualAxiom(individual(s), individual(o)));
+		} else if (p.equals(OWLRDFVocabulary.OWL_DIFFERENT_FROM.getIRI())) {
+			add(dataFactory.getOWLDifferentIndividualsAxiom(individual(s), individual(o)));
+		} else if (isAnnotationProperty(p)) {
+			add(dataFactory.getOWLAnnotationAssertionAxiom(annotationProperty(p), s, o));
+		} else if (isBuiltIn(p)) {
+			skipped++;
+		} else {
+			add(dataFactory.getOWLObjectPropertyAssertionAxiom(objectProperty(p), individual(s), individual(o)));
+		}
+	}
+
+	/**
+	 * Translates an rdf:type triple
+	 */
+	private void translateType(IRI s, IRI type) {
+		if (type.equals(OWLRDFVocabulary.OWL_CLASS.getIRI())) {
+			declare(owlClass(s));
+		} else if (type.equals(OWLRDFVocabulary.OWL_OBJECT_PROPERTY.getIRI())) {
+			declare(objectProperty(s));
+		} else if (type.equals(OWLRDFVocabulary.OWL_DATA_PROPERTY.getIRI())) {
+			declare(dataProperty(s));
+		} else if (type.equals(OWLRDFVocabulary.OWL_ANNOTATION_PROPERTY.getIRI())) {
+			declare(annotationProperty(s));
+		} else if (type.equals(OWLRDFVocabulary.OWL_NAMED_INDIVIDUAL.getIRI())) {
+			declare(individual(s));
+		} else if (type.equals(OWLRDFVocabulary.OWL_TRANSITIVE_PROPERTY.getIRI())) {
+			add(dataFactory.getOWLTransitiveObjectPropertyAxiom(objectProperty(s)));
+		} else if (type.equals(OWLRDFVocabulary.OWL_SYMMETRIC_PROPERTY.getIRI())) {
+			add(dataFactory.getOWLSymmetricObjectPropertyAxiom(objectProperty(s)));
+		} else if (type.equals(OWLRDFVocabulary.OWL_ASYMMETRIC_PROPERTY.getIRI())) {
+			add(dataFactory.getOWLAsymmetricObjectPropertyAxiom(objectProperty(s)));
+		} else if (type.equals(OWLRDFVocabulary.OWL_REFLEXIVE_PROPERTY.getIRI())) {
+			add(dataFactory.getOWLReflexiveObjectPropertyAxiom(objectProperty(s)));
+		} else if (type.equals(OWLRDFVocabulary.OWL_IRREFLEXIVE_PROPERTY.getIRI())) {
+			add(dataFactory.getOWLIrreflexiveObjectPropertyAxiom(objectProperty(s)));
+		} else if (type.equals(OWLRDFVocabulary.OWL_INVERSE_FUNCTIONAL_PROPERTY.getIRI())) {
+			add(dataFactory.getOWLInverseFunctionalObjectPropertyAxiom(objectProperty(s)));
+		} else if (type.equals(OWLRDFVocabulary.OWL_FUNCTIONAL_PROPERTY.getIRI())) {
+			if (defer(s, OWLRDFVocabulary.RDF_TYPE.getIRI(), type, s))
+				return;
+			if (isDataProperty(s))
+				add(dataFactory.getOWLFunctionalDataPropertyAxiom(dataProperty(s)));
+			else
+				add(dataFactory.getOWLFunctionalObjectPropertyAxiom(objectProperty(s)));
+		} else if (isBuiltIn(type)) {
+			// owl:Ontology, rdfs:Class, owl:Restriction etc. need more than one triple
+			skipped++;
+		} else {
+			add(dataFactory.getOWLClassAssertionAxiom(owlClass(type), individual(s)));
+		}
+	}
+
+	/**
+	 * Translates a triple with a literal object
+	 */
+	private void translateLiteral(IRI s, IRI p, OWLLiteral o) {
+		if (isAnnotationProperty(p) || isBuiltIn(p))
+			add(dataFactory.getOWLAnnotationAssertionAxiom(annotationProperty(p), s, o));
+		else
+			add(dataFactory.getOWLDataPropertyAssertionAxiom(dataProperty(p), individual(s), o));
+	}
+
+	private OWLLiteral literal(Term term) {
+		if (term.language != null)
+			return dataFactory.getOWLLiteral(term.value, term.language);
+		if (term.datatype != null)
+			return dataFactory.getOWLLiteral(term.value, dataFactory.getOWLDatatype(IRI.create(term.datatype)));
+		return dataFactory.getOWLLiteral(term.value);
+	}
+
+	private boolean isBuiltIn(IRI iri) {
+		String ns = iri.getNamespace();
+		return ns.equals("http://www.w3.org/2002/07/owl#") || ns.equals("http://www.w3.org/1999/02/22-rdf-syntax-ns#")
+				|| ns.equals("http://www.w3.org/2000/01/rdf-schema#");
+	}
+
+	/**
+	 * Holds back a property axiom about properties s and other until the end of
+	 * the input, unless one of them is already known to be an object or data
+	 * property
+	 *
+	 * @return true if the triple was held back
+	 */
+	private boolean defer(IRI s, IRI p, IRI o, IRI other) {
+		if (resolving || isProperty(s) || isProperty(other))
+			return false;
+		deferred.add(new IRI[] { s, p, o });
+		return true;
+	}
+
+	private boolean isProperty(IRI iri) {
+		int id = dictionary.encode(iri);
+		return objectProperties.get(id) || dataProperties.get(id);
+	}
+
+	private boolean isDataProperty(IRI iri) {
+		return dataProperties.get(dictionary.encode(iri));
+	}
+
+	private boolean isAnnotationProperty(IRI iri) {
+		return annotationProperties.get(dictionary.encode(iri));
+	}
+
+	private OWLClass owlClass(IRI iri) {
+		OWLClass c = dataFactory.getOWLClass(iri);
+		register(c, classes);
+		return c;
+	}
+
+	private OWLObjectProperty objectProperty(IRI iri) {
+		OWLObjectProperty p = dataFactory.getOWLObjectProperty(iri);
+		register(p, objectProperties);
+		return p;
+	}
+
+	private OWLDataProperty dataProperty(IRI iri) {
+		OWLDataProperty p = dataFactory.getOWLDataProperty(iri);
+		register(p, dataProperties);
+		return p;
+	}
+
+	private OWLAnnotationProperty annotationProperty(IRI iri) {
+		OWLAnnotationProperty p = dataFactory.getOWLAnnotationProperty(iri);
+		register(p, annotationProperties);
+		return p;
+	}
+
+	private OWLNamedIndividual individual(IRI iri) {
+		OWLNamedIndividual i = dataFactory.getOWLNamedIndividual(iri);
+		register(i, individuals);
+		return i;
+	}
+
+	/**
+	 * Adds an entity to the parser vocabulary the first time it is seen as a
+	 * given kind of entity
+	 */
+	private void register(OWLEntity entity, BitSet kind) {
+		int id = dictionary.encode(entity.getIRI());
+		if (!kind.get(id)) {
+			kind.set(id);
+			if (!entity.isBuiltIn())
+				parser.addVocab(entity);
+		}
+	}
+
+	private void declare(OWLEntity entity) {
+		add(dataFactory.getOWLDeclarationAxiom(entity));
+	}
+
+	private void add(OWLAxiom axiom) {
+		changes.add(new AddAxiom(ontology, axiom));
+	}
+
+	/**
+	 * An RDF term read from an N-Triples line
+	 */
+	private static final class Term {
+		static final int IRI = 0;
+		static final int BLANK = 1;
+		static final int LITERAL = 2;
+		int kind;
+		String value;
+		String datatype;
+		String language;
+	}
+
+	/**
+	 * Character cursor over an N-Triples line
+	 */
+	private static final class Cursor {
+		private final String line;
+		private int pos;
+
+		Cursor(String line) {
+			this.line = line;
+		}
+
+		boolean atEnd() {
+			return pos >= line.length();
+		}
+
+		char peek() {
+			return line.charAt(pos);
+		}
+
+		void skipSpace() {
+			while (pos < line.length() && (line.charAt(pos) == ' ' || line.charAt(pos) == '\t'
+					|| line.charAt(pos) == '\r'))
+				pos++;
+		}
+
+		/**
+		 * Reads an IRI, blank node or literal term, or returns null if the line is
+		 * malformed
+		 *
+		 * @throws IllegalArgumentException if the term has a malformed escape
+		 */
+		Term term() {
+			if (atEnd())
+				return null;
+			Term t = new Term();
+			char ch = peek();
+			if (ch == '<') {
+				int end = line.indexOf('>', pos);
+				if (end < 0)
+					return null;
+				t.kind = Term.IRI;
+				t.value = unescape(line.substring(pos + 1, end));
+				pos = end + 1;
+			} else if (ch == '_' && pos + 1 < line.length() && line.charAt(pos + 1) == ':') {
+				int end = pos + 2;
+				while (end < line.length() && !Character.isWhitespace(line.charAt(end)) && line.charAt(end) != '.')
+					end++;
+				t.kind = Term.BLANK;
+				t.value = line.substring(pos, end);
+				pos = end;
+			} else if (ch == '"') {
+				StringBuilder value = new StringBuilder();
+				pos++;
+				while (true) {
+					if (atEnd())
+						return null;
+					char c = line.charAt(pos++);
+					if (c == '"')
+						break;
+					if (c == '\\' && !atEnd()) {
+						pos = appendEscape(line, pos, value);
+					} else {
+						value.append(c);
+					}
+				}
+				t.kind = Term.LITERAL;
+				t.value = value.toString();
+				if (!atEnd() && peek() == '@') {
+					int end = pos + 1;
+					while (end < line.length() && (Character.isLetterOrDigit(line.charAt(end)) || line.charAt(end) == '-'))
+						end++;
+					t.language = line.substring(pos + 1, end);
+					pos = end;
+				} else if (pos + 1 < line.length() && peek() == '^' && line.charAt(pos + 1) == '^') {
+					pos += 2;
+					Term datatype = term();
+					if (datatype == null || datatype.kind != Term.IRI)
+						return null;
+					t.datatype = datatype.value;
+				}
+			} else {
+				return null;
+			}
+			return t;
+		}
+
+		/**
+		 * Resolves \\uXXXX and \\UXXXXXXXX escapes inside an IRI
+		 */
+		private static String unescape(String iri) {
+			if (iri.indexOf('\\') < 0)
+				return iri;
+			StringBuilder out = new StringBuilder(iri.length());
+			int i = 0;
+			while (i < iri.length()) {
+				char c = iri.charAt(i++);
+				if (c == '\\' && i < iri.length())
+					i = appendEscape(iri, i, out);
+				else
+					out.append(c);
+			}
+			return out.toString();
+		}
+
+		/**
+		 * Appends the character denoted by the escape sequence starting at pos
+		 * (just after the backslash) and returns the position after it
+		 *
+		 * @throws IllegalArgumentException if a \\u or \\U escape is truncated or
+		 *                                  does not denote a code point
+		 */
+		private static int appendEscape(String s, int pos, StringBuilder out) {
+			char e = s.charAt(pos++);
+			switch (e) {
+			case 't':
+				out.append('\t');
+				break;
+			case 'b':
+				out.append('\b');
+				break;
+			case 'n':
+				out.append('\n');
+				break;
+			case 'r':
+				out.append('\r');
+				break;
+			case 'f':
+				out.append('\f');
+				break;
+			case 'u':
+			case 'U':
+				int len = e == 'u' ? 4 : 8;
+				if (pos + len > s.length())
+					throw new IllegalArgumentException("truncated escape: " + s.substring(pos - 2));
+				// parseInt alone would accept a sign, and appendCodePoint rejects
+				// values beyond U+10FFFF
+				for (int k = pos; k < pos + len; k++)
+					if (Character.digit(s.charAt(k), 16) < 0)
+						throw new IllegalArgumentException("malformed escape: " + s.substring(pos - 2, pos + len));
+				out.appendCodePoint(Integer.parseInt(s.substring(pos, pos + len), 16));
+				pos += len;
+				break;
+			default:
+				out.append(e);
+			}
+			return pos;
+		}
+	}
+}
@@ -2,25 +2,49 @@ package io.github.kodymoodley.owlapilite;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.semanticweb.owlapi.apibinding.OWLManager;
-import org.semanticweb.owlapi.formats.ManchesterSyntaxDocumentFormat;
 import org.semanticweb.owlapi.io.OWLParserException;
+import org.semanticweb.owlapi.io.StreamDocumentSource;
 import org.semanticweb.owlapi.manchestersyntax.renderer.ManchesterOWLSyntaxOWLObjectRendererImpl;
+import org.semanticweb.owlapi.model.AddAxiom;
 import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotation;
 import org.semanticweb.owlapi.model.OWLAsymmetricObjectPropertyAxiom;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLIndividual;
 import org.semanticweb.owlapi.model.OWLIrreflexiveObjectPropertyAxiom;
@@ -30,8 +54,10 @@ import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLOntology;
 
 import org.semanticweb.owlapi.model.OWLOntologyAlreadyExistsException;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyDocumentAlreadyExistsException;
+import org.semanticweb.owlapi.model.OWLOntologyID;
 
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.model.OWLOntologyStorageException;
@@ -39,13 +65,12 @@ import org.semanticweb.owlapi.model.OWLReflexiveObjectPropertyAxiom;
 import org.semanticweb.owlapi.model.OWLSymmetricObjectPropertyAxiom;
 import org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom;
 import org.semanticweb.owlapi.model.UnknownOWLOntologyException;
+import org.semanticweb.owlapi.model.RemoveAxiom;
 import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.model.parameters.OntologyCopy;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
 
-import org.semanticweb.HermiT.ReasonerFactory;
-import org.semanticweb.elk.owlapi.ElkReasonerFactory;
 
-import uk.ac.manchester.cs.jfact.JFactFactory;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 import uk.ac.manchester.cs.owl.owlapi.OWLDeclarationAxiomImpl;
 
@@ -114,6 +139,75 @@ public class OWLAPILiteFactory {
 	 * Parser instance
 	 */
 	private static Parser parser = Parser.getInstance();
+	/**
+	 * session-level dictionary mapping entity IRIs and short forms to int ids
+	 */
+	private static EntityDictionary dictionary;
+	/**
+	 * off-heap ABox stores for the ontologies which have one enabled
+	 */
+	private final Map<OWLOntology, OffHeapABoxStore> aboxStores = new HashMap<OWLOntology, OffHeapABoxStore>();
+	/**
+	 * file watchers keeping ontologies in step with their documents
+	 */
+	private final Map<OWLOntology, OntologyWatcher> watchers = new HashMap<OWLOntology, OntologyWatcher>();
+	/**
+	 * guards the ontologies and the reasoner of the workspace against the file
+	 * watcher and asynchronous query threads: held while changes are applied and
+	 * while an AsyncReasoner query runs
+	 */
+	private final ReentrantLock workspaceLock = new ReentrantLock();
+	/**
+	 * asynchronous query API over the current reasoner, created on demand
+	 */
+	private AsyncReasoner asyncReasoner;
+	/**
+	 * prioritised job scheduler over the current reasoner, created on demand
+	 */
+	private ReasoningScheduler scheduler;
+	/**
+	 * executor for asynchronous queries, or null to use a virtual thread per query
+	 */
+	private ExecutorService queryExecutor;
+	/**
+	 * whether new reasoners classify the independent modules of the ontology in
+	 * parallel (see PartitionedClassifier)
+	 */
+	private boolean parallelClassification;
+	/**
+	 * whether new reasoners check consistency and realise the connected
+	 * components of the ABox in parallel (see ABoxPartitioner)
+	 */
+	private boolean aboxPartitioning;
+	/**
+	 * changes buffered by the open transaction, or null if there is none
+	 */
+	private List<OWLOntologyChange> transaction;
+	/**
+	 * entities mentioned by the axioms added in the open transaction
+	 */
+	private final Set<OWLEntity> transactionSignature = new HashSet<OWLEntity>();
+	/**
+	 * write-ahead journal of the changes to the journaled ontology, or null
+	 */
+	private ChangeJournal journal;
+	/**
+	 * whether queries, statistics and printing cover the imports closure of the
+	 * selected ontology
+	 */
+	private Imports imports = Imports.EXCLUDED;
+	/**
+	 * local cache of remote ontology documents, or null if caching is disabled
+	 */
+	private OntologyCache ontologyCache;
+	/**
+	 * single background thread on which asynchronous saves run, one at a time
+	 */
+	private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "owlapi-lite-save");
+		t.setDaemon(true);
+		return t;
+	});
 	/**
 	 * OWLAPILiteReasoner instance
 	 */
@@ -131,6 +225,7 @@ public class OWLAPILiteFactory {
 	 */
 	private OWLAPILiteFactory(SelectedReasoner selectedReasoner) {
 		ontologyManager = OWLManager.createOWLOntologyManager();
+		dictionary = new EntityDictionary();
 		setOWLReasoner(selectedReasoner);
 		fullIRIRendering = false;
 		dataFactory = new OWLDataFactoryImpl();
@@ -173,27 +268,310 @@ public class OWLAPILiteFactory {
 
 	/**
 	 * Set or initialise the OWLReasonerFactory implementation to use for this
-	 * OWLAPILiteFactory instance, based on the reasoner selected
+	 * OWLAPILiteFactory instance, based on the reasoner selected. The reasoner is
+	 * loaded through its ReasonerProvider in ReasonerRegistry
 	 * 
 	 * @param selectedReasoner the reasoner to use with this OWLAPILiteFactory
 	 *                         instance
 	 */
 	public void setOWLReasoner(SelectedReasoner selectedReasoner) {
-		if (selectedReasoner == SelectedReasoner.HERMIT) {
-			this.selectedReasoner = SelectedReasoner.HERMIT;
-			this.reasonerFactory = new ReasonerFactory();
+		ReasonerProvider provider = selectedReasoner == null ? null : selectedReasoner.getProvider();
+		if (provider == null) {
+			System.out.println("OWLAPI-Lite ERROR: the reasoner " + selectedReasoner + " is not registered!");
+			return;
 		}
-		if (selectedReasoner == SelectedReasoner.JFACT) {
-			this.selectedReasoner = SelectedReasoner.JFACT;
-			this.reasonerFactory = new JFactFactory();
+		try {
+			this.reasonerFactory = provider.createReasonerFactory();
+			this.selectedReasoner = selectedReasoner;
+		} catch (IllegalStateException e) {
+			System.out.println("OWLAPI-Lite ERROR: " + e.getMessage());
+			return;
 		}
-		if (selectedReasoner == SelectedReasoner.ELK) {
-			this.selectedReasoner = SelectedReasoner.ELK;
-			this.reasonerFactory = new ElkReasonerFactory();
+
+		if (selectedOntology != null)
+			createReasoner();
+	}
+
+	/**
+	 * Set the OWLReasonerFactory implementation to use for this OWLAPILiteFactory
+	 * instance, by the name of a reasoner in ReasonerRegistry
+	 * 
+	 * @param reasonerName the name of the reasoner (case insensitive), e.g.
+	 *                     "HERMIT" or the name of a third-party ReasonerProvider
+	 */
+	public void setOWLReasoner(String reasonerName) {
+		SelectedReasoner selected = SelectedReasoner.forName(reasonerName);
+		if (selected == null)
+			System.out.println("OWLAPI-Lite ERROR: there is no reasoner named '" + reasonerName + "'!");
+		else
+			setOWLReasoner(selected);
+	}
+
+	/**
+	 * (Re)creates the OWLAPILiteReasoner for the currently selected ontology
+	 */
+	private void createReasoner() {
+		workspaceLock.lock();
+		try {
+			// dispose the previous reasoner so its change listeners do not stay
+			// registered with the ontology manager
+			if (owlReasoner != null)
+				owlReasoner.dispose();
+			owlReasoner = new OWLAPILiteReasoner(reasonerFactory, selectedOntology, parser, selectedReasoner,
+					dictionary, parallelClassification ? ForkJoinPool.commonPool() : null);
+			owlReasoner.setABoxStore(aboxStores.get(selectedOntology));
+			owlReasoner.setABoxPartitioning(aboxPartitioning ? ForkJoinPool.commonPool() : null);
+			owlReasoner.imports = imports;
+			// an AsyncReasoner held by a client moves to the new reasoner; queries
+			// waiting for the lock run on it once this method returns
+			if (asyncReasoner != null)
+				asyncReasoner.setReasoner(owlReasoner);
+			// the lane instances of the scheduler belong to the old reasoner
+			closeScheduler();
+		} finally {
+			workspaceLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns an asynchronous query API over the reasoner of the currently
+	 * selected ontology. Queries return CompletableFutures and run on the query
+	 * executor (by default one virtual thread per query).
+	 * 
+	 * @return an AsyncReasoner instance, or null if there is no selected ontology
+	 */
+	public AsyncReasoner getAsyncReasoner() {
+		if (owlReasoner == null) {
+			System.out.println("OWLAPI-Lite ERROR: there is no reasoner to query! First create or load an ontology.");
+			return null;
+		}
+		if (asyncReasoner == null || asyncReasoner.getReasoner() != owlReasoner) {
+			if (asyncReasoner != null)
+				asyncReasoner.close();
+			// queries share the workspace lock, so they never run while this factory
+			// (or a file watcher) changes the ontology
+			asyncReasoner = queryExecutor == null ? new AsyncReasoner(owlReasoner, workspaceLock)
+					: new AsyncReasoner(owlReasoner, queryExecutor, workspaceLock);
 		}
+		return asyncReasoner;
+	}
+
+	/**
+	 * Returns the reasoning job scheduler of the currently selected ontology.
+	 * Interactive queries, batch materialisation and explanations are queued in
+	 * separate lanes with their own reasoner instances. Jobs hold the workspace
+	 * lock while they run. The scheduler is closed when the reasoner is replaced.
+	 * 
+	 * @return a ReasoningScheduler instance, or null if there is no selected
+	 *         ontology
+	 */
+	public ReasoningScheduler getScheduler() {
+		if (owlReasoner == null) {
+			System.out.println("OWLAPI-Lite ERROR: there is no reasoner to schedule jobs on! First create or load an ontology.");
+			return null;
+		}
+		// jobs share the workspace lock with the changes and AsyncReasoner queries;
+		// createReasoner closes the scheduler of a replaced reasoner
+		if (scheduler == null)
+			scheduler = new ReasoningScheduler(owlReasoner, workspaceLock);
+		return scheduler;
+	}
+
+	/**
+	 * Sets the executor which runs asynchronous reasoner queries
+	 * 
+	 * @param executor an ExecutorService, or null to run each query on its own
+	 *                 virtual thread
+	 */
+	public void setQueryExecutor(ExecutorService executor) {
+		queryExecutor = executor;
+		closeAsyncReasoner();
+	}
 
+	/**
+	 * Closes the reasoning job scheduler, if one was created
+	 */
+	private void closeScheduler() {
+		if (scheduler != null) {
+			scheduler.close();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * Closes the asynchronous query API, if one was created
+	 */
+	private void closeAsyncReasoner() {
+		if (asyncReasoner != null) {
+			asyncReasoner.close();
+			asyncReasoner = null;
+		}
+	}
+
+	/**
+	 * Enables or disables off-heap storage of individuals, class assertions and
+	 * object property assertions for the currently selected ontology. While
+	 * enabled, createIndividual, createObjectPropertyAssertion and createAxiom (for
+	 * class assertions of named classes) write int records to direct memory
+	 * instead of adding axioms to the ontology; the reasoner answers instance,
+	 * type and property assertion queries over the stored records using the
+	 * TBox/RBox hierarchy. Stored assertions cannot be removed and are not
+	 * consistency checked. Disabling moves the stored assertions into the
+	 * ontology in one batch. Inside a transaction, assertions are buffered like
+	 * other changes and written to the store by commit; the store cannot be
+	 * enabled or disabled while a transaction is open, and cannot be enabled while
+	 * the ontology is journaled.
+	 * 
+	 * @param option true to keep the ABox of the selected ontology off-heap, false
+	 *               to store it as regular ontology axioms
+	 */
+	public void setOffHeapABox(boolean option) {
+		System.out.println();
+		if (selectedOntology == null) {
+			System.out.println("OWLAPI-Lite ERROR: There is no ontology to store individuals for! First create an ontology.");
+			return;
+		}
+		if (transaction != null) {
+			System.out.println("OWLAPI-Lite ERROR: off-heap ABox storage cannot be changed inside a transaction! Commit or roll it back first.");
+			return;
+		}
+		OffHeapABoxStore store = aboxStores.get(selectedOntology);
+		if (option && store == null && journal != null && journal.getOntology() == selectedOntology) {
+			System.out.println("OWLAPI-Lite ERROR: off-heap ABox records are not journaled! Disable the change journal first.");
+			return;
+		}
+		// queries of other threads read the store under the workspace lock
+		workspaceLock.lock();
+		try {
+			if (option && store == null) {
+				store = new OffHeapABoxStore(dictionary);
+				aboxStores.put(selectedOntology, store);
+				System.out.println("Storing ABox of <" + selectedOntologyIRI + "> off-heap.");
+			} else if (!option && store != null) {
+				aboxStores.remove(selectedOntology);
+				long moved = store.individualCount() + store.classAssertionCount()
+						+ store.objectPropertyAssertionCount();
+				apply(store.axioms(dataFactory).map(a -> new AddAxiom(selectedOntology, a))
+						.collect(Collectors.toList()));
+				store.clear();
+				System.out.println("Moved " + moved + " off-heap ABox records into <" + selectedOntologyIRI + ">.");
+			}
+			if (owlReasoner != null)
+				owlReasoner.setABoxStore(aboxStores.get(selectedOntology));
+		} finally {
+			workspaceLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the off-heap ABox store of the currently selected ontology
+	 * 
+	 * @return an OffHeapABoxStore or null if the ABox of the selected ontology is
+	 *         kept on the heap
+	 */
+	public OffHeapABoxStore getOffHeapABox() {
+		return selectedOntology == null ? null : aboxStores.get(selectedOntology);
+	}
+
+	/**
+	 * Enables a local on-disk cache for loadFromURL and for resolving imports of
+	 * remote ontologies. Repeat loads revalidate the cached copy with the server
+	 * instead of downloading it again.
+	 * 
+	 * @param directory path of the cache directory (created if necessary)
+	 */
+	public void setOntologyCache(String directory) {
+		System.out.println();
+		try {
+			OntologyCache cache = new OntologyCache(Paths.get(directory));
+			if (ontologyCache != null)
+				ontologyManager.getIRIMappers().remove(ontologyCache);
+			ontologyCache = cache;
+			ontologyManager.getIRIMappers().add(cache);
+			System.out.println("Caching remote ontologies in '" + directory + "'.");
+		} catch (IOException | InvalidPathException e) {
+			System.out.println("OWLAPI-Lite ERROR: the cache directory '" + directory + "' could not be created.");
+		}
+	}
+
+	/**
+	 * Returns the ontology cache
+	 * 
+	 * @return the OntologyCache, or null if no cache is enabled
+	 */
+	public OntologyCache getOntologyCache() {
+		return ontologyCache;
+	}
+
+	/**
+	 * Enables or disables offline mode, in which remote ontologies are only
+	 * loaded from the ontology cache
+	 * 
+	 * @param option true to work offline
+	 */
+	public void setOfflineMode(boolean option) {
+		System.out.println();
+		if (ontologyCache == null) {
+			System.out.println("OWLAPI-Lite ERROR: offline mode requires an ontology cache! First call setOntologyCache.");
+			return;
+		}
+		ontologyCache.setOffline(option);
+		System.out.println(option ? "Offline mode: remote ontologies are only loaded from the cache."
+				: "Online mode: remote ontologies are revalidated with their servers.");
+	}
+
+	/**
+	 * Sets whether reasoners for the selected ontology classify it by parts: the
+	 * signature-connected components of the TBox are classified concurrently,
+	 * each by a separate reasoner instance over its locality-based module, and
+	 * the taxonomies are merged. Named class hierarchy queries are answered from
+	 * the merged taxonomy until the ontology changes.
+	 * 
+	 * @param option true to classify independent modules in parallel
+	 */
+	public void setParallelClassification(boolean option) {
+		System.out.println();
+		parallelClassification = option;
+		System.out.println(option ? "Classifying independent modules of ontologies in parallel."
+				: "Classifying ontologies as a whole.");
 		if (selectedOntology != null)
-			owlReasoner = new OWLAPILiteReasoner(reasonerFactory, selectedOntology, parser, selectedReasoner);
+			createReasoner();
+	}
+
+	/**
+	 * Sets whether reasoners for the selected ontology partition its ABox: the
+	 * individuals are split into connected components, which are checked for
+	 * consistency and realised concurrently, each shard by a separate reasoner
+	 * over the TBox and its own assertions, and the results are merged. The
+	 * off-heap ABox (see setOffHeapABox) is not partitioned.
+	 * 
+	 * @param option true to check and realise independent parts of the ABox in
+	 *               parallel
+	 */
+	public void setABoxPartitioning(boolean option) {
+		System.out.println();
+		aboxPartitioning = option;
+		System.out.println(option ? "Checking and realising independent parts of ABoxes in parallel."
+				: "Checking and realising ABoxes as a whole.");
+		if (owlReasoner != null)
+			owlReasoner.setABoxPartitioning(option ? ForkJoinPool.commonPool() : null);
+	}
+
+	/**
+	 * Sets whether printing, statistics and reasoner queries take the imports
+	 * closure of the selected ontology into account. Reasoning itself always
+	 * covers the imports closure.
+	 * 
+	 * @param option true to include imported ontologies, false to use only the
+	 *               axioms and signature of the selected ontology
+	 */
+	public void setImportsClosure(boolean option) {
+		System.out.println();
+		imports = Imports.fromBoolean(option);
+		if (owlReasoner != null)
+			owlReasoner.imports = imports;
+		System.out.println(option ? "Including the imports closure of the selected ontology."
+				: "Excluding imported ontologies.");
 	}
 
 	/**
@@ -217,26 +595,31 @@ public class OWLAPILiteFactory {
 	 *                                                                   is invalid
 	 */
 	public OWLOntology createOntology(String iriStr) throws OWLOntologyCreationException {
-		System.out.println();
-		// Ontology IRI
-		IRI ontologyIRI = IRI.create(iriStr);
-		// Create a fresh ontology
-		OWLOntology ontology = null;
-
+		workspaceLock.lock();
 		try {
-			ontology = ontologyManager.createOntology(ontologyIRI);
-			System.out.println("Created ontology: " + ontologyIRI);
-		} catch (OWLOntologyAlreadyExistsException ooae) {
-			System.out.println("OWLAPI-Lite ERROR: ontology <" + ontologyIRI + "> already exists in workspace!");
-		} catch (OWLOntologyDocumentAlreadyExistsException oodaee) {
-			System.out.println("OWLAPI-Lite ERROR: ontology <" + ontologyIRI + "> already exists in workspace!");
-		}
+			System.out.println();
+			// Ontology IRI
+			IRI ontologyIRI = IRI.create(iriStr);
+			// Create a fresh ontology
+			OWLOntology ontology = null;
 
-		if (ontology != null) {
-			setOntology(ontology);
-		}
+			try {
+				ontology = ontologyManager.createOntology(ontologyIRI);
+				System.out.println("Created ontology: " + ontologyIRI);
+			} catch (OWLOntologyAlreadyExistsException ooae) {
+				System.out.println("OWLAPI-Lite ERROR: ontology <" + ontologyIRI + "> already exists in workspace!");
+			} catch (OWLOntologyDocumentAlreadyExistsException oodaee) {
+				System.out.println("OWLAPI-Lite ERROR: ontology <" + ontologyIRI + "> already exists in workspace!");
+			}
+
+			if (ontology != null) {
+				setOntology(ontology);
+			}
 
-		return ontology;
+			return ontology;
+		} finally {
+			workspaceLock.unlock();
+		}
 	}
 
 	/**
@@ -246,8 +629,7 @@ public class OWLAPILiteFactory {
 		selectedOntologyIRI = selectedOntology.getOntologyID().getOntologyIRI().get();
 		System.out.println(
 				"Selected ontology is: " + selectedOntology.getOntologyID().getOntologyIRI().get().toString());
-		owlReasoner = null;
-		owlReasoner = new OWLAPILiteReasoner(reasonerFactory, selectedOntology, parser, selectedReasoner);
+		createReasoner();
 	}
 
 	/**
@@ -346,11 +728,11 @@ public class OWLAPILiteFactory {
 		if (selectedOntology == null) {
 			System.out.println("OWLAPI-Lite ERROR: There is no ontology to add classes to! First create an ontology.");
 		} else {
-			OWLClass c = dataFactory.getOWLClass(IRI.create(selectedOntologyIRI.toString() + classname));
+			OWLClass c = dataFactory.getOWLClass(entityIRI(classname));
 			parser.addVocab(c);
 			OWLDeclarationAxiomImpl a = new OWLDeclarationAxiomImpl(c, new HashSet<OWLAnnotation>());
 			OWLAxiom class_declaration = a.getAxiomWithoutAnnotations();
-			ontologyManager.addAxiom(selectedOntology, class_declaration);
+			applyChange(new AddAxiom(selectedOntology, class_declaration));
 			if (fullIRIRendering)
 				System.out.println("Class: " + c);
 			else
@@ -409,11 +791,11 @@ public class OWLAPILiteFactory {
 	public void createObjectProperty(String opropname, int trans, int ref, int sym) {
 		if (trans == 1) {
 			OWLObjectProperty r = dataFactory
-					.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
+					.getOWLObjectProperty(entityIRI(opropname));
 			parser.addVocab(r);
 			OWLTransitiveObjectPropertyAxiom t = dataFactory.getOWLTransitiveObjectPropertyAxiom(r,
 					new HashSet<OWLAnnotation>());
-			ontologyManager.addAxiom(selectedOntology, t);
+			applyChange(new AddAxiom(selectedOntology, t));
 			if (fullIRIRendering)
 				System.out.println("ObjectProperty: " + r);
 			else
@@ -421,11 +803,11 @@ public class OWLAPILiteFactory {
 		}
 		if (ref == 1) {
 			OWLObjectProperty r = dataFactory
-					.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
+					.getOWLObjectProperty(entityIRI(opropname));
 			parser.addVocab(r);
 			OWLReflexiveObjectPropertyAxiom t = dataFactory.getOWLReflexiveObjectPropertyAxiom(r,
 					new HashSet<OWLAnnotation>());
-			ontologyManager.addAxiom(selectedOntology, t);
+			applyChange(new AddAxiom(selectedOntology, t));
 			if (fullIRIRendering)
 				System.out.println("ObjectProperty: " + r);
 			else
@@ -433,11 +815,11 @@ public class OWLAPILiteFactory {
 		}
 		if (ref == 2) {
 			OWLObjectProperty r = dataFactory
-					.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
+					.getOWLObjectProperty(entityIRI(opropname));
 			parser.addVocab(r);
 			OWLIrreflexiveObjectPropertyAxiom t = dataFactory.getOWLIrreflexiveObjectPropertyAxiom(r,
 					new HashSet<OWLAnnotation>());
-			ontologyManager.addAxiom(selectedOntology, t);
+			applyChange(new AddAxiom(selectedOntology, t));
 			if (fullIRIRendering)
 				System.out.println("ObjectProperty: " + r);
 			else
@@ -445,11 +827,11 @@ public class OWLAPILiteFactory {
 		}
 		if (sym == 1) {
 			OWLObjectProperty r = dataFactory
-					.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
+					.getOWLObjectProperty(entityIRI(opropname));
 			parser.addVocab(r);
 			OWLSymmetricObjectPropertyAxiom t = dataFactory.getOWLSymmetricObjectPropertyAxiom(r,
 					new HashSet<OWLAnnotation>());
-			ontologyManager.addAxiom(selectedOntology, t);
+			applyChange(new AddAxiom(selectedOntology, t));
 			if (fullIRIRendering)
 				System.out.println("ObjectProperty: " + r);
 			else
@@ -457,11 +839,11 @@ public class OWLAPILiteFactory {
 		}
 		if (sym == 2) {
 			OWLObjectProperty r = dataFactory
-					.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
+					.getOWLObjectProperty(entityIRI(opropname));
 			parser.addVocab(r);
 			OWLAsymmetricObjectPropertyAxiom t = dataFactory.getOWLAsymmetricObjectPropertyAxiom(r,
 					new HashSet<OWLAnnotation>());
-			ontologyManager.addAxiom(selectedOntology, t);
+			applyChange(new AddAxiom(selectedOntology, t));
 			if (fullIRIRendering)
 				System.out.println("ObjectProperty: " + r);
 			else
@@ -469,11 +851,11 @@ public class OWLAPILiteFactory {
 		}
 		if ((trans == 0) && (ref == 0) && (sym == 0)) {
 			OWLObjectProperty r = dataFactory
-					.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
+					.getOWLObjectProperty(entityIRI(opropname));
 			parser.addVocab(r);
 			OWLDeclarationAxiomImpl a = new OWLDeclarationAxiomImpl(r, new HashSet<OWLAnnotation>());
 			OWLAxiom role_declaration = a.getAxiomWithoutAnnotations();
-			ontologyManager.addAxiom(selectedOntology, role_declaration);
+			applyChange(new AddAxiom(selectedOntology, role_declaration));
 			if (fullIRIRendering)
 				System.out.println("ObjectProperty: " + r);
 			else
@@ -515,7 +897,7 @@ public class OWLAPILiteFactory {
 					.println("OWLAPI-Lite ERROR: There is no ontology to add properties to! First create an ontology.");
 		} else {
 			OWLDataProperty dprop = dataFactory
-					.getOWLDataProperty(IRI.create(selectedOntologyIRI.toString() + dpropname));
+					.getOWLDataProperty(entityIRI(dpropname));
 			parser.addVocab(dprop);
 			if (fullIRIRendering)
 				System.out.println("DataProperty: " + dprop);
@@ -549,11 +931,23 @@ public class OWLAPILiteFactory {
 					"OWLAPI-Lite ERROR: There is no ontology to add individuals to! First create an ontology.");
 		} else {
 			OWLNamedIndividual i = dataFactory
-					.getOWLNamedIndividual(IRI.create(selectedOntologyIRI.toString() + individualname));
+					.getOWLNamedIndividual(entityIRI(individualname));
 			parser.addVocab(i);
-			OWLDeclarationAxiomImpl a = new OWLDeclarationAxiomImpl(i, new HashSet<OWLAnnotation>());
-			OWLAxiom individual_declaration = a.getAxiomWithoutAnnotations();
-			ontologyManager.addAxiom(selectedOntology, individual_declaration);
+			OffHeapABoxStore store = aboxStores.get(selectedOntology);
+			// inside a transaction the declaration is buffered, and commit writes it
+			// to the store
+			if (store != null && transaction == null) {
+				workspaceLock.lock();
+				try {
+					store.addIndividual(dictionary.encode(i.getIRI()));
+				} finally {
+					workspaceLock.unlock();
+				}
+			} else {
+				OWLDeclarationAxiomImpl a = new OWLDeclarationAxiomImpl(i, new HashSet<OWLAnnotation>());
+				OWLAxiom individual_declaration = a.getAxiomWithoutAnnotations();
+				applyChange(new AddAxiom(selectedOntology, individual_declaration));
+			}
 			if (fullIRIRendering)
 				System.out.println("Individual: " + i);
 			else
@@ -573,10 +967,9 @@ public class OWLAPILiteFactory {
 			System.out.println("OWLAPI-Lite ERROR: There is no ontology to add axioms to! First create an ontology.");
 			return null;
 		} else {
-			parser.setString(axiomStr);
 			OWLAxiom axiom = null;
 			try {
-				axiom = parser.getParser().parseAxiom();
+				axiom = parser.createAxiom(axiomStr);
 			} catch (OWLParserException ope) {
 				String[] tokens = ope.getMessage().split(" ");
 
@@ -593,7 +986,8 @@ public class OWLAPILiteFactory {
 			}
 
 			if (axiom != null) {
-				ontologyManager.addAxiom(selectedOntology, axiom);
+				if (!storeOffHeap(axiom))
+					applyChange(new AddAxiom(selectedOntology, axiom));
 				if (fullIRIRendering)
 					System.out.println("OWLAxiom: " + axiom);
 				else
@@ -603,6 +997,98 @@ public class OWLAPILiteFactory {
 		}
 	}
 
+	/**
+	 * Writes a class assertion (named class, named individual) or object property
+	 * assertion (named property and individuals) to the off-heap ABox store of the
+	 * selected ontology, if it has one and no transaction is open (commit writes
+	 * the buffered assertions to the store)
+	 * 
+	 * @param axiom an OWLAxiom object
+	 * @return true if the axiom was stored off-heap, false if it should be added
+	 *         to the ontology
+	 */
+	private boolean storeOffHeap(OWLAxiom axiom) {
+		return transaction == null && storeOffHeap(aboxStores.get(selectedOntology), axiom);
+	}
+
+	/**
+	 * Writes an individual declaration, class assertion (named class, named
+	 * individual) or object property assertion (named property and individuals)
+	 * to an off-heap ABox store, under the workspace lock
+	 * 
+	 * @param store an OffHeapABoxStore, or null
+	 * @param axiom an OWLAxiom object
+	 * @return true if the axiom was stored off-heap, false if it should be added
+	 *         to the ontology
+	 */
+	private boolean storeOffHeap(OffHeapABoxStore store, OWLAxiom axiom) {
+		if (store == null)
+			return false;
+		workspaceLock.lock();
+		try {
+			return writeOffHeap(store, axiom);
+		} finally {
+			workspaceLock.unlock();
+		}
+	}
+
+	private boolean writeOffHeap(OffHeapABoxStore store, OWLAxiom axiom) {
+		if (axiom instanceof OWLDeclarationAxiom) {
+			OWLEntity entity = ((OWLDeclarationAxiom) axiom).getEntity();
+			if (entity.isOWLNamedIndividual()) {
+				store.addIndividual(dictionary.encode(entity.getIRI()));
+				return true;
+			}
+		} else if (axiom instanceof OWLClassAssertionAxiom) {
+			OWLClassAssertionAxiom ca = (OWLClassAssertionAxiom) axiom;
+			if (ca.getClassExpression().isNamed() && ca.getIndividual().isNamed()) {
+				store.addClassAssertion(dictionary.encode(ca.getIndividual().asOWLNamedIndividual().getIRI()),
+						dictionary.encode(ca.getClassExpression().asOWLClass().getIRI()));
+				return true;
+			}
+		} else if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+			OWLObjectPropertyAssertionAxiom pa = (OWLObjectPropertyAssertionAxiom) axiom;
+			if (pa.getProperty().isNamed() && pa.getSubject().isNamed() && pa.getObject().isNamed()) {
+				store.addObjectPropertyAssertion(dictionary.encode(pa.getSubject().asOWLNamedIndividual().getIRI()),
+						dictionary.encode(pa.getProperty().asOWLObjectProperty().getIRI()),
+						dictionary.encode(pa.getObject().asOWLNamedIndividual().getIRI()));
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Helper method to report that an axiom to remove is held by the off-heap ABox
+	 * store of the selected ontology, which is append-only
+	 * 
+	 * @param axiom an OWLAxiom object
+	 * @return true if the axiom is stored off-heap (and cannot be removed)
+	 */
+	private boolean storedOffHeap(OWLAxiom axiom) {
+		OffHeapABoxStore store = aboxStores.get(selectedOntology);
+		if (store == null || selectedOntology.containsAxiom(axiom))
+			return false;
+		boolean stored = false;
+		if (axiom instanceof OWLClassAssertionAxiom) {
+			OWLClassAssertionAxiom ca = (OWLClassAssertionAxiom) axiom;
+			stored = ca.getClassExpression().isNamed() && ca.getIndividual().isNamed()
+					&& store.containsClassAssertion(dictionary.lookup(ca.getIndividual().asOWLNamedIndividual().getIRI()),
+							dictionary.lookup(ca.getClassExpression().asOWLClass().getIRI()));
+		} else if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+			OWLObjectPropertyAssertionAxiom pa = (OWLObjectPropertyAssertionAxiom) axiom;
+			stored = pa.getProperty().isNamed() && pa.getSubject().isNamed() && pa.getObject().isNamed()
+					&& store.containsObjectPropertyAssertion(
+							dictionary.lookup(pa.getSubject().asOWLNamedIndividual().getIRI()),
+							dictionary.lookup(pa.getProperty().asOWLObjectProperty().getIRI()),
+							dictionary.lookup(pa.getObject().asOWLNamedIndividual().getIRI()));
+		}
+		if (stored)
+			System.out.println("OWLAPI-Lite ERROR: " + renderer.render(axiom)
+					+ " is stored in the off-heap ABox, which does not support removal! Disable the off-heap ABox (setOffHeapABox(false)) first.");
+		return stored;
+	}
+
 	/**
 	 * Changes the namespace of current context. Future entities created after
 	 * executing this method will use this namespace
@@ -630,10 +1116,9 @@ public class OWLAPILiteFactory {
 			System.out.println("OWLAPI-Lite ERROR: There is no ontology to add classes to! First create an ontology.");
 			return null;
 		} else {
-			parser.setString(classExpressionStr);
 			OWLClassExpression clsEx = null;
 			try {
-				clsEx = parser.getParser().parseClassExpression();
+				clsEx = parser.createClassExpression(classExpressionStr);
 			} catch (OWLParserException ope) {
 				String[] tokens = ope.getMessage().split(" ");
 
@@ -781,24 +1266,42 @@ public class OWLAPILiteFactory {
 	}
 
 	/**
-	 * Gathers all OWL entities in the currently selected ontology
+	 * Resolves a name in the current namespace to an IRI through the session
+	 * dictionary, so that repeated lookups of the same name reuse one IRI object
 	 * 
-	 * @return A set of OWLEntity objects representing all entities in the currently
-	 *         selected ontology
+	 * @param name a short form name in the current namespace
+	 * @return the IRI of the name in the current namespace
+	 */
+	private IRI entityIRI(String name) {
+		return dictionary.getIRI(dictionary.encode(selectedOntologyIRI, name));
+	}
+
+	/**
+	 * Returns the session dictionary which maps entity IRIs and short forms to
+	 * dense int ids
+	 * 
+	 * @return the EntityDictionary of this OWLAPILiteFactory instance
 	 */
-	private Set<OWLEntity> gatherOntEntities() {
-		Set<OWLEntity> ontEntities = null;
+	public EntityDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Checks whether an OWL entity appears in the currently selected ontology,
+	 * using the ontology's signature index instead of gathering all entities
+	 * 
+	 * @param entity an OWLEntity object
+	 * @return true if the entity appears in the currently selected ontology, false
+	 *         otherwise
+	 */
+	private boolean inOntology(OWLEntity entity) {
 		if (selectedOntology == null) {
 			System.out
 					.println("OWLAPI-Lite ERROR: There is no ontology to add properties to! First create an ontology.");
-		} else {
-
-			Stream<OWLAxiom> ontAxioms = selectedOntology.axioms();
-			ontEntities = ontAxioms
-					.<OWLEntity>flatMap(ax -> ax.signature())
-					.collect(Collectors.toCollection(HashSet::new));
+			return false;
 		}
-		return ontEntities;
+		return selectedOntology.containsEntityInSignature(entity, imports)
+				|| (transaction != null && transactionSignature.contains(entity));
 	}
 
 	/**
@@ -807,14 +1310,13 @@ public class OWLAPILiteFactory {
 	 * @param opropname A string representation of an object property
 	 */
 	public void makeTransitive(String opropname) {
-		Set<OWLEntity> ontEntities = gatherOntEntities();
 		OWLObjectProperty r = dataFactory
-				.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
-		if (ontEntities.contains(r)) {
+				.getOWLObjectProperty(entityIRI(opropname));
+		if (inOntology(r)) {
 			OWLTransitiveObjectPropertyAxiom t = dataFactory.getOWLTransitiveObjectPropertyAxiom(r,
 					new HashSet<OWLAnnotation>());
 
-			ontologyManager.addAxiom(selectedOntology, t);
+			applyChange(new AddAxiom(selectedOntology, t));
 			render(t);
 		} else {
 			System.out.println(
@@ -829,14 +1331,13 @@ public class OWLAPILiteFactory {
 	 * @param opropname A string representation of an object property
 	 */
 	public void makeSymmetric(String opropname) {
-		Set<OWLEntity> ontEntities = gatherOntEntities();
 		OWLObjectProperty r = dataFactory
-				.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
+				.getOWLObjectProperty(entityIRI(opropname));
 
-		if (ontEntities.contains(r)) {
+		if (inOntology(r)) {
 			OWLSymmetricObjectPropertyAxiom s = dataFactory.getOWLSymmetricObjectPropertyAxiom(r,
 					new HashSet<OWLAnnotation>());
-			ontologyManager.addAxiom(selectedOntology, s);
+			applyChange(new AddAxiom(selectedOntology, s));
 			render(s);
 		} else {
 			System.out.println(
@@ -851,14 +1352,13 @@ public class OWLAPILiteFactory {
 	 * @param opropname A string representation of an object property
 	 */
 	public void makeReflexive(String opropname) {
-		Set<OWLEntity> ontEntities = gatherOntEntities();
 		OWLObjectProperty r = dataFactory
-				.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
+				.getOWLObjectProperty(entityIRI(opropname));
 
-		if (ontEntities.contains(r)) {
+		if (inOntology(r)) {
 			OWLReflexiveObjectPropertyAxiom re = dataFactory.getOWLReflexiveObjectPropertyAxiom(r,
 					new HashSet<OWLAnnotation>());
-			ontologyManager.addAxiom(selectedOntology, re);
+			applyChange(new AddAxiom(selectedOntology, re));
 			render(re);
 		} else {
 			System.out.println(
@@ -873,14 +1373,13 @@ public class OWLAPILiteFactory {
 	 * @param opropname A string representation of an object property
 	 */
 	public void makeIRReflexive(String opropname) {
-		Set<OWLEntity> ontEntities = gatherOntEntities();
 		OWLObjectProperty r = dataFactory
-				.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
+				.getOWLObjectProperty(entityIRI(opropname));
 
-		if (ontEntities.contains(r)) {
+		if (inOntology(r)) {
 			OWLIrreflexiveObjectPropertyAxiom irr = dataFactory.getOWLIrreflexiveObjectPropertyAxiom(r,
 					new HashSet<OWLAnnotation>());
-			ontologyManager.addAxiom(selectedOntology, irr);
+			applyChange(new AddAxiom(selectedOntology, irr));
 			render(irr);
 		} else {
 			System.out.println(
@@ -894,14 +1393,13 @@ public class OWLAPILiteFactory {
 	 * @param opropname A string representation of an object property
 	 */
 	public void makeAntiSymmetric(String opropname) {
-		Set<OWLEntity> ontEntities = gatherOntEntities();
 		OWLObjectProperty r = dataFactory
-				.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
+				.getOWLObjectProperty(entityIRI(opropname));
 
-		if (ontEntities.contains(r)) {
+		if (inOntology(r)) {
 			OWLAsymmetricObjectPropertyAxiom a = dataFactory.getOWLAsymmetricObjectPropertyAxiom(r,
 					new HashSet<OWLAnnotation>());
-			ontologyManager.addAxiom(selectedOntology, a);
+			applyChange(new AddAxiom(selectedOntology, a));
 			render(a);
 		} else {
 			System.out.println(
@@ -923,10 +1421,11 @@ public class OWLAPILiteFactory {
 			return null;
 		} else {
 			OWLObjectPropertyAssertionAxiom a = dataFactory.getOWLObjectPropertyAssertionAxiom(
-					dataFactory.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + parts[1])),
-					dataFactory.getOWLNamedIndividual(IRI.create(selectedOntologyIRI.toString() + parts[0])),
-					dataFactory.getOWLNamedIndividual(IRI.create(selectedOntologyIRI.toString() + parts[2])));
-			ontologyManager.addAxiom(selectedOntology, a);
+					dataFactory.getOWLObjectProperty(entityIRI(parts[1])),
+					dataFactory.getOWLNamedIndividual(entityIRI(parts[0])),
+					dataFactory.getOWLNamedIndividual(entityIRI(parts[2])));
+			if (!storeOffHeap(a))
+				applyChange(new AddAxiom(selectedOntology, a));
 			if (fullIRIRendering)
 				System.out.println("ObjectPropertyAssertion: " + a);
 			else
@@ -945,6 +1444,125 @@ public class OWLAPILiteFactory {
 		return createObjectPropertyAssertion(axiomStr);
 	}
 
+	/**
+	 * Creates an ABoxImporter for streaming class and object property assertions
+	 * from CSV/TSV files into the currently selected ontology (or its off-heap
+	 * ABox store, if enabled). Names are resolved in the current namespace. The
+	 * importer applies its batches directly, so it cannot be created while a
+	 * transaction is open.
+	 * 
+	 * @return an ABoxImporter instance, or null if there is no selected ontology
+	 *         or a transaction is open
+	 */
+	public ABoxImporter createABoxImporter() {
+		if (selectedOntology == null) {
+			System.out.println("OWLAPI-Lite ERROR: There is no ontology to import into! First create an ontology.");
+			return null;
+		}
+		if (transaction != null) {
+			System.out.println("OWLAPI-Lite ERROR: bulk imports cannot be part of a transaction! Commit or roll it back first.");
+			return null;
+		}
+		return new ABoxImporter(selectedOntology, selectedOntologyIRI, parser, dictionary,
+				aboxStores.get(selectedOntology), workspaceLock);
+	}
+
+	/**
+	 * Imports class assertions from a CSV or TSV file (tab separated if the file
+	 * name ends in .tsv) into the currently selected ontology. Individuals and
+	 * classes are declared automatically and axioms are applied in batches.
+	 * 
+	 * @param filepath         path to the CSV or TSV file
+	 * @param individualColumn zero-based column holding the individual name
+	 * @param classColumn      zero-based column holding the class name
+	 */
+	public void importClassAssertions(String filepath, int individualColumn, int classColumn) {
+		System.out.println();
+		ABoxImporter importer = createABoxImporter();
+		if (importer != null) {
+			try {
+				System.out.println(importer.importClassAssertions(Paths.get(filepath), individualColumn, classColumn));
+			} catch (IOException ioe) {
+				System.out.println("OWLAPI-Lite IMPORT ERROR: the file '" + filepath + "' could not be read.");
+			}
+		}
+	}
+
+	/**
+	 * Imports object property assertions from a CSV or TSV file (tab separated if
+	 * the file name ends in .tsv) into the currently selected ontology.
+	 * Individuals and properties are declared automatically and axioms are applied
+	 * in batches.
+	 * 
+	 * @param filepath       path to the CSV or TSV file
+	 * @param subjectColumn  zero-based column holding the subject individual
+	 * @param propertyColumn zero-based column holding the object property
+	 * @param objectColumn   zero-based column holding the object individual
+	 */
+	public void importObjectPropertyAssertions(String filepath, int subjectColumn, int propertyColumn,
+			int objectColumn) {
+		System.out.println();
+		ABoxImporter importer = createABoxImporter();
+		if (importer != null) {
+			try {
+				System.out.println(importer.importObjectPropertyAssertions(Paths.get(filepath), subjectColumn,
+						propertyColumn, objectColumn));
+			} catch (IOException ioe) {
+				System.out.println("OWLAPI-Lite IMPORT ERROR: the file '" + filepath + "' could not be read.");
+			}
+		}
+	}
+
+	/**
+	 * Creates an NTriplesStreamLoader for streaming N-Triples documents into the
+	 * currently selected ontology. The loader applies its chunks directly, so it
+	 * cannot be created while a transaction is open.
+	 *
+	 * @return an NTriplesStreamLoader instance, or null if there is no selected
+	 *         ontology or a transaction is open
+	 */
+	public NTriplesStreamLoader createNTriplesLoader() {
+		if (selectedOntology == null) {
+			System.out.println("OWLAPI-Lite ERROR: There is no ontology to load into! First create an ontology.");
+			return null;
+		}
+		if (transaction != null) {
+			System.out.println("OWLAPI-Lite ERROR: bulk imports cannot be part of a transaction! Commit or roll it back first.");
+			return null;
+		}
+		return new NTriplesStreamLoader(selectedOntology, parser, dictionary, workspaceLock);
+	}
+
+	/**
+	 * Streams an N-Triples file into the currently selected ontology chunk by
+	 * chunk, without first building an in-memory RDF graph of the whole document.
+	 * Compressed files are decompressed while streaming. Progress is printed after
+	 * every chunk.
+	 *
+	 * @param filepath path to the N-Triples (.nt) file
+	 */
+	public void loadFromNTriples(String filepath) {
+		System.out.println();
+		NTriplesStreamLoader loader = createNTriplesLoader();
+		if (loader != null) {
+			try {
+				Path path = Paths.get(filepath);
+				if (CompressedIO.detect(path).equals(CompressedIO.NONE)) {
+					loader.load(path);
+				} else {
+					try (InputStream in = CompressedIO.openInput(path)) {
+						loader.load(Channels.newChannel(in), -1);
+					}
+				}
+				System.out.println("Loaded " + loader.getTriples() + " triples (" + loader.getAxioms() + " axioms, "
+						+ loader.getSkipped() + " skipped) from '" + filepath + "' into ontology: <"
+						+ selectedOntologyIRI.toString() + ">");
+			} catch (IOException ioe) {
+				System.out.println("OWLAPI-Lite LOADING ERROR: the file '" + filepath + "' could not be read.");
+			}
+		}
+	}
+
 	/**
 	 * Makes all the individual names in the ontology refer to different individuals
 	 * (simulate the unique name assumption)
@@ -962,7 +1580,7 @@ public class OWLAPILiteFactory {
 			return null;
 		} else {
 			OWLAxiom a = dataFactory.getOWLDifferentIndividualsAxiom(inds, new HashSet<OWLAnnotation>());
-			ontologyManager.addAxiom(selectedOntology, a);
+			applyChange(new AddAxiom(selectedOntology, a));
 			render(a);
 			return a;
 		}
@@ -983,7 +1601,7 @@ public class OWLAPILiteFactory {
 		String[] parts = differentIndividualsStr.split(" ");
 		Set<OWLIndividual> inds = new HashSet<OWLIndividual>();
 		for (String s : parts) {
-			inds.add(dataFactory.getOWLNamedIndividual(IRI.create(selectedOntologyIRI.toString() + s)));
+			inds.add(dataFactory.getOWLNamedIndividual(entityIRI(s)));
 		}
 
 		if (parts.length < 2) {
@@ -992,7 +1610,7 @@ public class OWLAPILiteFactory {
 			return null;
 		} else {
 			OWLAxiom a = dataFactory.getOWLDifferentIndividualsAxiom(inds, new HashSet<OWLAnnotation>());
-			ontologyManager.addAxiom(selectedOntology, a);
+			applyChange(new AddAxiom(selectedOntology, a));
 			render(a);
 			return a;
 		}
@@ -1010,12 +1628,12 @@ public class OWLAPILiteFactory {
 			System.out.print("-");
 		System.out.println();
 
-		Set<OWLEntity> signature = selectedOntology.signature().collect(Collectors.toCollection(HashSet::new));
-		Set<OWLAxiom> rbox = selectedOntology.rboxAxioms(Imports.EXCLUDED)
+		Set<OWLEntity> signature = selectedOntology.signature(imports).collect(Collectors.toCollection(HashSet::new));
+		Set<OWLAxiom> rbox = selectedOntology.rboxAxioms(imports)
 				.collect(Collectors.toCollection(HashSet::new));
-		Set<OWLAxiom> tbox = selectedOntology.tboxAxioms(Imports.EXCLUDED)
+		Set<OWLAxiom> tbox = selectedOntology.tboxAxioms(imports)
 				.collect(Collectors.toCollection(HashSet::new));
-		Set<OWLAxiom> abox = selectedOntology.aboxAxioms(Imports.EXCLUDED)
+		Set<OWLAxiom> abox = selectedOntology.aboxAxioms(imports)
 				.collect(Collectors.toCollection(HashSet::new));
 
 		Set<OWLEntity> clses = new HashSet<OWLEntity>();
@@ -1128,32 +1746,40 @@ public class OWLAPILiteFactory {
 	public void printOntologyStats() {
 		System.out.println();
 		String ontIRI = selectedOntology.getOntologyID().getDefaultDocumentIRI().get().toString();
-		System.out.println("Stats for ontology: " + ontIRI);
+		System.out.println("Stats for ontology: " + ontIRI
+				+ (imports == Imports.INCLUDED ? " (including " + (selectedOntology.importsClosure().count() - 1) + " imports)" : ""));
 		for (int i = 0; i < ontIRI.length() + 20; i++)
 			System.out.print("-");
 		System.out.println();
 		// Number of axioms and constructs in ontology
-		System.out.println("Number of axioms: " + selectedOntology.getAxiomCount());
-		System.out.println("Number of logical axioms: " + selectedOntology.getLogicalAxiomCount());
-		System.out.println("Number of classes: " + selectedOntology.classesInSignature(Imports.EXCLUDED).count());
+		System.out.println("Number of axioms: " + selectedOntology.getAxiomCount(imports));
+		System.out.println("Number of logical axioms: " + selectedOntology.getLogicalAxiomCount(imports));
+		System.out.println("Number of classes: " + selectedOntology.classesInSignature(imports).count());
 		System.out.println("Number of object properties: "
-				+ selectedOntology.objectPropertiesInSignature(Imports.EXCLUDED).count());
+				+ selectedOntology.objectPropertiesInSignature(imports).count());
 		System.out.println(
-				"Number of data properties: " + selectedOntology.dataPropertiesInSignature(Imports.EXCLUDED).count());
+				"Number of data properties: " + selectedOntology.dataPropertiesInSignature(imports).count());
 		System.out.println(
-				"Number of individuals: " + selectedOntology.individualsInSignature(Imports.EXCLUDED).count());
+				"Number of individuals: " + selectedOntology.individualsInSignature(imports).count());
 		// Number of axioms of a specific type in ontology
-		System.out.println("Number of SubClassOf axioms: " + selectedOntology.axioms(AxiomType.SUBCLASS_OF).count());
+		System.out.println("Number of SubClassOf axioms: " + selectedOntology.axioms(AxiomType.SUBCLASS_OF, imports).count());
 		System.out.println("Number of EquivalentClasses axioms: "
-				+ selectedOntology.axioms(AxiomType.EQUIVALENT_CLASSES).count());
+				+ selectedOntology.axioms(AxiomType.EQUIVALENT_CLASSES, imports).count());
 		System.out.println(
-				"Number of DisjointClasses axioms: " + selectedOntology.axioms(AxiomType.DISJOINT_CLASSES).count());
+				"Number of DisjointClasses axioms: " + selectedOntology.axioms(AxiomType.DISJOINT_CLASSES, imports).count());
 		System.out
-				.println("Number of Class assertions: " + selectedOntology.axioms(AxiomType.CLASS_ASSERTION).count());
+				.println("Number of Class assertions: " + selectedOntology.axioms(AxiomType.CLASS_ASSERTION, imports).count());
 		System.out.println("Number of Object property assertions: "
-				+ selectedOntology.axioms(AxiomType.OBJECT_PROPERTY_ASSERTION).count());
+				+ selectedOntology.axioms(AxiomType.OBJECT_PROPERTY_ASSERTION, imports).count());
 		System.out.println("Number of Data property assertions: "
-				+ selectedOntology.axioms(AxiomType.DATA_PROPERTY_ASSERTION).count());
+				+ selectedOntology.axioms(AxiomType.DATA_PROPERTY_ASSERTION, imports).count());
+		OffHeapABoxStore store = aboxStores.get(selectedOntology);
+		if (store != null) {
+			System.out.println("Number of off-heap individual declarations: " + store.individualCount());
+			System.out.println("Number of off-heap Class assertions: " + store.classAssertionCount());
+			System.out.println(
+					"Number of off-heap Object property assertions: " + store.objectPropertyAssertionCount());
+		}
 	}
 
 	/**
@@ -1163,9 +1789,7 @@ public class OWLAPILiteFactory {
 	 */
 	public void removeClass(String classname) {
 		if (selectedOntology != null) {
-			OWLClass c = dataFactory.getOWLClass(IRI.create(selectedOntologyIRI.toString() + classname));
-			OWLDeclarationAxiomImpl a = new OWLDeclarationAxiomImpl(c, new HashSet<OWLAnnotation>());
-			selectedOntology.removeAxiom(a);
+			applyChange(removeDeclaration(dataFactory.getOWLClass(entityIRI(classname))));
 		} else {
 			System.out.println("OWLAPI-Lite ERROR: There is no ontology to remove classes from!");
 		}
@@ -1187,8 +1811,10 @@ public class OWLAPILiteFactory {
 				System.out.println(
 						"OWLAPI-Lite PARSER ERROR: incorrect syntax for removing class names. String requires more than 1 token (class names) each separated by single spaces");
 			} else {
+				List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
 				for (String c : classes)
-					removeClass(c);
+					changes.add(removeDeclaration(dataFactory.getOWLClass(entityIRI(c))));
+				applyChanges(changes);
 			}
 		}
 	}
@@ -1201,10 +1827,7 @@ public class OWLAPILiteFactory {
 	 */
 	public void removeObjectProperty(String opropname) {
 		if (selectedOntology != null) {
-			OWLObjectProperty r = dataFactory
-					.getOWLObjectProperty(IRI.create(selectedOntologyIRI.toString() + opropname));
-			OWLDeclarationAxiomImpl a = new OWLDeclarationAxiomImpl(r, new HashSet<OWLAnnotation>());
-			selectedOntology.removeAxiom(a);
+			applyChange(removeDeclaration(dataFactory.getOWLObjectProperty(entityIRI(opropname))));
 		} else {
 			System.out.println("OWLAPI-Lite ERROR: there is no selected ontology to property from!");
 		}
@@ -1229,9 +1852,7 @@ public class OWLAPILiteFactory {
 	 */
 	public void removeDataProperty(String dpropname) {
 		if (selectedOntology != null) {
-			OWLDataProperty r = dataFactory.getOWLDataProperty(IRI.create(selectedOntologyIRI.toString() + dpropname));
-			OWLDeclarationAxiomImpl a = new OWLDeclarationAxiomImpl(r, new HashSet<OWLAnnotation>());
-			selectedOntology.removeAxiom(a);
+			applyChange(removeDeclaration(dataFactory.getOWLDataProperty(entityIRI(dpropname))));
 		} else {
 			System.out.println("OWLAPI-Lite ERROR: there is no selected ontology to remove property from!");
 		}
@@ -1265,8 +1886,10 @@ public class OWLAPILiteFactory {
 				System.out.println(
 						"OWLAPI-Lite PARSER ERROR: incorrect syntax for removing properties. String requires more than 1 token (property names) each separated by single spaces");
 			} else {
+				List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
 				for (String o : oprops)
-					removeOProperty(o);
+					changes.add(removeDeclaration(dataFactory.getOWLObjectProperty(entityIRI(o))));
+				applyChanges(changes);
 			}
 		}
 	}
@@ -1301,8 +1924,10 @@ public class OWLAPILiteFactory {
 				System.out.println(
 						"OWLAPI-Lite PARSER ERROR: incorrect syntax for removing properties. String requires more than 1 token (property names) each separated by single spaces");
 			} else {
+				List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
 				for (String d : dprops)
-					removeDProperty(d);
+					changes.add(removeDeclaration(dataFactory.getOWLDataProperty(entityIRI(d))));
+				applyChanges(changes);
 			}
 		}
 	}
@@ -1328,12 +1953,8 @@ public class OWLAPILiteFactory {
 	 *                       remove
 	 */
 	public void removeIndividual(String individualname) {
-		if (selectedOntology == null) {
-			System.out.println("OWLAPI-Lite ERROR: There is no ontology to remove individuals from!");
-			OWLNamedIndividual i = dataFactory
-					.getOWLNamedIndividual(IRI.create(selectedOntologyIRI.toString() + individualname));
-			OWLDeclarationAxiomImpl a = new OWLDeclarationAxiomImpl(i, new HashSet<OWLAnnotation>());
-			selectedOntology.removeAxiom(a);
+		if (selectedOntology != null) {
+			applyChange(removeDeclaration(dataFactory.getOWLNamedIndividual(entityIRI(individualname))));
 		} else {
 			System.out.println("OWLAPI-Lite ERROR: There is no ontology to remove individuals from!");
 		}
@@ -1355,8 +1976,10 @@ public class OWLAPILiteFactory {
 				System.out.println(
 						"OWLAPI-Lite PARSER ERROR: incorrect syntax for removing individuals. String requires more than 1 token (individual names) each separated by single spaces");
 			} else {
+				List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
 				for (String i : inds)
-					removeIndividual(i);
+					changes.add(removeDeclaration(dataFactory.getOWLNamedIndividual(entityIRI(i))));
+				applyChanges(changes);
 			}
 		}
 	}
@@ -1368,17 +1991,16 @@ public class OWLAPILiteFactory {
 	 *                 OWL syntax
 	 */
 	public void removeAxiom(String axiomStr) {
-		parser.setString(axiomStr);
 		OWLAxiom axiom = null;
 
 		try {
-			axiom = parser.getParser().parseAxiom();
+			axiom = parser.createAxiom(axiomStr);
 		} catch (OWLParserException ope) {
 			System.out.println("OWLAPI-Lite PARSER ERROR: " + ope.getMessage());
 		}
 
-		if (axiom != null)
-			selectedOntology.removeAxiom(axiom);
+		if (axiom != null && !storedOffHeap(axiom))
+			applyChange(new RemoveAxiom(selectedOntology, axiom));
 	}
 
 	/**
@@ -1388,7 +2010,8 @@ public class OWLAPILiteFactory {
 	 */
 	public void removeAxiom(OWLAxiom a) {
 		if (selectedOntology != null) {
-			selectedOntology.removeAxiom(a);
+			if (!storedOffHeap(a))
+				applyChange(new RemoveAxiom(selectedOntology, a));
 		} else {
 			System.out.println("OWLAPI-Lite ERROR: there is no selected ontology to remove axiom from!");
 		}
@@ -1401,12 +2024,158 @@ public class OWLAPILiteFactory {
 	 */
 	public void removeAxioms(Set<OWLAxiom> a) {
 		if (selectedOntology != null) {
-			selectedOntology.removeAxioms(a);
+			List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+			for (OWLAxiom axiom : a)
+				if (!storedOffHeap(axiom))
+					changes.add(new RemoveAxiom(selectedOntology, axiom));
+			applyChanges(changes);
 		} else {
 			System.out.println("OWLAPI-Lite ERROR: there is no selected ontology to remove axioms from!");
 		}
 	}
 
+	/**
+	 * Starts a transaction. Until commit or rollback is called, the axioms added
+	 * and removed by the create, make and remove methods are buffered instead of
+	 * being applied to the ontology, so the ontology and its reasoner do not see
+	 * them yet. Entities created in the transaction can already be used by later
+	 * calls of the same transaction.
+	 */
+	public void beginTransaction() {
+		System.out.println();
+		if (transaction != null) {
+			System.out.println("OWLAPI-Lite ERROR: a transaction is already open! Commit or roll it back first.");
+			return;
+		}
+		transaction = new ArrayList<OWLOntologyChange>();
+		transactionSignature.clear();
+		System.out.println("Started transaction.");
+	}
+
+	/**
+	 * Applies all changes buffered by the open transaction in a single batch, so
+	 * that the reasoner (and any other change listener) is updated once
+	 * 
+	 * @return the number of changes applied
+	 */
+	public int commit() {
+		System.out.println();
+		if (transaction == null) {
+			System.out.println("OWLAPI-Lite ERROR: there is no open transaction to commit!");
+			return 0;
+		}
+		List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+		int orphaned = 0;
+		int offHeap = 0;
+		workspaceLock.lock();
+		try {
+			for (OWLOntologyChange change : transaction) {
+				if (!ontologyManager.contains(change.getOntology()))
+					orphaned++;
+				else if (change.isAddAxiom() && storeOffHeap(aboxStores.get(change.getOntology()), change.getAxiom()))
+					offHeap++;
+				else
+					changes.add(change);
+			}
+			if (!changes.isEmpty())
+				apply(changes);
+		} finally {
+			workspaceLock.unlock();
+		}
+		transaction = null;
+		transactionSignature.clear();
+		if (orphaned > 0)
+			System.out.println("OWLAPI-Lite ERROR: " + orphaned
+					+ " changes target an ontology which was removed from the workspace during the transaction! These changes were discarded.");
+		System.out.println("Committed transaction (" + (changes.size() + offHeap) + " changes, " + offHeap
+				+ " stored off-heap).");
+		return changes.size() + offHeap;
+	}
+
+	/**
+	 * Discards all changes buffered by the open transaction. Names added to the
+	 * parser vocabulary during the transaction stay available.
+	 */
+	public void rollback() {
+		System.out.println();
+		if (transaction == null) {
+			System.out.println("OWLAPI-Lite ERROR: there is no open transaction to roll back!");
+			return;
+		}
+		int discarded = transaction.size();
+		transaction = null;
+		transactionSignature.clear();
+		System.out.println("Rolled back transaction (" + discarded + " changes discarded).");
+	}
+
+	/**
+	 * @return true if a transaction is open
+	 */
+	public boolean inTransaction() {
+		return transaction != null;
+	}
+
+	/**
+	 * Applies a change to the ontology, or buffers it if a transaction is open
+	 */
+	private void applyChange(OWLOntologyChange change) {
+		if (transaction == null) {
+			apply(Collections.singletonList(change));
+			return;
+		}
+		transaction.add(change);
+		if (change.isAddAxiom())
+			change.getAxiom().signature().forEach(transactionSignature::add);
+	}
+
+	/**
+	 * Applies a batch of changes to the ontology in one call, so listeners such
+	 * as the reasoner are notified once, or buffers them if a transaction is open
+	 */
+	private void applyChanges(List<OWLOntologyChange> changes) {
+		if (transaction == null) {
+			if (!changes.isEmpty())
+				apply(changes);
+			return;
+		}
+		for (OWLOntologyChange change : changes)
+			applyChange(change);
+	}
+
+	/**
+	 * Applies changes to the ontologies while holding the workspace lock
+	 */
+	private void apply(List<? extends OWLOntologyChange> changes) {
+		workspaceLock.lock();
+		try {
+			ontologyManager.applyChanges(changes);
+		} finally {
+			workspaceLock.unlock();
+		}
+	}
+
+	/**
+	 * @return the change removing the declaration of an entity from the currently
+	 *         selected ontology
+	 */
+	private RemoveAxiom removeDeclaration(OWLEntity entity) {
+		return new RemoveAxiom(selectedOntology,
+				new OWLDeclarationAxiomImpl(entity, new HashSet<OWLAnnotation>()));
+	}
+
+	/**
+	 * Adds the signature of an ontology to the parser vocabulary and the session
+	 * dictionary
+	 */
+	private void registerVocab(OWLOntology ontology) {
+		// add new ontology signature to parser vocabulary so we can use Manchester OWL
+		// strings to manipulate and query it
+		ontology.signature().forEach(e -> {
+			parser.addVocab(e);
+			dictionary.encode(e.getIRI());
+		});
+	}
+
 	/**
 	 * Removes all axioms (logical and otherwise) from the ontology
 	 */
@@ -1414,7 +2183,8 @@ public class OWLAPILiteFactory {
 		if (selectedOntology != null) {
 			System.out.println(
 					"Reset selected ontology: " + selectedOntology.getOntologyID().getOntologyIRI().get().toString());
-			selectedOntology.removeAxioms(selectedOntology.axioms());
+			applyChanges(selectedOntology.axioms().map(a -> new RemoveAxiom(selectedOntology, a))
+					.collect(Collectors.toList()));
 
 		} else {
 			System.out.println("OWLAPI-Lite ERROR: no ontologies to reset in workspace!");
@@ -1422,21 +2192,16 @@ public class OWLAPILiteFactory {
 	}
 
 	private void updateParserVocab(OWLOntology ontology) {
-		// add new ontology signature to parser vocabulary so we can use Manchester OWL
-		// strings to manipulate and query it
-		for (OWLEntity e : ontology.signature().collect(Collectors.toCollection(HashSet::new))) {
-			parser.addVocab(e);
-		}
-
+		registerVocab(ontology);
 		selectedOntology = ontology;
 		selectedOntologyIRI = ontology.getOntologyID().getDefaultDocumentIRI().get();
-		owlReasoner = null;
-		owlReasoner = new OWLAPILiteReasoner(reasonerFactory, selectedOntology, parser, selectedReasoner);
+		createReasoner();
 	}
 
 	/**
 	 * Loads an OWL ontology from local file into the OWLAPILiteFactory instance.
-	 * This ontology becomes the currently selected ontology.
+	 * This ontology becomes the currently selected ontology. Gzip, zip and
+	 * deflate compressed files are detected and decompressed while loading.
 	 * 
 	 * @param filepath a string representation of the relative path to the local
 	 *                 ontology file on the local machine
@@ -1446,28 +2211,399 @@ public class OWLAPILiteFactory {
 	 *                                                                   invalid
 	 */
 	public OWLOntology loadFromFile(String filepath) throws OWLOntologyCreationException {
+		workspaceLock.lock();
+		try {
+			System.out.println();
+			File file = new File(filepath);
+			OWLOntology ontology = null;
+
+			try {
+				String codec = file.isFile() ? CompressedIO.detect(file.toPath()) : CompressedIO.NONE;
+				if (codec.equals(CompressedIO.NONE)) {
+					ontology = ontologyManager.loadOntologyFromOntologyDocument(file);
+				} else {
+					// decompress while parsing instead of via a temporary file
+					try (InputStream in = CompressedIO.openInput(file.toPath())) {
+						OWLDocumentFormat format = CompressedIO.formatHint(file.toPath());
+						ontology = ontologyManager.loadOntologyFromOntologyDocument(format == null
+								? new StreamDocumentSource(in, IRI.create(file))
+								: new StreamDocumentSource(in, IRI.create(file), format, null));
+					}
+				}
+				System.out.println("Loaded ontology: <" + ontology.getOntologyID().getDefaultDocumentIRI().get().toString()
+						+ "> into workspace.");
+			} catch (IOException ioe) {
+				System.out.println("OWLAPI-Lite LOADING ERROR: the ontology file " + filepath + " could not be read.");
+			} catch (OWLOntologyCreationException ooce) {
+				System.out.println("OWLAPI-Lite LOADING ERROR: either the ontology file " + filepath
+						+ " could not be found, it could not be parsed, or it already exists in your workspace.");
+			}
+
+			if (ontology != null) {
+				updateParserVocab(ontology);
+			}
+			return ontology;
+		} finally {
+			workspaceLock.unlock();
+		}
+	}
+
+	/**
+	 * Loads several OWL ontology files into the OWLAPILiteFactory instance.
+	 * Documents are parsed concurrently, each by a worker with its own
+	 * OWLOntologyManager, and then moved into the workspace. The parser
+	 * vocabulary is updated once for all documents and a single reasoner is
+	 * created at the end. The last successfully loaded ontology becomes the
+	 * currently selected ontology.
+	 * 
+	 * @param filepaths the paths of the local ontology files
+	 * @return the loaded OWLOntology instances, in the order of the given paths
+	 *         (files which could not be loaded are left out)
+	 */
+	public List<OWLOntology> loadFromFiles(Collection<Path> filepaths) {
 		System.out.println();
-		File file = new File(filepath);
-		OWLOntology ontology = null;
+		List<Path> paths = new ArrayList<Path>(filepaths);
+		List<OWLOntology> loaded = new ArrayList<OWLOntology>();
+		if (paths.isEmpty())
+			return loaded;
+
+		long start = System.nanoTime();
+		int workers = Math.min(paths.size(), Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		List<Future<OWLOntology>> parsed = new ArrayList<Future<OWLOntology>>();
+		long[] millis = new long[paths.size()];
+		for (int i = 0; i < paths.size(); i++) {
+			final int index = i;
+			parsed.add(executor.submit(() -> {
+				long t = System.nanoTime();
+				OWLOntologyManager workerManager = OWLManager.createOWLOntologyManager();
+				// imports between the given files are resolved once they are all in the workspace
+				workerManager.getOntologyConfigurator()
+						.setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT);
+				try {
+					return workerManager.loadOntologyFromOntologyDocument(paths.get(index).toFile());
+				} finally {
+					millis[index] = (System.nanoTime() - t) / 1000000;
+				}
+			}));
+		}
+		executor.shutdown();
 
+		// wait for the workers before taking the workspace lock, so that queries
+		// keep running while the documents are parsed
+		OWLOntology[] documents = new OWLOntology[paths.size()];
+		for (int i = 0; i < paths.size(); i++) {
+			try {
+				documents[i] = parsed.get(i).get();
+			} catch (ExecutionException ee) {
+				System.out.println("OWLAPI-Lite LOADING ERROR: either the ontology file " + paths.get(i)
+						+ " could not be found, it could not be parsed, or it already exists in your workspace.");
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				System.out.println("OWLAPI-Lite LOADING ERROR: loading was interrupted.");
+				break;
+			}
+		}
+
+		workspaceLock.lock();
 		try {
-			ontology = ontologyManager.loadOntologyFromOntologyDocument(file);
-			System.out.println("Loaded ontology: <" + ontology.getOntologyID().getDefaultDocumentIRI().get().toString()
-					+ "> into workspace.");
-		} catch (OWLOntologyCreationException ooce) {
-			System.out.println("OWLAPI-Lite LOADING ERROR: either the ontology file " + filepath
-					+ " could not be found, it could not be parsed, or it already exists in your workspace.");
+			for (int i = 0; i < paths.size(); i++) {
+				if (documents[i] == null)
+					continue;
+				String filepath = paths.get(i).toString();
+				try {
+					OWLOntology ontology = ontologyManager.copyOntology(documents[i], OntologyCopy.MOVE);
+					loaded.add(ontology);
+					System.out.println("Loaded ontology: <"
+							+ ontology.getOntologyID().getDefaultDocumentIRI().get().toString() + "> from '" + filepath
+							+ "' in " + millis[i] + " ms.");
+				} catch (OWLOntologyCreationException ooce) {
+					System.out.println("OWLAPI-Lite LOADING ERROR: either the ontology file " + filepath
+							+ " could not be found, it could not be parsed, or it already exists in your workspace.");
+				}
+			}
+
+			if (!loaded.isEmpty()) {
+				for (OWLOntology ontology : loaded)
+					registerVocab(ontology);
+				selectedOntology = loaded.get(loaded.size() - 1);
+				selectedOntologyIRI = selectedOntology.getOntologyID().getDefaultDocumentIRI().get();
+				createReasoner();
+			}
+		} finally {
+			workspaceLock.unlock();
 		}
+		System.out.println("Loaded " + loaded.size() + " of " + paths.size() + " ontology files in "
+				+ (System.nanoTime() - start) / 1000000 + " ms.");
+		return loaded;
+	}
 
-		if (ontology != null) {
-			updateParserVocab(ontology);
+	/**
+	 * Loads an OWL ontology file together with its imports closure. Imports are
+	 * resolved level by level, parsing the documents of each level concurrently;
+	 * imports already in the workspace are reused rather than loaded again. The
+	 * vocabulary of the whole closure is registered and a single reasoner is
+	 * created over the root ontology, which becomes the selected ontology.
+	 * Queries, statistics and printing then include the imports closure (see
+	 * setImportsClosure).
+	 * 
+	 * @param filepath a string representation of the path to the root ontology
+	 *                 file
+	 * @return the root OWLOntology instance, or null if the closure could not be
+	 *         loaded
+	 */
+	public OWLOntology loadWithImports(String filepath) {
+		workspaceLock.lock();
+		try {
+			System.out.println();
+			long start = System.nanoTime();
+			ImportsClosureLoader loader = new ImportsClosureLoader(ontologyManager,
+					Runtime.getRuntime().availableProcessors());
+			OWLOntology root;
+			try {
+				root = loader.load(IRI.create(new File(filepath)));
+			} catch (OWLOntologyCreationException ooce) {
+				System.out.println("OWLAPI-Lite LOADING ERROR: either the ontology file " + filepath
+						+ " or one of its imports could not be found, it could not be parsed, or it already exists in your workspace.");
+				return null;
+			}
+			root.importsClosure().forEach(this::registerVocab);
+			selectedOntology = root;
+			selectedOntologyIRI = root.getOntologyID().getDefaultDocumentIRI().get();
+			imports = Imports.INCLUDED;
+			createReasoner();
+			System.out.println("Loaded ontology: <" + selectedOntologyIRI + "> with " + (root.importsClosure().count() - 1)
+					+ " imports (" + loader.getLoaded() + " documents parsed, " + loader.getReused() + " shared imports reused, "
+					+ loader.getDepth() + " levels) in " + (System.nanoTime() - start) / 1000000 + " ms.");
+			return root;
+		} finally {
+			workspaceLock.unlock();
+		}
+	}
+
+	/**
+	 * Computes the structural difference between two ontologies in the workspace
+	 * (e.g. two releases of the same ontology) and prints a summary
+	 * 
+	 * @param fromIRIStr the IRI string of the old ontology
+	 * @param toIRIStr   the IRI string of the new ontology
+	 * @return an OntologyDiff instance, or null if either ontology does not exist
+	 */
+	public OntologyDiff diffOntologies(String fromIRIStr, String toIRIStr) {
+		OWLOntology from = ontologyManager.getOntology(IRI.create(fromIRIStr));
+		OWLOntology to = ontologyManager.getOntology(IRI.create(toIRIStr));
+		if (from == null || to == null) {
+			System.out.println();
+			System.out.println("OWLAPI-Lite ERROR: Ontology <" + (from == null ? fromIRIStr : toIRIStr) + "> does not exist!");
+			return null;
+		}
+		return diffOntologies(from, to);
+	}
+
+	/**
+	 * Computes the structural difference between two ontologies and prints a
+	 * summary
+	 * 
+	 * @param from the old ontology
+	 * @param to   the new ontology
+	 * @return an OntologyDiff instance
+	 */
+	public OntologyDiff diffOntologies(OWLOntology from, OWLOntology to) {
+		System.out.println();
+		long start = System.nanoTime();
+		OntologyDiff diff = OntologyDiff.compute(from, to);
+		System.out.println("Diff: " + diff + " (" + (System.nanoTime() - start) / 1000000 + " ms).");
+		return diff;
+	}
+
+	/**
+	 * Applies an ontology diff as a patch to the currently selected ontology. The
+	 * vocabulary of the added axioms is registered with the parser.
+	 * 
+	 * @param diff the OntologyDiff to apply
+	 */
+	public void applyDiff(OntologyDiff diff) {
+		System.out.println();
+		if (selectedOntology == null) {
+			System.out.println("OWLAPI-Lite ERROR: there is no selected ontology to apply the diff to!");
+			return;
+		}
+		// through applyChanges, so the patch takes the workspace lock and joins an
+		// open transaction
+		applyChanges(diff.changes(selectedOntology));
+		diff.getAddedAxioms().stream().flatMap(OWLAxiom::signature).forEach(e -> {
+			parser.addVocab(e);
+			dictionary.encode(e.getIRI());
+		});
+		System.out.println("Applied diff (" + diff + ") to ontology: <" + selectedOntologyIRI + ">.");
+	}
+
+	/**
+	 * Starts journaling the changes to the currently selected ontology, whose base
+	 * document is the given file. Changes are appended in groups to the journal
+	 * file filepath + ".journal" instead of rewriting the whole ontology. If the
+	 * journal already exists (e.g. after a crash or at the start of a new session)
+	 * its changes are replayed into the selected ontology first, so the selected
+	 * ontology should have been loaded from the base document. The journal only
+	 * records ontology changes, so it cannot be enabled for an ontology whose ABox
+	 * is stored off-heap.
+	 * 
+	 * @param filepath a string representation of the path to the base document of
+	 *                 the selected ontology
+	 */
+	public void enableJournal(String filepath) {
+		System.out.println();
+		if (selectedOntology == null) {
+			System.out.println("OWLAPI-Lite ERROR: there is no selected ontology to journal!");
+			return;
+		}
+		if (journal != null) {
+			System.out.println("OWLAPI-Lite ERROR: a change journal is already enabled! Disable it first.");
+			return;
+		}
+		if (aboxStores.containsKey(selectedOntology)) {
+			System.out.println("OWLAPI-Lite ERROR: the off-heap ABox of the selected ontology would not be journaled! Disable off-heap storage first.");
+			return;
+		}
+		try {
+			Path base = Paths.get(filepath);
+			SelectedFormat format = SelectedFormat.MANCHESTER;
+			for (SelectedFormat f : SelectedFormat.FORMATS)
+				if (base.getFileName().toString().endsWith("." + f.getExtension()))
+					format = f;
+			// compaction saves the ontology under the workspace lock
+			ChangeJournal opened = new ChangeJournal(selectedOntology, Paths.get(filepath + ".journal"), base, format,
+					workspaceLock);
+			opened.open(ChangeJournal.DEFAULT_FLUSH_INTERVAL);
+			journal = opened;
+			if (opened.getReplayed() > 0)
+				registerVocab(selectedOntology);
+			System.out.println("Journaling changes to ontology: <" + selectedOntologyIRI + "> in '" + filepath
+					+ ".journal' (" + opened.getReplayed() + " changes replayed).");
+		} catch (IOException | InvalidPathException e) {
+			System.out.println("OWLAPI-Lite ERROR: the change journal for '" + filepath + "' could not be opened ("
+					+ e.getMessage() + ").");
+		}
+	}
+
+	/**
+	 * Writes the journaled ontology to its base document and empties the journal
+	 */
+	public void compactJournal() {
+		System.out.println();
+		if (journal == null) {
+			System.out.println("OWLAPI-Lite ERROR: there is no change journal to compact!");
+			return;
+		}
+		try {
+			journal.compact();
+			System.out.println("Compacted the change journal into the base document.");
+		} catch (IOException e) {
+			System.out.println("OWLAPI-Lite ERROR: the change journal could not be compacted (" + e.getMessage() + ").");
+		}
+	}
+
+	/**
+	 * Flushes buffered changes to the journal and stops journaling
+	 */
+	public void disableJournal() {
+		System.out.println();
+		if (journal == null) {
+			System.out.println("OWLAPI-Lite ERROR: there is no change journal to disable!");
+			return;
+		}
+		closeJournal(journal.getOntology());
+		System.out.println("Stopped journaling changes.");
+	}
+
+	/**
+	 * Returns the active change journal
+	 * 
+	 * @return the ChangeJournal, or null if journaling is disabled
+	 */
+	public ChangeJournal getJournal() {
+		return journal;
+	}
+
+	private void closeJournal(OWLOntology ontology) {
+		if (journal == null || journal.getOntology() != ontology)
+			return;
+		try {
+			journal.close();
+		} catch (IOException e) {
+			System.out.println("OWLAPI-Lite ERROR: the last changes could not be written to the change journal ("
+					+ e.getMessage() + ").");
+		}
+		journal = null;
+	}
+
+	/**
+	 * Watches the document of the currently selected ontology. Whenever the file
+	 * is saved (e.g. by another editor) it is parsed again and only the axioms
+	 * which were added or removed are applied to the selected ontology, so the
+	 * reasoner is kept and can update incrementally. The vocabulary of added
+	 * axioms is registered with the parser. The file is parsed on the watcher
+	 * thread; the changes are applied while holding the lock under which this
+	 * factory applies its own changes.
+	 */
+	public void watchOntology() {
+		System.out.println();
+		if (selectedOntology == null) {
+			System.out.println("OWLAPI-Lite ERROR: there is no selected ontology to watch!");
+			return;
+		}
+		IRI document = ontologyManager.getOntologyDocumentIRI(selectedOntology);
+		if (!"file".equals(document.getScheme())) {
+			System.out.println("OWLAPI-Lite ERROR: the selected ontology was not loaded from a local file and cannot be watched!");
+			return;
+		}
+		if (watchers.containsKey(selectedOntology)) {
+			System.out.println("Already watching <" + document + ">.");
+			return;
+		}
+		OWLOntology ontology = selectedOntology;
+		String ontIRI = selectedOntologyIRI.toString();
+		// reloads are applied under the workspace lock, so they do not interleave
+		// with the changes made through this factory
+		OntologyWatcher watcher = new OntologyWatcher(ontology, Paths.get(document.toURI()), changes -> {
+			long added = changes.stream().filter(OWLOntologyChange::isAddAxiom).count();
+			changes.stream().filter(OWLOntologyChange::isAddAxiom).flatMap(c -> c.getAxiom().signature())
+					.forEach(e -> {
+						parser.addVocab(e);
+						dictionary.encode(e.getIRI());
+					});
+			if (!changes.isEmpty())
+				System.out.println("Reloaded ontology: <" + ontIRI + "> (" + added + " axioms added, "
+						+ (changes.size() - added) + " axioms removed).");
+		}, workspaceLock);
+		try {
+			watcher.start();
+			watchers.put(ontology, watcher);
+			System.out.println("Watching <" + document + "> for changes.");
+		} catch (IOException ioe) {
+			System.out.println("OWLAPI-Lite ERROR: the ontology file <" + document + "> cannot be watched.");
+		}
+	}
+
+	/**
+	 * Stops watching the document of the currently selected ontology
+	 */
+	public void stopWatchingOntology() {
+		System.out.println();
+		OntologyWatcher watcher = watchers.remove(selectedOntology);
+		if (watcher != null) {
+			watcher.stop();
+			System.out.println("Stopped watching <" + watcher.getFile().toUri() + ">.");
+		} else {
+			System.out.println("OWLAPI-Lite ERROR: the selected ontology is not being watched!");
 		}
-		return ontology;
 	}
 
 	/**
 	 * Loads an OWL ontology from a remote URL into the OWLAPILiteFactory
-	 * instance. This ontology becomes the currently selected ontology.
+	 * instance. This ontology becomes the currently selected ontology. If an
+	 * ontology cache is enabled, the document (and its imports) are served from
+	 * the cache.
 	 * 
 	 * @param url a string representation of the URL to the ontology on the Web
 	 * @return an OWLOntology instance
@@ -1476,28 +2612,44 @@ public class OWLAPILiteFactory {
 	 *                                                                   is invalid
 	 */
 	public OWLOntology loadFromURL(String url) throws OWLOntologyCreationException {
-		System.out.println();
-		IRI remoteOntologyIRI = IRI.create(url);
-		OWLOntology ontology = null;
-
+		workspaceLock.lock();
 		try {
-			ontology = ontologyManager.loadOntology(remoteOntologyIRI);
-			System.out.println("Loaded ontology: <" + ontology.getOntologyID().getDefaultDocumentIRI().get().toString()
-					+ "> into workspace.");
-		} catch (OWLOntologyCreationException ooce) {
-			System.out.println("OWLAPI-Lite LOADING ERROR: either the ontology at URL " + url
-					+ " could not be found, it could not be parsed, or it already exists in your workspace.");
-		}
+			System.out.println();
+			IRI remoteOntologyIRI = IRI.create(url);
+			OWLOntology ontology = null;
 
-		if (ontology != null) {
-			updateParserVocab(ontology);
+			try {
+				if (ontologyCache != null && ontologyCache.isOffline() && ontologyCache.cached(remoteOntologyIRI) == null) {
+					System.out.println("OWLAPI-Lite LOADING ERROR: the ontology at URL " + url
+							+ " is not in the local cache and offline mode is enabled.");
+					return null;
+				}
+			} catch (IOException ioe) {
+				System.out.println("OWLAPI-Lite LOADING ERROR: the local ontology cache could not be read.");
+				return null;
+			}
+
+			try {
+				ontology = ontologyManager.loadOntology(remoteOntologyIRI);
+				System.out.println("Loaded ontology: <" + ontology.getOntologyID().getDefaultDocumentIRI().get().toString()
+						+ "> into workspace.");
+			} catch (OWLOntologyCreationException ooce) {
+				System.out.println("OWLAPI-Lite LOADING ERROR: either the ontology at URL " + url
+						+ " could not be found, it could not be parsed, or it already exists in your workspace.");
+			}
+
+			if (ontology != null) {
+				updateParserVocab(ontology);
+			}
+			return ontology;
+		} finally {
+			workspaceLock.unlock();
 		}
-		return ontology;
 	}
 
 	/**
 	 * Saves the currently selected ontology to a local file in Manchester OWL
-	 * syntax
+	 * syntax (compressed if the file name ends in .gz, .zip or .zz)
 	 * 
 	 * @param filepath a string representation of the path and filename to save the
 	 *                 ontology to
@@ -1513,29 +2665,149 @@ public class OWLAPILiteFactory {
 	 *                                                                  disk
 	 */
 	public void saveOntology(String filepath) throws OWLOntologyStorageException, FileNotFoundException {
+		saveOntology(filepath, SelectedFormat.MANCHESTER, false);
+	}
+
+	/**
+	 * Saves the currently selected ontology to a local file in the given format.
+	 * The document is written through a buffered stream to a temporary file which
+	 * then replaces the target file, so an existing file is never left half
+	 * written.
+	 * 
+	 * @param filepath a string representation of the path and filename to save the
+	 *                 ontology to
+	 * @param format   the document format to save the ontology in
+	 * @param gzip     true to gzip compress the saved document; otherwise the
+	 *                 document is compressed if the file name ends in .gz, .zip
+	 *                 or .zz
+	 */
+	public void saveOntology(String filepath, SelectedFormat format, boolean gzip) {
 		System.out.println();
-		FileOutputStream fout = null;
+		if (selectedOntology == null) {
+			System.out.println("OWLAPI-Lite SAVING ERROR: there is no ontology to save! First create an ontology.");
+			return;
+		}
 		try {
-			fout = new FileOutputStream(filepath);
-		} catch (FileNotFoundException fnfe) {
-			System.out
-					.println("OWLAPI-Lite SAVING ERROR: the save path for the ontology '" + filepath + "' is invalid.");
+			OntologySaver.save(selectedOntology, Paths.get(filepath), format, gzip);
+			System.out.println("Saved ontology: <" + selectedOntology.getOntologyID().getDefaultDocumentIRI().get().toString()
+					+ "> to '" + filepath + "'");
+		} catch (IOException | InvalidPathException ioe) {
+			System.out.println("OWLAPI-Lite SAVING ERROR: the save path for the ontology '" + filepath + "' is invalid.");
 		} catch (SecurityException se) {
 			System.out.println("OWLAPI-Lite SAVING ERROR: you do not have write access to save the ontology to '"
 					+ filepath + "'.");
+		} catch (OWLOntologyStorageException | UnknownOWLOntologyException e) {
+			System.out.println("OWLAPI-Lite SAVING ERROR: the ontology could not be saved.");
 		}
+	}
 
-		if (fout != null) {
+	/**
+	 * Saves a copy of the currently selected ontology in the background. The copy
+	 * is taken before this method returns, so later edits are not included in the
+	 * saved document and do not wait for the save to finish. Saves run one at a
+	 * time, in the order they were requested.
+	 * 
+	 * @param filepath a string representation of the path and filename to save the
+	 *                 ontology to
+	 * @param format   the document format to save the ontology in
+	 * @param gzip     true to gzip compress the saved document
+	 * @return a CompletableFuture which completes with the saved file path, or
+	 *         exceptionally if the ontology could not be saved
+	 */
+	public CompletableFuture<Path> saveOntologyAsync(String filepath, SelectedFormat format, boolean gzip) {
+		System.out.println();
+		CompletableFuture<Path> result = new CompletableFuture<Path>();
+		if (selectedOntology == null) {
+			System.out.println("OWLAPI-Lite SAVING ERROR: there is no ontology to save! First create an ontology.");
+			result.completeExceptionally(new IllegalStateException("no ontology selected"));
+			return result;
+		}
+		final OWLOntology copy;
+		final Path target;
+		try {
+			target = Paths.get(filepath);
+			copy = OntologySaver.snapshot(selectedOntology);
+		} catch (OWLOntologyCreationException | InvalidPathException e) {
+			System.out.println("OWLAPI-Lite SAVING ERROR: the ontology could not be saved.");
+			result.completeExceptionally(e);
+			return result;
+		}
+		System.out.println("Saving ontology: <" + copy.getOntologyID().getDefaultDocumentIRI().get().toString()
+				+ "> to '" + filepath + "' in the background.");
+		return CompletableFuture.supplyAsync(() -> {
 			try {
-				ontologyManager.saveOntology(selectedOntology, new ManchesterSyntaxDocumentFormat(), fout);
-				System.out.println(
-						"Saved ontology: <" + selectedOntology.getOntologyID().getDefaultDocumentIRI().get().toString()
-								+ "> to '" + filepath + "'");
-			} catch (OWLOntologyStorageException oose) {
-				System.out.println("OWLAPI-Lite SAVING ERROR: the ontology could not be saved.");
-			} catch (UnknownOWLOntologyException uoe) {
-				System.out.println("OWLAPI-Lite SAVING ERROR: the ontology could not be saved.");
+				OntologySaver.save(copy, target, format, gzip);
+				return target;
+			} catch (IOException | OWLOntologyStorageException e) {
+				throw new CompletionException(e);
 			}
+		}, saveExecutor);
+	}
+
+	/**
+	 * Saves a binary snapshot of the whole workspace (all ontologies, off-heap
+	 * ABox stores, parser vocabulary, selected ontology and namespace) which can
+	 * be restored with loadWorkspaceSnapshot without parsing ontology documents
+	 * 
+	 * @param file the path of the snapshot file
+	 */
+	public void saveWorkspaceSnapshot(Path file) {
+		System.out.println();
+		long start = System.nanoTime();
+		try {
+			WorkspaceSnapshot.write(file, ontologyManager, selectedOntology, selectedOntologyIRI, parser.vocabulary(),
+					aboxStores);
+			System.out.println("Saved workspace snapshot of " + ontologyManager.ontologies().count()
+					+ " ontologies to '" + file + "' in " + (System.nanoTime() - start) / 1000000 + " ms.");
+		} catch (IOException ioe) {
+			System.out.println("OWLAPI-Lite SAVING ERROR: the workspace snapshot could not be saved to '" + file
+					+ "': " + ioe.getMessage());
+		}
+	}
+
+	/**
+	 * Restores a workspace snapshot saved with saveWorkspaceSnapshot. Ontologies
+	 * which already exist in the workspace are left unchanged. The selected
+	 * ontology and namespace of the snapshot become the current ones.
+	 * 
+	 * @param file the path of the snapshot file
+	 */
+	public void loadWorkspaceSnapshot(Path file) {
+		workspaceLock.lock();
+		try {
+			System.out.println();
+			long start = System.nanoTime();
+			WorkspaceSnapshot snapshot;
+			try {
+				snapshot = WorkspaceSnapshot.read(file, ontologyManager);
+			} catch (IOException ioe) {
+				System.out.println("OWLAPI-Lite LOADING ERROR: the workspace snapshot '" + file
+						+ "' could not be loaded: " + ioe.getMessage());
+				return;
+			}
+
+			for (OWLEntity e : snapshot.getVocabulary()) {
+				parser.addVocab(e);
+				dictionary.encode(e.getIRI());
+			}
+			for (Map.Entry<OWLOntology, List<OWLAxiom>> entry : snapshot.getOffHeapAxioms().entrySet()) {
+				OffHeapABoxStore store = new OffHeapABoxStore(dictionary);
+				WorkspaceSnapshot.restore(entry.getValue(), store, dictionary);
+				aboxStores.put(entry.getKey(), store);
+			}
+			for (OWLOntologyID id : snapshot.getSkipped())
+				System.out.println("OWLAPI-Lite LOADING ERROR: ontology " + id + " already exists in your workspace.");
+
+			if (snapshot.getSelectedOntology() != null) {
+				selectedOntology = snapshot.getSelectedOntology();
+				selectedOntologyIRI = snapshot.getNamespace() != null ? snapshot.getNamespace()
+						: selectedOntology.getOntologyID().getDefaultDocumentIRI().get();
+				createReasoner();
+			}
+			System.out.println("Loaded workspace snapshot of " + snapshot.getOntologies().size() + " ontologies from '"
+					+ file + "' in " + (System.nanoTime() - start) / 1000000 + " ms.");
+		} finally {
+			workspaceLock.unlock();
 		}
 	}
 
@@ -1545,58 +2817,124 @@ public class OWLAPILiteFactory {
 	 * @param iriStr the IRI string of the ontology to remove
 	 */
 	public void removeOntology(String iriStr) {
-		System.out.println();
-		IRI ontIRI = IRI.create(iriStr);
+		workspaceLock.lock();
+		try {
+			System.out.println();
+			IRI ontIRI = IRI.create(iriStr);
+
+			if (ontologyManager.contains(ontIRI)) {
+				detach(ontologyManager.getOntology(ontIRI));
+				ontologyManager.removeOntology(ontologyManager.getOntology(ontIRI));
+				releaseDictionaryEntries();
+				System.out.println("Removed ontology <" + ontIRI + "> from workspace.");
+			} else {
+				System.out.println("OWLAPI-Lite ERROR: ontology <" + iriStr
+						+ "> cannot be removed because it does not exist in workspace!");
+			}
 
-		if (ontologyManager.contains(ontIRI)) {
-			ontologyManager.removeOntology(ontologyManager.getOntology(ontIRI));
-			System.out.println("Removed ontology <" + ontIRI + "> from workspace.");
-		} else {
-			System.out.println("OWLAPI-Lite ERROR: ontology <" + iriStr
-					+ "> cannot be removed because it does not exist in workspace!");
+			if (ontologyManager.ontologies().count() > 0) {
+				Iterator<OWLOntology> ontIter = ontologyManager.ontologies().iterator();
+				while (ontIter.hasNext()) {
+					OWLOntology currentOnt = ontIter.next();
+					if (currentOnt.getOntologyID().getDefaultDocumentIRI().isPresent())
+						selectedOntology = currentOnt;
+				}
+				// the reasoner of a removed ontology was disposed
+				if (owlReasoner == null && ontologyManager.contains(selectedOntology))
+					createReasoner();
+			} else {
+				System.out.println("OWLAPI-Lite ERROR: ontology <" + iriStr
+						+ "> cannot be removed because it does not exist in workspace - (there are no ontologies in this workspace)!");
+			}
+			// no reasoner is left to move a held AsyncReasoner or scheduler to
+			if (owlReasoner == null) {
+				closeAsyncReasoner();
+				closeScheduler();
+			}
+		} finally {
+			workspaceLock.unlock();
 		}
+	}
 
-		if (ontologyManager.ontologies().count() > 0) {
-			Iterator<OWLOntology> ontIter = ontologyManager.ontologies().iterator();
-			while (ontIter.hasNext()) {
-				OWLOntology currentOnt = ontIter.next();
-				if (currentOnt.getOntologyID().getDefaultDocumentIRI().isPresent())
-					selectedOntology = currentOnt;
-			}
-		} else {
-			System.out.println("OWLAPI-Lite ERROR: ontology <" + iriStr
-					+ "> cannot be removed because it does not exist in workspace - (there are no ontologies in this workspace)!");
+	/**
+	 * Stops the file watcher, the change journal and the reasoner of an ontology
+	 * which leaves the workspace (the reasoner is disposed while the ontology
+	 * still has its manager) and releases its off-heap ABox. Called with the
+	 * workspace lock held.
+	 */
+	private void detach(OWLOntology ontology) {
+		OffHeapABoxStore store = aboxStores.remove(ontology);
+		if (store != null)
+			store.clear();
+		closeJournal(ontology);
+		OntologyWatcher watcher = watchers.remove(ontology);
+		if (watcher != null)
+			watcher.stop();
+		if (owlReasoner != null && owlReasoner.ontology == ontology) {
+			owlReasoner.dispose();
+			owlReasoner = null;
 		}
 	}
 
+	/**
+	 * Releases the dictionary entries which are no longer used by the signature
+	 * of an ontology in the workspace or by an off-heap ABox
+	 */
+	private void releaseDictionaryEntries() {
+		BitSet live = new BitSet();
+		ontologyManager.ontologies().flatMap(OWLOntology::signature).forEach(e -> {
+			int id = dictionary.lookup(e.getIRI());
+			if (id != EntityDictionary.NO_ID)
+				live.set(id);
+		});
+		for (OffHeapABoxStore store : aboxStores.values())
+			store.referencedIds().forEach(live::set);
+		dictionary.release(live::get);
+	}
+
 	/**
 	 * Removes an ontology from the current context (OWLAPILiteFactory instance)
 	 * 
 	 * @param ontology the OWLOntology object to remove
 	 */
 	public void removeOntology(OWLOntology ontology) {
-		System.out.println();
-		if (ontology != null && ontologyManager.contains(ontology)) {
-			ontologyManager.removeOntology(ontology);
-			System.out.println("Removed ontology <" + ontology.getOntologyID().getOntologyIRI().get().toString()
-					+ "> from workspace.");
-		} else {
-			System.out.println(
-					"OWLAPI-Lite ERROR: ontology <" + ontology.getOntologyID().getOntologyIRI().get().toString()
-							+ "> cannot be removed because it does not exist in workspace!");
-		}
+		workspaceLock.lock();
+		try {
+			System.out.println();
+			if (ontology != null && ontologyManager.contains(ontology)) {
+				detach(ontology);
+				ontologyManager.removeOntology(ontology);
+				releaseDictionaryEntries();
+				System.out.println("Removed ontology <" + ontology.getOntologyID().getOntologyIRI().get().toString()
+						+ "> from workspace.");
+			} else {
+				System.out.println(
+						"OWLAPI-Lite ERROR: ontology <" + ontology.getOntologyID().getOntologyIRI().get().toString()
+								+ "> cannot be removed because it does not exist in workspace!");
+			}
 
-		if (ontologyManager.ontologies().count() > 0) {
-			Iterator<OWLOntology> ontIter = ontologyManager.ontologies().iterator();
-			while (ontIter.hasNext()) {
-				OWLOntology currentOnt = ontIter.next();
-				if (currentOnt.getOntologyID().getDefaultDocumentIRI().isPresent())
-					selectedOntology = currentOnt;
+			if (ontologyManager.ontologies().count() > 0) {
+				Iterator<OWLOntology> ontIter = ontologyManager.ontologies().iterator();
+				while (ontIter.hasNext()) {
+					OWLOntology currentOnt = ontIter.next();
+					if (currentOnt.getOntologyID().getDefaultDocumentIRI().isPresent())
+						selectedOntology = currentOnt;
+				}
+				// the reasoner of a removed ontology was disposed
+				if (owlReasoner == null && ontologyManager.contains(selectedOntology))
+					createReasoner();
+			} else {
+				System.out.println("OWLAPI-Lite ERROR: ontology <"
+						+ ontology.getOntologyID().getOntologyIRI().get().toString()
+						+ "> cannot be removed because it does not exist in workspace - (there are no ontologies in this workspace)!");
 			}
-		} else {
-			System.out.println("OWLAPI-Lite ERROR: ontology <"
-					+ ontology.getOntologyID().getOntologyIRI().get().toString()
-					+ "> cannot be removed because it does not exist in workspace - (there are no ontologies in this workspace)!");
+			// no reasoner is left to move a held AsyncReasoner or scheduler to
+			if (owlReasoner == null) {
+				closeAsyncReasoner();
+				closeScheduler();
+			}
+		} finally {
+			workspaceLock.unlock();
 		}
 	}
 
@@ -1605,23 +2943,38 @@ public class OWLAPILiteFactory {
 	 * instance)
 	 */
 	public void removeOntology() {
-		System.out.println();
-		if (selectedOntology != null && ontologyManager.contains(selectedOntology)) {
-			ontologyManager.removeOntology(selectedOntology);
-			System.out.println("Removed ontology <" + selectedOntologyIRI + "> from workspace.");
-		} else {
-			System.out.println("OWLAPI-Lite ERROR: there is no ontology currently selected - cannot remove one!");
-		}
+		workspaceLock.lock();
+		try {
+			System.out.println();
+			if (selectedOntology != null && ontologyManager.contains(selectedOntology)) {
+				detach(selectedOntology);
+				ontologyManager.removeOntology(selectedOntology);
+				releaseDictionaryEntries();
+				System.out.println("Removed ontology <" + selectedOntologyIRI + "> from workspace.");
+			} else {
+				System.out.println("OWLAPI-Lite ERROR: there is no ontology currently selected - cannot remove one!");
+			}
 
-		if (ontologyManager.ontologies().count() > 0) {
-			Iterator<OWLOntology> ontIter = ontologyManager.ontologies().iterator();
-			while (ontIter.hasNext()) {
-				OWLOntology currentOnt = ontIter.next();
-				if (currentOnt.getOntologyID().getDefaultDocumentIRI().isPresent())
-					selectedOntology = currentOnt;
+			if (ontologyManager.ontologies().count() > 0) {
+				Iterator<OWLOntology> ontIter = ontologyManager.ontologies().iterator();
+				while (ontIter.hasNext()) {
+					OWLOntology currentOnt = ontIter.next();
+					if (currentOnt.getOntologyID().getDefaultDocumentIRI().isPresent())
+						selectedOntology = currentOnt;
+				}
+				// the reasoner of a removed ontology was disposed
+				if (owlReasoner == null && ontologyManager.contains(selectedOntology))
+					createReasoner();
+			} else {
+				System.out.println("OWLAPI-Lite ERROR: there is no ontology to remove in the current workspace!");
 			}
-		} else {
-			System.out.println("OWLAPI-Lite ERROR: there is no ontology to remove in the current workspace!");
+			// no reasoner is left to move a held AsyncReasoner or scheduler to
+			if (owlReasoner == null) {
+				closeAsyncReasoner();
+				closeScheduler();
+			}
+		} finally {
+			workspaceLock.unlock();
 		}
 	}
 }
\ No newline at end of file
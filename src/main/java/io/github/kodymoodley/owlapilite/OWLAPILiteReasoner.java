@@ -1,23 +1,41 @@
 package io.github.kodymoodley.owlapilite;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import org.semanticweb.owl.explanation.api.Explanation;
 import org.semanticweb.owl.explanation.api.ExplanationGenerator;
 import org.semanticweb.owl.explanation.impl.blackbox.checker.InconsistentOntologyExplanationGeneratorFactory;
 import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.OWLParserException;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLIndividual;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObject;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.model.parameters.Imports;
 import org.semanticweb.owlapi.reasoner.InconsistentOntologyException;
@@ -26,6 +44,7 @@ import org.semanticweb.owlapi.reasoner.Node;
 import org.semanticweb.owlapi.reasoner.NodeSet;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+import org.semanticweb.owlapi.reasoner.impl.OWLClassNodeSet;
 
 import com.clarkparsia.owlapi.explanation.DefaultExplanationGenerator;
 import com.clarkparsia.owlapi.explanation.util.SilentExplanationProgressMonitor;
@@ -103,6 +122,78 @@ public class OWLAPILiteReasoner {
 	 * ontologies
 	 */
 	public ExplanationGenerator<OWLAxiom> inconsistencyExplanationGenerator;
+	/**
+	 * Session dictionary used to resolve entity names to IRIs
+	 */
+	public EntityDictionary dictionary;
+	/**
+	 * Off-heap ABox store of the ontology, consulted by instance, type and object
+	 * property assertion queries (null if the ABox is kept in the ontology)
+	 */
+	public OffHeapABoxStore aboxStore;
+	/**
+	 * whether signature lookups in queries include the imports closure of the
+	 * ontology (default: Imports.EXCLUDED)
+	 */
+	public Imports imports = Imports.EXCLUDED;
+	/**
+	 * maximum number of query answers kept for counting and paging
+	 */
+	public static final int ANSWER_CACHE_SIZE = 256;
+	/**
+	 * number of change batches which touched the imports closure of the ontology
+	 * since this reasoner was created
+	 */
+	private final AtomicLong ontologyChanges = new AtomicLong();
+	/**
+	 * counts ontology changes in the imports closure, ignoring the other
+	 * ontologies of the manager (captures only the counter and the ontology, so
+	 * it does not keep this reasoner reachable from the ontology manager)
+	 */
+	private final OWLOntologyChangeListener changeCounter;
+	/**
+	 * Index of the told (asserted) axioms, consulted before the reasoner by
+	 * entailment checks
+	 */
+	private final ToldIndex toldIndex;
+	/**
+	 * number of entailment checks which called the reasoner
+	 */
+	private final AtomicLong entailmentCalls = new AtomicLong();
+	/**
+	 * the manager the change listeners are registered with (kept so they can be
+	 * removed even after the ontology has left its manager)
+	 */
+	private final OWLOntologyManager manager;
+	/**
+	 * the taxonomy computed by parallel classification (null if the ontology was
+	 * classified as a whole); it answers named class hierarchy queries until the
+	 * ontology changes
+	 */
+	private volatile PartitionedClassifier.Taxonomy taxonomy;
+	/**
+	 * executor on which consistency checking and realisation run over the
+	 * connected components of the ABox (null to use the reasoner of the whole
+	 * ontology)
+	 */
+	private volatile Executor realisationExecutor;
+	/**
+	 * the last result of ABox partitioned realisation, together with the number
+	 * of ontology changes it is based on
+	 */
+	private volatile CachedRealisation realisation;
+	/**
+	 * sorted answers of instance and subclass queries, least recently used first
+	 */
+	private final Map<Object, Answer<?>> answers = Collections
+			.synchronizedMap(new LinkedHashMap<Object, Answer<?>>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Object, Answer<?>> eldest) {
+					return size() > ANSWER_CACHE_SIZE;
+				}
+			});
 
 	/**
 	 * OWLAPILiteReasoner constructor
@@ -117,19 +208,177 @@ public class OWLAPILiteReasoner {
 	 */
 	public OWLAPILiteReasoner(OWLReasonerFactory reasonerFactory, OWLOntology ontology, Parser parser,
 			SelectedReasoner selectedReasoner) {
+		this(reasonerFactory, ontology, parser, selectedReasoner, new EntityDictionary());
+	}
+
+	/**
+	 * OWLAPILiteReasoner constructor
+	 * 
+	 * @param reasonerFactory  reference to a specific OWLReasonerFactory
+	 *                         implementation
+	 * @param ontology         an OWLOntology object representing the ontology to be
+	 *                         reasoned with
+	 * @param parser           a Parser instance (Manchester OWL Syntax)
+	 * @param selectedReasoner a SelectedReasoner instance holding metadata about
+	 *                         the selected OWL reasoner
+	 * @param dictionary       the session EntityDictionary used to resolve entity
+	 *                         names
+	 */
+	public OWLAPILiteReasoner(OWLReasonerFactory reasonerFactory, OWLOntology ontology, Parser parser,
+			SelectedReasoner selectedReasoner, EntityDictionary dictionary) {
+		this(reasonerFactory, ontology, parser, selectedReasoner, dictionary, null);
+	}
+
+	/**
+	 * OWLAPILiteReasoner constructor
+	 * 
+	 * @param reasonerFactory          reference to a specific OWLReasonerFactory
+	 *                                 implementation
+	 * @param ontology                 an OWLOntology object representing the
+	 *                                 ontology to be reasoned with
+	 * @param parser                   a Parser instance (Manchester OWL Syntax)
+	 * @param selectedReasoner         a SelectedReasoner instance holding metadata
+	 *                                 about the selected OWL reasoner
+	 * @param dictionary               the session EntityDictionary used to resolve
+	 *                                 entity names
+	 * @param classificationExecutor   if not null, the ontology is classified by
+	 *                                 PartitionedClassifier with the independent
+	 *                                 modules classified in parallel on this
+	 *                                 executor; otherwise the whole ontology is
+	 *                                 classified by one reasoner
+	 */
+	public OWLAPILiteReasoner(OWLReasonerFactory reasonerFactory, OWLOntology ontology, Parser parser,
+			SelectedReasoner selectedReasoner, EntityDictionary dictionary, Executor classificationExecutor) {
+		this.dictionary = dictionary;
 		this.selectedReasoner = selectedReasoner;
-		this.reasonerFactory = reasonerFactory;
+		// the built-in RL reasoner encodes individuals with the session dictionary
+		this.reasonerFactory = reasonerFactory instanceof RLReasonerFactory
+				? ((RLReasonerFactory) reasonerFactory).withDictionary(dictionary)
+				: reasonerFactory;
 		this.ontology = ontology;
 		this.ontologyIRI = this.ontology.getOntologyID().getDefaultDocumentIRI().get();
-		this.reasoner = reasonerFactory.createNonBufferingReasoner(this.ontology);
+		this.reasoner = this.reasonerFactory.createNonBufferingReasoner(this.ontology);
+		if (classificationExecutor != null && supports(ReasonerProvider.CLASSIFICATION)) {
+			PartitionedClassifier.Taxonomy t = new PartitionedClassifier(this.reasonerFactory, ontology)
+					.classify(classificationExecutor);
+			if (t.isConsistent())
+				this.taxonomy = t;
+		}
 		try {
-			this.reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+			// reasoners without inference answer from the asserted axioms on demand
+			if (supports(ReasonerProvider.CLASSIFICATION) && taxonomy == null)
+				this.reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
 		} catch (org.semanticweb.owlapi.reasoner.InconsistentOntologyException ioe2) {
 			System.out.println();
 			System.out.println("OWLAPI-Lite REASONING ERROR: ontology classification is not possible because <"
 					+ ontologyIRI.toString() + ">" + " is inconsistent!");
 		}
 		this.parser = parser;
+		AtomicLong changes = this.ontologyChanges;
+		OWLOntologyManager owner = this.ontology.getOWLOntologyManager();
+		this.changeCounter = c -> {
+			if (!owner.contains(ontology))
+				return;
+			Set<OWLOntology> closure = ontology.importsClosure().collect(Collectors.toSet());
+			if (c.stream().anyMatch(change -> closure.contains(change.getOntology())))
+				changes.incrementAndGet();
+		};
+		this.manager = owner;
+		this.manager.addOntologyChangeListener(changeCounter);
+		this.toldIndex = new ToldIndex(ontology);
+		this.manager.addOntologyChangeListener(toldIndex);
+	}
+
+	/**
+	 * Disposes the underlying OWLReasoner and stops tracking ontology changes.
+	 * The instance cannot answer queries afterwards.
+	 */
+	public void dispose() {
+		manager.removeOntologyChangeListener(changeCounter);
+		manager.removeOntologyChangeListener(toldIndex);
+		toldIndex.clear();
+		answers.clear();
+		reasoner.dispose();
+	}
+
+	/**
+	 * Returns the taxonomy of the parallel classification, if the ontology has not
+	 * changed since
+	 * 
+	 * @return the taxonomy, or null if the reasoner must be asked
+	 */
+	PartitionedClassifier.Taxonomy taxonomy() {
+		PartitionedClassifier.Taxonomy t = taxonomy;
+		if (t != null && ontologyChanges.get() != 0) {
+			// the module taxonomies are outdated: the reasoner classifies on demand
+			taxonomy = null;
+			return null;
+		}
+		return t;
+	}
+
+	/**
+	 * Sets the executor on which isConsistent, getAllTypes and (once they have
+	 * run) type queries are answered by partitioning the ABox into connected
+	 * components of individuals: the shards of components are checked and
+	 * realised in parallel, each by a separate reasoner over the TBox and the
+	 * assertions of the shard (see ABoxPartitioner). Assertions kept in the
+	 * off-heap ABox (see setABoxStore) are not part of the ontology and so are
+	 * not partitioned; type queries add their stored types separately.
+	 * 
+	 * @param executor the executor for the shard reasoners, or null to reason
+	 *                 with the whole ABox at once
+	 */
+	public void setABoxPartitioning(Executor executor) {
+		this.realisationExecutor = executor;
+		this.realisation = null;
+	}
+
+	/**
+	 * Returns the result of ABox partitioned realisation, if it is enabled and
+	 * the ontology has not changed since it was computed
+	 * 
+	 * @param compute true to (re)compute the result if there is no current one
+	 * @return the realisation, or null if the reasoner must be asked
+	 */
+	ABoxPartitioner.Realisation realisation(boolean compute) {
+		Executor executor = realisationExecutor;
+		if (executor == null || !supports(ReasonerProvider.REALISATION))
+			return null;
+		CachedRealisation cached = realisation;
+		long changes = ontologyChanges.get();
+		if (cached != null && cached.ontologyChanges == changes)
+			return cached.realisation;
+		if (!compute)
+			return null;
+		ABoxPartitioner.Realisation r = new ABoxPartitioner(reasonerFactory, ontology).realise(executor);
+		realisation = new CachedRealisation(r, changes);
+		return r;
+	}
+
+	/**
+	 * A realisation and the number of ontology changes it is based on, published
+	 * together so that a reader never pairs one result with another's count
+	 */
+	private static final class CachedRealisation {
+		private final ABoxPartitioner.Realisation realisation;
+		private final long ontologyChanges;
+
+		CachedRealisation(ABoxPartitioner.Realisation realisation, long ontologyChanges) {
+			this.realisation = realisation;
+			this.ontologyChanges = ontologyChanges;
+		}
+	}
+
+	/**
+	 * Returns whether the class hierarchy was computed by classifying independent
+	 * modules in parallel (and is still current)
+	 * 
+	 * @return true if named class hierarchy queries are answered from the merged
+	 *         taxonomy of the modules
+	 */
+	public boolean isClassifiedInParallel() {
+		return taxonomy() != null;
 	}
 
 	/**
@@ -144,6 +393,68 @@ public class OWLAPILiteReasoner {
 		System.out.println();
 	}
 
+	/**
+	 * Sets the off-heap ABox store which instance, type and object property
+	 * assertion queries should consult in addition to the ontology. Stored
+	 * assertions are combined with the class and property hierarchy computed by
+	 * the reasoner, and entailment checks of named class and property assertions
+	 * consult them too. They do not take part in consistency checking (which
+	 * warns about them) or in the partitioned realisation of the ABox.
+	 * 
+	 * @param aboxStore an OffHeapABoxStore or null to only use the ontology
+	 */
+	public void setABoxStore(OffHeapABoxStore aboxStore) {
+		this.aboxStore = aboxStore;
+	}
+
+	/**
+	 * Helper method to collect the dictionary ids of a stream of entities
+	 * 
+	 * @param entities a stream of OWLEntity objects
+	 * @return a BitSet with the dictionary id of each entity set
+	 */
+	private BitSet entityIds(Stream<? extends OWLEntity> entities) {
+		BitSet ids = new BitSet();
+		entities.forEach(e -> ids.set(dictionary.encode(e.getIRI())));
+		return ids;
+	}
+
+	/**
+	 * Helper method to resolve a name in the ontology namespace to an IRI
+	 * 
+	 * @param name a short form name in the ontology namespace
+	 * @return the IRI of the name in the ontology namespace
+	 */
+	IRI entityIRI(String name) {
+		return dictionary.getIRI(dictionary.encode(ontologyIRI, name));
+	}
+
+	/**
+	 * Returns whether the selected reasoner answers a kind of query completely.
+	 * Reasoners without inference (SelectedReasoner.STRUCTURAL) only report what
+	 * is asserted in the ontology
+	 * 
+	 * @param capability one or more ReasonerProvider capability constants
+	 * @return true if the selected reasoner has the given capabilities (or is not
+	 *         registered in ReasonerRegistry)
+	 */
+	public final boolean supports(int capability) {
+		ReasonerProvider provider = selectedReasoner == null ? null : selectedReasoner.getProvider();
+		return provider == null || provider.supports(capability);
+	}
+
+	/**
+	 * Helper method to warn that the selected reasoner answers a query from the
+	 * asserted axioms only
+	 * 
+	 * @param capability the ReasonerProvider capability needed for a complete answer
+	 */
+	private void warnIfIncomplete(int capability) {
+		if (!supports(capability))
+			System.out.println("OWLAPI-Lite REASONING WARNING: the " + selectedReasoner.getName()
+					+ " reasoner only uses the asserted axioms, so this answer may be incomplete!");
+	}
+
 	/**
 	 * Helper method to handle inconsistent ontology exceptions
 	 * 
@@ -166,10 +477,15 @@ public class OWLAPILiteReasoner {
 	 */
 	public void getEquivalentClasses(String classEx) {
 		System.out.println();
+		warnIfIncomplete(ReasonerProvider.CLASSIFICATION);
 		reasoner.flush();
 		try {
 			printHeader("All equivalent classes of " + classEx);
-			Node<OWLClass> subclasses = reasoner.getEquivalentClasses(parser.createClassExpression(classEx));
+			OWLClassExpression ce = parser.createClassExpression(classEx);
+			PartitionedClassifier.Taxonomy t = taxonomy();
+			Iterable<OWLClass> subclasses = t != null && !ce.isAnonymous() && t.contains(ce.asOWLClass())
+					? t.equivalentClassesOf(ce.asOWLClass())
+					: reasoner.getEquivalentClasses(ce);
 			int idx = 1;
 			for (OWLClass nc : subclasses) {
 				if (!nc.isOWLNothing() && !nc.isOWLThing()) {
@@ -191,25 +507,71 @@ public class OWLAPILiteReasoner {
 	 */
 	public void getSubClasses(String classEx) {
 		System.out.println();
-		reasoner.flush();
+		warnIfIncomplete(ReasonerProvider.CLASSIFICATION);
 		try {
 			printHeader("All subclasses of '" + classEx + "'");
-			NodeSet<OWLClass> subclasses = reasoner.getSubClasses(parser.createClassExpression(classEx), false);
-			int idx = 1;
-			for (Node<OWLClass> nc : subclasses) {
-				for (OWLClass c : nc) {
-					if (!c.isOWLNothing() && !c.isOWLThing()) {
-						System.out.println(idx + ". " + Parser.renderer.render(c));
-						idx++;
-					}
-				}
-			}
+			printNumbered(subClassesOf(classEx));
 			System.out.println();
 		} catch (InconsistentOntologyException ioe) {
 			handleInconsistentOntology("computing all subclasses of", classEx);
 		}
 	}
 
+	/**
+	 * Returns all atomic subclasses (both direct and indirect) of a given class
+	 * expression string, excluding owl:Thing and owl:Nothing
+	 * 
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @return the subclasses, in the order the reasoner reports them
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public Set<OWLClass> subClassesOf(String classEx) {
+		return named(subClassesStream(classEx));
+	}
+
+	/**
+	 * Returns all atomic subclasses (both direct and indirect) of a given class
+	 * expression string, excluding owl:Thing and owl:Nothing, as a lazily
+	 * evaluated stream over the reasoner's answer
+	 * 
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @return a stream of the subclasses
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public Stream<OWLClass> subClassesStream(String classEx) {
+		OWLClassExpression ce = parser.createClassExpression(classEx);
+		PartitionedClassifier.Taxonomy t = taxonomy();
+		if (t != null && !ce.isAnonymous() && t.contains(ce.asOWLClass()))
+			return t.subClassesOf(ce.asOWLClass()).stream();
+		reasoner.flush();
+		return reasoner.getSubClasses(ce, false).entities()
+				.filter(c -> !c.isOWLNothing() && !c.isOWLThing());
+	}
+
+	/**
+	 * Helper method to collect classes other than owl:Thing and owl:Nothing
+	 * 
+	 * @param classes a stream of OWLClass objects
+	 * @return the named classes in stream order
+	 */
+	private static Set<OWLClass> named(Stream<OWLClass> classes) {
+		return classes.filter(c -> !c.isOWLNothing() && !c.isOWLThing())
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+
+	/**
+	 * Helper method to print rendered objects as a numbered list
+	 * 
+	 * @param objects the OWL objects to print
+	 */
+	private static void printNumbered(Collection<? extends OWLObject> objects) {
+		int idx = 1;
+		for (OWLObject o : objects) {
+			System.out.println(idx + ". " + Parser.renderer.render(o));
+			idx++;
+		}
+	}
+
 	/**
 	 * prints all atomic superclasses (both direct and indirect) of a given class
 	 * expression string to console output
@@ -218,31 +580,40 @@ public class OWLAPILiteReasoner {
 	 */
 	public void getSuperClasses(String classEx) {
 		System.out.println();
-		reasoner.flush();
+		warnIfIncomplete(ReasonerProvider.CLASSIFICATION);
 		try {
 			printHeader("All superclasses of '" + classEx + "'");
-			NodeSet<OWLClass> supclasses = reasoner.getSuperClasses(parser.createClassExpression(classEx), false);
-			int idx = 1;
-			for (Node<OWLClass> nc : supclasses) {
-				for (OWLClass c : nc) {
-					if (!c.isOWLNothing() && !c.isOWLThing()) {
-						System.out.println(idx + ". " + Parser.renderer.render(c));
-						idx++;
-					}
-				}
-			}
+			printNumbered(superClassesOf(classEx));
 			System.out.println();
 		} catch (InconsistentOntologyException ioe) {
 			handleInconsistentOntology("computing all superclasses of", classEx);
 		}
 	}
 
+	/**
+	 * Returns all atomic superclasses (both direct and indirect) of a given class
+	 * expression string, excluding owl:Thing and owl:Nothing
+	 * 
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @return the superclasses, in the order the reasoner reports them
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public Set<OWLClass> superClassesOf(String classEx) {
+		OWLClassExpression ce = parser.createClassExpression(classEx);
+		PartitionedClassifier.Taxonomy t = taxonomy();
+		if (t != null && !ce.isAnonymous() && t.contains(ce.asOWLClass()))
+			return named(t.superClassesOf(ce.asOWLClass()).stream());
+		reasoner.flush();
+		return named(reasoner.getSuperClasses(ce, false).entities());
+	}
+
 	/**
 	 * prints all unsatisfiable class names in the ontology associated with this
 	 * OWLAPILiteReasoner instance to console output
 	 */
 	public void getUnsatisfiableClasses() {
 		System.out.println();
+		warnIfIncomplete(ReasonerProvider.CLASSIFICATION);
 		reasoner.flush();
 		try {
 			String headerText = "All unsatisfiable classes in <"
@@ -264,13 +635,26 @@ public class OWLAPILiteReasoner {
 
 	/**
 	 * prints Yes to console output if the ontology associated with this
-	 * OWLAPILiteReasoner instance is consistent, prints No otherwise
-	 * @return true if ontology is consistent, false otherwise
+	 * OWLAPILiteReasoner instance is consistent, prints No otherwise. Reasoners
+	 * without inference (SelectedReasoner.STRUCTURAL) cannot tell, which is
+	 * printed instead
+	 * @return true if ontology is consistent (or the selected reasoner cannot
+	 *         check consistency), false otherwise
 	 */
 	public boolean isConsistent() {
 		reasoner.flush();
 		System.out.println();
-		if (reasoner.isConsistent()) {
+		if (!supports(ReasonerProvider.CLASSIFICATION)) {
+			System.out.println("OWLAPI-Lite REASONING WARNING: the " + selectedReasoner.getName()
+					+ " reasoner does not check consistency, so it is unknown whether <"
+					+ ontology.getOntologyID().getDefaultDocumentIRI().get().toString() + "> is consistent!");
+			return true;
+		}
+		if (aboxStore != null && aboxStore.classAssertionCount() + aboxStore.objectPropertyAssertionCount() > 0)
+			System.out.println("OWLAPI-Lite REASONING WARNING: the assertions in the off-heap ABox are not"
+					+ " consistency checked! Disable the off-heap ABox (setOffHeapABox(false)) to include them.");
+		ABoxPartitioner.Realisation r = realisation(true);
+		if (r != null ? r.isConsistent() : reasoner.isConsistent()) {
 			System.out.println(
 					"Yes - <" + ontology.getOntologyID().getDefaultDocumentIRI().get().toString() + "> is consistent!");
 			return true;
@@ -289,26 +673,54 @@ public class OWLAPILiteReasoner {
 	 */
 	public void getTypes(String ind) {
 		System.out.println();
-		this.reasoner.flush();
+		warnIfIncomplete(ReasonerProvider.REALISATION);
 		try {
 			printHeader("Types for individual: '" + ind + "'");
-			NodeSet<OWLClass> typesC = this.reasoner
-					.getTypes(dataFactory.getOWLNamedIndividual(IRI.create(ontologyIRI.toString() + ind)), false);
-			int idx = 1;
-			for (Node<OWLClass> c : typesC) {
-				for (OWLClass c2 : c) {
-					if (!c2.isOWLThing()) {
-						System.out.println(idx + ". " + Parser.renderer.render(c2));
-						idx++;
-					}
-				}
-			}
+			printNumbered(typesOf(ind));
 			System.out.println();
 		} catch (InconsistentOntologyException ioe) {
 			handleInconsistentOntology("checking for entailed types", "");
 		}
 	}
 
+	/**
+	 * Returns all atomic classes (other than owl:Thing) which the individual
+	 * (represented by the given string) is an instance of, including the types
+	 * implied by assertions in the off-heap ABox store
+	 * 
+	 * @param ind string representation of an individual name in the ontology
+	 * @return the types, in the order the reasoner reports them followed by types
+	 *         only known from the off-heap store
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public Set<OWLClass> typesOf(String ind) {
+		this.reasoner.flush();
+		OWLNamedIndividual individual = dataFactory.getOWLNamedIndividual(entityIRI(ind));
+		ABoxPartitioner.Realisation r = realisation(false);
+		if (r != null && !r.isConsistent())
+			throw new InconsistentOntologyException();
+		Set<OWLClass> types;
+		if (r != null && r.contains(individual))
+			types = new LinkedHashSet<OWLClass>(r.typesOf(individual));
+		else {
+			// individuals which only exist in the off-heap store are unknown to the reasoner
+			NodeSet<OWLClass> typesC = aboxStore == null
+					|| ontology.containsIndividualInSignature(individual.getIRI(), imports)
+							? this.reasoner.getTypes(individual, false)
+							: new OWLClassNodeSet();
+			types = typesC.entities().filter(c -> !c.isOWLThing()).collect(Collectors.toCollection(LinkedHashSet::new));
+		}
+		if (aboxStore != null) {
+			aboxStore.typesOf(dictionary.encode(individual.getIRI())).forEach(id -> {
+				OWLClass c = dataFactory.getOWLClass(dictionary.getIRI(id));
+				if (!c.isOWLThing())
+					types.add(c);
+				reasoner.getSuperClasses(c, false).entities().filter(s -> !s.isOWLThing()).forEach(types::add);
+			});
+		}
+		return types;
+	}
+
 	/**
 	 * for each individual in the ontology, prints all atomic classes to console
 	 * output, such that the individual is an instance of these classes
@@ -316,10 +728,16 @@ public class OWLAPILiteReasoner {
 	public void getAllTypes() {
 		this.reasoner.flush();
 		try {
+			// realise the shards of the ABox in parallel before the types are printed
+			realisation(true);
 			String headerText = "All Types in <" + ontology.getOntologyID().getDefaultDocumentIRI().get().toString() + ">:";
 			printHeader(headerText);
-			for (OWLIndividual i : ontology.individualsInSignature(Imports.EXCLUDED)
-					.collect(Collectors.toCollection(HashSet::new))) {
+			Set<OWLIndividual> individuals = ontology.individualsInSignature(imports)
+					.collect(Collectors.toCollection(HashSet::new));
+			if (aboxStore != null)
+				aboxStore.individualIds()
+						.forEach(id -> individuals.add(dataFactory.getOWLNamedIndividual(dictionary.getIRI(id))));
+			for (OWLIndividual i : individuals) {
 				System.out.println(Parser.renderer.render(i));
 				System.out.println("-----------");
 				getTypes(Parser.renderer.render(i));
@@ -339,29 +757,55 @@ public class OWLAPILiteReasoner {
 	 */
 	public void getObjectPropertyAssertions(String opropStr) {
 		System.out.println();
-		this.reasoner.flush();
+		warnIfIncomplete(ReasonerProvider.REALISATION);
 		try {
 			printHeader("Object Property Assertions for: " + opropStr);
-			Set<OWLNamedIndividual> inds = ontology.individualsInSignature(Imports.EXCLUDED)
-					.collect(Collectors.toCollection(HashSet::new));
 			int idx = 1;
-			for (OWLNamedIndividual i : inds) {
-				NodeSet<OWLNamedIndividual> indP = this.reasoner.getObjectPropertyValues(i,
-						dataFactory.getOWLObjectProperty(IRI.create(ontologyIRI.toString() + opropStr)));
-				for (Node<OWLNamedIndividual> n : indP) {
-					for (OWLNamedIndividual ai : n) {
-						System.out.println(idx + ". " + Parser.renderer.render(i) + "," + Parser.renderer.render(ai));
-						idx++;
-					}
-				}
+			Iterator<OWLObjectPropertyAssertionAxiom> assertions = objectPropertyAssertionsStream(opropStr).iterator();
+			while (assertions.hasNext()) {
+				OWLObjectPropertyAssertionAxiom a = assertions.next();
+				System.out.println(idx + ". " + Parser.renderer.render(a.getSubject()) + ","
+						+ Parser.renderer.render(a.getObject()));
+				idx++;
 			}
-			if (inds.size() > 0)
+			if (idx > 1)
 				System.out.println();
 		} catch (InconsistentOntologyException ioe) {
 			handleInconsistentOntology("checking for entailed object property assertions", "");
 		}
 	}
 
+	/**
+	 * Returns the entailed assertions of an object property as a lazily evaluated
+	 * stream. The property values of each individual are only computed when the
+	 * stream reaches that individual, and the assertions in the off-heap store
+	 * (including those of sub-properties) follow at the end.
+	 * 
+	 * @param opropStr string representing an object property
+	 * @return a stream of object property assertion axioms
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public Stream<OWLObjectPropertyAssertionAxiom> objectPropertyAssertionsStream(String opropStr) {
+		this.reasoner.flush();
+		OWLObjectProperty oprop = dataFactory.getOWLObjectProperty(entityIRI(opropStr));
+		Stream<OWLObjectPropertyAssertionAxiom> inferred = ontology.individualsInSignature(imports).distinct()
+				.flatMap(i -> reasoner.getObjectPropertyValues(i, oprop).entities()
+						.map(o -> dataFactory.getOWLObjectPropertyAssertionAxiom(oprop, i, o)));
+		if (aboxStore == null)
+			return inferred;
+		Stream<OWLObjectPropertyAssertionAxiom> stored = Stream.of(oprop).flatMap(p -> {
+			BitSet properties = entityIds(Stream.concat(Stream.of(p),
+					reasoner.getSubObjectProperties(p, false).entities()
+							.filter(sp -> sp.isNamed() && !sp.isOWLBottomObjectProperty())
+							.map(sp -> sp.asOWLObjectProperty())));
+			return aboxStore.propertyValues(properties::get)
+					.map(pair -> dataFactory.getOWLObjectPropertyAssertionAxiom(p,
+							dataFactory.getOWLNamedIndividual(dictionary.getIRI(pair[0])),
+							dataFactory.getOWLNamedIndividual(dictionary.getIRI(pair[1]))));
+		});
+		return Stream.concat(inferred, stored);
+	}
+
 	/**
 	 * Alias for getObjectPropertyAssertions method. for a given object property,
 	 * print all object property assertions it is
@@ -380,24 +824,297 @@ public class OWLAPILiteReasoner {
 	 */
 	public void getInstances(String clsStr) {
 		System.out.println();
+		warnIfIncomplete(ReasonerProvider.REALISATION);
 		OWLClassExpression cls = parser.createClassExpression(clsStr);
-		reasoner.flush();
 		try {
 			printHeader("Individuals of: '" + clsStr + "'");
-			NodeSet<OWLNamedIndividual> inds = reasoner.getInstances(cls, false);
+			Set<OWLNamedIndividual> inds = instancesOf(cls);
+			printNumbered(inds);
+			if (!inds.isEmpty())
+				System.out.println();
+		} catch (InconsistentOntologyException ioe) {
+			handleInconsistentOntology("checking for instances", "");
+		}
+	}
+
+	/**
+	 * Returns all instances of a class expression string, including the
+	 * individuals in the off-heap ABox store
+	 * 
+	 * @param clsStr a class expression string in Manchester OWL Syntax
+	 * @return the instances
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public Set<OWLNamedIndividual> instancesOf(String clsStr) {
+		return instancesOf(parser.createClassExpression(clsStr));
+	}
+
+	/**
+	 * Returns all instances of a class expression, including the individuals in
+	 * the off-heap ABox store
+	 * 
+	 * @param cls an OWLClassExpression
+	 * @return the instances known to the reasoner followed by the instances only
+	 *         known from the off-heap store
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public Set<OWLNamedIndividual> instancesOf(OWLClassExpression cls) {
+		return instancesStream(cls).collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+
+	/**
+	 * Returns all instances of a class expression string as a lazily evaluated
+	 * stream (see instancesStream(OWLClassExpression))
+	 * 
+	 * @param clsStr a class expression string in Manchester OWL Syntax
+	 * @return a stream of the instances
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public Stream<OWLNamedIndividual> instancesStream(String clsStr) {
+		return instancesStream(parser.createClassExpression(clsStr));
+	}
+
+	/**
+	 * Returns all instances of a class expression as a lazily evaluated stream:
+	 * the individuals in the reasoner's answer are emitted without being copied,
+	 * followed by the individuals only known from the off-heap store, which are
+	 * only looked up if the stream is consumed that far
+	 * 
+	 * @param cls an OWLClassExpression
+	 * @return a stream of the instances, without duplicates
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public Stream<OWLNamedIndividual> instancesStream(OWLClassExpression cls) {
+		reasoner.flush();
+		NodeSet<OWLNamedIndividual> inds = reasoner.getInstances(cls, false);
+		if (aboxStore == null)
+			return inds.entities();
+		Stream<OWLNamedIndividual> stored = Stream.of(inds).flatMap(known -> {
+			BitSet classes = entityIds(Stream.concat(reasoner.getEquivalentClasses(cls).entities(),
+					reasoner.getSubClasses(cls, false).entities()));
+			BitSet knownIds = entityIds(known.entities());
+			return aboxStore.instancesOf(classes::get).filter(id -> !knownIds.get(id))
+					.mapToObj(id -> dataFactory.getOWLNamedIndividual(dictionary.getIRI(id)));
+		});
+		return Stream.concat(inds.entities(), stored);
+	}
+
+	/**
+	 * for a given class expression, print one page of its instances to console
+	 * output. Instances are sorted, so pages are stable between calls while the
+	 * ontology does not change.
+	 * 
+	 * @param clsStr a class expression string in Manchester OWL Syntax
+	 * @param offset number of instances to skip
+	 * @param limit  maximum number of instances to print
+	 */
+	public void getInstances(String clsStr, int offset, int limit) {
+		System.out.println();
+		warnIfIncomplete(ReasonerProvider.REALISATION);
+		try {
+			List<OWLNamedIndividual> page = instancesOf(clsStr, offset, limit);
+			printHeader("Individuals of: '" + clsStr + "' (" + page.size() + " of " + countInstances(clsStr)
+					+ " from offset " + offset + ")");
+			printNumbered(page);
+			if (!page.isEmpty())
+				System.out.println();
+		} catch (InconsistentOntologyException ioe) {
+			handleInconsistentOntology("checking for instances", "");
+		}
+	}
+
+	/**
+	 * Returns the number of instances of a class expression string, including the
+	 * individuals in the off-heap ABox store. Repeated counts (and pages) of the
+	 * same expression are answered from a cache until the ontology or the store
+	 * changes.
+	 * 
+	 * @param clsStr a class expression string in Manchester OWL Syntax
+	 * @return the number of instances
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public int countInstances(String clsStr) {
+		return instanceAnswer(clsStr).size();
+	}
+
+	/**
+	 * Returns one page of the instances of a class expression string in a stable
+	 * (sorted) order
+	 * 
+	 * @param clsStr a class expression string in Manchester OWL Syntax
+	 * @param offset number of instances to skip
+	 * @param limit  maximum number of instances to return
+	 * @return an unmodifiable list of at most limit instances
+	 * @throws IllegalArgumentException      if offset or limit is negative
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public List<OWLNamedIndividual> instancesOf(String clsStr, int offset, int limit) {
+		return page(instanceAnswer(clsStr), offset, limit);
+	}
+
+	/**
+	 * for a given class expression, print one page of its atomic subclasses
+	 * (both direct and indirect) to console output
+	 * 
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @param offset  number of subclasses to skip
+	 * @param limit   maximum number of subclasses to print
+	 */
+	public void getSubClasses(String classEx, int offset, int limit) {
+		System.out.println();
+		warnIfIncomplete(ReasonerProvider.CLASSIFICATION);
+		try {
+			List<OWLClass> page = subClassesOf(classEx, offset, limit);
+			printHeader("Subclasses of '" + classEx + "' (" + page.size() + " of " + countSubClasses(classEx)
+					+ " from offset " + offset + ")");
+			printNumbered(page);
+			System.out.println();
+		} catch (InconsistentOntologyException ioe) {
+			handleInconsistentOntology("computing all subclasses of", classEx);
+		}
+	}
+
+	/**
+	 * Returns the number of atomic subclasses (both direct and indirect) of a
+	 * class expression string, excluding owl:Thing and owl:Nothing
+	 * 
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @return the number of subclasses
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public int countSubClasses(String classEx) {
+		return subClassAnswer(classEx).size();
+	}
+
+	/**
+	 * Returns one page of the atomic subclasses (both direct and indirect) of a
+	 * class expression string in a stable (sorted) order
+	 * 
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @param offset  number of subclasses to skip
+	 * @param limit   maximum number of subclasses to return
+	 * @return an unmodifiable list of at most limit subclasses
+	 * @throws IllegalArgumentException      if offset or limit is negative
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public List<OWLClass> subClassesOf(String classEx, int offset, int limit) {
+		return page(subClassAnswer(classEx), offset, limit);
+	}
+
+	/**
+	 * Helper method to get the sorted instances of a class expression, from the
+	 * answer cache if it is still valid
+	 */
+	private List<OWLNamedIndividual> instanceAnswer(String clsStr) {
+		OWLClassExpression cls = parser.createClassExpression(clsStr);
+		return answer(Arrays.asList("instances", cls), () -> instancesStream(cls));
+	}
+
+	/**
+	 * Helper method to get the sorted subclasses of a class expression, from the
+	 * answer cache if it is still valid
+	 */
+	private List<OWLClass> subClassAnswer(String classEx) {
+		OWLClassExpression cls = parser.createClassExpression(classEx);
+		return answer(Arrays.asList("subClasses", cls), () -> {
+			reasoner.flush();
+			return reasoner.getSubClasses(cls, false).entities().filter(c -> !c.isOWLNothing() && !c.isOWLThing());
+		});
+	}
+
+	/**
+	 * Helper method to look up a cached query answer or compute, sort and cache it
+	 * 
+	 * @param key   the query (operation and class expression)
+	 * @param query computes the (unsorted) answer
+	 * @return the distinct entities of the answer in natural order
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends OWLEntity> List<T> answer(Object key, Supplier<Stream<T>> query) {
+		long changes = ontologyChanges.get();
+		long stored = aboxStore == null ? -1 : aboxStore.version();
+		Answer<T> cached = (Answer<T>) answers.get(key);
+		if (cached != null && cached.ontologyChanges == changes && cached.storeVersion == stored
+				&& cached.store == aboxStore)
+			return cached.entities;
+		List<T> entities = Collections.unmodifiableList(query.get().distinct().sorted().collect(Collectors.toList()));
+		answers.put(key, new Answer<T>(entities, changes, aboxStore, stored));
+		return entities;
+	}
+
+	/**
+	 * Helper method to cut a page out of a query answer
+	 */
+	private static <T> List<T> page(List<T> entities, int offset, int limit) {
+		if (offset < 0 || limit < 0)
+			throw new IllegalArgumentException("offset and limit must not be negative");
+		int from = Math.min(offset, entities.size());
+		return entities.subList(from, from + Math.min(limit, entities.size() - from));
+	}
+
+	/**
+	 * A cached query answer and the state of the ontology and off-heap store it
+	 * was computed from
+	 */
+	private static final class Answer<T> {
+		private final List<T> entities;
+		private final long ontologyChanges;
+		private final OffHeapABoxStore store;
+		private final long storeVersion;
+
+		Answer(List<T> entities, long ontologyChanges, OffHeapABoxStore store, long storeVersion) {
+			this.entities = entities;
+			this.ontologyChanges = ontologyChanges;
+			this.store = store;
+			this.storeVersion = storeVersion;
+		}
+
+		int size() {
+			return entities.size();
+		}
+	}
+
+	/**
+	 * for a conjunctive query (see ConjunctiveQuery), print all its answers to
+	 * console output
+	 * 
+	 * @param query comma separated concept atoms ("?x Type: Cat") and role atoms
+	 *              ("?x hasParent ?y")
+	 */
+	public void getAnswers(String query) {
+		System.out.println();
+		try {
+			printHeader("Answers to: '" + query + "'");
 			int idx = 1;
-			for (OWLNamedIndividual i : inds.entities().collect(Collectors.toCollection(HashSet::new))) {
-				System.out.println(idx + ". " + Parser.renderer.render(i));
+			for (Map<String, OWLNamedIndividual> answer : answersOf(query)) {
+				System.out.println(idx + ". " + answer.entrySet().stream()
+						.map(e -> "?" + e.getKey() + "=" + Parser.renderer.render(e.getValue()))
+						.collect(Collectors.joining(", ")));
 				idx++;
 			}
-
-			if (inds.entities().count() > 0)
+			if (idx > 1)
 				System.out.println();
+		} catch (IllegalArgumentException | OWLParserException e) {
+			System.out.println("OWLAPI-Lite PARSER ERROR: the query '" + query + "' cannot be parsed: " + e.getMessage());
 		} catch (InconsistentOntologyException ioe) {
-			handleInconsistentOntology("checking for instances", "");
+			handleInconsistentOntology("answering the query", "'" + query + "'");
 		}
 	}
 
+	/**
+	 * Returns the answers to a conjunctive query (see ConjunctiveQuery) over the
+	 * ontology and the off-heap ABox store
+	 * 
+	 * @param query comma separated concept atoms ("?x Type: Cat") and role atoms
+	 *              ("?x hasParent ?y")
+	 * @return one map from variable name (without '?') to individual per answer
+	 * @throws IllegalArgumentException      if the query is malformed
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public List<Map<String, OWLNamedIndividual>> answersOf(String query) {
+		return new ConjunctiveQuery(this, query).evaluate();
+	}
+
 	/**
 	 * for each object property in the ontology, print all object property
 	 * assertions they are involved in to console output
@@ -408,7 +1125,7 @@ public class OWLAPILiteReasoner {
 			String headerText = "All Object Property Assertions in <"
 					+ ontology.getOntologyID().getDefaultDocumentIRI().get().toString() + ">:";
 			printHeader(headerText);
-			for (OWLObjectProperty o : ontology.objectPropertiesInSignature(Imports.EXCLUDED)
+			for (OWLObjectProperty o : ontology.objectPropertiesInSignature(imports)
 					.collect(Collectors.toCollection(HashSet::new))) {
 				getOPropertyAssertions(Parser.renderer.render(o));
 				System.out.println();
@@ -451,12 +1168,10 @@ public class OWLAPILiteReasoner {
 	 *                 Syntax
 	 */
 	public void isEntailed(String axiomStr) {
-		parser.setString(axiomStr);
 		System.out.println();
-		OWLAxiom axiom = parser.getParser().parseAxiom();
-		this.reasoner.flush();
+		warnIfIncomplete(ReasonerProvider.CLASSIFICATION);
 		try {
-			if (this.reasoner.isEntailed(axiom))
+			if (entails(axiomStr))
 				System.out.println("Yes - Axiom: '" + axiomStr + "' is entailed by <"
 						+ ontology.getOntologyID().getDefaultDocumentIRI().get().toString() + ">!");
 			else
@@ -468,6 +1183,97 @@ public class OWLAPILiteReasoner {
 		}
 	}
 
+	/**
+	 * Returns whether the given string represents an OWLAxiom in Manchester OWL
+	 * Syntax that is entailed by the ontology. Axioms which are asserted, or follow
+	 * from asserted subclass, type and sub-property edges, are answered from an
+	 * index of the told axioms without calling the reasoner. Class and object
+	 * property assertions of named entities are also checked against the off-heap
+	 * ABox store, combined with the inferred class and property hierarchy
+	 * 
+	 * @param axiomStr a string representation of an OWLAxiom in Manchester OWL
+	 *                 Syntax
+	 * @return true if the axiom is entailed, false otherwise
+	 * @throws InconsistentOntologyException if the ontology is inconsistent (and
+	 *                                       the axiom is not told)
+	 */
+	public boolean entails(String axiomStr) {
+		OWLAxiom axiom = parser.createAxiom(axiomStr);
+		// asserted axioms, and those following from told edges, need no reasoner call
+		if (toldIndex.entails(axiom))
+			return true;
+		if (entailedByStore(axiom))
+			return true;
+		// individuals which only exist in the off-heap store are unknown to the reasoner
+		if (aboxStore != null && axiom.individualsInSignature()
+				.anyMatch(i -> !ontology.containsIndividualInSignature(i.getIRI(), imports)))
+			return false;
+		this.reasoner.flush();
+		entailmentCalls.incrementAndGet();
+		return this.reasoner.isEntailed(axiom);
+	}
+
+	/**
+	 * Helper method to check a class or object property assertion against the
+	 * off-heap ABox store, using the inferred sub-classes and sub-properties
+	 * 
+	 * @param axiom the axiom to check
+	 * @return true if the assertion follows from a stored assertion
+	 */
+	private boolean entailedByStore(OWLAxiom axiom) {
+		if (aboxStore == null)
+			return false;
+		if (axiom instanceof OWLClassAssertionAxiom) {
+			OWLClassAssertionAxiom ca = (OWLClassAssertionAxiom) axiom;
+			if (!ca.getIndividual().isNamed() || !ca.getClassExpression().isNamed())
+				return false;
+			int ind = dictionary.lookup(ca.getIndividual().asOWLNamedIndividual().getIRI());
+			if (ind == EntityDictionary.NO_ID)
+				return false;
+			OWLClass c = ca.getClassExpression().asOWLClass();
+			BitSet classes = entityIds(Stream.concat(Stream.of(c),
+					reasoner.getSubClasses(c, false).entities().filter(s -> !s.isOWLNothing())));
+			return aboxStore.typesOf(ind).anyMatch(classes::get);
+		}
+		if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+			OWLObjectPropertyAssertionAxiom pa = (OWLObjectPropertyAssertionAxiom) axiom;
+			if (!pa.getProperty().isNamed() || !pa.getSubject().isNamed() || !pa.getObject().isNamed())
+				return false;
+			int subject = dictionary.lookup(pa.getSubject().asOWLNamedIndividual().getIRI());
+			int object = dictionary.lookup(pa.getObject().asOWLNamedIndividual().getIRI());
+			if (subject == EntityDictionary.NO_ID || object == EntityDictionary.NO_ID)
+				return false;
+			OWLObjectProperty p = pa.getProperty().asOWLObjectProperty();
+			BitSet properties = entityIds(Stream.concat(Stream.of(p),
+					reasoner.getSubObjectProperties(p, false).entities()
+							.filter(sp -> sp.isNamed() && !sp.isOWLBottomObjectProperty())
+							.map(sp -> sp.asOWLObjectProperty())));
+			return aboxStore.objectsOf(subject, properties::get).anyMatch(o -> o == object);
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the number of entailment checks which were answered from the told
+	 * (asserted) axioms without calling the reasoner
+	 * 
+	 * @return the number of avoided reasoner calls
+	 */
+	public long getAvoidedReasonerCalls() {
+		return toldIndex.getHits();
+	}
+
+	/**
+	 * Returns the number of entailment checks which could not be answered from
+	 * the told axioms or the off-heap ABox store and were passed on to the
+	 * reasoner
+	 * 
+	 * @return the number of reasoner calls made by entailment checks
+	 */
+	public long getReasonerEntailmentCalls() {
+		return entailmentCalls.get();
+	}
+
 	/**
 	 * prints Yes to console output if the given string represents an
 	 * OWLClassExpression in Manchester OWL Syntax that is satisfiable w.r.t. the
@@ -478,6 +1284,7 @@ public class OWLAPILiteReasoner {
 	 */
 	public void isSatisfiable(String clsStr) {
 		System.out.println();
+		warnIfIncomplete(ReasonerProvider.CLASSIFICATION);
 		OWLClassExpression cls = parser.createClassExpression(clsStr);
 		reasoner.flush();
 		try {
@@ -504,6 +1311,7 @@ public class OWLAPILiteReasoner {
 	 */
 	public void explainUnsatisfiability(String clsStr) {
 		System.out.println();
+		warnIfIncomplete(ReasonerProvider.CLASSIFICATION);
 		reasoner.flush();
 		try {
 			explanationGenerator = new DefaultExplanationGenerator(ontology.getOWLOntologyManager(), reasonerFactory,
@@ -538,6 +1346,7 @@ public class OWLAPILiteReasoner {
 	 */
 	public void explainInconsistency() {
 		System.out.println();
+		warnIfIncomplete(ReasonerProvider.CLASSIFICATION);
 		reasoner.flush();
 		Supplier<OWLOntologyManager> managerSupplier = () -> OWLManager.createOWLOntologyManager();
 
@@ -574,12 +1383,9 @@ public class OWLAPILiteReasoner {
 	 */
 	public void explainEntailment(String axiomStr) {
 		System.out.println();
-		reasoner.flush();
+		warnIfIncomplete(ReasonerProvider.CLASSIFICATION);
 		try {
-			explanationGenerator = new DefaultExplanationGenerator(ontology.getOWLOntologyManager(), reasonerFactory,
-					ontology, new SilentExplanationProgressMonitor());
-			OWLAxiom axiom = parser.createAxiom(axiomStr);
-			Set<Set<OWLAxiom>> explanations = explanationGenerator.getExplanations(axiom);
+			Set<Set<OWLAxiom>> explanations = explanationsOf(axiomStr);
 
 			printHeader("Explanation for entailment of '" + axiomStr + "':");
 			System.out.println();
@@ -594,6 +1400,22 @@ public class OWLAPILiteReasoner {
 		}
 	}
 
+	/**
+	 * Returns the explanations (justifications) for the entailment of the axiom
+	 * (represented by the given string in Manchester OWL Syntax)
+	 * 
+	 * @param axiomStr a string representation of an OWLAxiom in Manchester OWL
+	 *                 Syntax
+	 * @return a set of justifications, each a set of OWLAxiom objects
+	 * @throws InconsistentOntologyException if the ontology is inconsistent
+	 */
+	public Set<Set<OWLAxiom>> explanationsOf(String axiomStr) {
+		reasoner.flush();
+		explanationGenerator = new DefaultExplanationGenerator(ontology.getOWLOntologyManager(), reasonerFactory,
+				ontology, new SilentExplanationProgressMonitor());
+		return explanationGenerator.getExplanations(parser.createAxiom(axiomStr));
+	}
+
 	/**
 	 * prints a single explanation with a given integer id
 	 * 
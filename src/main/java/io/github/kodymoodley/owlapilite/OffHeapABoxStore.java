@@ -0,0 +1,424 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Stores individuals, class assertions and object property assertions as int
+ * records (ids from an EntityDictionary) in direct memory, outside of the Java
+ * heap. Records are appended to fixed size segments, so the store grows without
+ * copying. OWLAxiom objects are only created on demand by the lazy views.
+ * Assertions are stored as given; duplicates are not removed. The assertions
+ * of each individual are linked into a chain starting at an off-heap table
+ * indexed by the individual's id, so per-individual lookups do not scan the
+ * store. At most Integer.MAX_VALUE - 1 records of each kind can be stored.
+ *
+ * The store is not thread safe, and its views read the segments lazily. Writes
+ * and the consumption of views from different threads must be serialised by
+ * the caller. OWLAPILiteFactory writes to its stores under its workspace lock
+ * (as do the ABoxImporter and transaction commits it creates), and
+ * AsyncReasoner and ReasoningScheduler hold that lock while a query reads a
+ * store. Only version() may be called without the lock.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class OffHeapABoxStore {
+	/**
+	 * number of ints in a single direct memory segment (4 MB)
+	 */
+	private static final int SEGMENT_INTS = 1 << 20;
+	/**
+	 * the dictionary which the int ids in this store refer to
+	 */
+	private final EntityDictionary dictionary;
+	/**
+	 * individual declarations: one int per record
+	 */
+	private final Segments individuals = new Segments(1);
+	/**
+	 * class assertions: (individual, class, next) per record, where next links
+	 * to the previous class assertion of the same individual
+	 */
+	private final Segments classAssertions = new Segments(3);
+	/**
+	 * object property assertions: (subject, property, object, next) per record,
+	 * where next links to the previous assertion of the same subject
+	 */
+	private final Segments propertyAssertions = new Segments(4);
+	/**
+	 * subject index, one record per individual id: (last class assertion, last
+	 * object property assertion, mentioned). Links are record numbers plus one,
+	 * so the zero filled direct memory means "none"
+	 */
+	private final Segments subjects = new Segments(3);
+	/**
+	 * incremented on every modification of the store (volatile, so that a
+	 * reasoner can check for changes without the lock)
+	 */
+	private volatile long version;
+
+	/**
+	 * OffHeapABoxStore constructor
+	 *
+	 * @param dictionary the EntityDictionary used to encode and decode entities
+	 */
+	public OffHeapABoxStore(EntityDictionary dictionary) {
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * Returns the dictionary which the ids in this store refer to
+	 *
+	 * @return an EntityDictionary instance
+	 */
+	public EntityDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Records an individual declaration
+	 *
+	 * @param ind dictionary id of the individual
+	 */
+	public void addIndividual(int ind) {
+		individuals.append(ind, 0, 0, 0);
+		mention(ind);
+		version++;
+	}
+
+	/**
+	 * Records a class assertion
+	 *
+	 * @param ind dictionary id of the individual
+	 * @param cls dictionary id of the class
+	 */
+	public void addClassAssertion(int ind, int cls) {
+		mention(ind);
+		int record = link(classAssertions.size());
+		classAssertions.append(ind, cls, subjects.get(ind, 0), 0);
+		subjects.set(ind, 0, record);
+		version++;
+	}
+
+	/**
+	 * Records an object property assertion
+	 *
+	 * @param subject  dictionary id of the subject individual
+	 * @param property dictionary id of the object property
+	 * @param object   dictionary id of the object individual
+	 */
+	public void addObjectPropertyAssertion(int subject, int property, int object) {
+		mention(subject);
+		mention(object);
+		int record = link(propertyAssertions.size());
+		propertyAssertions.append(subject, property, object, subjects.get(subject, 1));
+		subjects.set(subject, 1, record);
+		version++;
+	}
+
+	/**
+	 * Marks an id as an individual mentioned in the store
+	 */
+	private void mention(int ind) {
+		subjects.ensureSize(ind + 1L);
+		subjects.set(ind, 2, 1);
+	}
+
+	/**
+	 * @return the link (record number plus one) to the given record
+	 */
+	private static int link(long record) {
+		if (record >= Integer.MAX_VALUE - 1)
+			throw new IllegalStateException("the off-heap ABox store is full");
+		return (int) record + 1;
+	}
+
+	/**
+	 * Follows a chain of linked records of one individual
+	 *
+	 * @param records the records the chain runs through
+	 * @param ind     dictionary id of the individual
+	 * @param column  the column of the subject index holding the chain's start
+	 * @return a lazily evaluated stream of record numbers, latest first
+	 */
+	private LongStream chain(Segments records, int ind, int column) {
+		long first = ind >= 0 && ind < subjects.size() ? subjects.get(ind, column) - 1L : -1L;
+		int next = records.width - 1;
+		return LongStream.iterate(first, r -> r >= 0, r -> records.get(r, next) - 1L);
+	}
+
+	/**
+	 * @return the number of individual declarations in the store
+	 */
+	public long individualCount() {
+		return individuals.size();
+	}
+
+	/**
+	 * @return the number of class assertions in the store
+	 */
+	public long classAssertionCount() {
+		return classAssertions.size();
+	}
+
+	/**
+	 * @return the number of object property assertions in the store
+	 */
+	public long objectPropertyAssertionCount() {
+		return propertyAssertions.size();
+	}
+
+	/**
+	 * @return a counter which changes whenever the store is modified, so that
+	 *         derived results can be checked for staleness
+	 */
+	public long version() {
+		return version;
+	}
+
+	/**
+	 * @return the number of bytes of direct memory reserved by the store
+	 */
+	public long reservedBytes() {
+		return 4L * SEGMENT_INTS * (individuals.segmentCount() + classAssertions.segmentCount()
+				+ propertyAssertions.segmentCount() + subjects.segmentCount());
+	}
+
+	/**
+	 * Releases all segments. Direct memory is returned once the segments are
+	 * garbage collected.
+	 */
+	public void clear() {
+		individuals.clear();
+		classAssertions.clear();
+		propertyAssertions.clear();
+		subjects.clear();
+		version++;
+	}
+
+	/**
+	 * Returns the distinct ids of all individuals mentioned in the store, in id
+	 * order
+	 *
+	 * @return a lazily evaluated stream of individual ids
+	 */
+	public IntStream individualIds() {
+		return subjects.records().filter(r -> subjects.get(r, 2) != 0).mapToInt(r -> (int) r);
+	}
+
+	/**
+	 * Returns the ids of all individuals, classes and properties mentioned in the
+	 * store (with repetitions)
+	 *
+	 * @return a lazily evaluated stream of entity ids
+	 */
+	public IntStream referencedIds() {
+		return IntStream.concat(individualIds(),
+				IntStream.concat(classAssertions.records().mapToInt(r -> classAssertions.get(r, 1)),
+						propertyAssertions.records().mapToInt(r -> propertyAssertions.get(r, 1))));
+	}
+
+	/**
+	 * Returns the distinct ids of the individuals asserted to be instances of any
+	 * of the given classes, in id order
+	 *
+	 * @param classes a predicate over class ids
+	 * @return a lazily evaluated stream of individual ids
+	 */
+	public IntStream instancesOf(IntPredicate classes) {
+		return individualIds()
+				.filter(ind -> chain(classAssertions, ind, 0).anyMatch(r -> classes.test(classAssertions.get(r, 1))));
+	}
+
+	/**
+	 * Returns the distinct ids of the classes an individual is asserted to be an
+	 * instance of
+	 *
+	 * @param ind dictionary id of the individual
+	 * @return a lazily evaluated stream of class ids
+	 */
+	public IntStream typesOf(int ind) {
+		return chain(classAssertions, ind, 0).mapToInt(r -> classAssertions.get(r, 1)).distinct();
+	}
+
+	/**
+	 * @param ind dictionary id of the individual
+	 * @param cls dictionary id of the class
+	 * @return true if the store holds the class assertion
+	 */
+	public boolean containsClassAssertion(int ind, int cls) {
+		return chain(classAssertions, ind, 0).anyMatch(r -> classAssertions.get(r, 1) == cls);
+	}
+
+	/**
+	 * @param subject  dictionary id of the subject individual
+	 * @param property dictionary id of the object property
+	 * @param object   dictionary id of the object individual
+	 * @return true if the store holds the object property assertion
+	 */
+	public boolean containsObjectPropertyAssertion(int subject, int property, int object) {
+		return chain(propertyAssertions, subject, 1)
+				.anyMatch(r -> propertyAssertions.get(r, 1) == property && propertyAssertions.get(r, 2) == object);
+	}
+
+	/**
+	 * Returns the ids of the objects asserted for a subject by any of the given
+	 * properties
+	 *
+	 * @param subject    dictionary id of the subject individual
+	 * @param properties a predicate over object property ids
+	 * @return a lazily evaluated stream of individual ids
+	 */
+	public IntStream objectsOf(int subject, IntPredicate properties) {
+		return chain(propertyAssertions, subject, 1).filter(r -> properties.test(propertyAssertions.get(r, 1)))
+				.mapToInt(r -> propertyAssertions.get(r, 2));
+	}
+
+	/**
+	 * Returns the (subject, object) pairs asserted for any of the given properties
+	 *
+	 * @param properties a predicate over object property ids
+	 * @return a lazily evaluated stream of int[] {subject, object} pairs
+	 */
+	public Stream<int[]> propertyValues(IntPredicate properties) {
+		return propertyAssertions.records().filter(r -> properties.test(propertyAssertions.get(r, 1)))
+				.mapToObj(r -> new int[] { propertyAssertions.get(r, 0), propertyAssertions.get(r, 2) });
+	}
+
+	/**
+	 * Returns a lazy view of the store as OWL axioms. Axiom objects are created as
+	 * the stream is consumed and are not retained by the store.
+	 *
+	 * @param dataFactory the OWLDataFactory used to build the axioms
+	 * @return a stream of declaration, class assertion and object property
+	 *         assertion axioms
+	 */
+	public Stream<OWLAxiom> axioms(OWLDataFactory dataFactory) {
+		Stream<OWLAxiom> declarations = individuals.records().mapToObj(r -> dataFactory
+				.getOWLDeclarationAxiom(dataFactory.getOWLNamedIndividual(dictionary.getIRI(individuals.get(r, 0)))));
+		Stream<OWLAxiom> types = classAssertions.records()
+				.mapToObj(r -> dataFactory.getOWLClassAssertionAxiom(
+						dataFactory.getOWLClass(dictionary.getIRI(classAssertions.get(r, 1))),
+						dataFactory.getOWLNamedIndividual(dictionary.getIRI(classAssertions.get(r, 0)))));
+		Stream<OWLAxiom> edges = propertyAssertions.records()
+				.mapToObj(r -> dataFactory.getOWLObjectPropertyAssertionAxiom(
+						dataFactory.getOWLObjectProperty(dictionary.getIRI(propertyAssertions.get(r, 1))),
+						dataFactory.getOWLNamedIndividual(dictionary.getIRI(propertyAssertions.get(r, 0))),
+						dataFactory.getOWLNamedIndividual(dictionary.getIRI(propertyAssertions.get(r, 2)))));
+		return Stream.concat(declarations, Stream.concat(types, edges));
+	}
+
+	/**
+	 * Append-only list of fixed width int records held in direct memory segments
+	 */
+	private static final class Segments {
+		/**
+		 * number of ints per record
+		 */
+		private final int width;
+		/**
+		 * number of records per segment
+		 */
+		private final int recordsPerSegment;
+		/**
+		 * the direct memory segments
+		 */
+		private final List<IntBuffer> segments = new ArrayList<IntBuffer>();
+		/**
+		 * number of records written
+		 */
+		private long size;
+
+		Segments(int width) {
+			this.width = width;
+			this.recordsPerSegment = SEGMENT_INTS / width;
+		}
+
+		void append(int a, int b, int c, int d) {
+			int offset = (int) (size % recordsPerSegment) * width;
+			if (offset == 0 && size / recordsPerSegment == segments.size())
+				segments.add(allocate());
+			IntBuffer segment = segments.get((int) (size / recordsPerSegment));
+			segment.put(offset, a);
+			if (width > 1)
+				segment.put(offset + 1, b);
+			if (width > 2)
+				segment.put(offset + 2, c);
+			if (width > 3)
+				segment.put(offset + 3, d);
+			size++;
+		}
+
+		/**
+		 * Grows the list to at least the given number of (zero filled) records
+		 */
+		void ensureSize(long records) {
+			while ((long) segments.size() * recordsPerSegment < records)
+				segments.add(allocate());
+			if (size < records)
+				size = records;
+		}
+
+		int get(long record, int column) {
+			return segments.get((int) (record / recordsPerSegment))
+					.get((int) (record % recordsPerSegment) * width + column);
+		}
+
+		void set(long record, int column, int value) {
+			segments.get((int) (record / recordsPerSegment)).put((int) (record % recordsPerSegment) * width + column,
+					value);
+		}
+
+		private static IntBuffer allocate() {
+			return ByteBuffer.allocateDirect(4 * SEGMENT_INTS).order(ByteOrder.nativeOrder()).asIntBuffer();
+		}
+
+		LongStream records() {
+			return LongStream.range(0, size);
+		}
+
+		long size() {
+			return size;
+		}
+
+		int segmentCount() {
+			return segments.size();
+		}
+
+		void clear() {
+			segments.clear();
+			size = 0;
+		}
+	}
+}
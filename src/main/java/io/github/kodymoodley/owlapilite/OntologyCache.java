@@ -0,0 +1,358 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyIRIMapper;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Local on-disk cache of remote ontology documents. Documents are stored once
+ * per distinct content under objects/ (named by the SHA-256 of their bytes);
+ * for every fetched URL a small properties file under index/ records the
+ * content hash and the ETag / Last-Modified validators sent by the server.
+ * Cached URLs are revalidated with a conditional GET, so unchanged documents
+ * are not downloaded again. In offline mode only cached copies are served.
+ * <p>
+ * The cache is also an OWLOntologyIRIMapper: registered with a manager, it
+ * makes imports of http(s) ontologies resolve to cached copies.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class OntologyCache implements OWLOntologyIRIMapper {
+	private static final long serialVersionUID = 1L;
+	/**
+	 * Accept header sent with requests, preferring OWL and RDF serialisations
+	 */
+	static final String ACCEPT = "application/rdf+xml, application/owl+xml, text/turtle, "
+			+ "application/n-triples, text/owl-functional, text/owl-manchester, */*;q=0.1";
+	/**
+	 * the cache directory (a String, as Path is not serializable)
+	 */
+	private final String directory;
+	/**
+	 * whether to serve only cached copies without network access
+	 */
+	private volatile boolean offline;
+	/**
+	 * connect and read timeout in milliseconds
+	 */
+	private int timeout = 20000;
+	/**
+	 * number of fetches served from the cache without network access
+	 */
+	private final AtomicLong hits = new AtomicLong();
+	/**
+	 * number of fetches revalidated with the server (not modified)
+	 */
+	private final AtomicLong revalidations = new AtomicLong();
+	/**
+	 * number of documents downloaded
+	 */
+	private final AtomicLong downloads = new AtomicLong();
+	/**
+	 * number of document bytes downloaded
+	 */
+	private final AtomicLong bytesDownloaded = new AtomicLong();
+
+	/**
+	 * OntologyCache constructor
+	 *
+	 * @param directory the cache directory, created if it does not exist
+	 * @throws IOException if the directory cannot be created
+	 */
+	public OntologyCache(Path directory) throws IOException {
+		this.directory = directory.toString();
+		Files.createDirectories(directory.resolve("objects"));
+		Files.createDirectories(directory.resolve("index"));
+	}
+
+	/**
+	 * @return the cache directory
+	 */
+	public Path getDirectory() {
+		return Paths.get(directory);
+	}
+
+	/**
+	 * Sets offline mode. While offline, fetch only returns cached copies and
+	 * never opens a network connection.
+	 *
+	 * @param offline true to work offline
+	 */
+	public void setOffline(boolean offline) {
+		this.offline = offline;
+	}
+
+	/**
+	 * @return true if the cache is in offline mode
+	 */
+	public boolean isOffline() {
+		return offline;
+	}
+
+	/**
+	 * Sets the connect and read timeout for downloads
+	 *
+	 * @param millis timeout in milliseconds
+	 */
+	public void setTimeout(int millis) {
+		this.timeout = millis;
+	}
+
+	/**
+	 * @return the number of fetches served from the cache in offline mode or
+	 *         after a failed revalidation
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of fetches for which the server confirmed the cached
+	 *         copy was still current
+	 */
+	public long getRevalidations() {
+		return revalidations.get();
+	}
+
+	/**
+	 * @return the number of documents downloaded
+	 */
+	public long getDownloads() {
+		return downloads.get();
+	}
+
+	/**
+	 * @return the number of document bytes downloaded
+	 */
+	public long getBytesDownloaded() {
+		return bytesDownloaded.get();
+	}
+
+	/**
+	 * Returns the cached copy of a URL without network access
+	 *
+	 * @param iri the document IRI
+	 * @return the path of the cached document, or null if it is not cached
+	 * @throws IOException if the cache index cannot be read
+	 */
+	public Path cached(IRI iri) throws IOException {
+		Properties meta = readMeta(iri);
+		if (meta == null)
+			return null;
+		Path object = objectPath(meta.getProperty("sha256"));
+		return Files.exists(object) ? object : null;
+	}
+
+	/**
+	 * Returns a local copy of a remote document, downloading or revalidating it
+	 * as necessary. If the server cannot be reached, a cached copy is returned
+	 * when there is one.
+	 *
+	 * @param iri the http(s) document IRI
+	 * @return the path of the cached document
+	 * @throws IOException if the document is not cached and cannot be downloaded
+	 *                     (always the case for uncached documents in offline
+	 *                     mode)
+	 */
+	public Path fetch(IRI iri) throws IOException {
+		Path cached = cached(iri);
+		if (offline) {
+			if (cached == null)
+				throw new IOException("<" + iri + "> is not cached and the cache is offline");
+			hits.incrementAndGet();
+			return cached;
+		}
+		Properties meta = cached == null ? null : readMeta(iri);
+		HttpURLConnection connection;
+		int status;
+		try {
+			connection = (HttpURLConnection) url(iri).openConnection();
+			connection.setConnectTimeout(timeout);
+			connection.setReadTimeout(timeout);
+			connection.setRequestProperty("Accept", ACCEPT);
+			if (meta != null && meta.getProperty("etag") != null)
+				connection.setRequestProperty("If-None-Match", meta.getProperty("etag"));
+			if (meta != null && meta.getProperty("lastModified") != null)
+				connection.setRequestProperty("If-Modified-Since", meta.getProperty("lastModified"));
+			status = connection.getResponseCode();
+		} catch (IOException e) {
+			if (cached == null)
+				throw e;
+			// serve the stale copy rather than fail while the server is unreachable
+			hits.incrementAndGet();
+			return cached;
+		}
+		try {
+			if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+				revalidations.incrementAndGet();
+				return cached;
+			}
+			if (status != HttpURLConnection.HTTP_OK)
+				throw new IOException("Server returned HTTP " + status + " for <" + iri + ">");
+			Path object = store(connection.getInputStream());
+			Properties updated = new Properties();
+			updated.setProperty("url", iri.toString());
+			updated.setProperty("sha256", object.getFileName().toString());
+			updated.setProperty("fetched", Long.toString(System.currentTimeMillis()));
+			setIfPresent(updated, "etag", connection.getHeaderField("ETag"));
+			setIfPresent(updated, "lastModified", connection.getHeaderField("Last-Modified"));
+			setIfPresent(updated, "contentType", connection.getContentType());
+			writeMeta(iri, updated);
+			downloads.incrementAndGet();
+			return object;
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * Maps http(s) ontology IRIs to cached copies, downloading them if needed.
+	 * Returns null (leaving resolution to the manager) for other IRIs or when the
+	 * document cannot be obtained.
+	 *
+	 * @param ontologyIRI the IRI of an ontology to load
+	 * @return a file IRI of the cached document, or null
+	 */
+	@Override
+	public IRI getDocumentIRI(IRI ontologyIRI) {
+		String scheme = ontologyIRI.getScheme();
+		if (!"http".equals(scheme) && !"https".equals(scheme))
+			return null;
+		try {
+			return IRI.create(fetch(ontologyIRI).toFile());
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Copies a stream into the object store under the hash of its content
+	 */
+	private Path store(InputStream in) throws IOException {
+		MessageDigest digest = sha256();
+		// objects are new files: the temporary file gets the default permissions
+		Path tmp = OntologySaver.createTempSibling(getDirectory().resolve("download"));
+		try {
+			long n;
+			try (InputStream body = in;
+					OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+				n = body.transferTo(out);
+			}
+			bytesDownloaded.addAndGet(n);
+			Path object = objectPath(hex(digest.digest()));
+			if (!Files.exists(object))
+				move(tmp, object);
+			return object;
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	private Properties readMeta(IRI iri) throws IOException {
+		Path file = metaPath(iri);
+		if (!Files.exists(file))
+			return null;
+		Properties meta = new Properties();
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			meta.load(reader);
+		}
+		return meta.getProperty("sha256") == null ? null : meta;
+	}
+
+	private void writeMeta(IRI iri, Properties meta) throws IOException {
+		Path tmp = OntologySaver.createTempSibling(metaPath(iri));
+		try {
+			try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+				meta.store(writer, null);
+			}
+			move(tmp, metaPath(iri));
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	private Path metaPath(IRI iri) {
+		return getDirectory().resolve("index").resolve(hex(sha256().digest(iri.toString().getBytes(StandardCharsets.UTF_8)))
+				+ ".properties");
+	}
+
+	private Path objectPath(String hash) {
+		return getDirectory().resolve("objects").resolve(hash);
+	}
+
+	private static void move(Path from, Path to) throws IOException {
+		try {
+			Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static URL url(IRI iri) throws MalformedURLException {
+		try {
+			return URI.create(iri.toString()).toURL();
+		} catch (IllegalArgumentException e) {
+			throw new MalformedURLException("<" + iri + "> is not a valid URL");
+		}
+	}
+
+	private static void setIfPresent(Properties meta, String key, String value) {
+		if (value != null)
+			meta.setProperty(key, value);
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes)
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		return sb.toString();
+	}
+}
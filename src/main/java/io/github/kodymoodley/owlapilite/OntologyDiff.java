@@ -0,0 +1,329 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+import org.semanticweb.owlapi.model.RemoveImport;
+import org.semanticweb.owlapi.model.RemoveOntologyAnnotation;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * The structural difference between two ontologies: the axioms and entities
+ * which were added and removed going from one to the other. Axioms are compared
+ * per AxiomType, with the types processed in parallel. Within a type each side
+ * is reduced to a sorted array of fingerprints (the axiom hash code packed with
+ * the axiom's position), so no hash sets of axioms are built; only axioms with
+ * equal fingerprints are compared with equals. Entities are compared the same
+ * way. The ontology annotations and imports declarations of both ontologies,
+ * which are few, are compared as plain sets. A diff can be applied as a patch
+ * to another ontology.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class OntologyDiff {
+	/**
+	 * axioms in the new ontology only
+	 */
+	private final List<OWLAxiom> addedAxioms;
+	/**
+	 * axioms in the old ontology only
+	 */
+	private final List<OWLAxiom> removedAxioms;
+	/**
+	 * entities in the signature of the new ontology only
+	 */
+	private final List<OWLEntity> addedEntities;
+	/**
+	 * entities in the signature of the old ontology only
+	 */
+	private final List<OWLEntity> removedEntities;
+	/**
+	 * ontology annotations added and removed
+	 */
+	private final Difference<OWLAnnotation> annotations;
+	/**
+	 * imports declarations added and removed
+	 */
+	private final Difference<OWLImportsDeclaration> imports;
+
+	private OntologyDiff(List<OWLAxiom> addedAxioms, List<OWLAxiom> removedAxioms, Difference<OWLEntity> entities,
+			Difference<OWLAnnotation> annotations, Difference<OWLImportsDeclaration> imports) {
+		this.addedAxioms = Collections.unmodifiableList(addedAxioms);
+		this.removedAxioms = Collections.unmodifiableList(removedAxioms);
+		this.addedEntities = entities.added;
+		this.removedEntities = entities.removed;
+		this.annotations = annotations;
+		this.imports = imports;
+	}
+
+	/**
+	 * The objects only on the new side and only on the old side of a comparison
+	 */
+	private static final class Difference<T> {
+		final List<T> added;
+		final List<T> removed;
+
+		Difference(List<T> added, List<T> removed) {
+			this.added = Collections.unmodifiableList(added);
+			this.removed = Collections.unmodifiableList(removed);
+		}
+	}
+
+	/**
+	 * Computes the difference between two ontologies (their own axioms, without
+	 * the axioms of imported ontologies, plus their ontology annotations and
+	 * imports declarations)
+	 *
+	 * @param from the old ontology
+	 * @param to   the new ontology
+	 * @return an OntologyDiff instance describing how to get from 'from' to 'to'
+	 */
+	public static OntologyDiff compute(OWLOntology from, OWLOntology to) {
+		List<CompletableFuture<Difference<OWLAxiom>>> perType = new ArrayList<CompletableFuture<Difference<OWLAxiom>>>();
+		for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+			if (from.getAxiomCount(type) == 0 && to.getAxiomCount(type) == 0)
+				continue;
+			perType.add(CompletableFuture.supplyAsync(() -> difference(
+					from.axioms(type, Imports.EXCLUDED).toArray(OWLAxiom[]::new),
+					to.axioms(type, Imports.EXCLUDED).toArray(OWLAxiom[]::new))));
+		}
+		CompletableFuture<Difference<OWLEntity>> entities = CompletableFuture.supplyAsync(
+				() -> difference(from.signature().toArray(OWLEntity[]::new), to.signature().toArray(OWLEntity[]::new)));
+
+		List<OWLAxiom> added = new ArrayList<OWLAxiom>();
+		List<OWLAxiom> removed = new ArrayList<OWLAxiom>();
+		for (CompletableFuture<Difference<OWLAxiom>> future : perType) {
+			Difference<OWLAxiom> result = future.join();
+			added.addAll(result.added);
+			removed.addAll(result.removed);
+		}
+		return new OntologyDiff(added, removed, entities.join(), difference(from.annotations(), to.annotations()),
+				difference(from.importsDeclarations(), to.importsDeclarations()));
+	}
+
+	/**
+	 * Computes which of a few objects are only in 'to' and only in 'from' with
+	 * plain sets
+	 */
+	private static <T> Difference<T> difference(Stream<T> from, Stream<T> to) {
+		Set<T> before = from.collect(Collectors.toCollection(LinkedHashSet::new));
+		Set<T> after = to.collect(Collectors.toCollection(LinkedHashSet::new));
+		List<T> added = new ArrayList<T>(after);
+		added.removeAll(before);
+		List<T> removed = new ArrayList<T>(before);
+		removed.removeAll(after);
+		return new Difference<T>(added, removed);
+	}
+
+	/**
+	 * Computes which objects are only in 'to' and only in 'from' by merging the
+	 * sorted fingerprints of both sides
+	 */
+	private static <T extends OWLObject> Difference<T> difference(T[] from, T[] to) {
+		long[] a = fingerprints(from);
+		long[] b = fingerprints(to);
+		boolean[] inFrom = new boolean[to.length];
+		boolean[] inTo = new boolean[from.length];
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			int ha = (int) (a[i] >> 32);
+			int hb = (int) (b[j] >> 32);
+			if (ha < hb) {
+				i++;
+			} else if (ha > hb) {
+				j++;
+			} else {
+				// compare all objects of this hash run on both sides
+				int iEnd = i;
+				while (iEnd < a.length && (int) (a[iEnd] >> 32) == ha)
+					iEnd++;
+				int jEnd = j;
+				while (jEnd < b.length && (int) (b[jEnd] >> 32) == ha)
+					jEnd++;
+				for (int x = i; x < iEnd; x++) {
+					T object = from[(int) a[x]];
+					for (int y = j; y < jEnd; y++) {
+						if (object.equals(to[(int) b[y]])) {
+							inTo[(int) a[x]] = true;
+							inFrom[(int) b[y]] = true;
+						}
+					}
+				}
+				i = iEnd;
+				j = jEnd;
+			}
+		}
+		List<T> added = new ArrayList<T>();
+		for (int k = 0; k < to.length; k++)
+			if (!inFrom[k])
+				added.add(to[k]);
+		List<T> removed = new ArrayList<T>();
+		for (int k = 0; k < from.length; k++)
+			if (!inTo[k])
+				removed.add(from[k]);
+		return new Difference<T>(added, removed);
+	}
+
+	/**
+	 * Packs the hash code (high 32 bits) and the position (low 32 bits) of each
+	 * object into a long and sorts the result
+	 */
+	private static long[] fingerprints(OWLObject[] objects) {
+		long[] result = new long[objects.length];
+		for (int k = 0; k < objects.length; k++)
+			result[k] = ((long) objects[k].hashCode() << 32) | k;
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * @return the axioms which are only in the new ontology
+	 */
+	public List<OWLAxiom> getAddedAxioms() {
+		return addedAxioms;
+	}
+
+	/**
+	 * @return the axioms which are only in the old ontology
+	 */
+	public List<OWLAxiom> getRemovedAxioms() {
+		return removedAxioms;
+	}
+
+	/**
+	 * @return the entities which are only in the signature of the new ontology
+	 */
+	public List<OWLEntity> getAddedEntities() {
+		return addedEntities;
+	}
+
+	/**
+	 * @return the entities which are only in the signature of the old ontology
+	 */
+	public List<OWLEntity> getRemovedEntities() {
+		return removedEntities;
+	}
+
+	/**
+	 * @return the ontology annotations which are only on the new ontology
+	 */
+	public List<OWLAnnotation> getAddedAnnotations() {
+		return annotations.added;
+	}
+
+	/**
+	 * @return the ontology annotations which are only on the old ontology
+	 */
+	public List<OWLAnnotation> getRemovedAnnotations() {
+		return annotations.removed;
+	}
+
+	/**
+	 * @return the imports declarations which are only in the new ontology
+	 */
+	public List<OWLImportsDeclaration> getAddedImports() {
+		return imports.added;
+	}
+
+	/**
+	 * @return the imports declarations which are only in the old ontology
+	 */
+	public List<OWLImportsDeclaration> getRemovedImports() {
+		return imports.removed;
+	}
+
+	/**
+	 * @return true if both ontologies contain the same axioms, ontology
+	 *         annotations and imports declarations
+	 */
+	public boolean isEmpty() {
+		return addedAxioms.isEmpty() && removedAxioms.isEmpty() && annotations.added.isEmpty()
+				&& annotations.removed.isEmpty() && imports.added.isEmpty() && imports.removed.isEmpty();
+	}
+
+	/**
+	 * Returns the changes which apply this diff to an ontology: the removals
+	 * (RemoveImport, RemoveOntologyAnnotation, RemoveAxiom) followed by the
+	 * additions (AddImport, AddOntologyAnnotation, AddAxiom)
+	 *
+	 * @param target the ontology to patch
+	 * @return a list of OWLOntologyChange instances
+	 */
+	public List<OWLOntologyChange> changes(OWLOntology target) {
+		List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>(addedAxioms.size() + removedAxioms.size());
+		for (OWLImportsDeclaration declaration : imports.removed)
+			changes.add(new RemoveImport(target, declaration));
+		for (OWLAnnotation annotation : annotations.removed)
+			changes.add(new RemoveOntologyAnnotation(target, annotation));
+		for (OWLAxiom axiom : removedAxioms)
+			changes.add(new RemoveAxiom(target, axiom));
+		for (OWLImportsDeclaration declaration : imports.added)
+			changes.add(new AddImport(target, declaration));
+		for (OWLAnnotation annotation : annotations.added)
+			changes.add(new AddOntologyAnnotation(target, annotation));
+		for (OWLAxiom axiom : addedAxioms)
+			changes.add(new AddAxiom(target, axiom));
+		return changes;
+	}
+
+	/**
+	 * Applies this diff as a patch to an ontology in a single batch of changes
+	 *
+	 * @param target the ontology to patch
+	 * @return the applied changes
+	 */
+	public List<OWLOntologyChange> applyTo(OWLOntology target) {
+		List<OWLOntologyChange> changes = changes(target);
+		if (!changes.isEmpty())
+			target.getOWLOntologyManager().applyChanges(changes);
+		return changes;
+	}
+
+	@Override
+	public String toString() {
+		return "+" + addedAxioms.size() + " -" + removedAxioms.size() + " axioms, +" + addedEntities.size() + " -"
+				+ removedEntities.size() + " entities, +" + annotations.added.size() + " -" + annotations.removed.size()
+				+ " ontology annotations, +" + imports.added.size() + " -" + imports.removed.size() + " imports";
+	}
+}
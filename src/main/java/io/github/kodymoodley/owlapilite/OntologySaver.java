@@ -0,0 +1,151 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.semanticweb.owlapi.model.PrefixManager;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Writes ontology documents safely: the document is serialised through a
+ * buffered (and optionally compressed) stream into a temporary file next
+ * to the target, which then replaces the target in one rename. Readers of the
+ * target therefore never see a partially written document.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class OntologySaver {
+	private OntologySaver() {
+	}
+
+	/**
+	 * Saves an ontology to a file
+	 *
+	 * @param ontology the OWLOntology to save
+	 * @param target   the file to write
+	 * @param format   the document format to write
+	 * @param gzip     true to gzip compress the document; otherwise the document
+	 *                 is compressed if the target name ends in .gz, .zip or .zz
+	 * @throws IOException                 if the file cannot be written
+	 * @throws OWLOntologyStorageException if the ontology cannot be serialised
+	 *                                     in the format
+	 */
+	public static void save(OWLOntology ontology, Path target, SelectedFormat format, boolean gzip)
+			throws IOException, OWLOntologyStorageException {
+		Path tmp = createTempSibling(target);
+		try {
+			String codec = gzip ? CompressedIO.GZIP : CompressedIO.codecForName(target);
+			try (OutputStream out = CompressedIO.openOutput(tmp, codec, target)) {
+				ontology.getOWLOntologyManager().saveOntology(ontology, documentFormat(ontology, format), out);
+			}
+			try {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	/**
+	 * Creates an empty temporary file next to a target file which is to be
+	 * replaced by it. Unlike Files.createTempFile, which makes the file readable
+	 * by its owner only, the file gets the permissions of the target if it
+	 * exists, or otherwise the default permissions of new files (the umask).
+	 *
+	 * @param target the file the temporary file will replace
+	 * @return the new temporary file
+	 * @throws IOException if the file cannot be created
+	 */
+	static Path createTempSibling(Path target) throws IOException {
+		Path dir = target.toAbsolutePath().getParent();
+		String prefix = target.getFileName().toString();
+		while (true) {
+			Path tmp = dir.resolve(prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+			try {
+				Files.createFile(tmp);
+			} catch (FileAlreadyExistsException e) {
+				continue;
+			}
+			try {
+				PosixFileAttributeView view = Files.getFileAttributeView(tmp, PosixFileAttributeView.class);
+				if (view != null && Files.exists(target))
+					view.setPermissions(Files.getPosixFilePermissions(target));
+			} catch (IOException e) {
+				Files.deleteIfExists(tmp);
+				throw e;
+			}
+			return tmp;
+		}
+	}
+
+	/**
+	 * Copies an ontology (id, imports declarations, annotations and axioms) into
+	 * a new manager, so that it can be serialised on another thread while the
+	 * original continues to be edited
+	 *
+	 * @param ontology the OWLOntology to copy
+	 * @return a copy of the ontology, in its own OWLOntologyManager
+	 * @throws OWLOntologyCreationException if the copy cannot be created
+	 */
+	public static OWLOntology snapshot(OWLOntology ontology) throws OWLOntologyCreationException {
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLOntology copy = manager.createOntology(ontology.getOntologyID());
+		ontology.importsDeclarations().forEach(i -> manager.applyChange(new AddImport(copy, i)));
+		ontology.annotations().forEach(a -> manager.applyChange(new AddOntologyAnnotation(copy, a)));
+		copy.addAxioms(ontology.axioms());
+		OWLDocumentFormat format = ontology.getFormat();
+		if (format != null)
+			manager.setOntologyFormat(copy, format);
+		return copy;
+	}
+
+	/**
+	 * Creates the document format to write, keeping the prefixes of the format
+	 * the ontology was loaded from or created with
+	 */
+	private static OWLDocumentFormat documentFormat(OWLOntology ontology, SelectedFormat format) {
+		OWLDocumentFormat documentFormat = format.createDocumentFormat();
+		OWLDocumentFormat current = ontology.getFormat();
+		if (current != null && current.isPrefixOWLDocumentFormat() && documentFormat.isPrefixOWLDocumentFormat()) {
+			PrefixManager prefixes = documentFormat.asPrefixOWLDocumentFormat();
+			prefixes.copyPrefixesFrom(current.asPrefixOWLDocumentFormat());
+		}
+		return documentFormat;
+	}
+}
@@ -0,0 +1,286 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.StreamDocumentSource;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Watches the document of an ontology with a WatchService and keeps the
+ * in-memory ontology in step with the file. When the file changes it is parsed
+ * again in a separate manager and only the difference (an OntologyDiff) is
+ * applied: AddAxiom for axioms which are new in the file and RemoveAxiom for
+ * axioms which are no longer in it. The ontology object, its manager and any non-buffering reasoner
+ * attached to it are kept, so incremental reasoners only process the changed
+ * axioms instead of classifying from scratch.
+ *
+ * Editors often write a file in several steps, so events are debounced: the
+ * file is reloaded once it has been quiet for a short period. A document which
+ * cannot be parsed (e.g. a partially written file) leaves the ontology
+ * unchanged; the next change event triggers another attempt.
+ *
+ * The document is parsed on the watcher thread, but the difference is applied
+ * and the listener notified while holding the owner's lock, so that the owner
+ * (e.g. OWLAPILiteFactory) never sees the ontology change underneath a query.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class OntologyWatcher {
+	/**
+	 * default quiet period (in ms) after the last change event before reloading
+	 */
+	public static final long DEFAULT_DEBOUNCE = 250;
+	/**
+	 * the ontology kept in step with the file
+	 */
+	private final OWLOntology ontology;
+	/**
+	 * the watched ontology document
+	 */
+	private final Path file;
+	/**
+	 * called (on the watcher thread) with the changes applied by each reload
+	 */
+	private final Consumer<List<OWLOntologyChange>> listener;
+	/**
+	 * quiet period (in ms) after the last change event before reloading
+	 */
+	private long debounce = DEFAULT_DEBOUNCE;
+	/**
+	 * the watch service, or null if the watcher is not running
+	 */
+	private WatchService watchService;
+	/**
+	 * the daemon thread waiting for change events
+	 */
+	private Thread thread;
+	/**
+	 * number of reloads which applied changes or found the file unchanged
+	 */
+	private volatile int reloads;
+	/**
+	 * held while a reload changes the ontology and notifies the listener
+	 */
+	private final Lock lock;
+
+	/**
+	 * OntologyWatcher constructor
+	 *
+	 * @param ontology the ontology to keep in step with the file
+	 * @param file     the ontology document to watch
+	 * @param listener receives the changes applied by each reload (may be null)
+	 */
+	public OntologyWatcher(OWLOntology ontology, Path file, Consumer<List<OWLOntologyChange>> listener) {
+		this(ontology, file, listener, new ReentrantLock());
+	}
+
+	/**
+	 * OntologyWatcher constructor
+	 *
+	 * @param ontology the ontology to keep in step with the file
+	 * @param file     the ontology document to watch
+	 * @param listener receives the changes applied by each reload (may be null)
+	 * @param lock     the lock guarding the ontology, held while a reload applies
+	 *                 its changes and calls the listener
+	 */
+	public OntologyWatcher(OWLOntology ontology, Path file, Consumer<List<OWLOntologyChange>> listener, Lock lock) {
+		this.ontology = ontology;
+		this.file = file.toAbsolutePath().normalize();
+		this.listener = listener;
+		this.lock = lock;
+	}
+
+	/**
+	 * Sets the quiet period after the last change event before the file is
+	 * reloaded
+	 *
+	 * @param millis the quiet period in milliseconds
+	 */
+	public void setDebounce(long millis) {
+		debounce = Math.max(0, millis);
+	}
+
+	/**
+	 * @return the watched ontology
+	 */
+	public OWLOntology getOntology() {
+		return ontology;
+	}
+
+	/**
+	 * @return the watched ontology document
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the number of successful reloads since the watcher was created
+	 */
+	public int getReloads() {
+		return reloads;
+	}
+
+	/**
+	 * @return true if the watcher thread is running
+	 */
+	public synchronized boolean isRunning() {
+		return thread != null && thread.isAlive();
+	}
+
+	/**
+	 * Starts watching the directory of the ontology document on a daemon thread
+	 *
+	 * @throws IOException if the directory cannot be watched
+	 */
+	public synchronized void start() throws IOException {
+		if (isRunning())
+			return;
+		watchService = FileSystems.getDefault().newWatchService();
+		file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY);
+		WatchService service = watchService;
+		thread = new Thread(() -> watch(service), "owlapi-lite-watch-" + file.getFileName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops watching the ontology document
+	 */
+	public synchronized void stop() {
+		if (watchService != null) {
+			try {
+				watchService.close();
+			} catch (IOException e) {
+				// the watcher thread ends either way
+			}
+			watchService = null;
+		}
+		thread = null;
+	}
+
+	private void watch(WatchService service) {
+		try {
+			while (true) {
+				WatchKey key = service.take();
+				boolean changed = concernsFile(key);
+				// wait until the file has been quiet for the debounce period
+				while (changed && debounce > 0) {
+					WatchKey next = service.poll(debounce, TimeUnit.MILLISECONDS);
+					if (next == null)
+						break;
+					concernsFile(next);
+				}
+				if (changed)
+					reloadQuietly();
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// stopped
+		}
+	}
+
+	/**
+	 * Drains and resets a watch key, returning true if any of its events concern
+	 * the watched file
+	 */
+	private boolean concernsFile(WatchKey key) {
+		boolean result = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			Object context = event.context();
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW
+					|| (context instanceof Path && file.getFileName().equals(context)))
+				result = true;
+		}
+		key.reset();
+		return result;
+	}
+
+	private void reloadQuietly() {
+		try {
+			reload();
+		} catch (IOException | OWLOntologyCreationException e) {
+			System.out.println("OWLAPI-Lite LOADING ERROR: the changed ontology file " + file
+					+ " could not be parsed, keeping the current version (" + e.getClass().getSimpleName() + ").");
+		}
+	}
+
+	/**
+	 * Parses the ontology document again and applies the difference to the
+	 * watched ontology. This is what the watcher does on a change event, and can
+	 * also be called directly.
+	 *
+	 * @return the applied changes (empty if the file matches the ontology)
+	 * @throws IOException                  if the file cannot be read
+	 * @throws OWLOntologyCreationException if the file cannot be parsed
+	 */
+	public List<OWLOntologyChange> reload() throws IOException, OWLOntologyCreationException {
+		OWLOntology parsed = parse();
+		lock.lock();
+		try {
+			List<OWLOntologyChange> changes = OntologyDiff.compute(ontology, parsed).applyTo(ontology);
+			reloads++;
+			if (listener != null)
+				listener.accept(changes);
+			return changes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Parses the document into a fresh manager without following imports
+	 * (imported ontologies are not part of the watched document)
+	 */
+	private OWLOntology parse() throws IOException, OWLOntologyCreationException {
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLOntologyLoaderConfiguration config = new ImportsClosureLoader.IgnoreImports();
+		try (InputStream in = CompressedIO.openInput(file)) {
+			OWLDocumentFormat format = CompressedIO.formatHint(file);
+			StreamDocumentSource source = format == null ? new StreamDocumentSource(in, IRI.create(file.toFile()))
+					: new StreamDocumentSource(in, IRI.create(file.toFile()), format, null);
+			return manager.loadOntologyFromOntologyDocument(source, config);
+		}
+	}
+}
@@ -1,5 +1,9 @@
 package io.github.kodymoodley.owlapilite;
 
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.expression.OWLEntityChecker;
 import org.semanticweb.owlapi.expression.ShortFormEntityChecker;
@@ -105,7 +109,24 @@ public class Parser {
      * @param entity A reference to an OWLEntity instance
      */
     public void addVocab(OWLEntity entity) {
-        shortFormProvider.add(entity);
+        // the short form provider is read by parses on other threads
+        synchronized (Parser.class) {
+            shortFormProvider.add(entity);
+        }
+    }
+
+    /**
+     * Returns the OWLEntity instances in the parser's vocabulary
+     * 
+     * @return a stream of the OWLEntity objects which can be referred to by their
+     *         short form labels
+     */
+    public Stream<OWLEntity> vocabulary() {
+        synchronized (Parser.class) {
+            List<OWLEntity> entities = shortFormProvider.shortForms().flatMap(shortFormProvider::entities).distinct()
+                    .collect(Collectors.toList());
+            return entities.stream();
+        }
     }
 
     /**
@@ -116,9 +137,12 @@ public class Parser {
      * @return An OWLClassExpression object constructed from the input string
      */
     public OWLClassExpression createClassExpression(String classExpressionStr) {
-        parser.setStringToParse(classExpressionStr);
-        OWLClassExpression clsEx = parser.parseClassExpression();
-        return clsEx;
+        // the Manchester parser is shared and stateful
+        synchronized (Parser.class) {
+            parser.setStringToParse(classExpressionStr);
+            OWLClassExpression clsEx = parser.parseClassExpression();
+            return clsEx;
+        }
     }
 
     /**
@@ -129,8 +153,10 @@ public class Parser {
      * @return An OWLAxiom object constructed from the input string
      */
     public OWLAxiom createAxiom(String axiomStr) {
-        parser.setStringToParse(axiomStr);
-        OWLAxiom axiom = parser.parseAxiom();
-        return axiom;
+        synchronized (Parser.class) {
+            parser.setStringToParse(axiomStr);
+            OWLAxiom axiom = parser.parseAxiom();
+            return axiom;
+        }
     }
 }
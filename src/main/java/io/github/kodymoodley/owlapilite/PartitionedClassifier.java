@@ -0,0 +1,427 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Classifies an ontology by parts, in parallel. The classes and properties of
+ * the TBox are split into signature-connected components (two entities are
+ * connected if they occur in the same TBox or RBox axiom). For each component a
+ * syntactic locality based bottom module is extracted from the whole ontology
+ * (with its imports closure). Each module is classified by its own reasoner
+ * instance on the given executor, and the resulting taxonomies are merged. As
+ * assertions are never local, the ABox is left out of the modules unless the
+ * TBox mentions individuals (nominals); the consistency of the whole ontology
+ * is then checked by one more reasoner, concurrently with the modules.
+ *
+ * A bottom module preserves all subsumptions of the classes in its signature,
+ * as well as the consistency of the ontology, so the merged taxonomy is the
+ * same as the one computed by classifying the whole ontology. The speed-up
+ * depends on how loosely connected the ontology is: axioms which are not local
+ * (e.g. owl:Thing SubClassOf A) occur in every module. Taxonomy.differences
+ * compares a merged taxonomy with whole-ontology classification.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class PartitionedClassifier {
+	/**
+	 * factory of the reasoners which classify the modules
+	 */
+	private final OWLReasonerFactory reasonerFactory;
+	/**
+	 * the ontology to classify (with its imports closure)
+	 */
+	private final OWLOntology ontology;
+	/**
+	 * the signature-connected components of the TBox
+	 */
+	private final List<Set<OWLEntity>> partitions;
+
+	/**
+	 * PartitionedClassifier constructor: computes the partitions of the ontology
+	 *
+	 * @param reasonerFactory factory of the reasoners to classify the modules with
+	 * @param ontology        the ontology to classify (with its imports closure)
+	 */
+	public PartitionedClassifier(OWLReasonerFactory reasonerFactory, OWLOntology ontology) {
+		this.reasonerFactory = reasonerFactory;
+		this.ontology = ontology;
+		this.partitions = partition();
+	}
+
+	/**
+	 * @return the signature-connected components of the TBox (classes and
+	 *         properties), largest first
+	 */
+	public List<Set<OWLEntity>> getPartitions() {
+		return Collections.unmodifiableList(partitions);
+	}
+
+	/**
+	 * Computes the connected components of the TBox and RBox signature with
+	 * union-find. Assertions do not connect components; built-in entities such as
+	 * owl:Thing connect nothing.
+	 */
+	private List<Set<OWLEntity>> partition() {
+		Map<OWLEntity, Integer> ids = new HashMap<OWLEntity, Integer>();
+		List<OWLEntity> entities = new ArrayList<OWLEntity>();
+		List<Integer> parent = new ArrayList<Integer>();
+		ontology.importsClosure().flatMap(OWLOntology::logicalAxioms)
+				.filter(ax -> !AxiomType.ABoxAxiomTypes.contains(ax.getAxiomType())).forEach(ax -> {
+					int first = -1;
+					for (OWLEntity e : (Iterable<OWLEntity>) ax.signature()::iterator) {
+						if (e.isBuiltIn() || e.isOWLNamedIndividual() || e.isOWLDatatype())
+							continue;
+						Integer id = ids.get(e);
+						if (id == null) {
+							id = entities.size();
+							ids.put(e, id);
+							entities.add(e);
+							parent.add(id);
+						}
+						if (first < 0)
+							first = id;
+						else
+							parent.set(find(parent, id), find(parent, first));
+					}
+				});
+		ontology.importsClosure().flatMap(OWLOntology::classesInSignature).filter(c -> !c.isBuiltIn())
+				.forEach(c -> {
+					if (!ids.containsKey(c)) {
+						ids.put(c, entities.size());
+						parent.add(entities.size());
+						entities.add(c);
+					}
+				});
+		Map<Integer, Set<OWLEntity>> components = new LinkedHashMap<Integer, Set<OWLEntity>>();
+		for (int i = 0; i < entities.size(); i++)
+			components.computeIfAbsent(find(parent, i), k -> new LinkedHashSet<OWLEntity>()).add(entities.get(i));
+		List<Set<OWLEntity>> result = new ArrayList<Set<OWLEntity>>(components.values());
+		result.sort((a, b) -> Integer.compare(b.size(), a.size()));
+		return result;
+	}
+
+	private static int find(List<Integer> parent, int i) {
+		while (parent.get(i) != i) {
+			parent.set(i, parent.get(parent.get(i)));
+			i = parent.get(i);
+		}
+		return i;
+	}
+
+	/**
+	 * Classifies the modules of all partitions which contain classes, each with
+	 * its own reasoner on the executor, and merges the taxonomies
+	 *
+	 * @param executor the executor to run the module reasoners on
+	 * @return the taxonomy of the ontology
+	 */
+	public Taxonomy classify(Executor executor) {
+		List<OWLAxiom> axioms = ontology.importsClosure().flatMap(OWLOntology::logicalAxioms)
+				.collect(Collectors.toList());
+		List<OWLAxiom> tbox = axioms.stream().filter(ax -> !AxiomType.ABoxAxiomTypes.contains(ax.getAxiomType()))
+				.collect(Collectors.toList());
+		// assertions are never local, so they would end up in every module. Without
+		// nominals they only matter for consistency, which is checked once instead
+		boolean nominals = tbox.stream().anyMatch(ax -> ax.individualsInSignature().findAny().isPresent());
+		List<OWLAxiom> base = nominals ? axioms : tbox;
+		SyntacticLocalityModuleExtractor extractor = new SyntacticLocalityModuleExtractor(
+				OWLManager.createOWLOntologyManager(), base.stream(), ModuleType.BOT);
+		Taxonomy taxonomy = new Taxonomy();
+		List<CompletableFuture<Taxonomy>> tasks = new ArrayList<CompletableFuture<Taxonomy>>();
+		if (!nominals && tbox.size() < axioms.size())
+			tasks.add(CompletableFuture.supplyAsync(this::checkConsistency, executor));
+		for (Set<OWLEntity> partition : partitions) {
+			List<OWLClass> classes = partition.stream().filter(OWLEntity::isOWLClass).map(OWLEntity::asOWLClass)
+					.collect(Collectors.toList());
+			if (classes.isEmpty())
+				continue;
+			Set<OWLAxiom> module = extractor.extract(partition).stream().filter(OWLAxiom::isLogicalAxiom)
+					.collect(Collectors.toSet());
+			if (module.isEmpty()) {
+				// classes without (non-local) axioms are only subsumed by owl:Thing
+				for (OWLClass c : classes)
+					taxonomy.add(c, Collections.singleton(c), Collections.<OWLClass>emptySet());
+				continue;
+			}
+			tasks.add(CompletableFuture.supplyAsync(() -> classify(module, classes), executor));
+		}
+		try {
+			for (CompletableFuture<Taxonomy> task : tasks)
+				taxonomy.merge(task.join());
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+		if (!taxonomy.consistent) {
+			taxonomy.superClasses.clear();
+			taxonomy.equivalents.clear();
+			taxonomy.unsatisfiable.clear();
+		}
+		return taxonomy;
+	}
+
+	/**
+	 * Checks the consistency of the whole ontology (TBox and ABox)
+	 *
+	 * @return an empty taxonomy which records the result
+	 */
+	private Taxonomy checkConsistency() {
+		Taxonomy taxonomy = new Taxonomy();
+		OWLReasoner reasoner = reasonerFactory.createNonBufferingReasoner(ontology);
+		try {
+			taxonomy.consistent = reasoner.isConsistent();
+		} finally {
+			reasoner.dispose();
+		}
+		return taxonomy;
+	}
+
+	/**
+	 * Classifies one module with a new reasoner
+	 *
+	 * @return the taxonomy of the given classes
+	 */
+	private Taxonomy classify(Set<OWLAxiom> module, List<OWLClass> classes) {
+		Taxonomy taxonomy = new Taxonomy();
+		taxonomy.partitions = 1;
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLOntology part;
+		try {
+			part = manager.createOntology(module.stream());
+		} catch (OWLOntologyCreationException e) {
+			throw new IllegalStateException(e);
+		}
+		OWLReasoner reasoner = reasonerFactory.createNonBufferingReasoner(part);
+		try {
+			if (!reasoner.isConsistent()) {
+				taxonomy.consistent = false;
+				return taxonomy;
+			}
+			reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+			Set<OWLClass> unsatisfiable = reasoner.getUnsatisfiableClasses().entities()
+					.collect(Collectors.toSet());
+			for (OWLClass c : classes) {
+				if (unsatisfiable.contains(c)) {
+					taxonomy.unsatisfiable.add(c);
+					continue;
+				}
+				Set<OWLClass> equivalents = reasoner.getEquivalentClasses(c).entities().collect(Collectors.toSet());
+				Set<OWLClass> supers = reasoner.getSuperClasses(c, false).entities().collect(Collectors.toSet());
+				taxonomy.add(c, equivalents, supers);
+			}
+		} finally {
+			reasoner.dispose();
+		}
+		return taxonomy;
+	}
+
+	/**
+	 * A classified class hierarchy: the superclasses and equivalent classes of
+	 * each named class, and the unsatisfiable classes
+	 *
+	 * @author Kody Moodley
+	 * @author https://kodymoodley.github.io
+	 * @version 1.0.1
+	 */
+	public static final class Taxonomy {
+		/**
+		 * strict superclasses of each satisfiable class (including owl:Thing)
+		 */
+		private final Map<OWLClass, Set<OWLClass>> superClasses = new HashMap<OWLClass, Set<OWLClass>>();
+		/**
+		 * equivalent classes of each satisfiable class (including itself)
+		 */
+		private final Map<OWLClass, Set<OWLClass>> equivalents = new HashMap<OWLClass, Set<OWLClass>>();
+		/**
+		 * unsatisfiable classes
+		 */
+		private final Set<OWLClass> unsatisfiable = new LinkedHashSet<OWLClass>();
+		/**
+		 * false if a module (and so the ontology) is inconsistent
+		 */
+		private boolean consistent = true;
+		/**
+		 * number of modules classified by a reasoner
+		 */
+		private int partitions;
+
+		private void add(OWLClass c, Set<OWLClass> equivalentClasses, Set<OWLClass> supers) {
+			Set<OWLClass> equivalent = new LinkedHashSet<OWLClass>(equivalentClasses);
+			equivalent.add(c);
+			Set<OWLClass> strict = new LinkedHashSet<OWLClass>(supers);
+			strict.add(OWLAPILiteReasoner.dataFactory.getOWLThing());
+			strict.removeAll(equivalent);
+			equivalents.put(c, equivalent);
+			superClasses.put(c, strict);
+		}
+
+		private void merge(Taxonomy other) {
+			superClasses.putAll(other.superClasses);
+			equivalents.putAll(other.equivalents);
+			unsatisfiable.addAll(other.unsatisfiable);
+			consistent &= other.consistent;
+			partitions += other.partitions;
+		}
+
+		/**
+		 * @return false if the ontology is inconsistent (the taxonomy is then empty)
+		 */
+		public boolean isConsistent() {
+			return consistent;
+		}
+
+		/**
+		 * @return the number of modules which were classified by a reasoner
+		 */
+		public int getPartitionCount() {
+			return partitions;
+		}
+
+		/**
+		 * @return the named classes in the taxonomy
+		 */
+		public Set<OWLClass> getClasses() {
+			Set<OWLClass> classes = new LinkedHashSet<OWLClass>(superClasses.keySet());
+			classes.addAll(unsatisfiable);
+			return classes;
+		}
+
+		/**
+		 * @param c a named class
+		 * @return true if the class is in the taxonomy
+		 */
+		public boolean contains(OWLClass c) {
+			return superClasses.containsKey(c) || unsatisfiable.contains(c);
+		}
+
+		/**
+		 * @return the unsatisfiable named classes
+		 */
+		public Set<OWLClass> getUnsatisfiableClasses() {
+			return Collections.unmodifiableSet(unsatisfiable);
+		}
+
+		/**
+		 * @param c a named class in the taxonomy
+		 * @return its strict named superclasses, including owl:Thing (all classes if
+		 *         it is unsatisfiable)
+		 */
+		public Set<OWLClass> superClassesOf(OWLClass c) {
+			if (unsatisfiable.contains(c)) {
+				Set<OWLClass> all = getClasses();
+				all.add(OWLAPILiteReasoner.dataFactory.getOWLThing());
+				all.removeAll(unsatisfiable);
+				return all;
+			}
+			return superClasses.getOrDefault(c, Collections.<OWLClass>emptySet());
+		}
+
+		/**
+		 * @param c a named class
+		 * @return its strict named subclasses, including the unsatisfiable classes
+		 */
+		public Set<OWLClass> subClassesOf(OWLClass c) {
+			Set<OWLClass> subs = new LinkedHashSet<OWLClass>();
+			if (unsatisfiable.contains(c))
+				return subs;
+			for (Map.Entry<OWLClass, Set<OWLClass>> e : superClasses.entrySet())
+				if (e.getValue().contains(c))
+					subs.add(e.getKey());
+			for (OWLClass u : unsatisfiable)
+				subs.add(u);
+			return subs;
+		}
+
+		/**
+		 * @param c a named class in the taxonomy
+		 * @return its equivalent named classes, including itself
+		 */
+		public Set<OWLClass> equivalentClassesOf(OWLClass c) {
+			if (unsatisfiable.contains(c))
+				return getUnsatisfiableClasses();
+			return equivalents.getOrDefault(c, Collections.singleton(c));
+		}
+
+		/**
+		 * Compares the taxonomy with the classification of a reasoner over the whole
+		 * ontology
+		 *
+		 * @param reference a reasoner for the whole ontology
+		 * @return a description of every class whose superclasses, equivalent classes
+		 *         or satisfiability differ (empty if the taxonomies agree)
+		 */
+		public List<String> differences(OWLReasoner reference) {
+			List<String> differences = new ArrayList<String>();
+			if (consistent != reference.isConsistent()) {
+				differences.add("consistency: " + consistent + " instead of " + !consistent);
+				return differences;
+			}
+			if (!consistent)
+				return differences;
+			Set<OWLClass> unsat = reference.getUnsatisfiableClasses().entities().filter(c -> !c.isOWLNothing())
+					.collect(Collectors.toSet());
+			if (!unsat.equals(unsatisfiable))
+				differences.add("unsatisfiable classes: " + unsatisfiable + " instead of " + unsat);
+			for (OWLClass c : (Iterable<OWLClass>) reference.getRootOntology()
+					.classesInSignature(Imports.INCLUDED)::iterator) {
+				if (c.isBuiltIn() || unsat.contains(c))
+					continue;
+				Set<OWLClass> equivalent = reference.getEquivalentClasses(c).entities().collect(Collectors.toSet());
+				Set<OWLClass> supers = reference.getSuperClasses(c, false).entities().collect(Collectors.toSet());
+				supers.removeAll(equivalent);
+				if (!equivalent.equals(equivalentClassesOf(c)))
+					differences.add(c + " equivalent classes: " + equivalentClassesOf(c) + " instead of " + equivalent);
+				if (!supers.equals(superClassesOf(c)))
+					differences.add(c + " superclasses: " + superClassesOf(c) + " instead of " + supers);
+			}
+			return differences;
+		}
+	}
+}
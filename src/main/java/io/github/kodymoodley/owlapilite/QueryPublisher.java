@@ -0,0 +1,206 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Publishes the results of a reasoner query as a java.util.concurrent.Flow
+ * stream with backpressure. The query is a lazily evaluated Stream which is
+ * opened when a subscriber arrives and pulled only as far as the subscriber has
+ * requested, so a consumer which processes results as they arrive never holds
+ * the full result set. Each subscription evaluates the query independently.
+ *
+ * Results are pulled on the given executor in batches while holding the given
+ * lock, which guards the (not thread safe) reasoner; each batch is emitted only
+ * after the lock is released, so a slow subscriber never blocks other queries
+ * and a subscriber may itself query the reasoner from onNext.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class QueryPublisher<T> implements Flow.Publisher<T> {
+	/**
+	 * maximum number of results pulled per lock acquisition
+	 */
+	public static final int BATCH_SIZE = 256;
+	/**
+	 * opens a new stream of the query results
+	 */
+	private final Supplier<Stream<T>> source;
+	/**
+	 * the executor on which results are pulled and emitted
+	 */
+	private final Executor executor;
+	/**
+	 * guards the reasoner while results are pulled
+	 */
+	private final Lock lock;
+
+	/**
+	 * QueryPublisher constructor
+	 *
+	 * @param source   opens a new lazily evaluated stream of the results
+	 * @param executor the executor on which results are pulled and emitted
+	 * @param lock     the lock held while results are pulled from the stream
+	 */
+	public QueryPublisher(Supplier<Stream<T>> source, Executor executor, Lock lock) {
+		this.source = source;
+		this.executor = executor;
+		this.lock = lock;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		if (subscriber == null)
+			throw new NullPointerException("subscriber");
+		Subscription s = new Subscription(subscriber);
+		subscriber.onSubscribe(s);
+	}
+
+	/**
+	 * A single subscription: emits up to the requested number of results and
+	 * completes, fails or stops when cancelled
+	 */
+	private final class Subscription implements Flow.Subscription {
+		private final Flow.Subscriber<? super T> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private final AtomicBoolean done = new AtomicBoolean();
+		private volatile Throwable invalidRequest;
+		private Stream<T> stream;
+		private Iterator<T> results;
+
+		Subscription(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0)
+				invalidRequest = new IllegalArgumentException("non-positive request: " + n);
+			else
+				demand.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			done.set(true);
+			schedule();
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() == 0)
+				executor.execute(this::drain);
+		}
+
+		/**
+		 * Emits results while there is demand. Only one drain runs at a time.
+		 */
+		private void drain() {
+			int missed = 1;
+			do {
+				if (done.get()) {
+					release();
+				} else if (invalidRequest != null) {
+					fail(invalidRequest);
+				} else {
+					emit();
+				}
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void emit() {
+			List<T> batch = new ArrayList<>(BATCH_SIZE);
+			while (demand.get() > 0 && !done.get()) {
+				boolean exhausted = false;
+				int wanted = (int) Math.min(BATCH_SIZE, demand.get());
+				batch.clear();
+				// pull the batch under the lock but emit it after releasing, so a
+				// slow (or re-entrant) subscriber never blocks the reasoner
+				lock.lock();
+				try {
+					if (results == null) {
+						stream = source.get();
+						results = stream.iterator();
+					}
+					while (batch.size() < wanted) {
+						if (!results.hasNext()) {
+							exhausted = true;
+							break;
+						}
+						batch.add(results.next());
+					}
+				} catch (Throwable t) {
+					lock.unlock();
+					fail(t);
+					return;
+				}
+				lock.unlock();
+				try {
+					for (T next : batch) {
+						if (done.get())
+							return;
+						demand.decrementAndGet();
+						subscriber.onNext(next);
+					}
+				} catch (Throwable t) {
+					fail(t);
+					return;
+				}
+				if (exhausted) {
+					if (done.compareAndSet(false, true)) {
+						release();
+						subscriber.onComplete();
+					}
+					return;
+				}
+			}
+		}
+
+		private void fail(Throwable t) {
+			if (done.compareAndSet(false, true)) {
+				release();
+				subscriber.onError(t);
+			}
+		}
+
+		private void release() {
+			if (stream != null) {
+				stream.close();
+				stream = null;
+				results = null;
+			}
+		}
+	}
+}
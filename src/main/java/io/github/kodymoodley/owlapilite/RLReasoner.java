@@ -0,0 +1,749 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectHasValue;
+import org.semanticweb.owlapi.model.OWLObjectOneOf;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.BufferingMode;
+import org.semanticweb.owlapi.reasoner.ClassExpressionNotInProfileException;
+import org.semanticweb.owlapi.reasoner.InconsistentOntologyException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+import org.semanticweb.owlapi.reasoner.OWLReasonerConfiguration;
+import org.semanticweb.owlapi.reasoner.impl.OWLClassNode;
+import org.semanticweb.owlapi.reasoner.impl.OWLClassNodeSet;
+import org.semanticweb.owlapi.reasoner.impl.OWLNamedIndividualNode;
+import org.semanticweb.owlapi.reasoner.impl.OWLNamedIndividualNodeSet;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasoner;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Built-in OWL 2 RL reasoner, selected with SelectedReasoner.RL. The ontology is
+ * materialised by a forward chaining RuleEngine over int ids, which scales to
+ * large ABoxes where the tableau reasoners do not. Class and property
+ * assertions are maintained incrementally (delete and rederive) as axioms are
+ * added and removed; a change to any other logical axiom recompiles the rules
+ * and materialises again.
+ *
+ * Instance, type and property value queries read the materialisation. The
+ * class hierarchy is computed by materialising one representative individual
+ * per class in a second rule engine which holds no ABox; complex class
+ * expressions get a temporary representative which is retracted after the
+ * query. Query class expressions must be OWL 2 RL subclass expressions
+ * (intersection, union, someValuesFrom, hasValue, oneOf), otherwise a
+ * ClassExpressionNotInProfileException is thrown.
+ *
+ * Supported axioms: subclass, equivalent and disjoint classes (with RL class
+ * expressions), disjoint unions, property domains and ranges, sub-, equivalent,
+ * inverse, symmetric and transitive properties, property chains, class and
+ * object property assertions. Equality reasoning (sameAs, functional
+ * properties, keys, max cardinality) and data properties are not supported;
+ * such axioms are ignored (see getUnsupportedAxioms) and the remaining queries
+ * fall back to the told information of StructuralReasoner.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public final class RLReasoner extends StructuralReasoner {
+	/**
+	 * name of this reasoner
+	 */
+	public static final String NAME = "OWL 2 RL (OWLAPI-Lite)";
+	/**
+	 * IRI of the OWL 2 RL profile
+	 */
+	private static final IRI RL_PROFILE = IRI.create("http://www.w3.org/ns/owl-profile/RL");
+	/**
+	 * namespace of the representative individuals used to classify classes
+	 */
+	private static final String PROBE_NAMESPACE = "urn:owlapi-lite:rl#";
+	/**
+	 * ids of the individuals of the ontology and of the representatives (the
+	 * session dictionary, if one was given)
+	 */
+	private final EntityDictionary individuals;
+	/**
+	 * the rules compiled from the TBox
+	 */
+	private RuleEngine.Rules rules;
+	/**
+	 * the materialisation of the ontology
+	 */
+	private RuleEngine abox;
+	/**
+	 * the materialisation of the class representatives (no ABox)
+	 */
+	private RuleEngine tbox;
+	/**
+	 * representative individual of each named class
+	 */
+	private final Map<OWLClass, Integer> probes = new HashMap<OWLClass, Integer>();
+	/**
+	 * named class of each representative individual
+	 */
+	private final Map<Integer, OWLClass> probeClasses = new HashMap<Integer, OWLClass>();
+	/**
+	 * the named superclasses of each class (including itself and owl:Thing)
+	 */
+	private final Map<OWLClass, Set<OWLClass>> superClasses = new HashMap<OWLClass, Set<OWLClass>>();
+	/**
+	 * number of asserted axioms which state each ABox fact (an assertion and its
+	 * inverse state the same fact)
+	 */
+	private final Map<RuleEngine.Fact, Integer> support = new HashMap<RuleEngine.Fact, Integer>();
+	/**
+	 * number of full materialisations
+	 */
+	private int materialisations;
+
+	/**
+	 * RLReasoner constructor
+	 *
+	 * @param ontology      the root ontology
+	 * @param configuration the reasoner configuration
+	 * @param bufferingMode whether changes are buffered until flush()
+	 */
+	public RLReasoner(OWLOntology ontology, OWLReasonerConfiguration configuration, BufferingMode bufferingMode) {
+		this(ontology, configuration, bufferingMode, null);
+	}
+
+	/**
+	 * RLReasoner constructor
+	 *
+	 * @param ontology      the root ontology
+	 * @param configuration the reasoner configuration
+	 * @param bufferingMode whether changes are buffered until flush()
+	 * @param dictionary    the EntityDictionary to encode individuals with (e.g.
+	 *                      the session dictionary), or null for a new one
+	 */
+	public RLReasoner(OWLOntology ontology, OWLReasonerConfiguration configuration, BufferingMode bufferingMode,
+			EntityDictionary dictionary) {
+		super(ontology, configuration, bufferingMode);
+		individuals = dictionary == null ? new EntityDictionary() : dictionary;
+		materialise();
+	}
+
+	/**
+	 * @return the number of times the ontology was materialised from scratch
+	 */
+	public int getMaterialisations() {
+		return materialisations;
+	}
+
+	/**
+	 * @return the logical axioms which are ignored because they are outside of the
+	 *         supported subset of OWL 2 RL
+	 */
+	public List<OWLAxiom> getUnsupportedAxioms() {
+		return new ArrayList<OWLAxiom>(rules.getUnsupported());
+	}
+
+	@Override
+	public String getReasonerName() {
+		return NAME;
+	}
+
+	/**
+	 * Compiles the rules and materialises the ontology from scratch
+	 */
+	private synchronized void materialise() {
+		Collection<OWLAxiom> axioms = getReasonerAxioms();
+		List<OWLAxiom> tboxAxioms = new ArrayList<OWLAxiom>();
+		for (OWLAxiom axiom : axioms)
+			if (axiom.isLogicalAxiom() && !isAssertion(axiom))
+				tboxAxioms.add(axiom);
+		rules = new RuleEngine.Rules(tboxAxioms, individuals);
+		abox = new RuleEngine(rules);
+		support.clear();
+		List<RuleEngine.Fact> facts = new ArrayList<RuleEngine.Fact>();
+		for (OWLAxiom axiom : axioms)
+			facts(axiom, facts);
+		for (RuleEngine.Fact f : facts)
+			support.merge(f, 1, Integer::sum);
+		getRootOntology().individualsInSignature(Imports.INCLUDED)
+				.forEach(i -> facts.add(unary(RuleEngine.THING, i)));
+		abox.insert(facts);
+		tbox = new RuleEngine(rules);
+		probes.clear();
+		probeClasses.clear();
+		superClasses.clear();
+		probe(getOWLDataFactory().getOWLThing());
+		getRootOntology().classesInSignature(Imports.INCLUDED).forEach(this::probe);
+		materialisations++;
+	}
+
+	/**
+	 * @return true for class assertions of named classes and object property
+	 *         assertions, which are maintained incrementally
+	 */
+	private static boolean isAssertion(OWLAxiom axiom) {
+		if (axiom.isOfType(AxiomType.CLASS_ASSERTION)) {
+			OWLClassAssertionAxiom ax = (OWLClassAssertionAxiom) axiom;
+			return ax.getClassExpression().isNamed() && ax.getIndividual().isNamed();
+		}
+		if (axiom.isOfType(AxiomType.OBJECT_PROPERTY_ASSERTION)) {
+			OWLObjectPropertyAssertionAxiom ax = (OWLObjectPropertyAssertionAxiom) axiom;
+			return ax.getSubject().isNamed() && ax.getObject().isNamed();
+		}
+		return false;
+	}
+
+	/**
+	 * @return true for logical axioms which change the rules: the axioms which
+	 *         are neither maintained incrementally nor ignored by the rule engine
+	 *         (e.g. data property assertions)
+	 */
+	private static boolean changesRules(OWLAxiom axiom) {
+		return axiom.isLogicalAxiom() && !isAssertion(axiom) && RuleEngine.Rules.compiles(axiom);
+	}
+
+	/**
+	 * Adds the facts asserted by an ABox axiom (owl:Thing assertions are implied
+	 * by the signature)
+	 */
+	private void facts(OWLAxiom axiom, List<RuleEngine.Fact> facts) {
+		if (!isAssertion(axiom))
+			return;
+		if (axiom.isOfType(AxiomType.CLASS_ASSERTION)) {
+			OWLClassAssertionAxiom ax = (OWLClassAssertionAxiom) axiom;
+			if (!ax.getClassExpression().isOWLThing())
+				facts.add(unary(rules.classPredicate(ax.getClassExpression().asOWLClass()), ax.getIndividual()));
+		} else {
+			OWLObjectPropertyAssertionAxiom ax = (OWLObjectPropertyAssertionAxiom) axiom;
+			facts.add(binary(ax.getProperty(), id(ax.getSubject()), id(ax.getObject())));
+		}
+	}
+
+	private int id(OWLIndividual i) {
+		return individuals.encode(i.asOWLNamedIndividual().getIRI());
+	}
+
+	private RuleEngine.Fact unary(int pred, OWLIndividual i) {
+		return new RuleEngine.Fact(pred, id(i), -1);
+	}
+
+	/**
+	 * @return a fact of a property expression, stated on the named property
+	 */
+	private RuleEngine.Fact binary(OWLObjectPropertyExpression pe, int s, int o) {
+		int p = rules.propertyPredicate(pe.getNamedProperty());
+		return pe.isAnonymous() ? new RuleEngine.Fact(p, o, s) : new RuleEngine.Fact(p, s, o);
+	}
+
+	@Override
+	protected void handleChanges(Set<OWLAxiom> addAxioms, Set<OWLAxiom> removeAxioms) {
+		super.handleChanges(addAxioms, removeAxioms);
+		if (abox == null)
+			return;
+		for (OWLAxiom axiom : addAxioms)
+			if (changesRules(axiom)) {
+				materialise();
+				return;
+			}
+		for (OWLAxiom axiom : removeAxioms)
+			if (changesRules(axiom)) {
+				materialise();
+				return;
+			}
+		synchronized (this) {
+			// axioms the rule engine does not support only need to be reported
+			for (OWLAxiom axiom : removeAxioms)
+				if (axiom.isLogicalAxiom() && !isAssertion(axiom))
+					rules.unignore(axiom);
+			for (OWLAxiom axiom : addAxioms)
+				if (axiom.isLogicalAxiom() && !isAssertion(axiom))
+					rules.ignore(axiom);
+			List<RuleEngine.Fact> retracted = new ArrayList<RuleEngine.Fact>();
+			Set<OWLNamedIndividual> touched = new HashSet<OWLNamedIndividual>();
+			for (OWLAxiom axiom : removeAxioms) {
+				List<RuleEngine.Fact> facts = new ArrayList<RuleEngine.Fact>();
+				facts(axiom, facts);
+				// a fact is only retracted with the last axiom which states it
+				for (RuleEngine.Fact f : facts)
+					if (support.merge(f, -1, Integer::sum) <= 0) {
+						support.remove(f);
+						retracted.add(f);
+					}
+				touched.addAll(axiom.getIndividualsInSignature());
+			}
+			for (OWLNamedIndividual i : touched)
+				if (!getRootOntology().containsIndividualInSignature(i.getIRI(), Imports.INCLUDED))
+					retracted.add(unary(RuleEngine.THING, i));
+			abox.delete(retracted);
+			List<RuleEngine.Fact> asserted = new ArrayList<RuleEngine.Fact>();
+			for (OWLAxiom axiom : addAxioms) {
+				List<RuleEngine.Fact> facts = new ArrayList<RuleEngine.Fact>();
+				facts(axiom, facts);
+				for (RuleEngine.Fact f : facts)
+					support.merge(f, 1, Integer::sum);
+				asserted.addAll(facts);
+				axiom.individualsInSignature().forEach(i -> asserted.add(unary(RuleEngine.THING, i)));
+				if (axiom instanceof OWLDeclarationAxiom)
+					for (OWLClass c : axiom.getClassesInSignature())
+						probe(c);
+			}
+			abox.insert(asserted);
+			for (OWLAxiom axiom : addAxioms)
+				axiom.classesInSignature().forEach(this::probe);
+		}
+	}
+
+	/**
+	 * @return the representative individual of a named class (created and
+	 *         materialised on first use)
+	 */
+	private synchronized int probe(OWLClass c) {
+		Integer p = probes.get(c);
+		if (p != null)
+			return p;
+		int id = individuals.encode(IRI.create(PROBE_NAMESPACE + "class" + probes.size()));
+		probes.put(c, id);
+		probeClasses.put(id, c);
+		List<RuleEngine.Fact> facts = new ArrayList<RuleEngine.Fact>();
+		facts.add(new RuleEngine.Fact(RuleEngine.THING, id, -1));
+		facts.add(new RuleEngine.Fact(rules.classPredicate(c), id, -1));
+		tbox.insert(facts);
+		superClasses.clear();
+		return id;
+	}
+
+	/**
+	 * Answers a question about a class expression using its representative
+	 * individual: the one of a named class, or a temporary one (with fresh
+	 * successors for someValuesFrom) which is retracted afterwards
+	 */
+	private synchronized boolean withProbe(OWLClassExpression ce, IntPredicate question) {
+		if (ce.isNamed())
+			return question.test(probe(ce.asOWLClass()));
+		List<RuleEngine.Fact> facts = new ArrayList<RuleEngine.Fact>();
+		int[] fresh = { 0 };
+		int p = fresh(fresh);
+		if (!assertHead(ce, p, facts, fresh))
+			throw new ClassExpressionNotInProfileException(ce, RL_PROFILE);
+		tbox.insert(facts);
+		try {
+			return question.test(p);
+		} finally {
+			tbox.delete(facts);
+		}
+	}
+
+	private int fresh(int[] counter) {
+		return individuals.encode(IRI.create(PROBE_NAMESPACE + "query" + counter[0]++));
+	}
+
+	/**
+	 * Adds facts which make an individual an instance of a class expression
+	 */
+	private boolean assertHead(OWLClassExpression ce, int x, List<RuleEngine.Fact> facts, int[] fresh) {
+		facts.add(new RuleEngine.Fact(RuleEngine.THING, x, -1));
+		if (ce.isNamed()) {
+			facts.add(new RuleEngine.Fact(rules.classPredicate(ce.asOWLClass()), x, -1));
+			return true;
+		}
+		switch (ce.getClassExpressionType()) {
+		case OBJECT_INTERSECTION_OF:
+			for (OWLClassExpression op : ce.asConjunctSet())
+				if (!assertHead(op, x, facts, fresh))
+					return false;
+			return true;
+		case OBJECT_SOME_VALUES_FROM: {
+			OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) ce;
+			int y = fresh(fresh);
+			facts.add(binary(some.getProperty(), x, y));
+			return assertHead(some.getFiller(), y, facts, fresh);
+		}
+		case OBJECT_HAS_VALUE: {
+			OWLObjectHasValue hv = (OWLObjectHasValue) ce;
+			if (!hv.getFiller().isNamed())
+				return false;
+			facts.add(binary(hv.getProperty(), x, id(hv.getFiller())));
+			return true;
+		}
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Evaluates an OWL 2 RL subclass expression over a materialisation
+	 *
+	 * @return the ids of its instances
+	 */
+	private BitSet evaluate(RuleEngine engine, OWLClassExpression ce) {
+		if (ce.isNamed()) {
+			int pred = rules.lookupClass(ce.asOWLClass());
+			return pred < 0 ? new BitSet() : (BitSet) engine.members(pred).clone();
+		}
+		BitSet result = new BitSet();
+		switch (ce.getClassExpressionType()) {
+		case OBJECT_INTERSECTION_OF: {
+			boolean first = true;
+			for (OWLClassExpression op : ce.asConjunctSet()) {
+				BitSet b = evaluate(engine, op);
+				if (first)
+					result.or(b);
+				else
+					result.and(b);
+				first = false;
+			}
+			return result;
+		}
+		case OBJECT_UNION_OF:
+			for (OWLClassExpression op : ce.asDisjunctSet())
+				result.or(evaluate(engine, op));
+			return result;
+		case OBJECT_SOME_VALUES_FROM: {
+			OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) ce;
+			BitSet fillers = evaluate(engine, some.getFiller());
+			for (int y = fillers.nextSetBit(0); y >= 0; y = fillers.nextSetBit(y + 1))
+				predecessors(engine, some.getProperty(), y).forEach(result::set);
+			return result;
+		}
+		case OBJECT_HAS_VALUE: {
+			OWLObjectHasValue hv = (OWLObjectHasValue) ce;
+			if (!hv.getFiller().isNamed())
+				break;
+			predecessors(engine, hv.getProperty(), id(hv.getFiller())).forEach(result::set);
+			return result;
+		}
+		case OBJECT_ONE_OF:
+			for (OWLIndividual i : ((OWLObjectOneOf) ce).getOperandsAsList())
+				if (i.isNamed())
+					result.set(id(i));
+			return result;
+		default:
+			break;
+		}
+		throw new ClassExpressionNotInProfileException(ce, RL_PROFILE);
+	}
+
+	private RuleEngine.IntList predecessors(RuleEngine engine, OWLObjectPropertyExpression pe, int y) {
+		int p = rules.lookupProperty(pe.getNamedProperty());
+		RuleEngine.Relation r = engine.relation(p < 0 ? Integer.MAX_VALUE : p);
+		return pe.isAnonymous() ? r.objects(y) : r.subjects(y);
+	}
+
+	private void checkConsistency() {
+		if (!abox.members(RuleEngine.NOTHING).isEmpty())
+			throw new InconsistentOntologyException();
+	}
+
+	private synchronized boolean unsatisfiable(int probe) {
+		return tbox.members(RuleEngine.NOTHING).get(probe);
+	}
+
+	/**
+	 * @return the named superclasses of a class, including itself and owl:Thing
+	 *         (all classes if it is unsatisfiable)
+	 */
+	private synchronized Set<OWLClass> supers(OWLClass c) {
+		Set<OWLClass> s = superClasses.get(c);
+		if (s == null) {
+			int p = probe(c);
+			s = unsatisfiable(p) ? new LinkedHashSet<OWLClass>(probes.keySet()) : typesIn(tbox, p);
+			superClasses.put(c, s);
+		}
+		return s;
+	}
+
+	/**
+	 * @return the named classes of an individual in a materialisation
+	 */
+	private Set<OWLClass> typesIn(RuleEngine engine, int x) {
+		Set<OWLClass> types = new LinkedHashSet<OWLClass>();
+		types.add(getOWLDataFactory().getOWLThing());
+		for (Map.Entry<OWLClass, Integer> e : rules.classes().entrySet())
+			if (engine.members(e.getValue()).get(x))
+				types.add(e.getKey());
+		return types;
+	}
+
+	private Set<OWLClass> bottomClasses() {
+		Set<OWLClass> bottom = new LinkedHashSet<OWLClass>();
+		bottom.add(getOWLDataFactory().getOWLNothing());
+		for (Map.Entry<OWLClass, Integer> e : new ArrayList<Map.Entry<OWLClass, Integer>>(probes.entrySet()))
+			if (unsatisfiable(e.getValue()))
+				bottom.add(e.getKey());
+		return bottom;
+	}
+
+	/**
+	 * @return the node of a class: the classes equivalent to it
+	 */
+	private Node<OWLClass> node(OWLClass c, Set<OWLClass> bottom) {
+		if (bottom.contains(c))
+			return new OWLClassNode(bottom);
+		Set<OWLClass> equivalent = new LinkedHashSet<OWLClass>();
+		for (OWLClass d : supers(c))
+			if (supers(d).contains(c))
+				equivalent.add(d);
+		return new OWLClassNode(equivalent);
+	}
+
+	/**
+	 * @return the nodes of a set of classes, reduced to the most specific (or
+	 *         most general) classes if direct
+	 */
+	private NodeSet<OWLClass> nodes(Set<OWLClass> classes, boolean direct, boolean specific) {
+		Set<OWLClass> bottom = bottomClasses();
+		Set<Node<OWLClass>> nodes = new LinkedHashSet<Node<OWLClass>>();
+		for (OWLClass c : classes) {
+			if (direct) {
+				boolean covered = false;
+				for (OWLClass d : classes) {
+					boolean dBelowC = bottom.contains(d) || (supers(d).contains(c) && !supers(c).contains(d));
+					boolean cBelowD = bottom.contains(c) || (supers(c).contains(d) && !supers(d).contains(c));
+					if (specific ? dBelowC && !bottom.contains(d) : cBelowD && !bottom.contains(c)) {
+						covered = true;
+						break;
+					}
+				}
+				if (covered)
+					continue;
+			}
+			nodes.add(node(c, bottom));
+		}
+		return new OWLClassNodeSet(nodes);
+	}
+
+	@Override
+	public void precomputeInferences(InferenceType... inferenceTypes) {
+		// the ontology is materialised eagerly
+	}
+
+	@Override
+	public boolean isPrecomputed(InferenceType inferenceType) {
+		return true;
+	}
+
+	@Override
+	public synchronized boolean isConsistent() {
+		return abox.members(RuleEngine.NOTHING).isEmpty();
+	}
+
+	@Override
+	public boolean isSatisfiable(OWLClassExpression ce) {
+		checkConsistency();
+		return withProbe(ce, p -> !unsatisfiable(p));
+	}
+
+	@Override
+	public synchronized Node<OWLClass> getUnsatisfiableClasses() {
+		checkConsistency();
+		return new OWLClassNode(bottomClasses());
+	}
+
+	@Override
+	public synchronized Node<OWLClass> getTopClassNode() {
+		return node(getOWLDataFactory().getOWLThing(), bottomClasses());
+	}
+
+	@Override
+	public synchronized Node<OWLClass> getBottomClassNode() {
+		return new OWLClassNode(bottomClasses());
+	}
+
+	@Override
+	public synchronized NodeSet<OWLClass> getSubClasses(OWLClassExpression ce, boolean direct) {
+		checkConsistency();
+		Set<OWLClass> subs = new LinkedHashSet<OWLClass>();
+		Set<OWLClass> equivalent = getEquivalentClasses(ce).entities().collect(Collectors.toSet());
+		BitSet members = evaluate(tbox, ce);
+		for (int p = members.nextSetBit(0); p >= 0; p = members.nextSetBit(p + 1)) {
+			OWLClass c = probeClasses.get(p);
+			if (c != null && !equivalent.contains(c))
+				subs.add(c);
+		}
+		if (!direct || subs.isEmpty())
+			subs.addAll(bottomClasses());
+		subs.removeAll(equivalent);
+		return nodes(subs, direct, false);
+	}
+
+	@Override
+	public synchronized NodeSet<OWLClass> getSuperClasses(OWLClassExpression ce, boolean direct) {
+		checkConsistency();
+		Set<OWLClass> supers = new LinkedHashSet<OWLClass>();
+		if (ce.isNamed()) {
+			supers.addAll(supers(ce.asOWLClass()));
+		} else {
+			withProbe(ce, p -> {
+				supers.addAll(unsatisfiable(p) ? probes.keySet() : typesIn(tbox, p));
+				return true;
+			});
+		}
+		supers.removeAll(getEquivalentClasses(ce).entities().collect(Collectors.toSet()));
+		return nodes(supers, direct, true);
+	}
+
+	@Override
+	public synchronized Node<OWLClass> getEquivalentClasses(OWLClassExpression ce) {
+		checkConsistency();
+		Set<OWLClass> bottom = bottomClasses();
+		if (ce.isNamed())
+			return node(ce.asOWLClass(), bottom);
+		Set<OWLClass> supers = new LinkedHashSet<OWLClass>();
+		boolean unsat = withProbe(ce, p -> {
+			supers.addAll(typesIn(tbox, p));
+			return unsatisfiable(p);
+		});
+		if (unsat)
+			return new OWLClassNode(bottom);
+		BitSet members = evaluate(tbox, ce);
+		Set<OWLClass> equivalent = new LinkedHashSet<OWLClass>();
+		for (OWLClass c : supers)
+			if (members.get(probe(c)))
+				equivalent.add(c);
+		return new OWLClassNode(equivalent);
+	}
+
+	@Override
+	public synchronized NodeSet<OWLNamedIndividual> getInstances(OWLClassExpression ce, boolean direct) {
+		checkConsistency();
+		BitSet members = evaluate(abox, ce);
+		Set<OWLClass> below = new HashSet<OWLClass>();
+		if (direct)
+			getSubClasses(ce, false).entities().filter(c -> !c.isOWLNothing()).forEach(below::add);
+		Set<Node<OWLNamedIndividual>> nodes = new LinkedHashSet<Node<OWLNamedIndividual>>();
+		for (int x = members.nextSetBit(0); x >= 0; x = members.nextSetBit(x + 1)) {
+			if (direct) {
+				int id = x;
+				if (below.stream().anyMatch(c -> abox.members(rules.lookupClass(c)).get(id)))
+					continue;
+			}
+			nodes.add(new OWLNamedIndividualNode(getOWLDataFactory().getOWLNamedIndividual(individuals.getIRI(x))));
+		}
+		return new OWLNamedIndividualNodeSet(nodes);
+	}
+
+	@Override
+	public synchronized NodeSet<OWLClass> getTypes(OWLNamedIndividual ind, boolean direct) {
+		checkConsistency();
+		int id = individuals.lookup(ind.getIRI());
+		Set<OWLClass> types = id == EntityDictionary.NO_ID ? new LinkedHashSet<OWLClass>(
+				Collections.singleton(getOWLDataFactory().getOWLThing())) : typesIn(abox, id);
+		return nodes(types, direct, true);
+	}
+
+	@Override
+	public synchronized NodeSet<OWLNamedIndividual> getObjectPropertyValues(OWLNamedIndividual ind,
+			OWLObjectPropertyExpression pe) {
+		checkConsistency();
+		Set<Node<OWLNamedIndividual>> nodes = new LinkedHashSet<Node<OWLNamedIndividual>>();
+		int id = individuals.lookup(ind.getIRI());
+		int p = rules.lookupProperty(pe.getNamedProperty());
+		if (id != EntityDictionary.NO_ID && p >= 0) {
+			RuleEngine.Relation r = abox.relation(p);
+			(pe.isAnonymous() ? r.subjects(id) : r.objects(id)).forEach(o -> nodes.add(
+					new OWLNamedIndividualNode(getOWLDataFactory().getOWLNamedIndividual(individuals.getIRI(o)))));
+		}
+		return new OWLNamedIndividualNodeSet(nodes);
+	}
+
+	@Override
+	public boolean isEntailmentCheckingSupported(AxiomType<?> axiomType) {
+		return axiomType == AxiomType.SUBCLASS_OF || axiomType == AxiomType.EQUIVALENT_CLASSES
+				|| axiomType == AxiomType.DISJOINT_CLASSES || axiomType == AxiomType.CLASS_ASSERTION
+				|| axiomType == AxiomType.OBJECT_PROPERTY_ASSERTION || super.isEntailmentCheckingSupported(axiomType);
+	}
+
+	@Override
+	public synchronized boolean isEntailed(OWLAxiom axiom) {
+		checkConsistency();
+		OWLDataFactory df = getOWLDataFactory();
+		try {
+			if (axiom.isOfType(AxiomType.SUBCLASS_OF)) {
+				OWLSubClassOfAxiom ax = (OWLSubClassOfAxiom) axiom;
+				if (ax.getSuperClass().isNamed() && !ax.getSubClass().isNamed())
+					return getSuperClasses(ax.getSubClass(), false).containsEntity(ax.getSuperClass().asOWLClass())
+							|| getEquivalentClasses(ax.getSubClass()).contains(ax.getSuperClass().asOWLClass());
+				return withProbe(ax.getSubClass(), p -> unsatisfiable(p) || evaluate(tbox, ax.getSuperClass()).get(p));
+			}
+			if (axiom.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
+				for (OWLSubClassOfAxiom ax : ((OWLEquivalentClassesAxiom) axiom).asOWLSubClassOfAxioms())
+					if (!isEntailed(ax))
+						return false;
+				return true;
+			}
+			if (axiom.isOfType(AxiomType.DISJOINT_CLASSES)) {
+				for (OWLDisjointClassesAxiom pair : ((OWLDisjointClassesAxiom) axiom).asPairwiseAxioms())
+					if (isSatisfiable(df.getOWLObjectIntersectionOf(pair.getOperandsAsList())))
+						return false;
+				return true;
+			}
+			if (axiom.isOfType(AxiomType.CLASS_ASSERTION)) {
+				OWLClassAssertionAxiom ax = (OWLClassAssertionAxiom) axiom;
+				if (ax.getIndividual().isNamed())
+					return evaluate(abox, ax.getClassExpression()).get(id(ax.getIndividual()));
+			}
+			if (axiom.isOfType(AxiomType.OBJECT_PROPERTY_ASSERTION)) {
+				OWLObjectPropertyAssertionAxiom ax = (OWLObjectPropertyAssertionAxiom) axiom;
+				if (ax.getSubject().isNamed() && ax.getObject().isNamed()) {
+					RuleEngine.Fact f = binary(ax.getProperty(), id(ax.getSubject()), id(ax.getObject()));
+					return abox.contains(f);
+				}
+			}
+		} catch (ClassExpressionNotInProfileException e) {
+			// not decidable by evaluation: fall back to the told axioms
+		}
+		return super.isEntailed(axiom);
+	}
+
+	@Override
+	public boolean isEntailed(Set<? extends OWLAxiom> axioms) {
+		for (OWLAxiom axiom : axioms)
+			if (!isEntailed(axiom))
+				return false;
+		return true;
+	}
+}
@@ -0,0 +1,96 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.BufferingMode;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerConfiguration;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+import org.semanticweb.owlapi.reasoner.SimpleConfiguration;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * OWLReasonerFactory for the built-in OWL 2 RL reasoner (RLReasoner). A
+ * factory created with an EntityDictionary gives it to every reasoner it
+ * creates, so that they encode individuals with the ids of the session;
+ * otherwise each reasoner has a dictionary of its own.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class RLReasonerFactory implements OWLReasonerFactory {
+	/**
+	 * the dictionary shared by the created reasoners, or null
+	 */
+	private final EntityDictionary dictionary;
+
+	/**
+	 * RLReasonerFactory constructor. Each created reasoner has its own
+	 * EntityDictionary.
+	 */
+	public RLReasonerFactory() {
+		this(null);
+	}
+
+	/**
+	 * RLReasonerFactory constructor
+	 *
+	 * @param dictionary the EntityDictionary the created reasoners encode
+	 *                   individuals with, or null to give each reasoner its own
+	 */
+	public RLReasonerFactory(EntityDictionary dictionary) {
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * @param dictionary an EntityDictionary
+	 * @return a factory whose reasoners encode individuals with the dictionary
+	 *         (this factory if it already does)
+	 */
+	public RLReasonerFactory withDictionary(EntityDictionary dictionary) {
+		return dictionary == this.dictionary ? this : new RLReasonerFactory(dictionary);
+	}
+
+	@Override
+	public String getReasonerName() {
+		return RLReasoner.NAME;
+	}
+
+	@Override
+	public OWLReasoner createNonBufferingReasoner(OWLOntology ontology) {
+		return createNonBufferingReasoner(ontology, new SimpleConfiguration());
+	}
+
+	@Override
+	public OWLReasoner createReasoner(OWLOntology ontology) {
+		return createReasoner(ontology, new SimpleConfiguration());
+	}
+
+	@Override
+	public OWLReasoner createNonBufferingReasoner(OWLOntology ontology, OWLReasonerConfiguration config) {
+		return new RLReasoner(ontology, config, BufferingMode.NON_BUFFERING, dictionary);
+	}
+
+	@Override
+	public OWLReasoner createReasoner(OWLOntology ontology, OWLReasonerConfiguration config) {
+		return new RLReasoner(ontology, config, BufferingMode.BUFFERING, dictionary);
+	}
+}
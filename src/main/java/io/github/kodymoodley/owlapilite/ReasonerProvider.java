@@ -0,0 +1,97 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Service provider interface for the OWL 2 reasoners which OWLAPI-Lite can
+ * use. Providers are discovered by ReasonerRegistry with java.util.ServiceLoader:
+ * a jar contributes a reasoner by listing its provider class in
+ * META-INF/services/io.github.kodymoodley.owlapilite.ReasonerProvider. The
+ * easiest way to write one is to extend LazyReasonerProvider with a no-argument
+ * constructor.
+ *
+ * Providers describe a reasoner without loading it: the reasoner classes are
+ * only loaded when createReasonerFactory() is called.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public interface ReasonerProvider {
+	/**
+	 * capability: computes the class hierarchy
+	 */
+	public static final int CLASSIFICATION = 1;
+	/**
+	 * capability: computes the types and instances of individuals
+	 */
+	public static final int REALISATION = 2;
+	/**
+	 * capability: decides entailment of arbitrary (logical) axioms
+	 */
+	public static final int ENTAILMENT = 4;
+	/**
+	 * capability: reasons over data properties and datatypes
+	 */
+	public static final int DATA_PROPERTIES = 8;
+	/**
+	 * capability: updates its inferences incrementally when the ontology changes
+	 */
+	public static final int INCREMENTAL = 16;
+
+	/**
+	 * @return the unique name of the reasoner (e.g. "HERMIT"), used to select it
+	 */
+	public String getName();
+
+	/**
+	 * @return the OWL 2 profile supported by the reasoner (e.g. "OWL 2 DL")
+	 */
+	public String getProfile();
+
+	/**
+	 * @return the capabilities of the reasoner, as a bitwise OR of the capability
+	 *         constants of this interface
+	 */
+	public int getCapabilities();
+
+	/**
+	 * @param capability one or more capability constants of this interface
+	 * @return true if the reasoner has all the given capabilities
+	 */
+	public default boolean supports(int capability) {
+		return (getCapabilities() & capability) == capability;
+	}
+
+	/**
+	 * @return true if the reasoner classes can be loaded from the classpath
+	 */
+	public boolean isAvailable();
+
+	/**
+	 * Loads the reasoner and creates its OWLReasonerFactory
+	 *
+	 * @return a new OWLReasonerFactory for the reasoner
+	 * @throws IllegalStateException if the reasoner cannot be loaded
+	 */
+	public OWLReasonerFactory createReasonerFactory();
+}
@@ -0,0 +1,143 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Registry of the OWL 2 reasoners which OWLAPI-Lite can use. It holds the
+ * built-in reasoners (JFact, ELK, HermiT, the OWL 2 RL rule reasoner and the
+ * OWLAPI StructuralReasoner, which has no capabilities as it does no inference) plus
+ * every ReasonerProvider found on the classpath with java.util.ServiceLoader.
+ * Reasoners are looked up by name (case insensitive); a provider registered
+ * under the name of an existing one replaces it. Providers load their reasoner
+ * lazily, so reasoners which are never selected cost nothing at startup.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public final class ReasonerRegistry {
+	/**
+	 * the registered providers by upper case name, in registration order
+	 */
+	private static final Map<String, ReasonerProvider> providers = new LinkedHashMap<String, ReasonerProvider>();
+
+	static {
+		reload(ReasonerRegistry.class.getClassLoader());
+	}
+
+	private ReasonerRegistry() {
+	}
+
+	/**
+	 * Clears the registry, then registers the built-in reasoners and the providers
+	 * which the given class loader can find with java.util.ServiceLoader
+	 * 
+	 * @param classLoader the class loader to search for
+	 *                    META-INF/services/io.github.kodymoodley.owlapilite.ReasonerProvider
+	 */
+	public static synchronized void reload(ClassLoader classLoader) {
+		providers.clear();
+		register(new LazyReasonerProvider("JFACT", "OWL 2 DL", ReasonerProvider.CLASSIFICATION
+				| ReasonerProvider.REALISATION | ReasonerProvider.ENTAILMENT | ReasonerProvider.DATA_PROPERTIES,
+				"uk.ac.manchester.cs.jfact.JFactFactory"));
+		register(new LazyReasonerProvider("ELK", "OWL 2 EL",
+				ReasonerProvider.CLASSIFICATION | ReasonerProvider.REALISATION | ReasonerProvider.INCREMENTAL,
+				"org.semanticweb.elk.owlapi.ElkReasonerFactory"));
+		register(new LazyReasonerProvider("HERMIT", "OWL 2 DL", ReasonerProvider.CLASSIFICATION
+				| ReasonerProvider.REALISATION | ReasonerProvider.ENTAILMENT | ReasonerProvider.DATA_PROPERTIES,
+				"org.semanticweb.HermiT.ReasonerFactory"));
+		register(new LazyReasonerProvider("RL", "OWL 2 RL", ReasonerProvider.CLASSIFICATION
+				| ReasonerProvider.REALISATION | ReasonerProvider.ENTAILMENT | ReasonerProvider.INCREMENTAL,
+				RLReasonerFactory.class.getName()));
+		register(new LazyReasonerProvider("STRUCTURAL", "told axioms only", 0,
+				"org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory"));
+		Iterator<ReasonerProvider> it = ServiceLoader.load(ReasonerProvider.class, classLoader).iterator();
+		while (true) {
+			try {
+				if (!it.hasNext())
+					break;
+				register(it.next());
+			} catch (ServiceConfigurationError e) {
+				System.out.println("OWLAPI-Lite ERROR: a reasoner provider cannot be loaded: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Registers a reasoner provider, replacing any provider with the same name
+	 * 
+	 * @param provider the provider to register
+	 */
+	public static synchronized void register(ReasonerProvider provider) {
+		providers.put(key(provider.getName()), provider);
+	}
+
+	/**
+	 * Removes a reasoner provider from the registry
+	 * 
+	 * @param name the name of the reasoner
+	 * @return the removed provider, or null if there was none
+	 */
+	public static synchronized ReasonerProvider unregister(String name) {
+		return providers.remove(key(name));
+	}
+
+	/**
+	 * @param name the name of a reasoner (case insensitive)
+	 * @return the provider of the reasoner, or null if there is none
+	 */
+	public static synchronized ReasonerProvider getProvider(String name) {
+		return name == null ? null : providers.get(key(name));
+	}
+
+	/**
+	 * @return all registered providers, in registration order
+	 */
+	public static synchronized List<ReasonerProvider> getProviders() {
+		return Collections.unmodifiableList(new ArrayList<ReasonerProvider>(providers.values()));
+	}
+
+	/**
+	 * @param capability one or more ReasonerProvider capability constants
+	 * @return the registered providers which are available on the classpath and
+	 *         have all the given capabilities
+	 */
+	public static synchronized List<ReasonerProvider> getProviders(int capability) {
+		List<ReasonerProvider> result = new ArrayList<ReasonerProvider>();
+		for (ReasonerProvider provider : providers.values())
+			if (provider.supports(capability) && provider.isAvailable())
+				result.add(provider);
+		return Collections.unmodifiableList(result);
+	}
+
+	private static String key(String name) {
+		return name.toUpperCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,434 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.util.InferredClassAssertionAxiomGenerator;
+import org.semanticweb.owlapi.util.InferredSubClassAxiomGenerator;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Schedules reasoning jobs on an ontology in separate priority lanes:
+ * interactive queries, batch materialisation and explanations. Every lane has
+ * its own reasoner instances (at most its concurrency limit), so a long
+ * explanation or materialisation job never holds the reasoner which answers
+ * interactive queries. The interactive lane starts with the given
+ * OWLAPILiteReasoner, whose class hierarchy is already computed; further
+ * instances are created on demand from the same reasoner factory.
+ *
+ * Within a lane, jobs are queued per client and the clients are served round
+ * robin, so one client submitting many jobs cannot starve the others. Each
+ * reasoner instance runs one job at a time; jobs run on virtual threads.
+ *
+ * All instances read the same ontology, which is not safe for concurrent use,
+ * so a job holds a lock while it uses its reasoner. OWLAPILiteFactory passes
+ * its workspace lock, which its changes and AsyncReasoner queries also hold;
+ * jobs of different lanes therefore take turns, while the lanes keep their own
+ * queues, limits and reasoner instances.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class ReasoningScheduler implements AutoCloseable {
+	/**
+	 * lane for short queries (subclasses, instances, entailment checks)
+	 */
+	public static final int INTERACTIVE = 0;
+	/**
+	 * lane for batch jobs such as materialising inferences
+	 */
+	public static final int BATCH = 1;
+	/**
+	 * lane for explanation jobs
+	 */
+	public static final int EXPLANATION = 2;
+	/**
+	 * lane names, by lane number
+	 */
+	private static final String[] LANE_NAMES = { "interactive", "batch", "explanation" };
+
+	/**
+	 * the reasoner which the scheduler was created for
+	 */
+	private final OWLAPILiteReasoner primary;
+	/**
+	 * the lanes, by lane number
+	 */
+	private final Lane[] lanes = new Lane[LANE_NAMES.length];
+	/**
+	 * runs the jobs
+	 */
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	/**
+	 * reasoner instances created by the scheduler (disposed by close)
+	 */
+	private final List<OWLAPILiteReasoner> created = new ArrayList<OWLAPILiteReasoner>();
+	/**
+	 * held while a job uses a reasoner instance
+	 */
+	private final Lock lock;
+
+	/**
+	 * ReasoningScheduler constructor. Each lane has a concurrency limit of 1.
+	 *
+	 * @param reasoner the OWLAPILiteReasoner of the ontology, used by the
+	 *                 interactive lane
+	 */
+	public ReasoningScheduler(OWLAPILiteReasoner reasoner) {
+		this(reasoner, new ReentrantLock());
+	}
+
+	/**
+	 * ReasoningScheduler constructor. Each lane has a concurrency limit of 1.
+	 *
+	 * @param reasoner the OWLAPILiteReasoner of the ontology, used by the
+	 *                 interactive lane
+	 * @param lock     the lock held while a job uses a reasoner instance, shared
+	 *                 with the other code which uses or changes the ontology
+	 */
+	public ReasoningScheduler(OWLAPILiteReasoner reasoner, Lock lock) {
+		this.primary = reasoner;
+		this.lock = lock;
+		for (int i = 0; i < lanes.length; i++)
+			lanes[i] = new Lane(i);
+		lanes[INTERACTIVE].idle.add(reasoner);
+		lanes[INTERACTIVE].instances = 1;
+	}
+
+	/**
+	 * @return the OWLAPILiteReasoner the scheduler was created for
+	 */
+	public OWLAPILiteReasoner getReasoner() {
+		return primary;
+	}
+
+	/**
+	 * Sets the maximum number of jobs of a lane which run at the same time (and so
+	 * the number of reasoner instances the lane may create)
+	 *
+	 * @param lane  INTERACTIVE, BATCH or EXPLANATION
+	 * @param limit the concurrency limit (at least 1)
+	 */
+	public void setLimit(int lane, int limit) {
+		Lane l = lanes[lane];
+		synchronized (l) {
+			l.limit = Math.max(1, limit);
+		}
+		l.dispatch();
+	}
+
+	/**
+	 * Returns the number of jobs waiting in a lane
+	 *
+	 * @param lane INTERACTIVE, BATCH or EXPLANATION
+	 * @return the number of queued jobs which have not started
+	 */
+	public int getQueued(int lane) {
+		Lane l = lanes[lane];
+		synchronized (l) {
+			return l.queued;
+		}
+	}
+
+	/**
+	 * Returns the number of jobs of a lane which are running
+	 *
+	 * @param lane INTERACTIVE, BATCH or EXPLANATION
+	 * @return the number of running jobs
+	 */
+	public int getRunning(int lane) {
+		Lane l = lanes[lane];
+		synchronized (l) {
+			return l.instances - l.idle.size();
+		}
+	}
+
+	/**
+	 * Queues a job in a lane. The job is given a reasoner instance of the lane
+	 * which no other job uses while it runs.
+	 *
+	 * @param <T>    the type of the job result
+	 * @param lane   INTERACTIVE, BATCH or EXPLANATION
+	 * @param client identifies the submitter, for fair queuing between clients
+	 * @param job    the reasoning job
+	 * @return a future of the job result (cancelled if the scheduler is closed)
+	 */
+	public <T> CompletableFuture<T> submit(int lane, String client, Function<OWLAPILiteReasoner, T> job) {
+		if (lane < 0 || lane >= lanes.length)
+			throw new IllegalArgumentException("Unknown lane: " + lane);
+		Job<T> j = new Job<T>(job);
+		lanes[lane].enqueue(client, j);
+		return j.result;
+	}
+
+	/**
+	 * Queues a subclass query in the interactive lane
+	 *
+	 * @param client  identifies the submitter
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @return a future of the subclasses
+	 */
+	public CompletableFuture<Set<OWLClass>> subClasses(String client, String classEx) {
+		return submit(INTERACTIVE, client, r -> r.subClassesOf(classEx));
+	}
+
+	/**
+	 * Queues an instance query in the interactive lane
+	 *
+	 * @param client  identifies the submitter
+	 * @param classEx a class expression string in Manchester OWL Syntax
+	 * @return a future of the instances
+	 */
+	public CompletableFuture<Set<OWLNamedIndividual>> instances(String client, String classEx) {
+		return submit(INTERACTIVE, client, r -> r.instancesOf(classEx));
+	}
+
+	/**
+	 * Queues an entailment check in the interactive lane
+	 *
+	 * @param client   identifies the submitter
+	 * @param axiomStr an axiom in Manchester OWL Syntax
+	 * @return a future which completes with true if the axiom is entailed
+	 */
+	public CompletableFuture<Boolean> isEntailed(String client, String axiomStr) {
+		return submit(INTERACTIVE, client, r -> r.entails(axiomStr));
+	}
+
+	/**
+	 * Queues the materialisation of the inferred class hierarchy and class
+	 * assertions in the batch lane
+	 *
+	 * @param client identifies the submitter
+	 * @return a future of the inferred SubClassOf and ClassAssertion axioms
+	 */
+	public CompletableFuture<Set<OWLAxiom>> materialise(String client) {
+		return submit(BATCH, client, r -> {
+			r.reasoner.flush();
+			r.reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY, InferenceType.CLASS_ASSERTIONS);
+			Set<OWLAxiom> axioms = new LinkedHashSet<OWLAxiom>();
+			axioms.addAll(new InferredSubClassAxiomGenerator().createAxioms(OWLAPILiteReasoner.dataFactory, r.reasoner));
+			axioms.addAll(new InferredClassAssertionAxiomGenerator().createAxioms(OWLAPILiteReasoner.dataFactory,
+					r.reasoner));
+			return axioms;
+		});
+	}
+
+	/**
+	 * Queues the computation of the explanations for an entailment in the
+	 * explanation lane
+	 *
+	 * @param client   identifies the submitter
+	 * @param axiomStr an axiom in Manchester OWL Syntax
+	 * @return a future of the justifications
+	 */
+	public CompletableFuture<Set<Set<OWLAxiom>>> explanations(String client, String axiomStr) {
+		return submit(EXPLANATION, client, r -> r.explanationsOf(axiomStr));
+	}
+
+	/**
+	 * Stops running jobs, fails queued jobs and disposes the reasoner instances
+	 * created by the scheduler
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+		for (Lane lane : lanes)
+			lane.cancelQueued();
+		// a job which is still running holds the lock, so its instance is not
+		// disposed under it
+		lock.lock();
+		try {
+			synchronized (created) {
+				for (OWLAPILiteReasoner r : created)
+					r.dispose();
+				created.clear();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Creates a further reasoner instance over the same ontology (called with the
+	 * lock held)
+	 */
+	private OWLAPILiteReasoner newInstance() {
+		OWLAPILiteReasoner r = new OWLAPILiteReasoner(primary.reasonerFactory, primary.ontology, primary.parser,
+				primary.selectedReasoner, primary.dictionary);
+		r.setABoxStore(primary.aboxStore);
+		r.imports = primary.imports;
+		synchronized (created) {
+			created.add(r);
+		}
+		return r;
+	}
+
+	/**
+	 * A queued job and its result
+	 */
+	private static final class Job<T> {
+		private final Function<OWLAPILiteReasoner, T> work;
+		private final CompletableFuture<T> result = new CompletableFuture<T>();
+
+		Job(Function<OWLAPILiteReasoner, T> work) {
+			this.work = work;
+		}
+
+		void run(OWLAPILiteReasoner reasoner) {
+			if (result.isDone())
+				return;
+			try {
+				result.complete(work.apply(reasoner));
+			} catch (Throwable t) {
+				result.completeExceptionally(t);
+			}
+		}
+	}
+
+	/**
+	 * A priority lane: per-client FIFO queues served round robin, and a pool of
+	 * reasoner instances bounded by the lane's concurrency limit
+	 */
+	private final class Lane {
+		private final int number;
+		/**
+		 * queued jobs per client, in round robin order
+		 */
+		private final LinkedHashMap<String, ArrayDeque<Job<?>>> queues = new LinkedHashMap<String, ArrayDeque<Job<?>>>();
+		/**
+		 * reasoner instances of this lane which are not running a job
+		 */
+		private final ArrayDeque<OWLAPILiteReasoner> idle = new ArrayDeque<OWLAPILiteReasoner>();
+		private int limit = 1;
+		private int instances;
+		private int queued;
+
+		Lane(int number) {
+			this.number = number;
+		}
+
+		void enqueue(String client, Job<?> job) {
+			synchronized (this) {
+				// a closed scheduler (e.g. of a replaced reasoner) runs no more jobs
+				if (executor.isShutdown()) {
+					job.result.cancel(false);
+					return;
+				}
+				queues.computeIfAbsent(client, c -> new ArrayDeque<Job<?>>()).add(job);
+				queued++;
+			}
+			dispatch();
+		}
+
+		/**
+		 * Starts queued jobs while the lane has a free reasoner instance or may
+		 * create one
+		 */
+		void dispatch() {
+			while (true) {
+				Job<?> job;
+				OWLAPILiteReasoner reasoner;
+				synchronized (this) {
+					if (queued == 0 || executor.isShutdown())
+						return;
+					if (idle.isEmpty() && instances >= limit)
+						return;
+					job = next();
+					reasoner = idle.poll();
+					if (reasoner == null)
+						instances++;
+				}
+				OWLAPILiteReasoner assigned = reasoner;
+				executor.execute(() -> {
+					OWLAPILiteReasoner r = null;
+					try {
+						lock.lockInterruptibly();
+						try {
+							r = assigned == null ? newInstance() : assigned;
+							job.run(r);
+						} finally {
+							lock.unlock();
+						}
+					} catch (InterruptedException e) {
+						// close() stopped the job while it waited for the lock
+						r = assigned;
+						job.result.cancel(false);
+					} catch (RuntimeException e) {
+						job.result.completeExceptionally(e);
+					} finally {
+						synchronized (this) {
+							if (r != null)
+								idle.add(r);
+							else
+								instances--;
+						}
+						dispatch();
+					}
+				});
+			}
+		}
+
+		/**
+		 * Takes the next job of the client at the head of the round robin order and
+		 * moves that client to the back
+		 */
+		private Job<?> next() {
+			Iterator<Map.Entry<String, ArrayDeque<Job<?>>>> it = queues.entrySet().iterator();
+			Map.Entry<String, ArrayDeque<Job<?>>> head = it.next();
+			Job<?> job = head.getValue().poll();
+			it.remove();
+			if (!head.getValue().isEmpty())
+				queues.put(head.getKey(), head.getValue());
+			queued--;
+			return job;
+		}
+
+		synchronized void cancelQueued() {
+			for (ArrayDeque<Job<?>> queue : queues.values())
+				for (Job<?> job : queue)
+					job.result.cancel(false);
+			queues.clear();
+			queued = 0;
+		}
+
+		@Override
+		public String toString() {
+			return LANE_NAMES[number];
+		}
+	}
+}
@@ -0,0 +1,1071 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectAllValuesFrom;
+import org.semanticweb.owlapi.model.OWLObjectComplementOf;
+import org.semanticweb.owlapi.model.OWLObjectHasValue;
+import org.semanticweb.owlapi.model.OWLObjectInverseOf;
+import org.semanticweb.owlapi.model.OWLObjectOneOf;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubPropertyChainOfAxiom;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Forward chaining rule engine behind RLReasoner. The TBox is compiled (Rules)
+ * into rules with at most two body atoms over unary predicates (classes and
+ * auxiliary class expressions) and binary predicates (object properties, their
+ * inverses and property chain prefixes), following the OWL 2 RL rules for the
+ * axioms involved. Facts are int ids from an EntityDictionary.
+ *
+ * The fixpoint is computed by semi-naive evaluation: each round only joins the
+ * facts derived in the previous round with the store, in parallel when the
+ * round is large. Facts can be retracted incrementally by delete and
+ * rederive (DRed): everything derivable from the retracted facts is deleted,
+ * then whatever still follows from the remaining facts is derived again.
+ * Inconsistencies are derived as owl:Nothing facts.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+final class RuleEngine {
+	/**
+	 * unary predicate of owl:Nothing
+	 */
+	static final int NOTHING = 0;
+	/**
+	 * unary predicate of owl:Thing
+	 */
+	static final int THING = 1;
+	/**
+	 * rounds with at least this many new facts are evaluated in parallel
+	 */
+	static final int PARALLEL_THRESHOLD = 1024;
+
+	/**
+	 * the compiled rules
+	 */
+	private final Rules rules;
+	/**
+	 * members of each unary predicate
+	 */
+	private final List<BitSet> members = new ArrayList<BitSet>();
+	/**
+	 * extension of each binary predicate
+	 */
+	private final List<Relation> relations = new ArrayList<Relation>();
+	/**
+	 * the asserted facts, which are never deleted by rederivation
+	 */
+	private final Set<Fact> explicit = new HashSet<Fact>();
+
+	/**
+	 * RuleEngine constructor
+	 *
+	 * @param rules the compiled rules (and the facts they imply)
+	 */
+	RuleEngine(Rules rules) {
+		this.rules = rules;
+		insert(rules.facts);
+	}
+
+	/**
+	 * @return the members of a unary predicate (do not modify)
+	 */
+	BitSet members(int pred) {
+		return pred < members.size() && members.get(pred) != null ? members.get(pred) : new BitSet();
+	}
+
+	/**
+	 * @return the extension of a binary predicate (do not modify)
+	 */
+	Relation relation(int pred) {
+		return pred < relations.size() && relations.get(pred) != null ? relations.get(pred) : Relation.EMPTY;
+	}
+
+	/**
+	 * @return true if the store contains the fact
+	 */
+	boolean contains(Fact f) {
+		return f.isUnary() ? members(f.pred).get(f.s) : relation(f.pred).contains(f.s, f.o);
+	}
+
+	/**
+	 * Asserts facts and adds everything they imply
+	 *
+	 * @param facts the facts to assert
+	 * @return the number of facts added to the store
+	 */
+	int insert(Collection<Fact> facts) {
+		List<Fact> delta = new ArrayList<Fact>();
+		for (Fact f : facts)
+			if (explicit.add(f) && add(f))
+				delta.add(f);
+		return delta.size() + saturate(delta);
+	}
+
+	/**
+	 * Retracts asserted facts and everything which no longer follows from the
+	 * remaining facts (delete and rederive)
+	 *
+	 * @param facts the facts to retract
+	 * @return the number of facts removed from the store
+	 */
+	int delete(Collection<Fact> facts) {
+		// overdelete: everything with a derivation which uses a retracted fact
+		Set<Fact> deleted = new LinkedHashSet<Fact>();
+		List<Fact> delta = new ArrayList<Fact>();
+		for (Fact f : facts)
+			if (explicit.remove(f) && contains(f) && deleted.add(f))
+				delta.add(f);
+		while (!delta.isEmpty()) {
+			List<Fact> next = new ArrayList<Fact>();
+			for (Fact f : derive(delta))
+				if (contains(f) && deleted.add(f))
+					next.add(f);
+			delta = next;
+		}
+		for (Fact f : deleted)
+			remove(f);
+		// rederive: asserted facts and one step consequences of the remaining
+		// facts whose predicates can derive a deleted predicate
+		Set<Integer> heads = new HashSet<Integer>();
+		List<Fact> seeds = new ArrayList<Fact>();
+		for (Fact f : deleted) {
+			heads.add(f.isUnary() ? f.pred : -1 - f.pred);
+			if (explicit.contains(f))
+				seeds.add(f);
+		}
+		List<Fact> restored = new ArrayList<Fact>();
+		for (Fact f : seeds)
+			if (add(f))
+				restored.add(f);
+		for (int pred : rules.bodiesOf(heads)) {
+			if (pred >= 0)
+				members(pred).stream().forEach(x -> restored.add(new Fact(pred, x, -1)));
+			else
+				relation(-1 - pred).forEach((s, o) -> restored.add(new Fact(-1 - pred, s, o)));
+		}
+		int rederived = seeds.size();
+		List<Fact> round = new ArrayList<Fact>();
+		for (Fact f : derive(restored))
+			if (add(f))
+				round.add(f);
+		rederived += round.size() + saturate(round);
+		return deleted.size() - rederived;
+	}
+
+	/**
+	 * Runs semi-naive rounds until no new fact is derived
+	 *
+	 * @return the number of facts added
+	 */
+	private int saturate(List<Fact> delta) {
+		int added = 0;
+		while (!delta.isEmpty()) {
+			List<Fact> next = new ArrayList<Fact>();
+			for (Fact f : derive(delta))
+				if (add(f))
+					next.add(f);
+			added += next.size();
+			delta = next;
+		}
+		return added;
+	}
+
+	/**
+	 * Applies every rule with a body atom matching one of the given facts, joined
+	 * with the current store. The store is only read, so large rounds are
+	 * evaluated in parallel.
+	 */
+	private List<Fact> derive(List<Fact> delta) {
+		if (delta.size() < PARALLEL_THRESHOLD) {
+			List<Fact> out = new ArrayList<Fact>();
+			for (Fact f : delta)
+				derive(f, out::add);
+			return out;
+		}
+		return delta.parallelStream().flatMap(f -> {
+			List<Fact> out = new ArrayList<Fact>();
+			derive(f, out::add);
+			return out.stream();
+		}).collect(Collectors.toList());
+	}
+
+	private void derive(Fact f, Consumer<Fact> out) {
+		if (f.isUnary()) {
+			int x = f.s;
+			for (Rule r : rules.unaryTriggers(f.pred)) {
+				switch (r.kind) {
+				case Rule.CLASS:
+					out.accept(new Fact(r.head, x, -1));
+					break;
+				case Rule.CLASS_AND:
+					if (members(r.a == f.pred ? r.b : r.a).get(x))
+						out.accept(new Fact(r.head, x, -1));
+					break;
+				case Rule.SOME:
+					// f is the filler C(y) of P(x, y), C(y) -> H(x)
+					relation(r.a).subjects(x).forEach(s -> out.accept(new Fact(r.head, s, -1)));
+					break;
+				case Rule.HAS_VALUE_HEAD:
+					out.accept(new Fact(r.head, x, r.c));
+					break;
+				case Rule.ALL:
+					// f is A(x) of A(x), P(x, y) -> H(y)
+					relation(r.b).objects(x).forEach(o -> out.accept(new Fact(r.head, o, -1)));
+					break;
+				default:
+					break;
+				}
+			}
+		} else {
+			int x = f.s;
+			int y = f.o;
+			for (Rule r : rules.binaryTriggers(f.pred)) {
+				switch (r.kind) {
+				case Rule.DOMAIN:
+					out.accept(new Fact(r.head, x, -1));
+					break;
+				case Rule.RANGE:
+					out.accept(new Fact(r.head, y, -1));
+					break;
+				case Rule.SOME:
+					if (members(r.b).get(y))
+						out.accept(new Fact(r.head, x, -1));
+					break;
+				case Rule.HAS_VALUE:
+					if (y == r.c)
+						out.accept(new Fact(r.head, x, -1));
+					break;
+				case Rule.ALL:
+					if (members(r.a).get(x))
+						out.accept(new Fact(r.head, y, -1));
+					break;
+				case Rule.SUB_PROPERTY:
+					out.accept(new Fact(r.head, x, y));
+					break;
+				case Rule.INVERSE:
+					out.accept(new Fact(r.head, y, x));
+					break;
+				case Rule.CHAIN:
+					if (r.a == f.pred)
+						relation(r.b).objects(y).forEach(z -> out.accept(new Fact(r.head, x, z)));
+					if (r.b == f.pred)
+						relation(r.a).subjects(x).forEach(w -> out.accept(new Fact(r.head, w, y)));
+					break;
+				default:
+					break;
+				}
+			}
+		}
+	}
+
+	private boolean add(Fact f) {
+		if (f.isUnary()) {
+			while (members.size() <= f.pred)
+				members.add(null);
+			BitSet m = members.get(f.pred);
+			if (m == null)
+				members.set(f.pred, m = new BitSet());
+			if (m.get(f.s))
+				return false;
+			m.set(f.s);
+			return true;
+		}
+		while (relations.size() <= f.pred)
+			relations.add(null);
+		Relation r = relations.get(f.pred);
+		if (r == null)
+			relations.set(f.pred, r = new Relation());
+		return r.add(f.s, f.o);
+	}
+
+	private void remove(Fact f) {
+		if (f.isUnary())
+			members(f.pred).clear(f.s);
+		else
+			relation(f.pred).remove(f.s, f.o);
+	}
+
+	/**
+	 * A unary (o == -1) or binary fact
+	 */
+	static final class Fact {
+		final int pred;
+		final int s;
+		final int o;
+
+		Fact(int pred, int s, int o) {
+			this.pred = pred;
+			this.s = s;
+			this.o = o;
+		}
+
+		boolean isUnary() {
+			return o < 0;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Fact))
+				return false;
+			Fact f = (Fact) obj;
+			return pred == f.pred && s == f.s && o == f.o;
+		}
+
+		@Override
+		public int hashCode() {
+			return (pred * 31 + s) * 31 + o;
+		}
+	}
+
+	/**
+	 * Growable list of ints
+	 */
+	static final class IntList {
+		private int[] values = new int[4];
+		private int size;
+
+		void add(int v) {
+			if (size == values.length)
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = v;
+		}
+
+		boolean remove(int v) {
+			for (int i = 0; i < size; i++)
+				if (values[i] == v) {
+					values[i] = values[--size];
+					return true;
+				}
+			return false;
+		}
+
+		int size() {
+			return size;
+		}
+
+		void forEach(java.util.function.IntConsumer action) {
+			for (int i = 0; i < size; i++)
+				action.accept(values[i]);
+		}
+	}
+
+	/**
+	 * The pairs of a binary predicate, indexed by subject and by object. The pair
+	 * set and both indexes are open-addressing tables over primitive keys (like
+	 * the tables of EntityDictionary), so neither ids nor pairs are boxed.
+	 */
+	static final class Relation {
+		static final Relation EMPTY = new Relation();
+		private static final IntList NONE = new IntList();
+		/**
+		 * marks an empty slot of the pair table (ids are never negative)
+		 */
+		private static final long NO_PAIR = -1L;
+		/**
+		 * open-addressing set of (subject, object) keys
+		 */
+		private long[] pairs = emptyPairs(16);
+		private int size;
+		private final IntListTable bySubject = new IntListTable();
+		private final IntListTable byObject = new IntListTable();
+
+		private static long key(int s, int o) {
+			return ((long) s << 32) | (o & 0xffffffffL);
+		}
+
+		boolean contains(int s, int o) {
+			long key = key(s, o);
+			int mask = pairs.length - 1;
+			for (int slot = mix(key) & mask; pairs[slot] != NO_PAIR; slot = (slot + 1) & mask)
+				if (pairs[slot] == key)
+					return true;
+			return false;
+		}
+
+		boolean add(int s, int o) {
+			long key = key(s, o);
+			int mask = pairs.length - 1;
+			int slot = mix(key) & mask;
+			while (pairs[slot] != NO_PAIR) {
+				if (pairs[slot] == key)
+					return false;
+				slot = (slot + 1) & mask;
+			}
+			pairs[slot] = key;
+			if (++size * 2 > pairs.length)
+				pairs = rehash(pairs, pairs.length * 2);
+			bySubject.get(s, true).add(o);
+			byObject.get(o, true).add(s);
+			return true;
+		}
+
+		void remove(int s, int o) {
+			long key = key(s, o);
+			int mask = pairs.length - 1;
+			int slot = mix(key) & mask;
+			while (pairs[slot] != key) {
+				if (pairs[slot] == NO_PAIR)
+					return;
+				slot = (slot + 1) & mask;
+			}
+			// backward shift deletion: move later entries of the probe run into the
+			// hole unless their home slot lies between the hole and themselves
+			int hole = slot;
+			for (int next = (hole + 1) & mask; pairs[next] != NO_PAIR; next = (next + 1) & mask) {
+				int home = mix(pairs[next]) & mask;
+				if (((next - home) & mask) >= ((next - hole) & mask)) {
+					pairs[hole] = pairs[next];
+					hole = next;
+				}
+			}
+			pairs[hole] = NO_PAIR;
+			size--;
+			bySubject.get(s, false).remove(o);
+			byObject.get(o, false).remove(s);
+		}
+
+		IntList objects(int s) {
+			IntList l = bySubject.get(s, false);
+			return l == null ? NONE : l;
+		}
+
+		IntList subjects(int o) {
+			IntList l = byObject.get(o, false);
+			return l == null ? NONE : l;
+		}
+
+		int size() {
+			return size;
+		}
+
+		/**
+		 * Calls the action for every pair (the action must not change the relation)
+		 */
+		void forEach(PairConsumer action) {
+			for (long p : pairs)
+				if (p != NO_PAIR)
+					action.accept((int) (p >>> 32), (int) p);
+		}
+
+		private static long[] emptyPairs(int capacity) {
+			long[] table = new long[capacity];
+			Arrays.fill(table, NO_PAIR);
+			return table;
+		}
+
+		private static long[] rehash(long[] table, int capacity) {
+			long[] grown = emptyPairs(capacity);
+			int mask = capacity - 1;
+			for (long key : table) {
+				if (key == NO_PAIR)
+					continue;
+				int slot = mix(key) & mask;
+				while (grown[slot] != NO_PAIR)
+					slot = (slot + 1) & mask;
+				grown[slot] = key;
+			}
+			return grown;
+		}
+
+		private static int mix(long key) {
+			return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+		}
+	}
+
+	/**
+	 * Receives the pairs of a Relation
+	 */
+	interface PairConsumer {
+		void accept(int s, int o);
+	}
+
+	/**
+	 * Open-addressing table from (non-negative) int ids to IntLists
+	 */
+	static final class IntListTable {
+		private static final int NO_KEY = -1;
+		private int[] keys = emptyKeys(16);
+		private IntList[] values = new IntList[16];
+		private int size;
+
+		/**
+		 * @return the list of an id, or null if it has none and create is false
+		 */
+		IntList get(int key, boolean create) {
+			int mask = keys.length - 1;
+			int slot = mix(key) & mask;
+			while (keys[slot] != NO_KEY) {
+				if (keys[slot] == key)
+					return values[slot];
+				slot = (slot + 1) & mask;
+			}
+			if (!create)
+				return null;
+			IntList list = new IntList();
+			keys[slot] = key;
+			values[slot] = list;
+			if (++size * 2 > keys.length)
+				grow();
+			return list;
+		}
+
+		private void grow() {
+			int[] oldKeys = keys;
+			IntList[] oldValues = values;
+			keys = emptyKeys(oldKeys.length * 2);
+			values = new IntList[oldKeys.length * 2];
+			int mask = keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] == NO_KEY)
+					continue;
+				int slot = mix(oldKeys[i]) & mask;
+				while (keys[slot] != NO_KEY)
+					slot = (slot + 1) & mask;
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+
+		private static int[] emptyKeys(int capacity) {
+			int[] table = new int[capacity];
+			Arrays.fill(table, NO_KEY);
+			return table;
+		}
+
+		private static int mix(int h) {
+			h *= 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+	}
+
+	/**
+	 * A rule with at most two body atoms. Variables are implicit in the kind.
+	 */
+	static final class Rule {
+		/** A(x) -> H(x) */
+		static final int CLASS = 0;
+		/** A(x), B(x) -> H(x) */
+		static final int CLASS_AND = 1;
+		/** P(x, y) -> H(x) */
+		static final int DOMAIN = 2;
+		/** P(x, y) -> H(y) */
+		static final int RANGE = 3;
+		/** P(x, y), B(y) -> H(x) (a = P, b = B) */
+		static final int SOME = 4;
+		/** P(x, c) -> H(x) */
+		static final int HAS_VALUE = 5;
+		/** A(x) -> H(x, c) */
+		static final int HAS_VALUE_HEAD = 6;
+		/** A(x), P(x, y) -> H(y) (a = A, b = P) */
+		static final int ALL = 7;
+		/** P(x, y) -> H(x, y) */
+		static final int SUB_PROPERTY = 8;
+		/** P(x, y) -> H(y, x) */
+		static final int INVERSE = 9;
+		/** P(x, y), Q(y, z) -> H(x, z) */
+		static final int CHAIN = 10;
+
+		final int kind;
+		final int a;
+		final int b;
+		final int head;
+		final int c;
+
+		Rule(int kind, int a, int b, int head, int c) {
+			this.kind = kind;
+			this.a = a;
+			this.b = b;
+			this.head = head;
+			this.c = c;
+		}
+
+		/**
+		 * @return true if the head is a binary predicate
+		 */
+		boolean binaryHead() {
+			return kind == HAS_VALUE_HEAD || kind == SUB_PROPERTY || kind == INVERSE || kind == CHAIN;
+		}
+
+		/**
+		 * @return the body predicates, unary as id and binary as -1 - id
+		 */
+		int[] bodies() {
+			switch (kind) {
+			case CLASS:
+			case HAS_VALUE_HEAD:
+				return new int[] { a };
+			case CLASS_AND:
+				return new int[] { a, b };
+			case SOME:
+				return new int[] { -1 - a, b };
+			case ALL:
+				return new int[] { a, -1 - b };
+			case CHAIN:
+				return new int[] { -1 - a, -1 - b };
+			default:
+				return new int[] { -1 - a };
+			}
+		}
+	}
+
+	/**
+	 * A TBox compiled into rules over unary and binary predicates
+	 */
+	static final class Rules {
+		/**
+		 * unary predicates of named classes
+		 */
+		private final Map<OWLClass, Integer> classes = new HashMap<OWLClass, Integer>();
+		/**
+		 * binary predicates of named object properties
+		 */
+		private final Map<OWLObjectProperty, Integer> properties = new HashMap<OWLObjectProperty, Integer>();
+		/**
+		 * binary predicates of inverse object properties, by named property
+		 */
+		private final Map<OWLObjectProperty, Integer> inverses = new HashMap<OWLObjectProperty, Integer>();
+		private final List<Rule> rules = new ArrayList<Rule>();
+		private final Map<Integer, List<Rule>> unaryTriggers = new HashMap<Integer, List<Rule>>();
+		private final Map<Integer, List<Rule>> binaryTriggers = new HashMap<Integer, List<Rule>>();
+		/**
+		 * facts implied by the TBox (nominals)
+		 */
+		private final List<Fact> facts = new ArrayList<Fact>();
+		/**
+		 * axioms outside of the supported subset, which are ignored
+		 */
+		private final List<OWLAxiom> unsupported = new ArrayList<OWLAxiom>();
+		/**
+		 * the axiom types handled by compile
+		 */
+		private static final Set<AxiomType<?>> COMPILED = new HashSet<AxiomType<?>>(Arrays.asList(
+				AxiomType.SUBCLASS_OF, AxiomType.EQUIVALENT_CLASSES, AxiomType.DISJOINT_CLASSES,
+				AxiomType.DISJOINT_UNION, AxiomType.OBJECT_PROPERTY_DOMAIN, AxiomType.OBJECT_PROPERTY_RANGE,
+				AxiomType.SUB_OBJECT_PROPERTY, AxiomType.EQUIVALENT_OBJECT_PROPERTIES,
+				AxiomType.INVERSE_OBJECT_PROPERTIES, AxiomType.SYMMETRIC_OBJECT_PROPERTY,
+				AxiomType.TRANSITIVE_OBJECT_PROPERTY, AxiomType.SUB_PROPERTY_CHAIN_OF, AxiomType.CLASS_ASSERTION));
+		private final EntityDictionary individuals;
+		private int unaryCount = 2;
+		private int binaryCount;
+
+		/**
+		 * Compiles the TBox axioms (and complex class assertions) of an ontology
+		 *
+		 * @param axioms      the logical axioms to compile; plain ABox assertions
+		 *                    are skipped (see RLReasoner)
+		 * @param individuals dictionary of individual ids
+		 */
+		Rules(Collection<? extends OWLAxiom> axioms, EntityDictionary individuals) {
+			this.individuals = individuals;
+			for (OWLAxiom axiom : axioms)
+				compile(axiom);
+		}
+
+		/**
+		 * @return the axioms which were ignored because they are outside of the
+		 *         supported subset of OWL 2 RL
+		 */
+		List<OWLAxiom> getUnsupported() {
+			return unsupported;
+		}
+
+		/**
+		 * @param axiom a logical axiom
+		 * @return true if the axiom is of a type which is compiled into rules or
+		 *         facts (it may still turn out to be unsupported); axioms of other
+		 *         types are ignored and cannot change the materialisation
+		 */
+		static boolean compiles(OWLAxiom axiom) {
+			return COMPILED.contains(axiom.getAxiomType());
+		}
+
+		/**
+		 * Records an added axiom of a type which is not compiled as unsupported
+		 */
+		synchronized void ignore(OWLAxiom axiom) {
+			if (!axiom.isOfType(AxiomType.OBJECT_PROPERTY_ASSERTION))
+				unsupported.add(axiom);
+		}
+
+		/**
+		 * Forgets a removed axiom of a type which is not compiled
+		 */
+		synchronized void unignore(OWLAxiom axiom) {
+			unsupported.remove(axiom);
+		}
+
+		/**
+		 * @return the unary predicate of a named class (allocated if new)
+		 */
+		synchronized int classPredicate(OWLClass c) {
+			if (c.isOWLThing())
+				return THING;
+			if (c.isOWLNothing())
+				return NOTHING;
+			return classes.computeIfAbsent(c, k -> unaryCount++);
+		}
+
+		/**
+		 * @return the unary predicate of a named class, or -1 if it does not
+		 *         occur in the rules
+		 */
+		int lookupClass(OWLClass c) {
+			if (c.isOWLThing())
+				return THING;
+			if (c.isOWLNothing())
+				return NOTHING;
+			Integer p = classes.get(c);
+			return p == null ? -1 : p;
+		}
+
+		/**
+		 * @return the named classes known to the rules, by predicate
+		 */
+		Map<OWLClass, Integer> classes() {
+			return classes;
+		}
+
+		/**
+		 * @return the binary predicate of a named property (allocated if new)
+		 */
+		synchronized int propertyPredicate(OWLObjectProperty p) {
+			return properties.computeIfAbsent(p, k -> binaryCount++);
+		}
+
+		/**
+		 * @return the binary predicate of a named property, or -1 if unknown
+		 */
+		int lookupProperty(OWLObjectProperty p) {
+			Integer id = properties.get(p);
+			return id == null ? -1 : id;
+		}
+
+		List<Rule> unaryTriggers(int pred) {
+			List<Rule> l = unaryTriggers.get(pred);
+			return l == null ? java.util.Collections.<Rule>emptyList() : l;
+		}
+
+		List<Rule> binaryTriggers(int pred) {
+			List<Rule> l = binaryTriggers.get(pred);
+			return l == null ? java.util.Collections.<Rule>emptyList() : l;
+		}
+
+		/**
+		 * @param heads head predicates (unary as id, binary as -1 - id)
+		 * @return the body predicates of all rules deriving one of the heads
+		 */
+		Set<Integer> bodiesOf(Set<Integer> heads) {
+			Set<Integer> bodies = new HashSet<Integer>();
+			for (Rule r : rules)
+				if (heads.contains(r.binaryHead() ? -1 - r.head : r.head))
+					for (int b : r.bodies())
+						bodies.add(b);
+			return bodies;
+		}
+
+		private void rule(int kind, int a, int b, int head, int c) {
+			Rule r = new Rule(kind, a, b, head, c);
+			rules.add(r);
+			Set<Integer> seen = new HashSet<Integer>();
+			for (int body : r.bodies())
+				if (seen.add(body)) {
+					if (body >= 0)
+						unaryTriggers.computeIfAbsent(body, k -> new ArrayList<Rule>()).add(r);
+					else
+						binaryTriggers.computeIfAbsent(-1 - body, k -> new ArrayList<Rule>()).add(r);
+				}
+		}
+
+		private int aux() {
+			return unaryCount++;
+		}
+
+		private int individual(OWLIndividual i) {
+			return individuals.encode(i.asOWLNamedIndividual().getIRI());
+		}
+
+		/**
+		 * @return the binary predicate of a property expression; inverses get a
+		 *         predicate of their own which is kept in sync by rules
+		 */
+		int property(OWLObjectPropertyExpression pe) {
+			if (pe instanceof OWLObjectInverseOf) {
+				OWLObjectProperty named = pe.getNamedProperty();
+				Integer inv = inverses.get(named);
+				if (inv == null) {
+					int p = propertyPredicate(named);
+					inv = binaryCount++;
+					inverses.put(named, inv);
+					rule(Rule.INVERSE, p, 0, inv, -1);
+					rule(Rule.INVERSE, inv, 0, p, -1);
+				}
+				return inv;
+			}
+			return propertyPredicate(pe.asOWLObjectProperty());
+		}
+
+		private void compile(OWLAxiom axiom) {
+			boolean ok = true;
+			if (axiom.isOfType(AxiomType.SUBCLASS_OF)) {
+				OWLSubClassOfAxiom ax = (OWLSubClassOfAxiom) axiom;
+				ok = subClassOf(ax.getSubClass(), ax.getSuperClass());
+			} else if (axiom.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
+				for (OWLSubClassOfAxiom ax : ((org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom) axiom)
+						.asOWLSubClassOfAxioms())
+					ok &= subClassOf(ax.getSubClass(), ax.getSuperClass());
+			} else if (axiom.isOfType(AxiomType.DISJOINT_CLASSES)) {
+				for (OWLDisjointClassesAxiom pair : ((OWLDisjointClassesAxiom) axiom).asPairwiseAxioms()) {
+					List<OWLClassExpression> ops = pair.getOperandsAsList();
+					int a = body(ops.get(0));
+					int b = body(ops.get(1));
+					if (a >= 0 && b >= 0)
+						rule(Rule.CLASS_AND, a, b, NOTHING, -1);
+					else
+						ok = false;
+				}
+			} else if (axiom.isOfType(AxiomType.DISJOINT_UNION)) {
+				org.semanticweb.owlapi.model.OWLDisjointUnionAxiom ax = (org.semanticweb.owlapi.model.OWLDisjointUnionAxiom) axiom;
+				compile(ax.getOWLEquivalentClassesAxiom());
+				compile(ax.getOWLDisjointClassesAxiom());
+				return;
+			} else if (axiom.isOfType(AxiomType.OBJECT_PROPERTY_DOMAIN)) {
+				OWLObjectPropertyDomainAxiom ax = (OWLObjectPropertyDomainAxiom) axiom;
+				int h = headPredicate(ax.getDomain());
+				if (h >= 0)
+					rule(Rule.DOMAIN, property(ax.getProperty()), 0, h, -1);
+				else
+					ok = false;
+			} else if (axiom.isOfType(AxiomType.OBJECT_PROPERTY_RANGE)) {
+				OWLObjectPropertyRangeAxiom ax = (OWLObjectPropertyRangeAxiom) axiom;
+				int h = headPredicate(ax.getRange());
+				if (h >= 0)
+					rule(Rule.RANGE, property(ax.getProperty()), 0, h, -1);
+				else
+					ok = false;
+			} else if (axiom.isOfType(AxiomType.SUB_OBJECT_PROPERTY)) {
+				OWLSubObjectPropertyOfAxiom ax = (OWLSubObjectPropertyOfAxiom) axiom;
+				rule(Rule.SUB_PROPERTY, property(ax.getSubProperty()), 0, property(ax.getSuperProperty()), -1);
+			} else if (axiom.isOfType(AxiomType.EQUIVALENT_OBJECT_PROPERTIES)) {
+				for (OWLSubObjectPropertyOfAxiom ax : ((org.semanticweb.owlapi.model.OWLEquivalentObjectPropertiesAxiom) axiom)
+						.asSubObjectPropertyOfAxioms())
+					compile(ax);
+			} else if (axiom.isOfType(AxiomType.INVERSE_OBJECT_PROPERTIES)) {
+				org.semanticweb.owlapi.model.OWLInverseObjectPropertiesAxiom ax = (org.semanticweb.owlapi.model.OWLInverseObjectPropertiesAxiom) axiom;
+				int p = property(ax.getFirstProperty());
+				int q = property(ax.getSecondProperty());
+				rule(Rule.INVERSE, p, 0, q, -1);
+				rule(Rule.INVERSE, q, 0, p, -1);
+			} else if (axiom.isOfType(AxiomType.SYMMETRIC_OBJECT_PROPERTY)) {
+				int p = property(((org.semanticweb.owlapi.model.OWLSymmetricObjectPropertyAxiom) axiom).getProperty());
+				rule(Rule.INVERSE, p, 0, p, -1);
+			} else if (axiom.isOfType(AxiomType.TRANSITIVE_OBJECT_PROPERTY)) {
+				int p = property(((org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom) axiom).getProperty());
+				rule(Rule.CHAIN, p, p, p, -1);
+			} else if (axiom.isOfType(AxiomType.SUB_PROPERTY_CHAIN_OF)) {
+				OWLSubPropertyChainOfAxiom ax = (OWLSubPropertyChainOfAxiom) axiom;
+				List<OWLObjectPropertyExpression> chain = ax.getPropertyChain();
+				int acc = property(chain.get(0));
+				int sup = property(ax.getSuperProperty());
+				if (chain.size() == 1)
+					rule(Rule.SUB_PROPERTY, acc, 0, sup, -1);
+				for (int i = 1; i < chain.size(); i++) {
+					int h = i == chain.size() - 1 ? sup : binaryCount++;
+					rule(Rule.CHAIN, acc, property(chain.get(i)), h, -1);
+					acc = h;
+				}
+			} else if (axiom.isOfType(AxiomType.CLASS_ASSERTION)) {
+				org.semanticweb.owlapi.model.OWLClassAssertionAxiom ax = (org.semanticweb.owlapi.model.OWLClassAssertionAxiom) axiom;
+				if (ax.getIndividual().isNamed()) {
+					int n = aux();
+					facts.add(new Fact(n, individual(ax.getIndividual()), -1));
+					ok = head(n, ax.getClassExpression());
+				} else {
+					ok = false;
+				}
+			} else if (axiom.isLogicalAxiom() && !axiom.isOfType(AxiomType.OBJECT_PROPERTY_ASSERTION)) {
+				ok = false;
+			}
+			if (!ok)
+				unsupported.add(axiom);
+		}
+
+		private boolean subClassOf(OWLClassExpression sub, OWLClassExpression sup) {
+			int b = body(sub);
+			return b >= 0 && head(b, sup);
+		}
+
+		/**
+		 * Compiles a subclass-position class expression
+		 *
+		 * @return the unary predicate holding its instances, or -1 if the
+		 *         expression cannot occur in a rule body
+		 */
+		int body(OWLClassExpression ce) {
+			if (ce.isNamed())
+				return classPredicate(ce.asOWLClass());
+			switch (ce.getClassExpressionType()) {
+			case OBJECT_INTERSECTION_OF: {
+				int acc = -1;
+				for (OWLClassExpression op : ce.asConjunctSet()) {
+					int p = body(op);
+					if (p < 0)
+						return -1;
+					if (acc < 0) {
+						acc = p;
+					} else {
+						int h = aux();
+						rule(Rule.CLASS_AND, acc, p, h, -1);
+						acc = h;
+					}
+				}
+				return acc;
+			}
+			case OBJECT_UNION_OF: {
+				int h = aux();
+				for (OWLClassExpression op : ce.asDisjunctSet()) {
+					int p = body(op);
+					if (p < 0)
+						return -1;
+					rule(Rule.CLASS, p, 0, h, -1);
+				}
+				return h;
+			}
+			case OBJECT_SOME_VALUES_FROM: {
+				OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) ce;
+				int p = property(some.getProperty());
+				int h = aux();
+				if (some.getFiller().isOWLThing()) {
+					rule(Rule.DOMAIN, p, 0, h, -1);
+				} else {
+					int f = body(some.getFiller());
+					if (f < 0)
+						return -1;
+					rule(Rule.SOME, p, f, h, -1);
+				}
+				return h;
+			}
+			case OBJECT_HAS_VALUE: {
+				OWLObjectHasValue hv = (OWLObjectHasValue) ce;
+				if (!hv.getFiller().isNamed())
+					return -1;
+				int h = aux();
+				rule(Rule.HAS_VALUE, property(hv.getProperty()), 0, h, individual(hv.getFiller()));
+				return h;
+			}
+			case OBJECT_ONE_OF: {
+				int h = aux();
+				for (OWLIndividual i : ((OWLObjectOneOf) ce).getOperandsAsList()) {
+					if (!i.isNamed())
+						return -1;
+					facts.add(new Fact(h, individual(i), -1));
+				}
+				return h;
+			}
+			default:
+				return -1;
+			}
+		}
+
+		/**
+		 * @return a unary predicate whose members are instances of a
+		 *         superclass-position class expression, or -1 if unsupported
+		 */
+		private int headPredicate(OWLClassExpression ce) {
+			if (ce.isNamed())
+				return classPredicate(ce.asOWLClass());
+			int h = aux();
+			return head(h, ce) ? h : -1;
+		}
+
+		/**
+		 * Compiles rules which make every member of a predicate an instance of a
+		 * superclass-position class expression
+		 *
+		 * @return false if the expression cannot occur in a rule head
+		 */
+		boolean head(int b, OWLClassExpression ce) {
+			if (ce.isNamed()) {
+				if (!ce.isOWLThing())
+					rule(Rule.CLASS, b, 0, classPredicate(ce.asOWLClass()), -1);
+				return true;
+			}
+			switch (ce.getClassExpressionType()) {
+			case OBJECT_INTERSECTION_OF: {
+				boolean ok = true;
+				for (OWLClassExpression op : ce.asConjunctSet())
+					ok &= head(b, op);
+				return ok;
+			}
+			case OBJECT_ALL_VALUES_FROM: {
+				OWLObjectAllValuesFrom all = (OWLObjectAllValuesFrom) ce;
+				int h = headPredicate(all.getFiller());
+				if (h < 0)
+					return false;
+				rule(Rule.ALL, b, property(all.getProperty()), h, -1);
+				return true;
+			}
+			case OBJECT_HAS_VALUE: {
+				OWLObjectHasValue hv = (OWLObjectHasValue) ce;
+				if (!hv.getFiller().isNamed())
+					return false;
+				rule(Rule.HAS_VALUE_HEAD, b, 0, property(hv.getProperty()), individual(hv.getFiller()));
+				return true;
+			}
+			case OBJECT_COMPLEMENT_OF: {
+				int c = body(((OWLObjectComplementOf) ce).getOperand());
+				if (c < 0)
+					return false;
+				rule(Rule.CLASS_AND, b, c, NOTHING, -1);
+				return true;
+			}
+			default:
+				return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.formats.ManchesterSyntaxDocumentFormat;
+import org.semanticweb.owlapi.formats.OBODocumentFormat;
+import org.semanticweb.owlapi.formats.RDFXMLDocumentFormat;
+import org.semanticweb.owlapi.formats.TurtleDocumentFormat;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Represents a SelectedFormat class that catalogues / enumerates the ontology
+ * document formats which OWLAPI-Lite is able to save ontologies in. The client
+ * can select a format when saving an ontology.
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class SelectedFormat implements Serializable {
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Manchester OWL Syntax format selection instance
+     */
+    public static final SelectedFormat MANCHESTER = getInstance("MANCHESTER", "omn");
+    /**
+     * OWL 2 Functional Syntax format selection instance
+     */
+    public static final SelectedFormat FUNCTIONAL = getInstance("FUNCTIONAL", "ofn");
+    /**
+     * Turtle format selection instance
+     */
+    public static final SelectedFormat TURTLE = getInstance("TURTLE", "ttl");
+    /**
+     * RDF/XML format selection instance
+     */
+    public static final SelectedFormat RDFXML = getInstance("RDFXML", "owl");
+    /**
+     * OBO format selection instance
+     */
+    public static final SelectedFormat OBO = getInstance("OBO", "obo");
+    /**
+     * ArrayList of all document format selection instances which OWLAPI-Lite is
+     * able to save ontologies in
+     */
+    public static final ArrayList<SelectedFormat> FORMATS = new ArrayList<SelectedFormat>();
+
+    /**
+     * String representation of the name for the SelectedFormat instance
+     */
+    private final String name;
+    /**
+     * the usual file extension of documents in this format
+     */
+    private final String extension;
+
+    /**
+     * SelectedFormat constructor
+     * 
+     * @param name      String representation of the name for the SelectedFormat
+     *                  instance
+     * @param extension the usual file extension of documents in this format
+     */
+    private SelectedFormat(String name, String extension) {
+        this.name = name;
+        this.extension = extension;
+    }
+
+    /**
+     * This is a static initialization block for collecting a list of all supported
+     * formats by OWLAPI-Lite
+     */
+    static {
+        FORMATS.add(MANCHESTER);
+        FORMATS.add(FUNCTIONAL);
+        FORMATS.add(TURTLE);
+        FORMATS.add(RDFXML);
+        FORMATS.add(OBO);
+    }
+
+    /**
+     * static method to generate and return instances of SelectedFormat
+     * 
+     * @param name      String representation of the name for the SelectedFormat
+     *                  instance
+     * @param extension the usual file extension of documents in this format
+     * @return A SelectedFormat instance with the input name and extension
+     */
+    private static final SelectedFormat getInstance(String name, String extension) {
+        return new SelectedFormat(name, extension);
+    }
+
+    /**
+     * Creates a new OWLAPI document format object for this format
+     * 
+     * @return an OWLDocumentFormat instance
+     */
+    public OWLDocumentFormat createDocumentFormat() {
+        if (this == FUNCTIONAL)
+            return new FunctionalSyntaxDocumentFormat();
+        if (this == TURTLE)
+            return new TurtleDocumentFormat();
+        if (this == RDFXML)
+            return new RDFXMLDocumentFormat();
+        if (this == OBO)
+            return new OBODocumentFormat();
+        return new ManchesterSyntaxDocumentFormat();
+    }
+
+    /**
+     * returns a string representation of the SelectedFormat instance
+     * 
+     * @return The string representation of the name of the format
+     */
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * returns a string representation of the SelectedFormat instance name
+     * 
+     * @return The string representation of the name of the selected format
+     *         instance
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * returns the usual file extension of documents in this format
+     * 
+     * @return the file extension, without a leading dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Ensures deserialised instances are the canonical constants, so that they
+     * can be compared with ==
+     * 
+     * @return the canonical SelectedFormat instance with this name
+     */
+    private Object readResolve() {
+        for (SelectedFormat format : FORMATS)
+            if (format.name.equals(name))
+                return format;
+        return this;
+    }
+}
@@ -48,9 +48,19 @@ public class SelectedReasoner implements Serializable {
      * HermiT OWL 2 DL Reasoner selection instance
      */
     public static final SelectedReasoner HERMIT = getInstance("HERMIT", "OWL 2 DL");
+    /**
+     * Built-in OWL 2 RL rule reasoner selection instance
+     */
+    public static final SelectedReasoner RL = getInstance("RL", "OWL 2 RL");
+    /**
+     * Structural (no inference) reasoner selection instance: answers queries from
+     * the asserted axioms only, for workloads which only build and save ontologies
+     */
+    public static final SelectedReasoner STRUCTURAL = getInstance("STRUCTURAL", "told axioms only");
     /**
      * ArrayList of all OWL 2 reasoner selection instances which OWLAPI-Lite is
-     * able to use
+     * able to use: the built-in reasoners followed by the reasoners registered
+     * in ReasonerRegistry (e.g. through java.util.ServiceLoader)
      */
     public static final ArrayList<SelectedReasoner> REASONERS = new ArrayList<SelectedReasoner>();
 
@@ -85,6 +95,10 @@ public class SelectedReasoner implements Serializable {
         REASONERS.add(JFACT);
         REASONERS.add(ELK);
         REASONERS.add(HERMIT);
+        REASONERS.add(RL);
+        REASONERS.add(STRUCTURAL);
+        for (ReasonerProvider provider : ReasonerRegistry.getProviders())
+            forName(provider.getName());
     }
 
     /**
@@ -101,6 +115,57 @@ public class SelectedReasoner implements Serializable {
         return new SelectedReasoner(name, profile);
     }
 
+    /**
+     * returns the SelectedReasoner instance for a reasoner registered in
+     * ReasonerRegistry
+     * 
+     * @param name the name of the reasoner (case insensitive)
+     * @return The SelectedReasoner instance for the reasoner, or null if no
+     *         reasoner with this name is registered
+     */
+    public static synchronized SelectedReasoner forName(String name) {
+        ReasonerProvider provider = ReasonerRegistry.getProvider(name);
+        if (provider == null)
+            return null;
+        for (SelectedReasoner reasoner : REASONERS)
+            if (reasoner.name.equalsIgnoreCase(provider.getName()))
+                return reasoner;
+        SelectedReasoner reasoner = getInstance(provider.getName(), provider.getProfile());
+        REASONERS.add(reasoner);
+        return reasoner;
+    }
+
+    /**
+     * returns the provider of the SelectedReasoner instance
+     * 
+     * @return The ReasonerProvider registered under the name of this reasoner, or
+     *         null if there is none
+     */
+    public ReasonerProvider getProvider() {
+        return ReasonerRegistry.getProvider(name);
+    }
+
+    /**
+     * returns whether the reasoner can be loaded from the classpath
+     * 
+     * @return true if the reasoner is registered and its classes are available
+     */
+    public boolean isAvailable() {
+        ReasonerProvider provider = getProvider();
+        return provider != null && provider.isAvailable();
+    }
+
+    /**
+     * keeps the reasoner constants unique when deserialising
+     * 
+     * @return The registered SelectedReasoner instance with the same name, or
+     *         this instance if there is none
+     */
+    private Object readResolve() {
+        SelectedReasoner reasoner = forName(name);
+        return reasoner == null ? this : reasoner;
+    }
+
     /**
      * returns a string representation of the SelectedReasoner instance
      * 
@@ -0,0 +1,312 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
+import org.semanticweb.owlapi.model.parameters.AxiomAnnotations;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Hash indexes over the asserted (told) axioms of an ontology and its imports
+ * closure: subclass edges (from subclass and equivalent class axioms), class
+ * assertions, object property assertions and sub-property edges. The indexes
+ * are kept current by listening to ontology changes.
+ *
+ * OWLAPILiteReasoner consults the index before the reasoner. An axiom which is
+ * asserted, or follows from told subclass, type and sub-property edges by
+ * transitivity, is entailed and answered without a reasoner call. Any other
+ * axiom (including every negative answer) is left to the reasoner.
+ *
+ * Only yes/no checks (entails and isEntailed, also through AsyncReasoner and
+ * ReasoningScheduler) use the index. Queries for sets of classes or individuals
+ * (getSuperClasses, getTypes) need every answer, and the told axioms cannot
+ * establish that none is missing, so those are served from the cached
+ * taxonomy and realisation instead. The owning reasoner removes the index as a
+ * listener and releases its maps when it is disposed.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+final class ToldIndex implements OWLOntologyChangeListener {
+	/**
+	 * the root ontology
+	 */
+	private final OWLOntology ontology;
+	/**
+	 * the ontologies of the imports closure of the root ontology
+	 */
+	private Set<OWLOntology> closure;
+	/**
+	 * told superclasses of each class expression, with the number of axioms
+	 * asserting each edge
+	 */
+	private final Map<OWLClassExpression, Map<OWLClassExpression, Integer>> superClasses = new HashMap<>();
+	/**
+	 * told types of each individual
+	 */
+	private final Map<OWLIndividual, Map<OWLClassExpression, Integer>> types = new HashMap<>();
+	/**
+	 * told sub-properties of each object property expression
+	 */
+	private final Map<OWLObjectPropertyExpression, Map<OWLObjectPropertyExpression, Integer>> subProperties = new HashMap<>();
+	/**
+	 * told object property assertions (without annotations, on named properties)
+	 */
+	private final Map<OWLAxiom, Integer> propertyAssertions = new HashMap<>();
+	/**
+	 * true if the imports closure changed and the indexes must be rebuilt
+	 */
+	private boolean stale = true;
+	/**
+	 * number of entailment checks answered from the told axioms
+	 */
+	private final AtomicLong hits = new AtomicLong();
+	/**
+	 * number of entailment checks which the told axioms could not answer
+	 */
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * ToldIndex constructor. The index is built on first use; register it as an
+	 * ontology change listener to keep it current.
+	 *
+	 * @param ontology the root ontology
+	 */
+	ToldIndex(OWLOntology ontology) {
+		this.ontology = ontology;
+	}
+
+	/**
+	 * @return the number of entailment checks answered from the told axioms, i.e.
+	 *         the reasoner calls avoided
+	 */
+	long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of entailment checks which the told axioms could not
+	 *         answer (the caller may still answer them without the reasoner)
+	 */
+	long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Releases the indexes; they are rebuilt if the index is used again
+	 */
+	synchronized void clear() {
+		superClasses.clear();
+		types.clear();
+		subProperties.clear();
+		propertyAssertions.clear();
+		closure = null;
+		stale = true;
+	}
+
+	@Override
+	public synchronized void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+		if (stale)
+			return;
+		for (OWLOntologyChange change : changes) {
+			if (change.isImportChange() && closure.contains(change.getOntology())) {
+				stale = true;
+				return;
+			}
+			if (change.isAxiomChange() && closure.contains(change.getOntology()))
+				index(change.getAxiom(), change.isAddAxiom() ? 1 : -1);
+		}
+	}
+
+	/**
+	 * Rebuilds the indexes if the imports closure changed
+	 */
+	private void refresh() {
+		if (!stale)
+			return;
+		superClasses.clear();
+		types.clear();
+		subProperties.clear();
+		propertyAssertions.clear();
+		closure = new HashSet<OWLOntology>();
+		ontology.importsClosure().forEach(closure::add);
+		for (OWLOntology o : closure)
+			o.logicalAxioms().forEach(axiom -> index(axiom, 1));
+		stale = false;
+	}
+
+	/**
+	 * Adds (delta 1) or removes (delta -1) the told edges of an axiom
+	 */
+	private void index(OWLAxiom axiom, int delta) {
+		if (axiom.isOfType(AxiomType.SUBCLASS_OF)) {
+			OWLSubClassOfAxiom ax = (OWLSubClassOfAxiom) axiom;
+			count(superClasses, ax.getSubClass(), ax.getSuperClass(), delta);
+		} else if (axiom.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
+			for (OWLSubClassOfAxiom ax : ((OWLEquivalentClassesAxiom) axiom).asOWLSubClassOfAxioms())
+				count(superClasses, ax.getSubClass(), ax.getSuperClass(), delta);
+		} else if (axiom.isOfType(AxiomType.CLASS_ASSERTION)) {
+			OWLClassAssertionAxiom ax = (OWLClassAssertionAxiom) axiom;
+			count(types, ax.getIndividual(), ax.getClassExpression(), delta);
+		} else if (axiom.isOfType(AxiomType.SUB_OBJECT_PROPERTY)) {
+			OWLSubObjectPropertyOfAxiom ax = (OWLSubObjectPropertyOfAxiom) axiom;
+			count(subProperties, ax.getSuperProperty(), ax.getSubProperty(), delta);
+		} else if (axiom.isOfType(AxiomType.EQUIVALENT_OBJECT_PROPERTIES)) {
+			for (OWLSubObjectPropertyOfAxiom ax : ((OWLEquivalentObjectPropertiesAxiom) axiom)
+					.asSubObjectPropertyOfAxioms())
+				count(subProperties, ax.getSuperProperty(), ax.getSubProperty(), delta);
+		} else if (axiom.isOfType(AxiomType.OBJECT_PROPERTY_ASSERTION)) {
+			OWLAxiom key = ((OWLObjectPropertyAssertionAxiom) axiom).getSimplified().getAxiomWithoutAnnotations();
+			propertyAssertions.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+		}
+	}
+
+	private static <K, V> void count(Map<K, Map<V, Integer>> index, K key, V value, int delta) {
+		Map<V, Integer> values = index.computeIfAbsent(key, k -> new HashMap<V, Integer>());
+		values.merge(value, delta, (a, b) -> a + b == 0 ? null : a + b);
+		if (values.isEmpty())
+			index.remove(key);
+	}
+
+	/**
+	 * @return the class expressions reachable from the given ones over told
+	 *         subclass edges (including the given ones)
+	 */
+	private Set<OWLClassExpression> toldSuperClasses(Set<OWLClassExpression> start) {
+		Set<OWLClassExpression> seen = new HashSet<OWLClassExpression>(start);
+		Deque<OWLClassExpression> todo = new ArrayDeque<OWLClassExpression>(start);
+		while (!todo.isEmpty()) {
+			OWLClassExpression ce = todo.pop();
+			if (ce.isOWLNothing())
+				continue;
+			for (OWLClassExpression sup : superClasses.getOrDefault(ce, Collections.emptyMap()).keySet())
+				if (seen.add(sup))
+					todo.push(sup);
+			// an intersection is a subclass of each of its conjuncts
+			for (OWLClassExpression conjunct : ce.asConjunctSet())
+				if (seen.add(conjunct))
+					todo.push(conjunct);
+		}
+		return seen;
+	}
+
+	/**
+	 * @return true if sub is a subclass of sup by told edges
+	 */
+	private boolean subsumedBy(OWLClassExpression sub, OWLClassExpression sup) {
+		if (sub.equals(sup) || sup.isOWLThing() || sub.isOWLNothing())
+			return true;
+		return toldSuperClasses(Collections.singleton(sub)).contains(sup);
+	}
+
+	/**
+	 * @return true if the property assertion is told, possibly on a told
+	 *         sub-property
+	 */
+	private boolean toldAssertion(OWLObjectPropertyAssertionAxiom axiom) {
+		OWLObjectPropertyAssertionAxiom simplified = axiom.getSimplified();
+		OWLIndividual s = simplified.getSubject();
+		OWLIndividual o = simplified.getObject();
+		Set<OWLObjectPropertyExpression> seen = new HashSet<OWLObjectPropertyExpression>();
+		Deque<OWLObjectPropertyExpression> todo = new ArrayDeque<OWLObjectPropertyExpression>();
+		todo.push(simplified.getProperty());
+		while (!todo.isEmpty()) {
+			OWLObjectPropertyExpression p = todo.pop();
+			if (!seen.add(p))
+				continue;
+			OWLObjectPropertyAssertionAxiom candidate = p.isAnonymous()
+					? ontologyDataFactory().getOWLObjectPropertyAssertionAxiom(p.getNamedProperty(), o, s)
+					: ontologyDataFactory().getOWLObjectPropertyAssertionAxiom(p, s, o);
+			if (propertyAssertions.containsKey(candidate))
+				return true;
+			todo.addAll(subProperties.getOrDefault(p, Collections.emptyMap()).keySet());
+		}
+		return false;
+	}
+
+	private OWLDataFactory ontologyDataFactory() {
+		return ontology.getOWLOntologyManager().getOWLDataFactory();
+	}
+
+	/**
+	 * Checks whether an axiom follows from the told axioms alone
+	 *
+	 * @param axiom the axiom to check
+	 * @return true if the axiom is asserted or follows from told edges; false if
+	 *         the reasoner has to decide
+	 */
+	synchronized boolean entails(OWLAxiom axiom) {
+		refresh();
+		boolean told = toldEntails(axiom);
+		(told ? hits : misses).incrementAndGet();
+		return told;
+	}
+
+	private boolean toldEntails(OWLAxiom axiom) {
+		for (OWLOntology o : closure)
+			if (o.containsAxiom(axiom, Imports.EXCLUDED, AxiomAnnotations.IGNORE_AXIOM_ANNOTATIONS))
+				return true;
+		if (axiom.isOfType(AxiomType.SUBCLASS_OF)) {
+			OWLSubClassOfAxiom ax = (OWLSubClassOfAxiom) axiom;
+			return subsumedBy(ax.getSubClass(), ax.getSuperClass());
+		}
+		if (axiom.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
+			for (OWLSubClassOfAxiom ax : ((OWLEquivalentClassesAxiom) axiom).asOWLSubClassOfAxioms())
+				if (!subsumedBy(ax.getSubClass(), ax.getSuperClass()))
+					return false;
+			return true;
+		}
+		if (axiom.isOfType(AxiomType.CLASS_ASSERTION)) {
+			OWLClassAssertionAxiom ax = (OWLClassAssertionAxiom) axiom;
+			if (ax.getClassExpression().isOWLThing())
+				return true;
+			Map<OWLClassExpression, Integer> told = types.get(ax.getIndividual());
+			return told != null && toldSuperClasses(told.keySet()).contains(ax.getClassExpression());
+		}
+		if (axiom.isOfType(AxiomType.OBJECT_PROPERTY_ASSERTION))
+			return toldAssertion((OWLObjectPropertyAssertionAxiom) axiom);
+		return false;
+	}
+}
@@ -0,0 +1,412 @@
+package io.github.kodymoodley.owlapilite;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Versioned binary snapshot of a workspace: all ontologies of a manager, the
+ * off-heap ABox stores, the parser vocabulary and the selected ontology and
+ * namespace. Axioms with a compact encoding are written as AxiomCodec records;
+ * the remaining axioms and the ontology annotations of each ontology are
+ * written as one embedded functional syntax document. IRIs and other strings
+ * are written once, in a string table at the end of the file. Snapshots are
+ * read through a memory-mapped buffer, so they are limited to 2 GB.
+ *
+ * <pre>
+ * header:    int magic, int version, long string table offset
+ * ontology*: int count, then per ontology: int ontology IRI, int version IRI,
+ *            int document IRI, int import count, int import IRI*,
+ *            axiom records, END, int length, functional syntax bytes,
+ *            off-heap ABox records, END
+ * workspace: int selected ontology index, int namespace IRI,
+ *            int vocabulary size, (byte entity type, int IRI)*
+ * strings:   int count, (int length, UTF-8 bytes)*
+ * </pre>
+ *
+ * String ids of -1 denote absent IRIs.
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class WorkspaceSnapshot {
+	/**
+	 * file signature ("OWSN")
+	 */
+	public static final int MAGIC = 0x4F57534E;
+	/**
+	 * current format version
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * byte offset of the string table offset field
+	 */
+	private static final int STRING_TABLE_OFFSET_POSITION = 8;
+	/**
+	 * the ontologies restored from the snapshot (or already present in the
+	 * workspace), in snapshot order
+	 */
+	private final List<OWLOntology> ontologies = new ArrayList<OWLOntology>();
+	/**
+	 * IRIs of ontologies which were not restored because the workspace already
+	 * contained them
+	 */
+	private final List<OWLOntologyID> skipped = new ArrayList<OWLOntologyID>();
+	/**
+	 * off-heap ABox axioms per restored ontology
+	 */
+	private final Map<OWLOntology, List<OWLAxiom>> offHeapAxioms = new HashMap<OWLOntology, List<OWLAxiom>>();
+	/**
+	 * entities of the parser vocabulary
+	 */
+	private final List<OWLEntity> vocabulary = new ArrayList<OWLEntity>();
+	/**
+	 * the selected ontology, or null
+	 */
+	private OWLOntology selectedOntology;
+	/**
+	 * the namespace for new entities, or null
+	 */
+	private IRI namespace;
+
+	private WorkspaceSnapshot() {
+	}
+
+	/**
+	 * @return the ontologies of the snapshot, in the order they were written
+	 */
+	public List<OWLOntology> getOntologies() {
+		return ontologies;
+	}
+
+	/**
+	 * @return the ids of ontologies which the workspace already contained and
+	 *         which were therefore not restored
+	 */
+	public List<OWLOntologyID> getSkipped() {
+		return skipped;
+	}
+
+	/**
+	 * @return the off-heap ABox axioms of each ontology that had an off-heap store
+	 */
+	public Map<OWLOntology, List<OWLAxiom>> getOffHeapAxioms() {
+		return offHeapAxioms;
+	}
+
+	/**
+	 * @return the entities of the saved parser vocabulary
+	 */
+	public List<OWLEntity> getVocabulary() {
+		return vocabulary;
+	}
+
+	/**
+	 * @return the selected ontology, or null if none was selected
+	 */
+	public OWLOntology getSelectedOntology() {
+		return selectedOntology;
+	}
+
+	/**
+	 * @return the namespace for new entities, or null if none was set
+	 */
+	public IRI getNamespace() {
+		return namespace;
+	}
+
+	/**
+	 * Writes a snapshot of a workspace. The snapshot is written to a temporary
+	 * file next to the target which then replaces the target in one step.
+	 *
+	 * @param file       the snapshot file to write
+	 * @param manager    the OWLOntologyManager whose ontologies are written
+	 * @param selected   the selected ontology, or null
+	 * @param namespace  the namespace for new entities, or null
+	 * @param vocabulary the entities of the parser vocabulary
+	 * @param stores     the off-heap ABox stores per ontology
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	public static void write(Path file, OWLOntologyManager manager, OWLOntology selected, IRI namespace,
+			Stream<OWLEntity> vocabulary, Map<OWLOntology, OffHeapABoxStore> stores) throws IOException {
+		AxiomCodec codec = new AxiomCodec(manager.getOWLDataFactory());
+		List<OWLOntology> ontologies = manager.ontologies().collect(Collectors.toList());
+		Path tmp = OntologySaver.createTempSibling(file);
+		try {
+			long stringTableOffset;
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(0);
+				out.writeInt(ontologies.size());
+				for (OWLOntology ontology : ontologies)
+					writeOntology(ontology, stores.get(ontology), codec, out);
+
+				out.writeInt(ontologies.indexOf(selected));
+				out.writeInt(namespace == null ? AxiomCodec.NONE : codec.intern(namespace.toString()));
+				List<OWLEntity> entities = vocabulary.collect(Collectors.toList());
+				out.writeInt(entities.size());
+				for (OWLEntity e : entities) {
+					out.writeByte(AxiomCodec.entityTypeIndex(e));
+					out.writeInt(codec.intern(e.getIRI().toString()));
+				}
+				stringTableOffset = out.size();
+				codec.writeStrings(out, 0);
+			}
+			try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+				ByteBuffer offset = ByteBuffer.allocate(8).putLong(stringTableOffset);
+				offset.flip();
+				channel.write(offset, STRING_TABLE_OFFSET_POSITION);
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	private static void writeOntology(OWLOntology ontology, OffHeapABoxStore store, AxiomCodec codec,
+			DataOutputStream out) throws IOException {
+		OWLOntologyID id = ontology.getOntologyID();
+		OWLOntologyManager manager = ontology.getOWLOntologyManager();
+		out.writeInt(optionalIRI(id.getOntologyIRI(), codec));
+		out.writeInt(optionalIRI(id.getVersionIRI(), codec));
+		out.writeInt(codec.intern(manager.getOntologyDocumentIRI(ontology).toString()));
+		List<OWLImportsDeclaration> imports = ontology.importsDeclarations().collect(Collectors.toList());
+		out.writeInt(imports.size());
+		for (OWLImportsDeclaration i : imports)
+			out.writeInt(codec.intern(i.getIRI().toString()));
+
+		List<OWLAxiom> fallback = new ArrayList<OWLAxiom>();
+		for (OWLAxiom axiom : (Iterable<OWLAxiom>) ontology.axioms()::iterator) {
+			if (codec.supports(axiom))
+				codec.encode(axiom, out);
+			else
+				fallback.add(axiom);
+		}
+		out.writeByte(AxiomCodec.END);
+
+		byte[] text = functionalSyntax(fallback, ontology.annotations().collect(Collectors.toList()));
+		out.writeInt(text.length);
+		out.write(text);
+
+		if (store != null) {
+			for (OWLAxiom axiom : (Iterable<OWLAxiom>) store.axioms(manager.getOWLDataFactory())::iterator)
+				codec.encode(axiom, out);
+		}
+		out.writeByte(AxiomCodec.END);
+	}
+
+	/**
+	 * Renders axioms and ontology annotations without a compact encoding as a
+	 * functional syntax document
+	 */
+	static byte[] functionalSyntax(List<OWLAxiom> axioms, List<OWLAnnotation> annotations)
+			throws IOException {
+		if (axioms.isEmpty() && annotations.isEmpty())
+			return new byte[0];
+		OWLOntologyManager scratch = OWLManager.createOWLOntologyManager();
+		try {
+			OWLOntology ontology = scratch.createOntology(axioms.stream());
+			for (OWLAnnotation a : annotations)
+				scratch.applyChange(new AddOntologyAnnotation(ontology, a));
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			scratch.saveOntology(ontology, new FunctionalSyntaxDocumentFormat(), bytes);
+			return bytes.toByteArray();
+		} catch (OWLOntologyCreationException | OWLOntologyStorageException e) {
+			throw new IOException("Could not serialise axioms without a compact encoding", e);
+		}
+	}
+
+	private static int optionalIRI(Optional<IRI> iri, AxiomCodec codec) {
+		return iri.isPresent() ? codec.intern(iri.get().toString()) : AxiomCodec.NONE;
+	}
+
+	/**
+	 * Reads a snapshot into a manager. Ontologies which the manager already
+	 * contains are left untouched and reported by getSkipped().
+	 *
+	 * @param file    the snapshot file to read
+	 * @param manager the OWLOntologyManager to restore the ontologies into
+	 * @return the restored snapshot
+	 * @throws IOException if the file cannot be read or is not a snapshot of a
+	 *                     supported version
+	 */
+	public static WorkspaceSnapshot read(Path file, OWLOntologyManager manager) throws IOException {
+		MappedByteBuffer in;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (in.limit() < 16 || in.getInt() != MAGIC)
+			throw new IOException("'" + file + "' is not a workspace snapshot");
+		int version = in.getInt();
+		if (version != VERSION)
+			throw new IOException("Unsupported workspace snapshot version " + version + " (expected " + VERSION + ")");
+		long stringTableOffset = in.getLong();
+
+		OWLDataFactory dataFactory = manager.getOWLDataFactory();
+		AxiomCodec codec = new AxiomCodec(dataFactory);
+		ByteBuffer strings = in.duplicate();
+		strings.position((int) stringTableOffset);
+		codec.readStrings(strings);
+
+		WorkspaceSnapshot snapshot = new WorkspaceSnapshot();
+		int count = in.getInt();
+		for (int i = 0; i < count; i++)
+			snapshot.readOntology(in, codec, manager);
+
+		int selected = in.getInt();
+		snapshot.selectedOntology = selected < 0 ? null : snapshot.ontologies.get(selected);
+		int namespace = in.getInt();
+		snapshot.namespace = namespace == AxiomCodec.NONE ? null : codec.getIRI(namespace);
+		for (int n = in.getInt(); n > 0; n--) {
+			byte type = in.get();
+			snapshot.vocabulary.add(AxiomCodec.entity(dataFactory, type, codec.getIRI(in.getInt())));
+		}
+		return snapshot;
+	}
+
+	private void readOntology(ByteBuffer in, AxiomCodec codec, OWLOntologyManager manager) throws IOException {
+		int ontologyIRI = in.getInt();
+		int versionIRI = in.getInt();
+		IRI documentIRI = codec.getIRI(in.getInt());
+		OWLOntologyID id = ontologyIRI == AxiomCodec.NONE ? new OWLOntologyID()
+				: versionIRI == AxiomCodec.NONE ? new OWLOntologyID(codec.getIRI(ontologyIRI))
+						: new OWLOntologyID(codec.getIRI(ontologyIRI), codec.getIRI(versionIRI));
+		List<IRI> imports = new ArrayList<IRI>();
+		for (int n = in.getInt(); n > 0; n--)
+			imports.add(codec.getIRI(in.getInt()));
+
+		OWLOntology existing = id.isAnonymous() ? null : manager.getOntology(id);
+		if (existing != null) {
+			skipped.add(id);
+			ontologies.add(existing);
+			// skip the records of this ontology
+			while (codec.decode(in) != null)
+				;
+			int length = in.getInt();
+			in.position(in.position() + length);
+			while (codec.decode(in) != null)
+				;
+			return;
+		}
+
+		OWLOntology ontology;
+		try {
+			ontology = manager.createOntology(id);
+		} catch (OWLOntologyCreationException e) {
+			throw new IOException("Could not restore ontology " + id, e);
+		}
+		manager.setOntologyDocumentIRI(ontology, documentIRI);
+		OWLDataFactory dataFactory = manager.getOWLDataFactory();
+		for (IRI i : imports)
+			manager.applyChange(new AddImport(ontology, dataFactory.getOWLImportsDeclaration(i)));
+
+		List<OWLAxiom> axioms = new ArrayList<OWLAxiom>();
+		OWLAxiom axiom;
+		while ((axiom = codec.decode(in)) != null)
+			axioms.add(axiom);
+
+		byte[] text = new byte[in.getInt()];
+		in.get(text);
+		if (text.length > 0) {
+			try {
+				OWLOntology rest = OWLManager.createOWLOntologyManager()
+						.loadOntologyFromOntologyDocument(new ByteArrayInputStream(text));
+				// plain declarations always have a compact encoding, so any found here were
+				// added by the functional syntax writer
+				rest.axioms().filter(a -> a.isAnnotated() || !(a instanceof OWLDeclarationAxiom)).forEach(axioms::add);
+				rest.annotations().forEach(a -> manager.applyChange(new AddOntologyAnnotation(ontology, a)));
+			} catch (OWLOntologyCreationException e) {
+				throw new IOException("Could not restore axioms of ontology " + id, e);
+			}
+		}
+		ontology.addAxioms(axioms);
+
+		List<OWLAxiom> offHeap = new ArrayList<OWLAxiom>();
+		while ((axiom = codec.decode(in)) != null)
+			offHeap.add(axiom);
+		if (!offHeap.isEmpty())
+			offHeapAxioms.put(ontology, offHeap);
+		ontologies.add(ontology);
+	}
+
+	/**
+	 * Adds off-heap ABox axioms read from a snapshot to a store
+	 *
+	 * @param axioms     declaration, class assertion and object property assertion
+	 *                   axioms
+	 * @param store      the OffHeapABoxStore to add records to
+	 * @param dictionary the dictionary the store refers to
+	 */
+	public static void restore(List<OWLAxiom> axioms, OffHeapABoxStore store, EntityDictionary dictionary) {
+		for (OWLAxiom axiom : axioms) {
+			if (axiom instanceof OWLDeclarationAxiom) {
+				store.addIndividual(dictionary.encode(((OWLDeclarationAxiom) axiom).getEntity().getIRI()));
+			} else if (axiom instanceof OWLClassAssertionAxiom) {
+				OWLClassAssertionAxiom a = (OWLClassAssertionAxiom) axiom;
+				store.addClassAssertion(dictionary.encode(a.getIndividual().asOWLNamedIndividual().getIRI()),
+						dictionary.encode(a.getClassExpression().asOWLClass().getIRI()));
+			} else if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+				OWLObjectPropertyAssertionAxiom a = (OWLObjectPropertyAssertionAxiom) axiom;
+				store.addObjectPropertyAssertion(dictionary.encode(a.getSubject().asOWLNamedIndividual().getIRI()),
+						dictionary.encode(a.getProperty().asOWLObjectProperty().getIRI()),
+						dictionary.encode(a.getObject().asOWLNamedIndividual().getIRI()));
+			}
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Tests streaming import of ABox assertions from CSV/TSV files
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ABoxImporterTest {
+
+    private OWLAPILiteFactory factory;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        factory = OWLAPILiteFactory.getInstance();
+    }
+
+    @Test
+    @DisplayName("Class assertions are imported with declarations in batches")
+    void importClassAssertions_declaresEntitiesAndSkipsBadRows() throws Exception {
+        factory.createOntology("http://test.com/importer1#");
+        Path csv = tempDir.resolve("types.csv");
+        Files.writeString(csv, "individual,class\n"
+                + "ann,Person\n"
+                + "bob,Person\n"
+                + "\"carl\",\"Student\"\n"
+                + "broken\n"
+                + "<http://other.org/x#dave>,Person\n");
+
+        ABoxImporter.Report report = factory.createABoxImporter().setHeader(true).setBatchSize(2)
+            .importClassAssertions(csv, 0, 1);
+
+        OWLOntology ontology = factory.getOntology();
+        assertThat(report.getRows()).isEqualTo(5);
+        assertThat(report.getImported()).isEqualTo(4);
+        assertThat(report.getSkipped()).isEqualTo(1);
+        assertThat(ontology.axioms(AxiomType.CLASS_ASSERTION).count()).isEqualTo(4);
+        assertThat(ontology.classesInSignature().count()).isEqualTo(2);
+        assertThat(ontology.containsIndividualInSignature(IRI.create("http://other.org/x#dave"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Object property assertions are imported from TSV and usable by the parser")
+    void importObjectPropertyAssertions_fromTsv_registersVocabulary() throws Exception {
+        factory.createOntology("http://test.com/importer2#");
+        Path tsv = tempDir.resolve("edges.tsv");
+        Files.writeString(tsv, "erin\tmentors\tfrank\nfrank\tmentors\tgina\n");
+
+        ABoxImporter.Report report = factory.createABoxImporter().importObjectPropertyAssertions(tsv, 0, 1, 2);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(factory.getOntology().axioms(AxiomType.OBJECT_PROPERTY_ASSERTION).count()).isEqualTo(2);
+        assertThat(factory.getOntology().axioms(AxiomType.DECLARATION).count()).isEqualTo(4);
+        assertThat(factory.createAxiom("erin Type: mentors value gina")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Off-heap records are written only while holding the shared lock")
+    void importIntoStore_waitsForSharedLock() throws Exception {
+        OWLOntology ontology = factory.createOntology("http://test.com/importer3#");
+        Path csv = tempDir.resolve("locked.csv");
+        Files.writeString(csv, "hank,Worker\nivy,Worker\n");
+        EntityDictionary dictionary = new EntityDictionary();
+        OffHeapABoxStore store = new OffHeapABoxStore(dictionary);
+        ReentrantLock lock = new ReentrantLock();
+        ABoxImporter importer = new ABoxImporter(ontology, IRI.create("http://test.com/importer3#"),
+            Parser.getInstance(), dictionary, store, lock);
+
+        CompletableFuture<ABoxImporter.Report> report;
+        lock.lock();
+        try {
+            report = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return importer.importClassAssertions(csv, 0, 1);
+                } catch (java.io.IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            Thread.sleep(200);
+            assertThat(report).isNotDone();
+            assertThat(store.version()).isZero();
+        } finally {
+            lock.unlock();
+        }
+        assertThat(report.get(30, TimeUnit.SECONDS).getImported()).isEqualTo(2);
+        assertThat(store.classAssertionCount()).isEqualTo(2);
+        assertThat(store.individualCount()).isEqualTo(2);
+        store.clear();
+    }
+
+    @Test
+    @DisplayName("Quoted cells may contain delimiters and escaped quotes")
+    void split_handlesQuotedCells() {
+        String[] cells = new String[3];
+
+        assertThat(ABoxImporter.split("a,\"b,\"\"c\"\"\",d", ',', cells)).isTrue();
+        assertThat(cells).containsExactly("a", "b,\"c\"", "d");
+        assertThat(ABoxImporter.split("a,b", ',', cells)).isFalse();
+    }
+}
@@ -0,0 +1,242 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.semanticweb.HermiT.ReasonerFactory;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+/**
+ * Tests ABox partitioned, parallel consistency checking and realisation
+ * against reasoning with the whole ontology
+ *
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class ABoxPartitionerTest {
+
+    private static final String NS = "http://test.com/aboxpartitioned#";
+
+    private OWLOntologyManager manager;
+    private OWLDataFactory df;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        manager = OWLManager.createOWLOntologyManager();
+        df = manager.getOWLDataFactory();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private OWLClass cls(String name) {
+        return df.getOWLClass(IRI.create(NS + name));
+    }
+
+    private OWLObjectProperty prop(String name) {
+        return df.getOWLObjectProperty(IRI.create(NS + name));
+    }
+
+    private OWLNamedIndividual ind(String name) {
+        return df.getOWLNamedIndividual(IRI.create(NS + name));
+    }
+
+    private List<String> differences(OWLOntology ontology) {
+        ABoxPartitioner.Realisation realisation = new ABoxPartitioner(new ReasonerFactory(), ontology)
+            .realise(executor);
+        OWLReasoner whole = new ReasonerFactory().createReasoner(ontology);
+        try {
+            return realisation.differences(whole);
+        } finally {
+            whole.dispose();
+        }
+    }
+
+    /**
+     * a shared TBox with a random ABox of disconnected clusters of individuals
+     */
+    private OWLOntology randomOntology(long seed, int clusters) throws Exception {
+        Random random = new Random(seed);
+        OWLOntology ontology = manager.createOntology(IRI.create(NS + "random" + seed));
+        List<OWLAxiom> axioms = new ArrayList<OWLAxiom>();
+        axioms.add(df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(prop("owns"), cls("Car")), cls("Driver")));
+        axioms.add(df.getOWLSubClassOfAxiom(cls("Driver"), cls("Person")));
+        axioms.add(df.getOWLObjectPropertyRangeAxiom(prop("owns"), cls("Thing0")));
+        axioms.add(df.getOWLSubClassOfAxiom(cls("Thing0"), df.getOWLObjectAllValuesFrom(prop("partOf"), cls("Thing0"))));
+        axioms.add(df.getOWLSubClassOfAxiom(cls("Car"), df.getOWLObjectSomeValuesFrom(prop("partOf"), cls("Fleet"))));
+        axioms.add(df.getOWLTransitiveObjectPropertyAxiom(prop("partOf")));
+        axioms.add(df.getOWLFunctionalObjectPropertyAxiom(prop("managedBy")));
+        // some corpora are inconsistent
+        if (seed % 4 == 0)
+            axioms.add(df.getOWLDisjointClassesAxiom(cls("Person"), cls("Car")));
+        List<OWLNamedIndividual> all = new ArrayList<OWLNamedIndividual>();
+        for (int c = 0; c < clusters; c++) {
+            OWLNamedIndividual[] members = new OWLNamedIndividual[2 + random.nextInt(4)];
+            for (int i = 0; i < members.length; i++) {
+                members[i] = ind("c" + c + "i" + i);
+                all.add(members[i]);
+            }
+            for (int k = 0; k < 2 * members.length; k++) {
+                OWLNamedIndividual a = members[random.nextInt(members.length)];
+                OWLNamedIndividual b = members[random.nextInt(members.length)];
+                switch (random.nextInt(5)) {
+                case 0: axioms.add(df.getOWLObjectPropertyAssertionAxiom(prop("owns"), a, b)); break;
+                case 1: axioms.add(df.getOWLObjectPropertyAssertionAxiom(prop("partOf"), a, b)); break;
+                case 2: axioms.add(df.getOWLObjectPropertyAssertionAxiom(prop("managedBy"), a, members[0])); break;
+                case 3: axioms.add(df.getOWLClassAssertionAxiom(cls("Car"), a)); break;
+                default: axioms.add(df.getOWLClassAssertionAxiom(
+                    df.getOWLObjectSomeValuesFrom(prop("owns"), cls("Car")), a)); break;
+                }
+            }
+        }
+        // all individuals are different, which must not connect the clusters
+        axioms.add(df.getOWLDifferentIndividualsAxiom(all));
+        manager.addAxioms(ontology, axioms.stream());
+        return ontology;
+    }
+
+    @Test
+    @DisplayName("Splits the ABox into connected components of individuals")
+    void partitions_followIndividualConnectivity() throws Exception {
+        OWLOntology ontology = manager.createOntology(IRI.create(NS + "components"));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(prop("owns"), cls("Car")),
+            cls("Driver")));
+        manager.addAxiom(ontology, df.getOWLObjectPropertyAssertionAxiom(prop("owns"), ind("ann"), ind("beetle")));
+        manager.addAxiom(ontology, df.getOWLClassAssertionAxiom(cls("Car"), ind("beetle")));
+        manager.addAxiom(ontology, df.getOWLObjectPropertyAssertionAxiom(prop("owns"), ind("bob"), ind("bike")));
+        manager.addAxiom(ontology, df.getOWLDifferentIndividualsAxiom(ind("ann"), ind("bob")));
+        manager.addAxiom(ontology, df.getOWLDeclarationAxiom(ind("carl")));
+
+        ABoxPartitioner partitioner = new ABoxPartitioner(new ReasonerFactory(), ontology);
+        assertThat(partitioner.getPartitions()).hasSize(3);
+        assertThat(partitioner.getPartitions().get(0)).containsExactlyInAnyOrder(ind("ann"), ind("beetle"));
+        assertThat(partitioner.shards()).hasSize(1);
+
+        ABoxPartitioner.Realisation realisation = partitioner.realise(executor);
+        assertThat(realisation.getPartitionCount()).isEqualTo(3);
+        assertThat(realisation.typesOf(ind("ann"))).containsExactly(cls("Driver"));
+        assertThat(realisation.typesOf(ind("bob"))).isEmpty();
+        assertThat(realisation.typesOf(ind("carl"))).isEmpty();
+        assertThat(differences(ontology)).isEmpty();
+
+        // a nominal in the TBox may connect any two individuals
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(cls("Driver"), df.getOWLObjectHasValue(prop("knows"),
+            ind("bob"))));
+        assertThat(new ABoxPartitioner(new ReasonerFactory(), ontology).getPartitions()).hasSize(1);
+        assertThat(differences(ontology)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Finds an inconsistency in one component, and in the TBox without individuals")
+    void realisation_detectsInconsistency() throws Exception {
+        OWLOntology ontology = manager.createOntology(IRI.create(NS + "inconsistent"));
+        manager.addAxiom(ontology, df.getOWLDisjointClassesAxiom(cls("Person"), cls("Car")));
+        manager.addAxiom(ontology, df.getOWLClassAssertionAxiom(cls("Person"), ind("dan")));
+        manager.addAxiom(ontology, df.getOWLClassAssertionAxiom(cls("Car"), ind("mini")));
+        assertThat(new ABoxPartitioner(new ReasonerFactory(), ontology).realise(executor).isConsistent()).isTrue();
+
+        manager.addAxiom(ontology, df.getOWLSameIndividualAxiom(ind("dan"), ind("mini")));
+        ABoxPartitioner.Realisation realisation = new ABoxPartitioner(new ReasonerFactory(), ontology)
+            .realise(executor);
+        assertThat(realisation.isConsistent()).isFalse();
+        assertThat(realisation.getIndividuals()).isEmpty();
+        assertThat(differences(ontology)).isEmpty();
+
+        OWLOntology tbox = manager.createOntology(IRI.create(NS + "tbox"));
+        manager.addAxiom(tbox, df.getOWLSubClassOfAxiom(df.getOWLThing(), cls("Person")));
+        manager.addAxiom(tbox, df.getOWLSubClassOfAxiom(df.getOWLThing(), cls("Car")));
+        manager.addAxiom(tbox, df.getOWLDisjointClassesAxiom(cls("Person"), cls("Car")));
+        realisation = new ABoxPartitioner(new ReasonerFactory(), tbox).realise(executor);
+        assertThat(realisation.getShardCount()).isEqualTo(1);
+        assertThat(realisation.isConsistent()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Agrees with whole-ontology reasoning on a corpus of random clustered ABoxes")
+    void realisation_matchesWholeReasoningOnCorpus() throws Exception {
+        for (long seed = 1; seed <= 12; seed++) {
+            OWLOntology ontology = randomOntology(seed, 3 + (int) (seed % 5));
+            assertThat(differences(ontology)).as("seed " + seed).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Packs small components into shards bounded by the largest component")
+    void shards_areBoundedByLargestComponent() throws Exception {
+        OWLOntology ontology = manager.createOntology(IRI.create(NS + "shards"));
+        int clusters = ABoxPartitioner.MIN_SHARD_SIZE + 10;
+        for (int c = 0; c < clusters; c++)
+            manager.addAxiom(ontology, df.getOWLObjectPropertyAssertionAxiom(prop("owns"), ind("o" + c),
+                ind("v" + c)));
+        ABoxPartitioner partitioner = new ABoxPartitioner(new ReasonerFactory(), ontology);
+        assertThat(partitioner.getPartitions()).hasSize(clusters);
+        assertThat(partitioner.shards()).hasSize(2);
+        assertThat(partitioner.realise(executor).getShardCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Answers consistency and type queries from the partitioned ABox until the ontology changes")
+    void factory_partitionsABox() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        factory.createOntology("http://test.com/aboxfactory#");
+        factory.createClasses("ApPerson ApDriver ApCar");
+        factory.createObjectProperties("apOwns");
+        factory.createIndividuals("apAnn apBeetle apBob");
+        factory.createAxiom("apOwns some ApCar subClassOf ApDriver");
+        factory.createAxiom("ApDriver subClassOf ApPerson");
+        factory.createAxiom("apBeetle Type: ApCar");
+        factory.createObjectPropertyAssertion("apAnn apOwns apBeetle");
+        factory.setABoxPartitioning(true);
+
+        OWLAPILiteReasoner reasoner = factory.owlReasoner;
+        assertThat(reasoner.isConsistent()).isTrue();
+        assertThat(reasoner.realisation(false)).isNotNull();
+        assertThat(reasoner.typesOf("apAnn")).extracting(c -> c.getIRI().getShortForm())
+            .containsExactlyInAnyOrder("ApDriver", "ApPerson");
+
+        factory.createAxiom("apBob Type: ApDriver");
+        assertThat(reasoner.realisation(false)).isNull();
+        assertThat(reasoner.typesOf("apBob")).extracting(c -> c.getIRI().getShortForm())
+            .containsExactlyInAnyOrder("ApDriver", "ApPerson");
+        factory.setABoxPartitioning(false);
+        assertThat(factory.owlReasoner.realisation(true)).isNull();
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Tests the asynchronous reasoner query API: results, coalescing of duplicate
+ * queries and cancellation
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class AsyncReasonerTest {
+
+    private OWLAPILiteFactory factory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        factory = OWLAPILiteFactory.getInstance();
+        factory.createOntology("http://test.com/asyncreasoner#");
+        factory.createClasses("AsAnimal AsMammal AsCat");
+        factory.createIndividuals("asfelix");
+        factory.createAxiom("AsMammal subClassOf AsAnimal");
+        factory.createAxiom("AsCat subClassOf AsMammal");
+        factory.createAxiom("asfelix Type: AsCat");
+    }
+
+    private static Set<String> names(Set<? extends OWLEntity> entities) {
+        return entities.stream().map(e -> e.getIRI().getShortForm()).collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("Queries complete with the same answers as the blocking reasoner on virtual threads")
+    void queries_completeWithResults() throws Exception {
+        try (AsyncReasoner async = new AsyncReasoner(factory.owlReasoner)) {
+            CompletableFuture<Set<OWLClass>> supers = async.superClasses("AsCat");
+            CompletableFuture<Set<OWLNamedIndividual>> instances = async.instances("AsAnimal");
+            CompletableFuture<Set<OWLClass>> types = async.types("asfelix");
+            CompletableFuture<Boolean> entailed = async.isEntailed("AsCat SubClassOf AsAnimal");
+            CompletableFuture<Set<Set<OWLAxiom>>> explanations = async.explanations("AsCat SubClassOf AsAnimal");
+
+            assertThat(names(supers.get(30, TimeUnit.SECONDS))).containsExactlyInAnyOrder("AsMammal", "AsAnimal");
+            assertThat(names(instances.get(30, TimeUnit.SECONDS))).containsExactly("asfelix");
+            assertThat(names(types.get(30, TimeUnit.SECONDS))).contains("AsCat", "AsAnimal");
+            assertThat(entailed.get(30, TimeUnit.SECONDS)).isTrue();
+            assertThat(explanations.get(30, TimeUnit.SECONDS)).hasSize(1);
+            assertThat(async.isConsistent().get(30, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Identical queries in flight share one evaluation")
+    void duplicateQueries_areCoalesced() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.submit(() -> {
+                release.await();
+                return null;
+            });
+            AsyncReasoner async = new AsyncReasoner(factory.owlReasoner, executor);
+
+            CompletableFuture<Set<OWLClass>> first = async.subClasses("AsAnimal");
+            CompletableFuture<Set<OWLClass>> second = async.subClasses("AsAnimal");
+            CompletableFuture<Set<OWLClass>> other = async.subClasses("AsMammal");
+
+            assertThat(async.getCoalesced()).isEqualTo(1);
+            assertThat(async.getInFlight()).isEqualTo(2);
+            release.countDown();
+            assertThat(first.get(30, TimeUnit.SECONDS)).isEqualTo(second.get(30, TimeUnit.SECONDS));
+            assertThat(names(other.get(30, TimeUnit.SECONDS))).containsExactly("AsCat");
+            assertThat(async.getInFlight()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Cancelling detaches a caller and cancels the evaluation once no caller is left")
+    void cancel_cancelsEvaluationWhenAllCallersLeave() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.submit(() -> {
+                release.await();
+                return null;
+            });
+            AsyncReasoner async = new AsyncReasoner(factory.owlReasoner, executor);
+
+            CompletableFuture<Set<OWLNamedIndividual>> kept = async.instances("AsMammal");
+            CompletableFuture<Set<OWLNamedIndividual>> dropped = async.instances("AsMammal");
+            CompletableFuture<Boolean> abandoned = async.isEntailed("AsAnimal SubClassOf AsCat");
+            dropped.cancel(true);
+            abandoned.cancel(true);
+
+            assertThat(async.getInFlight()).isEqualTo(1);
+            release.countDown();
+            assertThat(names(kept.get(30, TimeUnit.SECONDS))).containsExactly("asfelix");
+            assertThat(dropped).isCancelled();
+            assertThat(abandoned).isCancelled();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Queries wait for a shared lock and a queued cancellation does not interrupt the reasoner")
+    void sharedLock_queuedCancelDoesNotInterrupt() throws Exception {
+        OWLReasoner delegate = factory.owlReasoner.reasoner;
+        AtomicInteger interrupts = new AtomicInteger();
+        factory.owlReasoner.reasoner = (OWLReasoner) java.lang.reflect.Proxy.newProxyInstance(
+                OWLReasoner.class.getClassLoader(), new Class<?>[] { OWLReasoner.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("interrupt")) {
+                        interrupts.incrementAndGet();
+                        return null;
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (java.lang.reflect.InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        ReentrantLock lock = new ReentrantLock();
+        AsyncReasoner async = new AsyncReasoner(factory.owlReasoner, lock);
+        try {
+            CompletableFuture<Set<OWLNamedIndividual>> queued;
+            CompletableFuture<Set<OWLClass>> kept;
+            lock.lock();
+            try {
+                queued = async.instances("AsMammal");
+                kept = async.subClasses("AsAnimal");
+                Thread.sleep(100);
+                assertThat(kept).isNotDone();
+                queued.cancel(true);
+            } finally {
+                lock.unlock();
+            }
+
+            assertThat(names(kept.get(30, TimeUnit.SECONDS))).contains("AsCat", "AsMammal");
+            assertThat(queued).isCancelled();
+            assertThat(interrupts).hasValue(0);
+        } finally {
+            async.close();
+            factory.owlReasoner.reasoner = delegate;
+        }
+    }
+
+    @Test
+    @DisplayName("Factory provides an async reasoner for the current reasoner")
+    void factory_getAsyncReasoner() throws Exception {
+        AsyncReasoner async = factory.getAsyncReasoner();
+
+        assertThat(async.getReasoner()).isSameAs(factory.owlReasoner);
+        assertThat(factory.getAsyncReasoner()).isSameAs(async);
+        assertThat(async.isEntailed("AsCat SubClassOf AsAnimal").get(30, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,276 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.model.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Tests the write-ahead change journal: group flushing, replay, torn writes and
+ * compaction
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class ChangeJournalTest {
+
+    private static final String NS = "http://example.org/journal#";
+
+    @TempDir
+    Path dir;
+
+    private Path base;
+    private Path journalFile;
+
+    @BeforeEach
+    void writeBase() throws Exception {
+        base = dir.resolve("base.ofn");
+        journalFile = dir.resolve("base.ofn.journal");
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology(IRI.create("http://example.org/journal"));
+        ontology.add(df.getOWLSubClassOfAxiom(cls(df, "JnCat"), cls(df, "JnAnimal")));
+        manager.saveOntology(ontology, new FunctionalSyntaxDocumentFormat(), Files.newOutputStream(base));
+    }
+
+    private static OWLClass cls(OWLDataFactory df, String name) {
+        return df.getOWLClass(IRI.create(NS + name));
+    }
+
+    private static OWLOntology loadBase(Path base) throws Exception {
+        return OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(base.toFile());
+    }
+
+    /**
+     * Axioms other than plain declarations, which document writers add for the signature
+     */
+    private static Set<OWLAxiom> axioms(OWLOntology ontology) {
+        return ontology.axioms().filter(a -> a.isAnnotated() || !(a instanceof OWLDeclarationAxiom))
+            .collect(Collectors.toSet());
+    }
+
+    private void edit(OWLOntology ontology) {
+        OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        OWLObjectProperty eats = df.getOWLObjectProperty(IRI.create(NS + "jnEats"));
+        ontology.add(df.getOWLSubClassOfAxiom(cls(df, "JnDog"), cls(df, "JnAnimal")));
+        ontology.add(df.getOWLSubClassOfAxiom(cls(df, "JnCat"), df.getOWLObjectSomeValuesFrom(eats, cls(df, "JnFish"))));
+        ontology.add(df.getOWLClassAssertionAxiom(cls(df, "JnDog"), df.getOWLNamedIndividual(IRI.create(NS + "jnRex"))));
+        ontology.remove(df.getOWLSubClassOfAxiom(cls(df, "JnCat"), cls(df, "JnAnimal")));
+        ontology.add(df.getOWLDeclarationAxiom(cls(df, "JnBird")));
+        ontology.remove(df.getOWLDeclarationAxiom(cls(df, "JnBird")));
+    }
+
+    @Test
+    @DisplayName("Changes written to the journal are replayed onto the base document")
+    void replay_restoresEdits() throws Exception {
+        OWLOntology ontology = loadBase(base);
+        ChangeJournal journal = new ChangeJournal(ontology, journalFile, base, SelectedFormat.FUNCTIONAL);
+        journal.open(0);
+        edit(ontology);
+        journal.close();
+
+        OWLOntology restored = loadBase(base);
+        ChangeJournal reopened = new ChangeJournal(restored, journalFile, base, SelectedFormat.FUNCTIONAL);
+        reopened.open(0);
+        reopened.close();
+
+        assertThat(reopened.getReplayed()).isEqualTo(5);
+        assertThat(axioms(restored)).isEqualTo(axioms(ontology));
+    }
+
+    @Test
+    @DisplayName("Changes are flushed in groups of the configured size")
+    void ontologiesChanged_flushesInGroups() throws Exception {
+        OWLOntology ontology = loadBase(base);
+        OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        ChangeJournal journal = new ChangeJournal(ontology, journalFile, base, SelectedFormat.FUNCTIONAL);
+        journal.setGroupSize(10);
+        journal.open(0);
+        for (int i = 0; i < 25; i++)
+            ontology.add(df.getOWLSubClassOfAxiom(cls(df, "JnG" + i), cls(df, "JnAnimal")));
+
+        assertThat(journal.getGroups()).isEqualTo(2);
+        assertThat(journal.getPending()).isEqualTo(5);
+        journal.close();
+        assertThat(journal.getGroups()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("A torn group at the end of the journal is discarded and appending continues after the valid prefix")
+    void replay_tornTail_isDiscarded() throws Exception {
+        OWLOntology ontology = loadBase(base);
+        ChangeJournal journal = new ChangeJournal(ontology, journalFile, base, SelectedFormat.FUNCTIONAL);
+        journal.open(0);
+        edit(ontology);
+        journal.close();
+        long valid = Files.size(journalFile);
+        Files.write(journalFile, new byte[] { 0, 0, 1, 0, 7, 7, 7, 7, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        OWLOntology restored = loadBase(base);
+        ChangeJournal reopened = new ChangeJournal(restored, journalFile, base, SelectedFormat.FUNCTIONAL);
+        reopened.open(0);
+        assertThat(Files.size(journalFile)).isEqualTo(valid);
+        OWLDataFactory df = restored.getOWLOntologyManager().getOWLDataFactory();
+        restored.add(df.getOWLSubClassOfAxiom(cls(df, "JnHorse"), cls(df, "JnAnimal")));
+        reopened.close();
+
+        OWLOntology again = loadBase(base);
+        ChangeJournal third = new ChangeJournal(again, journalFile, base, SelectedFormat.FUNCTIONAL);
+        third.open(0);
+        third.close();
+        assertThat(axioms(again)).isEqualTo(axioms(restored));
+    }
+
+    @Test
+    @DisplayName("Compaction writes the ontology to the base document and empties the journal")
+    void compact_rewritesBaseAndResetsJournal() throws Exception {
+        OWLOntology ontology = loadBase(base);
+        ChangeJournal journal = new ChangeJournal(ontology, journalFile, base, SelectedFormat.FUNCTIONAL);
+        journal.setCompactionThreshold(1);
+        journal.open(0);
+        edit(ontology);
+        journal.flush();
+
+        assertThat(journal.size()).isEqualTo(8);
+        OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        ontology.add(df.getOWLSubClassOfAxiom(cls(df, "JnCow"), cls(df, "JnAnimal")));
+        journal.setCompactionThreshold(0);
+        journal.close();
+
+        OWLOntology restored = loadBase(base);
+        assertThat(restored.containsAxiom(df.getOWLSubClassOfAxiom(cls(df, "JnDog"), cls(df, "JnAnimal")))).isTrue();
+        ChangeJournal reopened = new ChangeJournal(restored, journalFile, base, SelectedFormat.FUNCTIONAL);
+        reopened.open(0);
+        reopened.close();
+        assertThat(reopened.getReplayed()).isEqualTo(1);
+        assertThat(axioms(restored)).isEqualTo(axioms(ontology));
+    }
+
+    @Test
+    @DisplayName("Compaction waits for the shared lock before saving the ontology")
+    void compact_waitsForSharedLock() throws Exception {
+        OWLOntology ontology = loadBase(base);
+        ReentrantLock lock = new ReentrantLock();
+        ChangeJournal journal = new ChangeJournal(ontology, journalFile, base, SelectedFormat.FUNCTIONAL, lock);
+        journal.setCompactionThreshold(1);
+        journal.open(0);
+        edit(ontology);
+
+        CompletableFuture<Void> flushed;
+        lock.lock();
+        try {
+            flushed = CompletableFuture.runAsync(() -> {
+                try {
+                    journal.flush();
+                } catch (java.io.IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            Thread.sleep(200);
+            // the group is written, but the base document is not saved yet
+            assertThat(flushed).isNotDone();
+            assertThat(journal.getGroups()).isEqualTo(1);
+            assertThat(journal.size()).isGreaterThan(8);
+        } finally {
+            lock.unlock();
+        }
+        flushed.get(30, TimeUnit.SECONDS);
+        assertThat(journal.size()).isEqualTo(8);
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("Factory refuses to journal an ontology whose ABox is off-heap, and vice versa")
+    void factory_journalAndOffHeapABox_areExclusive() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        factory.loadFromFile(base.toString());
+
+        factory.setOffHeapABox(true);
+        factory.enableJournal(base.toString());
+        assertThat(factory.getJournal()).isNull();
+
+        factory.setOffHeapABox(false);
+        factory.enableJournal(base.toString());
+        factory.setOffHeapABox(true);
+        assertThat(factory.getJournal()).isNotNull();
+        assertThat(factory.getOffHeapABox()).isNull();
+        factory.disableJournal();
+    }
+
+    @Test
+    @DisplayName("Compaction keeps the permissions of the base document")
+    void compact_keepsBasePermissions() throws Exception {
+        Assumptions.assumeTrue(dir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Files.setPosixFilePermissions(base, java.nio.file.attribute.PosixFilePermissions.fromString("rw-rw-r--"));
+        OWLOntology ontology = loadBase(base);
+        ChangeJournal journal = new ChangeJournal(ontology, journalFile, base, SelectedFormat.FUNCTIONAL);
+        journal.open(0);
+        edit(ontology);
+        journal.compact();
+        journal.close();
+
+        assertThat(java.nio.file.attribute.PosixFilePermissions.toString(Files.getPosixFilePermissions(base)))
+            .isEqualTo("rw-rw-r--");
+    }
+
+    @Test
+    @DisplayName("Factory journaling records edits made through the factory and replays them in a new session")
+    void factory_enableJournal_replaysInNewSession() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        factory.loadFromFile(base.toString());
+        factory.enableJournal(base.toString());
+        factory.createClass("JnFactoryClass");
+        factory.disableJournal();
+        assertThat(factory.getJournal()).isNull();
+
+        instanceField.set(null, null);
+        OWLAPILiteFactory next = OWLAPILiteFactory.getInstance();
+        next.loadFromFile(base.toString());
+        next.enableJournal(base.toString());
+
+        assertThat(next.getJournal().getReplayed()).isEqualTo(1);
+        assertThat(next.getOntology().classesInSignature()
+            .anyMatch(c -> c.getIRI().toString().endsWith("JnFactoryClass"))).isTrue();
+        next.disableJournal();
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.StreamDocumentSource;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Benchmark comparing load time and bytes read from disk for uncompressed and
+ * compressed copies of the same generated ontology. Not run as part of the test
+ * suite; run the main method with optional arguments: number of classes
+ * (default 50000) and number of timed loads per file (default 5).
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+public class CompressedIOBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology(IRI.create("http://bench.com/compressed"));
+        List<OWLAxiom> axioms = new ArrayList<>();
+        for (int i = 1; i < classes; i++) {
+            axioms.add(df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create("http://bench.com/compressed#C" + i)),
+                df.getOWLClass(IRI.create("http://bench.com/compressed#C" + (i / 2)))));
+        }
+        ontology.addAxioms(axioms);
+
+        Path dir = Files.createTempDirectory("owlapi-lite-bench");
+        Path[] files = { dir.resolve("bench.ofn"), dir.resolve("bench.ofn.gz"), dir.resolve("bench.ofn.zip"),
+            dir.resolve("bench.ofn.zz"), dir.resolve("bench.owl"), dir.resolve("bench.owl.gz") };
+        for (Path file : files) {
+            SelectedFormat format = file.toString().contains(".ofn") ? SelectedFormat.FUNCTIONAL : SelectedFormat.RDFXML;
+            OntologySaver.save(ontology, file, format, false);
+        }
+
+        System.out.printf("%-16s %12s %10s %12s%n", "file", "bytes read", "codec", "load ms");
+        for (Path file : files) {
+            long best = Long.MAX_VALUE;
+            for (int r = 0; r < rounds; r++) {
+                long start = System.nanoTime();
+                try (InputStream in = CompressedIO.openInput(file)) {
+                    OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(
+                        new StreamDocumentSource(in, IRI.create(file.toFile()), CompressedIO.formatHint(file), null));
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%-16s %12d %10s %12d%n", file.getFileName(), Files.size(file),
+                CompressedIO.detect(file), best / 1000000);
+        }
+
+        for (Path file : files)
+            Files.delete(file);
+        Files.delete(dir);
+    }
+}
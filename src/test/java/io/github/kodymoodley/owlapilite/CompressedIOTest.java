@@ -0,0 +1,130 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Tests detection and transparent handling of compressed ontology documents
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CompressedIOTest {
+
+    private static final String DOCUMENT = "Ontology(<http://test.com/compressed>\n"
+        + "Declaration(Class(<http://test.com/compressed#Zip>))\n"
+        + "SubClassOf(<http://test.com/compressed#Zip> <http://test.com/compressed#Archive>)\n)";
+
+    private OWLAPILiteFactory factory;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        factory = OWLAPILiteFactory.getInstance();
+    }
+
+    private Path write(String name, String codec) throws Exception {
+        Path file = tempDir.resolve(name);
+        try (OutputStream out = CompressedIO.openOutput(file, codec)) {
+            out.write(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    @Test
+    @DisplayName("Codecs are detected from magic bytes regardless of file name")
+    void detect_recognisesEachCodec() throws Exception {
+        assertThat(CompressedIO.detect(write("a.ofn", CompressedIO.NONE))).isEqualTo(CompressedIO.NONE);
+        assertThat(CompressedIO.detect(write("b.bin", CompressedIO.GZIP))).isEqualTo(CompressedIO.GZIP);
+        assertThat(CompressedIO.detect(write("c.bin", CompressedIO.ZIP))).isEqualTo(CompressedIO.ZIP);
+        assertThat(CompressedIO.detect(write("d.bin", CompressedIO.DEFLATE))).isEqualTo(CompressedIO.DEFLATE);
+
+        for (String name : new String[] { "b.bin", "c.bin", "d.bin" }) {
+            try (InputStream in = CompressedIO.openInput(tempDir.resolve(name))) {
+                assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).as(name).isEqualTo(DOCUMENT);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("loadFromFile reads gzip and zip compressed documents directly")
+    void loadFromFile_withCompressedFiles_loadsOntology() throws Exception {
+        OWLOntology gz = factory.loadFromFile(write("compressed.ofn.gz", CompressedIO.GZIP).toString());
+        assertThat(gz.getAxiomCount()).isEqualTo(2);
+
+        factory.removeOntology(gz);
+        OWLOntology zip = factory.loadFromFile(write("compressed.ofn.zip", CompressedIO.ZIP).toString());
+        assertThat(zip.getAxiomCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("saveOntology compresses by file extension and the result loads back")
+    void saveOntology_withGzExtension_roundTrips() throws Exception {
+        factory.createOntology("http://test.com/compressedsave#");
+        factory.createClasses("Tarball");
+        Path file = tempDir.resolve("saved.omn.gz");
+
+        factory.saveOntology(file.toString());
+
+        assertThat(CompressedIO.detect(file)).isEqualTo(CompressedIO.GZIP);
+        factory.removeOntology();
+        OWLOntology loaded = factory.loadFromFile(file.toString());
+        assertThat(loaded.containsClassInSignature(IRI.create("http://test.com/compressedsave#Tarball"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("saveOntology to .owl.gz and .owl.zip loads back, with the zip entry named after the target")
+    void saveOntology_withOwlExtension_roundTrips() throws Exception {
+        factory.createOntology("http://test.com/compressedowl#");
+        factory.createClasses("Gzipped");
+        Path gz = tempDir.resolve("saved.owl.gz");
+        Path zip = tempDir.resolve("saved.owl.zip");
+        factory.saveOntology(gz.toString());
+        factory.saveOntology(zip.toString());
+
+        try (java.util.zip.ZipInputStream in = new java.util.zip.ZipInputStream(java.nio.file.Files.newInputStream(zip))) {
+            assertThat(in.getNextEntry().getName()).isEqualTo("saved.owl");
+        }
+        factory.removeOntology();
+        OWLOntology loaded = factory.loadFromFile(gz.toString());
+        assertThat(loaded.containsClassInSignature(IRI.create("http://test.com/compressedowl#Gzipped"))).isTrue();
+        factory.removeOntology();
+        loaded = factory.loadFromFile(zip.toString());
+        assertThat(loaded.containsClassInSignature(IRI.create("http://test.com/compressedowl#Gzipped"))).isTrue();
+    }
+}
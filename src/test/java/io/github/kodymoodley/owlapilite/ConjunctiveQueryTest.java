@@ -0,0 +1,135 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.semanticweb.owlapi.model.*;
+
+import io.github.kodymoodley.owlapilite.testutils.TestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Tests conjunctive query parsing, join planning and evaluation
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class ConjunctiveQueryTest {
+
+    private OWLAPILiteFactory factory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        factory = OWLAPILiteFactory.getInstance();
+        factory.createOntology("http://test.com/conjunctivequery#");
+        factory.createClasses("CqPerson CqEmployee CqCompany CqCountry CqCity");
+        factory.createIndividuals("cqann cqbob cqcarl cqacme cqinitech cqparis cqfrance cqtexas");
+        factory.createObjectProperties("cqworksFor cqlocatedIn cqemploys cqheadquarteredIn");
+        factory.createAxiom("CqEmployee subClassOf CqPerson");
+        factory.createAxiom("cqheadquarteredIn subPropertyOf: cqlocatedIn");
+        factory.createAxiom("cqann Type: CqEmployee");
+        factory.createAxiom("cqbob Type: CqEmployee");
+        factory.createAxiom("cqcarl Type: CqPerson");
+        factory.createAxiom("cqfrance Type: CqCountry");
+        factory.createAxiom("cqparis Type: CqCity");
+        factory.createObjectPropertyAssertion("cqann cqworksFor cqacme");
+        factory.createObjectPropertyAssertion("cqbob cqworksFor cqinitech");
+        factory.createObjectPropertyAssertion("cqacme cqheadquarteredIn cqfrance");
+        factory.createObjectPropertyAssertion("cqinitech cqlocatedIn cqtexas");
+        factory.createObjectPropertyAssertion("cqinitech cqlocatedIn cqparis");
+    }
+
+    private static Set<String> column(List<Map<String, OWLNamedIndividual>> answers, String variable) {
+        return answers.stream().map(a -> a.get(variable).getIRI().getShortForm()).collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("Joins role atoms (with sub-properties) and reasoner-answered concept atoms")
+    void evaluate_joinsRoleAndConceptAtoms() {
+        List<Map<String, OWLNamedIndividual>> answers = factory.owlReasoner
+                .answersOf("?x cqworksFor ?y, ?y cqlocatedIn ?z, ?z Type: CqCountry, ?x : CqPerson");
+
+        assertThat(answers).hasSize(1);
+        assertThat(answers.get(0)).containsOnlyKeys("x", "y", "z");
+        assertThat(column(answers, "x")).containsExactly("cqann");
+        assertThat(column(answers, "z")).containsExactly("cqfrance");
+
+        assertThat(column(factory.owlReasoner.answersOf("?x cqworksFor cqinitech"), "x")).containsExactly("cqbob");
+        assertThat(factory.owlReasoner.answersOf("cqann cqworksFor cqinitech, ?x Type: CqPerson")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Plans start from the most selective atom and join connected atoms next")
+    void plan_isCostBased() {
+        ConjunctiveQuery query = new ConjunctiveQuery(factory.owlReasoner,
+                "?x Type: CqPerson, ?x cqworksFor ?y, ?y cqlocatedIn ?z, ?z Type: CqCity");
+        assertThat(query.evaluate()).hasSize(1);
+
+        List<List<String>> plan = query.getPlan();
+        assertThat(plan).hasSize(1);
+        assertThat(plan.get(0).get(0)).isEqualTo("?z Type: CqCity");
+        assertThat(plan.get(0).get(1)).isEqualTo("?y cqlocatedIn ?z");
+        assertThat(query.getVariables()).containsExactly("x", "y", "z");
+    }
+
+    @Test
+    @DisplayName("Independent branches are joined on the executor and combined")
+    void evaluate_independentBranches_runOnExecutor() {
+        AtomicInteger tasks = new AtomicInteger();
+        Executor counting = r -> {
+            tasks.incrementAndGet();
+            r.run();
+        };
+        ConjunctiveQuery query = new ConjunctiveQuery(factory.owlReasoner, "?p Type: CqEmployee, ?c Type: CqCountry");
+
+        List<Map<String, OWLNamedIndividual>> answers = query.evaluate(counting);
+
+        assertThat(tasks.get()).isEqualTo(2);
+        assertThat(query.getPlan()).hasSize(2);
+        assertThat(answers).hasSize(2);
+        assertThat(column(answers, "p")).containsExactlyInAnyOrder("cqann", "cqbob");
+        assertThat(column(answers, "c")).containsExactly("cqfrance");
+    }
+
+    @Test
+    @DisplayName("Malformed queries are reported")
+    void malformedQuery_isReported() {
+        assertThatThrownBy(() -> new ConjunctiveQuery(factory.owlReasoner, "?x cqworksFor"))
+                .isInstanceOf(IllegalArgumentException.class);
+        String output = TestUtils.captureSystemOut(() -> factory.owlReasoner.getAnswers("?x ?y"));
+        assertThat(output).contains("OWLAPI-Lite PARSER ERROR");
+        String answers = TestUtils.captureSystemOut(() -> factory.owlReasoner.getAnswers("?x cqworksFor cqacme"));
+        assertThat(answers).contains("1. ?x=cqann");
+    }
+}
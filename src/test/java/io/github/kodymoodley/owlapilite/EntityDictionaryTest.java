@@ -0,0 +1,145 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.semanticweb.owlapi.model.IRI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Tests the session-level entity dictionary
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+class EntityDictionaryTest {
+
+    private static final IRI NS = IRI.create("http://test.com/dictionary#");
+
+    private EntityDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new EntityDictionary();
+    }
+
+    @Test
+    @DisplayName("Same IRI always gets the same dense id")
+    void encode_sameIRI_returnsSameId() {
+        int a = dictionary.encode(IRI.create("http://test.com/dictionary#A"));
+        int b = dictionary.encode(IRI.create("http://test.com/dictionary#B"));
+
+        assertThat(a).isEqualTo(0);
+        assertThat(b).isEqualTo(1);
+        assertThat(dictionary.encode(IRI.create("http://test.com/dictionary#A"))).isEqualTo(a);
+    }
+
+    @Test
+    @DisplayName("Namespace and name resolve to the same id as the full IRI")
+    void encode_namespaceAndName_matchesFullIRI() {
+        int full = dictionary.encode(IRI.create("http://test.com/dictionary#Cat"));
+        int byName = dictionary.encode(NS, "Cat");
+
+        assertThat(byName).isEqualTo(full);
+        assertThat(dictionary.getIRI(byName) == dictionary.getIRI(full)).isTrue();
+        assertThat(dictionary.encode(NS, "Cat")).isEqualTo(full);
+    }
+
+    @Test
+    @DisplayName("Short forms are looked up without creating ids")
+    void lookupShortForm_returnsRegisteredId() {
+        int id = dictionary.encode(NS, "Dog");
+
+        assertThat(dictionary.lookupShortForm("Dog")).isEqualTo(id);
+        assertThat(dictionary.getShortForm(id)).isEqualTo("Dog");
+        assertThat(dictionary.lookupShortForm("Unknown")).isEqualTo(EntityDictionary.NO_ID);
+        assertThat(dictionary.lookup(IRI.create("http://test.com/dictionary#Unknown"))).isEqualTo(EntityDictionary.NO_ID);
+    }
+
+    @Test
+    @DisplayName("Released entries are dropped while live entries and their namespace keep their ids")
+    void release_dropsDeadEntriesOnly() {
+        IRI other = IRI.create("http://test.com/other#Cat");
+        int cat = dictionary.encode(NS, "Cat");
+        int otherCat = dictionary.encode(other);
+        int dog = dictionary.encode(NS, "Dog");
+
+        assertThat(dictionary.release(id -> id == dog)).isEqualTo(2);
+
+        assertThat(dictionary.getIRI(cat) == null).isTrue();
+        assertThat(dictionary.getIRI(otherCat) == null).isTrue();
+        assertThat(dictionary.lookup(other)).isEqualTo(EntityDictionary.NO_ID);
+        assertThat(dictionary.lookupShortForm("Cat")).isEqualTo(EntityDictionary.NO_ID);
+        assertThat(dictionary.encode(NS, "Dog")).isEqualTo(dog);
+        assertThat(dictionary.lookupShortForm("Dog")).isEqualTo(dog);
+        int recat = dictionary.encode(NS, "Cat");
+        assertThat(recat).isNotIn(cat, otherCat, dog);
+        assertThat(dictionary.lookupShortForm("Cat")).isEqualTo(recat);
+    }
+
+    @Test
+    @DisplayName("Tables grow past their initial capacity without losing entries")
+    void encode_manyNames_survivesRehashing() {
+        int[] ids = new int[10000];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = dictionary.encode(NS, "E" + i);
+
+        for (int i = 0; i < ids.length; i++) {
+            assertThat(dictionary.encode(NS, "E" + i)).isEqualTo(ids[i]);
+            assertThat(dictionary.lookupShortForm("E" + i)).isEqualTo(ids[i]);
+        }
+        // the namespace itself takes one id
+        assertThat(dictionary.size()).isEqualTo(ids.length + 1);
+    }
+
+    @Test
+    @DisplayName("Threads encoding the same names concurrently agree on their ids")
+    void encode_concurrentThreads_assignOneIdPerName() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> {
+                    int[] ids = new int[2000];
+                    for (int i = 0; i < ids.length; i++)
+                        ids[i] = dictionary.encode(NS, "C" + i);
+                    return ids;
+                }));
+            }
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results)
+                assertThat(result.get()).containsExactly(first);
+            assertThat(dictionary.size()).isEqualTo(first.length + 1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
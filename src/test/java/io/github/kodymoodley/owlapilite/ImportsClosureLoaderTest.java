@@ -0,0 +1,167 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.SimpleIRIMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Tests loading of imports closures with level-parallel import resolution
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class ImportsClosureLoaderTest {
+
+    private static final String NS = "http://example.org/imports/";
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Writes a diamond: root imports left and right, both of which import base. Import IRIs are http IRIs which
+     * are mapped to the files in the temporary directory.
+     */
+    private OWLOntologyManager writeDiamond(OWLOntologyManager manager) throws Exception {
+        write("base", "", "Declaration(Class(<" + NS + "base#IcShape>))");
+        write("left", "base", "SubClassOf(<" + NS + "left#IcCircle> <" + NS + "base#IcShape>)");
+        write("right", "base", "SubClassOf(<" + NS + "right#IcSquare> <" + NS + "base#IcShape>)");
+        write("root", "left right", "SubClassOf(<" + NS + "root#IcUnitCircle> <" + NS + "left#IcCircle>)");
+        for (String name : new String[] { "base", "left", "right", "root" })
+            manager.getIRIMappers().add(new SimpleIRIMapper(IRI.create(NS + name), IRI.create(dir.resolve(name + ".ofn").toFile())));
+        return manager;
+    }
+
+    private void write(String name, String imports, String axiom) throws Exception {
+        StringBuilder document = new StringBuilder("Ontology(<" + NS + name + ">\n");
+        for (String imported : imports.split(" "))
+            if (!imported.isEmpty())
+                document.append("Import(<" + NS + imported + ">)\n");
+        document.append(axiom).append(")\n");
+        Files.writeString(dir.resolve(name + ".ofn"), document.toString());
+    }
+
+    @Test
+    @DisplayName("A diamond of imports is loaded level by level and the shared import is parsed once")
+    void load_diamond_parsesSharedImportOnce() throws Exception {
+        OWLOntologyManager manager = writeDiamond(OWLManager.createOWLOntologyManager());
+        ImportsClosureLoader loader = new ImportsClosureLoader(manager, 4);
+
+        OWLOntology root = loader.load(IRI.create(dir.resolve("root.ofn").toFile()));
+
+        assertThat(root.importsClosure().count()).isEqualTo(4);
+        assertThat(manager.ontologies().count()).isEqualTo(4);
+        assertThat(loader.getLoaded()).isEqualTo(4);
+        assertThat(loader.getReused()).isZero();
+        assertThat(loader.getDepth()).isEqualTo(2);
+        assertThat(root.getAxiomCount(org.semanticweb.owlapi.model.parameters.Imports.INCLUDED))
+            .isGreaterThan(root.getAxiomCount());
+    }
+
+    @Test
+    @DisplayName("Imports already in the workspace are reused instead of loaded again")
+    void load_existingImports_areReused() throws Exception {
+        OWLOntologyManager manager = writeDiamond(OWLManager.createOWLOntologyManager());
+        ImportsClosureLoader loader = new ImportsClosureLoader(manager, 2);
+        loader.load(IRI.create(dir.resolve("left.ofn").toFile()));
+
+        loader.load(IRI.create(dir.resolve("root.ofn").toFile()));
+
+        assertThat(manager.ontologies().count()).isEqualTo(4);
+        assertThat(loader.getLoaded()).isEqualTo(2);
+        assertThat(loader.getReused()).isEqualTo(2);
+        assertThat(loader.getDepth()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Import locations are resolved on the worker threads")
+    void load_resolvesImportsOffTheCallingThread() throws Exception {
+        writeDiamond(OWLManager.createOWLOntologyManager());
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        java.util.Set<Thread> resolvers = java.util.concurrent.ConcurrentHashMap.newKeySet();
+        manager.getIRIMappers().add((OWLOntologyIRIMapper) iri -> {
+            resolvers.add(Thread.currentThread());
+            return IRI.create(dir.resolve(iri.toString().substring(NS.length()) + ".ofn").toFile());
+        });
+        ImportsClosureLoader loader = new ImportsClosureLoader(manager, 2);
+
+        loader.load(IRI.create(dir.resolve("root.ofn").toFile()));
+
+        assertThat(resolvers).isNotEmpty().doesNotContain(Thread.currentThread());
+    }
+
+    @Test
+    @DisplayName("A missing import fails the load")
+    void load_missingImport_throws() throws Exception {
+        Files.writeString(dir.resolve("broken.ofn"),
+            "Ontology(<" + NS + "broken>\nImport(<" + dir.resolve("absent.ofn").toUri() + ">)\n)\n");
+        ImportsClosureLoader loader = new ImportsClosureLoader(OWLManager.createOWLOntologyManager(), 2);
+
+        assertThatThrownBy(() -> loader.load(IRI.create(dir.resolve("broken.ofn").toFile())))
+            .isInstanceOf(OWLOntologyCreationException.class);
+    }
+
+    @Test
+    @DisplayName("Factory loadWithImports selects the root and includes the imports closure in stats and queries")
+    void factory_loadWithImports_includesClosure() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        String base = dir.resolve("fbase.ofn").toUri().toString();
+        String left = dir.resolve("fleft.ofn").toUri().toString();
+        String right = dir.resolve("fright.ofn").toUri().toString();
+        Files.writeString(dir.resolve("fbase.ofn"), "Ontology(<" + base + ">\nDeclaration(Class(<" + NS + "IcPolygon>)))\n");
+        Files.writeString(dir.resolve("fleft.ofn"), "Ontology(<" + left + ">\nImport(<" + base + ">)\n"
+            + "SubClassOf(<" + NS + "IcTriangle> <" + NS + "IcPolygon>))\n");
+        Files.writeString(dir.resolve("fright.ofn"), "Ontology(<" + right + ">\nImport(<" + base + ">)\n"
+            + "SubClassOf(<" + NS + "IcPentagon> <" + NS + "IcPolygon>))\n");
+        Files.writeString(dir.resolve("froot.ofn"), "Ontology(<" + NS + "froot>\nImport(<" + left + ">)\nImport(<" + right
+            + ">)\nSubClassOf(<" + NS + "IcRightTriangle> <" + NS + "IcTriangle>))\n");
+
+        OWLOntology root = factory.loadWithImports(dir.resolve("froot.ofn").toString());
+
+        assertThat(root).isNotNull();
+        assertThat(factory.getOntology()).isSameAs(root);
+        assertThat(factory.owlReasoner.imports).isEqualTo(org.semanticweb.owlapi.model.parameters.Imports.INCLUDED);
+        PrintStream out = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buffer));
+        try {
+            factory.printOntologyStats();
+        } finally {
+            System.setOut(out);
+        }
+        assertThat(buffer.toString()).contains("including 3 imports").contains("Number of SubClassOf axioms: 3");
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Tests chunked streaming of N-Triples documents into an ontology
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NTriplesStreamLoaderTest {
+
+    private static final String NS = "http://test.com/nt#";
+    private static final String RDF_TYPE = "<http://www.w3.org/1999/02/22-rdf-syntax-ns#type>";
+
+    private OWLAPILiteFactory factory;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        factory = OWLAPILiteFactory.getInstance();
+    }
+
+    private static String iri(String name) {
+        return "<" + NS + name + ">";
+    }
+
+    @Test
+    @DisplayName("Triples are translated to axioms across chunk boundaries")
+    void load_smallChunks_translatesAllTriples() throws Exception {
+        factory.createOntology("http://test.com/ntload1#");
+        StringBuilder nt = new StringBuilder("# comment line\n");
+        nt.append(iri("Mammal")).append(' ').append(RDF_TYPE).append(" <http://www.w3.org/2002/07/owl#Class> .\n");
+        nt.append(iri("Whale")).append(" <http://www.w3.org/2000/01/rdf-schema#subClassOf> ").append(iri("Mammal")).append(" .\n");
+        nt.append(iri("swimsWith")).append(' ').append(RDF_TYPE).append(" <http://www.w3.org/2002/07/owl#ObjectProperty> .\n");
+        for (int i = 0; i < 200; i++) {
+            nt.append(iri("whale" + i)).append(' ').append(RDF_TYPE).append(' ').append(iri("Whale")).append(" .\n");
+            nt.append(iri("whale" + i)).append(' ').append(iri("swimsWith")).append(' ').append(iri("whale" + (i + 1))).append(" .\n");
+        }
+        nt.append(iri("whale0")).append(" <http://www.w3.org/2000/01/rdf-schema#label> \"Moby \\\"D\\\" \\u00e9\"@en .\n");
+        nt.append(iri("whale0")).append(' ').append(iri("weightKg")).append(" \"150000\"^^<http://www.w3.org/2001/XMLSchema#integer> .\n");
+        nt.append("_:b0 ").append(RDF_TYPE).append(' ').append(iri("Whale")).append(" .\n");
+        Path file = tempDir.resolve("whales.nt");
+        Files.writeString(file, nt.toString());
+
+        NTriplesStreamLoader loader = factory.createNTriplesLoader().setChunkSize(1024).setProgress(false);
+        loader.load(file);
+
+        OWLOntology ontology = factory.getOntology();
+        assertThat(loader.getTriples()).isEqualTo(406);
+        assertThat(loader.getSkipped()).isEqualTo(1);
+        assertThat(ontology.axioms(AxiomType.CLASS_ASSERTION).count()).isEqualTo(200);
+        assertThat(ontology.axioms(AxiomType.OBJECT_PROPERTY_ASSERTION).count()).isEqualTo(200);
+        assertThat(ontology.axioms(AxiomType.SUBCLASS_OF).count()).isEqualTo(1);
+        assertThat(ontology.axioms(AxiomType.DATA_PROPERTY_ASSERTION).count()).isEqualTo(1);
+        OWLAnnotationAssertionAxiom label = ontology.axioms(AxiomType.ANNOTATION_ASSERTION).findFirst().get();
+        assertThat(label.getValue().asLiteral().get().getLiteral()).isEqualTo("Moby \"D\" \u00e9");
+        assertThat(label.getValue().asLiteral().get().getLang()).isEqualTo("en");
+    }
+
+    @Test
+    @DisplayName("Loaded entities can be used in Manchester syntax afterwards")
+    void loadFromNTriples_registersVocabularyWithParser() throws Exception {
+        factory.createOntology("http://test.com/ntload2#");
+        Path file = tempDir.resolve("orcas.nt");
+        Files.writeString(file, iri("shamu") + " " + iri("huntsWith") + " " + iri("tilikum") + " .\n"
+                + iri("shamu") + " " + RDF_TYPE + " " + iri("Orca") + " .");
+
+        factory.loadFromNTriples(file.toString());
+
+        OWLAxiom axiom = factory.createAxiom("shamu Type: huntsWith value tilikum");
+        assertThat(axiom).isNotNull();
+        assertThat(factory.getOntology().containsClassInSignature(IRI.create(NS + "Orca"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Property typing does not depend on triple order and malformed escapes only skip their line")
+    void load_propertyAxiomsBeforeDeclaration_typedByDeclaration() throws Exception {
+        factory.createOntology("http://test.com/ntload3#");
+        String rdfs = "http://www.w3.org/2000/01/rdf-schema#";
+        StringBuilder nt = new StringBuilder();
+        nt.append(iri("ageYears")).append(" <").append(rdfs).append("domain> ").append(iri("Sailor")).append(" .\n");
+        nt.append(iri("ageYears")).append(" <").append(rdfs).append("range> <http://www.w3.org/2001/XMLSchema#integer> .\n");
+        nt.append(iri("sailsWith")).append(" <").append(rdfs).append("domain> ").append(iri("Sailor")).append(" .\n");
+        nt.append(iri("ahab")).append(' ').append(RDF_TYPE).append(' ').append(iri("Capta\\u00zzin")).append(" .\n");
+        nt.append(iri("ahab")).append(' ').append(RDF_TYPE).append(' ').append(iri("Capta\\u00")).append(" .\n");
+        nt.append(iri("ageYears")).append(' ').append(RDF_TYPE).append(" <http://www.w3.org/2002/07/owl#DatatypeProperty> .\n");
+        nt.append(iri("ahab")).append(' ').append(RDF_TYPE).append(' ').append(iri("Sailor")).append(" .\n");
+        Path file = tempDir.resolve("sailors.nt");
+        Files.writeString(file, nt.toString());
+
+        NTriplesStreamLoader loader = factory.createNTriplesLoader().setProgress(false);
+        loader.load(file);
+
+        OWLOntology ontology = factory.getOntology();
+        assertThat(loader.getSkipped()).isEqualTo(2);
+        assertThat(ontology.axioms(AxiomType.DATA_PROPERTY_DOMAIN).count()).isEqualTo(1);
+        assertThat(ontology.axioms(AxiomType.DATA_PROPERTY_RANGE).count()).isEqualTo(1);
+        assertThat(ontology.axioms(AxiomType.OBJECT_PROPERTY_DOMAIN).count()).isEqualTo(1);
+        assertThat(ontology.axioms(AxiomType.OBJECT_PROPERTY_RANGE).count()).isZero();
+        assertThat(ontology.axioms(AxiomType.CLASS_ASSERTION).count()).isEqualTo(1);
+    }
+}
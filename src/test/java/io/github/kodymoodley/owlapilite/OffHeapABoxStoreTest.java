@@ -0,0 +1,182 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.semanticweb.owlapi.model.*;
+
+import io.github.kodymoodley.owlapilite.testutils.TestUtils;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Tests the off-heap ABox store and its use by the factory and reasoner
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OffHeapABoxStoreTest {
+
+    private OWLAPILiteFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = OWLAPILiteFactory.getInstance();
+    }
+
+    @Test
+    @DisplayName("Stored records are decoded lazily as axioms")
+    void axioms_decodesStoredRecords() {
+        EntityDictionary dictionary = new EntityDictionary();
+        IRI ns = IRI.create("http://test.com/offheap#");
+        OffHeapABoxStore store = new OffHeapABoxStore(dictionary);
+        int felix = dictionary.encode(ns, "felix");
+        int tom = dictionary.encode(ns, "tom");
+        int cat = dictionary.encode(ns, "Cat");
+        int knows = dictionary.encode(ns, "knows");
+
+        store.addIndividual(felix);
+        store.addClassAssertion(felix, cat);
+        store.addObjectPropertyAssertion(felix, knows, tom);
+
+        assertThat(store.individualCount()).isEqualTo(1);
+        assertThat(store.classAssertionCount()).isEqualTo(1);
+        assertThat(store.objectPropertyAssertionCount()).isEqualTo(1);
+        assertThat(store.individualIds().toArray()).containsExactlyInAnyOrder(felix, tom);
+        assertThat(store.typesOf(felix).toArray()).containsExactly(cat);
+        assertThat(store.axioms(new OWLDataFactoryImpl()).map(a -> a.getAxiomType().getName()))
+            .containsExactly("Declaration", "ClassAssertion", "ObjectPropertyAssertion");
+    }
+
+    @Test
+    @DisplayName("Records spanning several segments are read back intact")
+    void addObjectPropertyAssertion_manyRecords_spansSegments() {
+        OffHeapABoxStore store = new OffHeapABoxStore(new EntityDictionary());
+        int n = 500000;
+        for (int i = 0; i < n; i++)
+            store.addObjectPropertyAssertion(i, 7, i + 1);
+
+        assertThat(store.objectPropertyAssertionCount()).isEqualTo(n);
+        assertThat(store.propertyValues(p -> p == 7).mapToLong(pair -> pair[1] - pair[0]).sum()).isEqualTo(n);
+    }
+
+    @Test
+    @DisplayName("Reasoner queries combine off-heap assertions with the TBox")
+    void getInstances_withOffHeapABox_usesClassHierarchy() throws Exception {
+        factory.createOntology("http://test.com/offheapfactory#");
+        factory.createClasses("Pet Feline");
+        factory.createObjectProperties("chases");
+        factory.createAxiom("Feline subClassOf Pet");
+        factory.setOffHeapABox(true);
+        factory.createIndividuals("garfield odie");
+        factory.createAxiom("garfield Type: Feline");
+        factory.createObjectPropertyAssertion("garfield chases odie");
+
+        OWLOntology ontology = factory.getOntology();
+        assertThat(ontology.aboxAxioms(org.semanticweb.owlapi.model.parameters.Imports.EXCLUDED)).isEmpty();
+
+        String instances = TestUtils.captureSystemOut(() -> factory.owlReasoner.getInstances("Pet"));
+        String types = TestUtils.captureSystemOut(() -> factory.owlReasoner.getTypes("garfield"));
+        String edges = TestUtils.captureSystemOut(() -> factory.owlReasoner.getObjectPropertyAssertions("chases"));
+
+        assertThat(instances).contains("garfield");
+        assertThat(types).contains("Feline").contains("Pet");
+        assertThat(edges).contains("garfield,odie");
+    }
+
+    @Test
+    @DisplayName("Disabling the off-heap ABox moves assertions into the ontology")
+    void setOffHeapABox_disable_movesAssertions() throws Exception {
+        factory.createOntology("http://test.com/offheapmove#");
+        factory.createClasses("Cat");
+        factory.setOffHeapABox(true);
+        factory.createIndividuals("felix");
+        factory.createAxiom("felix Type: Cat");
+
+        factory.setOffHeapABox(false);
+
+        assertThat(factory.getOffHeapABox()).isNull();
+        assertThat(factory.getOntology().axioms(AxiomType.CLASS_ASSERTION).count()).isEqualTo(1);
+        assertThat(factory.getOntology().individualsInSignature().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Per-individual lookups follow the subject index")
+    void typesOf_usesSubjectIndex() {
+        OffHeapABoxStore store = new OffHeapABoxStore(new EntityDictionary());
+        for (int i = 0; i < 1000; i++) {
+            store.addClassAssertion(i, 5000 + i % 3);
+            store.addClassAssertion(i, 5000 + i % 3);
+            store.addObjectPropertyAssertion(i, 7, i + 1);
+        }
+        store.addClassAssertion(42, 6000);
+
+        assertThat(store.typesOf(42).toArray()).containsExactlyInAnyOrder(5000, 6000);
+        assertThat(store.typesOf(999999).toArray()).isEmpty();
+        assertThat(store.containsClassAssertion(42, 6000)).isTrue();
+        assertThat(store.containsClassAssertion(43, 6000)).isFalse();
+        assertThat(store.containsObjectPropertyAssertion(42, 7, 43)).isTrue();
+        assertThat(store.containsObjectPropertyAssertion(43, 7, 42)).isFalse();
+        assertThat(store.objectsOf(10, p -> p == 7).toArray()).containsExactly(11);
+        assertThat(store.individualIds().count()).isEqualTo(1001);
+        assertThat(store.instancesOf(c -> c == 6000).toArray()).containsExactly(42);
+
+        store.clear();
+        assertThat(store.typesOf(42).toArray()).isEmpty();
+        assertThat(store.individualIds().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Entailment checks consult the store; removal and consistency report it")
+    void entails_withOffHeapABox_consultsStore() throws Exception {
+        factory.createOntology("http://test.com/offheapentails#");
+        factory.createClasses("Animal Kitten");
+        factory.createObjectProperties("stalks pounces");
+        factory.createAxiom("Kitten subClassOf Animal");
+        factory.createAxiom("pounces subPropertyOf: stalks");
+        factory.setOffHeapABox(true);
+        factory.createIndividuals("nermal arlene");
+        factory.createAxiom("nermal Type: Kitten");
+        OWLAxiom edge = factory.createObjectPropertyAssertion("nermal pounces arlene");
+
+        assertThat(factory.owlReasoner.entails("nermal Type: Animal")).isTrue();
+        assertThat(factory.owlReasoner.entails("arlene Type: Animal")).isFalse();
+        // answered by the store and by the store-only short-circuit
+        assertThat(factory.owlReasoner.getReasonerEntailmentCalls()).isZero();
+        assertThat(factory.owlReasoner.entails("Kitten SubClassOf: stalks some Animal")).isFalse();
+        assertThat(factory.owlReasoner.getReasonerEntailmentCalls()).isEqualTo(1);
+
+        String consistency = TestUtils.captureSystemOut(() -> factory.owlReasoner.isConsistent());
+        assertThat(consistency).contains("off-heap ABox are not consistency checked");
+        String removal = TestUtils.captureSystemOut(() -> factory.removeAxiom("nermal Type: Kitten"));
+        assertThat(removal).contains("stored in the off-heap ABox");
+        String edgeRemoval = TestUtils.captureSystemOut(() -> factory.removeAxiom(edge));
+        assertThat(edgeRemoval).contains("stored in the off-heap ABox");
+
+        OffHeapABoxStore store = factory.getOffHeapABox();
+        factory.removeOntology(factory.getOntology());
+        assertThat(store.classAssertionCount()).isZero();
+        assertThat(store.reservedBytes()).isZero();
+    }
+}
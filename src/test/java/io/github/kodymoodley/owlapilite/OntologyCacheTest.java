@@ -0,0 +1,179 @@
+package io.github.kodymoodley.owlapilite;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Tests the local ontology cache against an in-process HTTP server
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class OntologyCacheTest {
+
+    private HttpServer server;
+    private String base;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger bodies = new AtomicInteger();
+
+    @TempDir
+    Path cacheDir;
+
+    /**
+     * Serves functional syntax documents: /base imports nothing, /main imports /base. Each document has a fixed
+     * ETag, so conditional requests are answered with 304 Not Modified.
+     */
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            String path = exchange.getRequestURI().getPath();
+            String body;
+            if (path.equals("/base")) {
+                body = "Ontology(<" + base + "/base>\nDeclaration(Class(<" + base + "/base#Shape>)))";
+            } else if (path.equals("/main")) {
+                body = "Ontology(<" + base + "/main>\nImport(<" + base + "/base>)\n"
+                    + "SubClassOf(<" + base + "/main#Circle> <" + base + "/base#Shape>))";
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            String etag = "\"" + path.hashCode() + "\"";
+            exchange.getResponseHeaders().add("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                bodies.incrementAndGet();
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Repeat fetches are revalidated instead of downloaded and identical content is stored once")
+    void fetch_revalidatesAndDeduplicates() throws Exception {
+        OntologyCache cache = new OntologyCache(cacheDir);
+
+        Path first = cache.fetch(IRI.create(base + "/base"));
+        Path second = cache.fetch(IRI.create(base + "/base"));
+        Path viaQuery = cache.fetch(IRI.create(base + "/base?format=ofn"));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(viaQuery).isEqualTo(first);
+        assertThat(cache.getDownloads()).isEqualTo(2);
+        assertThat(cache.getRevalidations()).isEqualTo(1);
+        assertThat(bodies.get()).isEqualTo(2);
+        try (var objects = Files.list(cacheDir.resolve("objects"))) {
+            assertThat(objects.count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Cached documents get the default file permissions")
+    void fetch_storesWithDefaultPermissions() throws Exception {
+        Assumptions.assumeTrue(cacheDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        OntologyCache cache = new OntologyCache(cacheDir);
+        Path object = cache.fetch(IRI.create(base + "/base"));
+        Path reference = Files.createFile(cacheDir.resolve("reference"));
+
+        assertThat(Files.getPosixFilePermissions(object)).isEqualTo(Files.getPosixFilePermissions(reference));
+    }
+
+    @Test
+    @DisplayName("Offline mode serves cached copies and refuses uncached documents without network access")
+    void fetch_offline_usesOnlyCache() throws Exception {
+        OntologyCache cache = new OntologyCache(cacheDir);
+        cache.fetch(IRI.create(base + "/base"));
+        int before = requests.get();
+
+        cache.setOffline(true);
+
+        assertThat(cache.fetch(IRI.create(base + "/base"))).exists();
+        assertThatThrownBy(() -> cache.fetch(IRI.create(base + "/main"))).hasMessageContaining("offline");
+        assertThat(requests.get()).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("Imports are resolved from the cache when the server is gone")
+    void iriMapper_resolvesImportsFromCache() throws Exception {
+        OntologyCache cache = new OntologyCache(cacheDir);
+        OWLOntologyManager online = OWLManager.createOWLOntologyManager();
+        online.getIRIMappers().add(cache);
+        online.loadOntology(IRI.create(base + "/main"));
+        server.stop(0);
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        manager.getIRIMappers().add(cache);
+        OWLOntology main = manager.loadOntology(IRI.create(base + "/main"));
+
+        assertThat(main.importsClosure().count()).isEqualTo(2);
+        assertThat(cache.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Factory loadFromURL uses the cache and honours offline mode")
+    void loadFromURL_withCache_loadsOffline() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        factory.setOntologyCache(cacheDir.toString());
+        factory.loadFromURL(base + "/base");
+        factory.removeOntology();
+
+        factory.setOfflineMode(true);
+        OWLOntology reloaded = factory.loadFromURL(base + "/base");
+        OWLOntology missing = factory.loadFromURL(base + "/main");
+
+        assertThat(reloaded).isNotNull();
+        assertThat(missing).isNull();
+        assertThat(factory.getOntologyCache().getDownloads()).isEqualTo(1);
+    }
+}
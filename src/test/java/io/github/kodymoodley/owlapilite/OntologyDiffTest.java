@@ -0,0 +1,152 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Tests the structural ontology diff and applying it as a patch
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class OntologyDiffTest {
+
+    private static final String NS = "http://example.org/diff#";
+
+    private OWLOntologyManager manager;
+    private OWLDataFactory df;
+
+    @BeforeEach
+    void setUp() {
+        manager = OWLManager.createOWLOntologyManager();
+        df = manager.getOWLDataFactory();
+    }
+
+    private OWLClass cls(String name) {
+        return df.getOWLClass(IRI.create(NS + name));
+    }
+
+    private OWLOntology release(String version, int from, int to) throws OWLOntologyCreationException {
+        OWLOntology ontology = manager.createOntology(IRI.create("http://example.org/diff/" + version));
+        for (int i = from; i < to; i++) {
+            ontology.add(df.getOWLSubClassOfAxiom(cls("DfC" + i), cls("DfC" + (i / 2))));
+            ontology.add(df.getOWLClassAssertionAxiom(cls("DfC" + i),
+                df.getOWLNamedIndividual(IRI.create(NS + "dfi" + i))));
+        }
+        return ontology;
+    }
+
+    @Test
+    @DisplayName("Added and removed axioms and entities match the set difference")
+    void compute_matchesSetDifference() throws Exception {
+        OWLOntology v1 = release("v1", 0, 3000);
+        OWLOntology v2 = release("v2", 1000, 4000);
+        v2.add(df.getOWLDisjointClassesAxiom(cls("DfC1"), cls("DfC2")));
+
+        OntologyDiff diff = OntologyDiff.compute(v1, v2);
+
+        Set<OWLAxiom> before = v1.axioms().collect(Collectors.toSet());
+        Set<OWLAxiom> after = v2.axioms().collect(Collectors.toSet());
+        Set<OWLAxiom> added = new HashSet<>(after);
+        added.removeAll(before);
+        Set<OWLAxiom> removed = new HashSet<>(before);
+        removed.removeAll(after);
+        assertThat(diff.getAddedAxioms()).hasSize(added.size()).containsExactlyInAnyOrderElementsOf(added);
+        assertThat(diff.getRemovedAxioms()).hasSize(removed.size()).containsExactlyInAnyOrderElementsOf(removed);
+        assertThat(diff.getAddedEntities()).contains(cls("DfC3999")).doesNotContain(cls("DfC1500"));
+        assertThat(diff.getRemovedEntities()).contains(df.getOWLNamedIndividual(IRI.create(NS + "dfi10")));
+        assertThat(diff.isEmpty()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Applying the diff to a copy of the old release yields the new release")
+    void applyTo_patchesOntology() throws Exception {
+        OWLOntology v1 = release("v1", 0, 500);
+        OWLOntology v2 = release("v2", 250, 800);
+        OWLOntology copy = OWLManager.createOWLOntologyManager().copyOntology(v1,
+            org.semanticweb.owlapi.model.parameters.OntologyCopy.DEEP);
+
+        OntologyDiff.compute(v1, v2).applyTo(copy);
+
+        assertThat(copy.axioms().collect(Collectors.toSet())).isEqualTo(v2.axioms().collect(Collectors.toSet()));
+        assertThat(OntologyDiff.compute(copy, v2).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Ontology annotations and imports declarations are part of the diff and the patch")
+    void applyTo_patchesAnnotationsAndImports() throws Exception {
+        OWLOntology v1 = release("v1", 0, 10);
+        OWLOntology v2 = release("v2", 0, 10);
+        OWLAnnotation oldLabel = df.getRDFSLabel("release one");
+        OWLAnnotation newLabel = df.getRDFSLabel("release two");
+        OWLImportsDeclaration upper = df.getOWLImportsDeclaration(IRI.create("http://example.org/diff/upper"));
+        v1.applyChange(new AddOntologyAnnotation(v1, oldLabel));
+        v2.applyChange(new AddOntologyAnnotation(v2, newLabel));
+        v2.applyChange(new AddImport(v2, upper));
+
+        OntologyDiff diff = OntologyDiff.compute(v1, v2);
+        assertThat(diff.getAddedAxioms()).isEmpty();
+        assertThat(diff.getAddedAnnotations()).containsExactly(newLabel);
+        assertThat(diff.getRemovedAnnotations()).containsExactly(oldLabel);
+        assertThat(diff.getAddedImports()).containsExactly(upper);
+        assertThat(diff.getRemovedImports()).isEmpty();
+        assertThat(diff.isEmpty()).isFalse();
+
+        diff.applyTo(v1);
+        assertThat(v1.annotations()).containsExactly(newLabel);
+        assertThat(v1.importsDeclarations()).containsExactly(upper);
+        assertThat(OntologyDiff.compute(v1, v2).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Factory diffOntologies compares workspace ontologies and applyDiff patches the selected one")
+    void factory_diffAndApply() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        factory.createOntology("http://example.org/diff/old");
+        factory.createClass("DfOldClass");
+        factory.createOntology("http://example.org/diff/new");
+        factory.createClass("DfNewClass");
+
+        OntologyDiff diff = factory.diffOntologies("http://example.org/diff/old", "http://example.org/diff/new");
+        factory.setOntology("http://example.org/diff/old");
+        factory.applyDiff(diff);
+
+        assertThat(diff.getAddedAxioms()).hasSize(1);
+        assertThat(diff.getRemovedAxioms()).hasSize(1);
+        assertThat(factory.diffOntologies("http://example.org/diff/old", "http://example.org/diff/new").isEmpty())
+            .isTrue();
+        assertThat(factory.diffOntologies("http://example.org/diff/old", "http://example.org/diff/missing")).isNull();
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Tests format-selectable, atomic and asynchronous ontology saving
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OntologySaverTest {
+
+    private OWLAPILiteFactory factory;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        factory = OWLAPILiteFactory.getInstance();
+    }
+
+    private static Set<OWLAxiom> logicalAxioms(OWLOntology ontology) {
+        return ontology.logicalAxioms().collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("Ontologies saved in each RDF and functional format load back with the same axioms")
+    void save_inEachFormat_roundTrips() throws Exception {
+        OWLOntology ontology = factory.createOntology("http://test.com/saver1#");
+        factory.createClasses("Violin Instrument");
+        factory.createAxiom("Violin SubClassOf: Instrument");
+
+        for (SelectedFormat format : new SelectedFormat[] { SelectedFormat.MANCHESTER, SelectedFormat.FUNCTIONAL,
+                SelectedFormat.TURTLE, SelectedFormat.RDFXML }) {
+            Path file = tempDir.resolve("saver1." + format.getExtension());
+            OntologySaver.save(ontology, file, format, false);
+
+            OWLOntology loaded = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(file.toFile());
+            assertThat(logicalAxioms(loaded)).as(format.getName()).isEqualTo(logicalAxioms(ontology));
+        }
+        try (var files = Files.list(tempDir)) {
+            assertThat(files.filter(f -> f.toString().endsWith(".tmp")).count()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Saving keeps the permissions of the replaced document, and new documents get the defaults")
+    void save_keepsFilePermissions() throws Exception {
+        Assumptions.assumeTrue(tempDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        OWLOntology ontology = factory.createOntology("http://test.com/saver4#");
+        factory.createClasses("Viola");
+        Path file = tempDir.resolve("saver4.ofn");
+        Files.createFile(file);
+        Set<PosixFilePermission> shared = PosixFilePermissions.fromString("rw-rw-r--");
+        Files.setPosixFilePermissions(file, shared);
+
+        OntologySaver.save(ontology, file, SelectedFormat.FUNCTIONAL, false);
+        assertThat(Files.getPosixFilePermissions(file)).isEqualTo(shared);
+
+        Path fresh = tempDir.resolve("saver4-new.ofn");
+        Path reference = Files.createFile(tempDir.resolve("saver4-reference"));
+        OntologySaver.save(ontology, fresh, SelectedFormat.FUNCTIONAL, false);
+        assertThat(Files.getPosixFilePermissions(fresh)).isEqualTo(Files.getPosixFilePermissions(reference));
+    }
+
+    @Test
+    @DisplayName("Gzip compressed saves are valid gzip documents")
+    void save_withGzip_writesCompressedDocument() throws Exception {
+        OWLOntology ontology = factory.createOntology("http://test.com/saver2#");
+        factory.createClasses("Cello");
+        Path file = tempDir.resolve("saver2.ofn.gz");
+
+        factory.saveOntology(file.toString(), SelectedFormat.FUNCTIONAL, true);
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            OWLOntology loaded = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(in);
+            assertThat(loaded.containsClassInSignature(IRI.create("http://test.com/saver2#Cello"))).isTrue();
+        }
+        assertThat(ontology.getAxiomCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Asynchronous saves write the ontology as it was when the save was requested")
+    void saveOntologyAsync_savesSnapshot() throws Exception {
+        factory.createOntology("http://test.com/saver3#");
+        factory.createClasses("Harp");
+        Path file = tempDir.resolve("saver3.ttl");
+
+        CompletableFuture<Path> pending = factory.saveOntologyAsync(file.toString(), SelectedFormat.TURTLE, false);
+        factory.createClasses("Lute");
+        Path saved = pending.get(30, TimeUnit.SECONDS);
+
+        assertThat(saved).isEqualTo(file);
+        OWLOntology loaded = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(file.toFile());
+        assertThat(loaded.containsClassInSignature(IRI.create("http://test.com/saver3#Harp"))).isTrue();
+        assertThat(loaded.containsClassInSignature(IRI.create("http://test.com/saver3#Lute"))).isFalse();
+    }
+}
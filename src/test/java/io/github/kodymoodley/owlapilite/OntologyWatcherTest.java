@@ -0,0 +1,175 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Tests the file watcher and its diff-based reloading
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class OntologyWatcherTest {
+
+    private static final String NS = "http://example.org/watch#";
+
+    @TempDir
+    Path dir;
+
+    private static String document(String... axioms) {
+        StringBuilder result = new StringBuilder("Ontology(<http://example.org/watch>\n");
+        for (String axiom : axioms)
+            result.append(axiom).append('\n');
+        return result.append(")\n").toString();
+    }
+
+    private static String subClassOf(String sub, String sup) {
+        return "SubClassOf(<" + NS + sub + "> <" + NS + sup + ">)";
+    }
+
+    @Test
+    @DisplayName("Reload applies only the added and removed axioms to the same ontology object")
+    void reload_appliesAxiomDiff() throws Exception {
+        Path file = dir.resolve("watch.ofn");
+        Files.writeString(file, document(subClassOf("WaCat", "WaAnimal"), subClassOf("WaDog", "WaAnimal")));
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(file.toFile());
+        OntologyWatcher watcher = new OntologyWatcher(ontology, file, null);
+
+        Files.writeString(file, document(subClassOf("WaCat", "WaAnimal"), subClassOf("WaCow", "WaAnimal")));
+        List<OWLOntologyChange> changes = watcher.reload();
+
+        OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        OWLClass animal = df.getOWLClass(IRI.create(NS + "WaAnimal"));
+        assertThat(changes.stream().filter(OWLOntologyChange::isAddAxiom).map(OWLOntologyChange::getAxiom))
+            .containsExactly(df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "WaCow")), animal));
+        assertThat(changes.stream().filter(OWLOntologyChange::isRemoveAxiom).map(OWLOntologyChange::getAxiom))
+            .containsExactly(df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "WaDog")), animal));
+        assertThat(ontology.containsAxiom(df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "WaCat")), animal)))
+            .isTrue();
+        assertThat(watcher.reload()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("An unparsable document leaves the ontology unchanged")
+    void reload_unparsable_keepsOntology() throws Exception {
+        Path file = dir.resolve("broken.ofn");
+        Files.writeString(file, document(subClassOf("WbCat", "WbAnimal")));
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(file.toFile());
+        int axioms = ontology.getAxiomCount();
+        OntologyWatcher watcher = new OntologyWatcher(ontology, file, null);
+
+        Files.writeString(file, "Ontology(<http://example.org/watch>\nSubClassOf(<" + NS + "WbCat>");
+
+        assertThatThrownBy(watcher::reload).isInstanceOf(OWLOntologyCreationException.class);
+        assertThat(ontology.getAxiomCount()).isEqualTo(axioms);
+    }
+
+    @Test
+    @DisplayName("Saving the watched file triggers a reload on the watcher thread")
+    void start_fileSaved_reloads() throws Exception {
+        Path file = dir.resolve("live.ofn");
+        Files.writeString(file, document(subClassOf("WcCat", "WcAnimal")));
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(file.toFile());
+        List<List<OWLOntologyChange>> reloads = new CopyOnWriteArrayList<>();
+        OntologyWatcher watcher = new OntologyWatcher(ontology, file, reloads::add);
+        watcher.setDebounce(50);
+        watcher.start();
+        try {
+            Files.writeString(file, document(subClassOf("WcCat", "WcAnimal"), subClassOf("WcDog", "WcAnimal")));
+            long deadline = System.currentTimeMillis() + 20000;
+            while (reloads.isEmpty() && System.currentTimeMillis() < deadline)
+                Thread.sleep(50);
+        } finally {
+            watcher.stop();
+        }
+
+        assertThat(reloads).isNotEmpty();
+        assertThat(ontology.classesInSignature().map(c -> c.getIRI().getShortForm())).contains("WcDog");
+        assertThat(watcher.isRunning()).isFalse();
+    }
+
+    @Test
+    @DisplayName("A .owl document in a syntax other than RDF/XML reloads")
+    void reload_owlExtensionWithFunctionalSyntax_reloads() throws Exception {
+        Path file = dir.resolve("functional.owl");
+        Files.writeString(file, document(subClassOf("WdCat", "WdAnimal")));
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(file.toFile());
+        OntologyWatcher watcher = new OntologyWatcher(ontology, file, null);
+
+        Files.writeString(file, document(subClassOf("WdCat", "WdAnimal"), subClassOf("WdDog", "WdAnimal")));
+
+        assertThat(watcher.reload()).hasSize(1);
+        assertThat(ontology.classesInSignature().map(c -> c.getIRI().getShortForm())).contains("WdDog");
+    }
+
+    @Test
+    @DisplayName("Reload applies its changes only while holding the owner's lock")
+    void reload_waitsForOwnerLock() throws Exception {
+        Path file = dir.resolve("locked.ofn");
+        Files.writeString(file, document(subClassOf("WeCat", "WeAnimal")));
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(file.toFile());
+        ReentrantLock lock = new ReentrantLock();
+        List<Boolean> heldByListener = new CopyOnWriteArrayList<>();
+        OntologyWatcher watcher = new OntologyWatcher(ontology, file,
+            changes -> heldByListener.add(lock.isHeldByCurrentThread()), lock);
+        Files.writeString(file, document(subClassOf("WeCat", "WeAnimal"), subClassOf("WeDog", "WeAnimal")));
+
+        int axioms = ontology.getAxiomCount();
+        CompletableFuture<List<OWLOntologyChange>> reload;
+        lock.lock();
+        try {
+            reload = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return watcher.reload();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+            long deadline = System.currentTimeMillis() + 20000;
+            while (!lock.hasQueuedThreads() && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+            assertThat(lock.hasQueuedThreads()).isTrue();
+            assertThat(ontology.getAxiomCount()).isEqualTo(axioms);
+        } finally {
+            lock.unlock();
+        }
+
+        assertThat(reload.get(20, TimeUnit.SECONDS)).hasSize(1);
+        assertThat(heldByListener).containsExactly(true);
+    }
+}
@@ -3,8 +3,14 @@ package io.github.kodymoodley.owlapilite;
 import org.junit.jupiter.api.*;
 import org.semanticweb.owlapi.model.*;
 
+import org.junit.jupiter.api.io.TempDir;
+
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import io.github.kodymoodley.owlapilite.testutils.TestUtils;
 
 import static org.assertj.core.api.Assertions.*;
@@ -154,6 +160,32 @@ class OWLAPILiteFactoryTest {
         assertThat(newFactory.getOntology().getAxiomCount()).isEqualTo(3);
     }
     
+    @Test
+    @DisplayName("Load several ontology files concurrently")
+    void loadFromFiles_loadsAllFilesAndSelectsLast(@TempDir Path dir) throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Path file = dir.resolve("module" + i + ".ofn");
+            Files.writeString(file, "Ontology(<http://test.com/module" + i + ">\n"
+                + "Declaration(Class(<http://test.com/module" + i + "#Part" + i + ">))\n"
+                + "SubClassOf(<http://test.com/module" + i + "#Part" + i + "> <http://test.com/module" + i + "#Whole" + i + ">)\n)");
+            files.add(file);
+        }
+        files.add(dir.resolve("missing.ofn"));
+
+        List<OWLOntology> loaded = factory.loadFromFiles(files);
+
+        assertThat(loaded).hasSize(4);
+        assertThat(factory.getOntology()).isSameAs(loaded.get(3));
+        assertThat(loaded.get(0).getOWLOntologyManager()).isSameAs(factory.getOntology().getOWLOntologyManager());
+        assertThat(factory.createClassExpression("Part0 and Whole2")).isNotNull();
+        String output = testOutput.toString();
+        assertThat(output)
+            .contains("from '" + files.get(1) + "' in ")
+            .contains("LOADING ERROR")
+            .contains("Loaded 4 of 5 ontology files");
+    }
+
     @Test
     @DisplayName("Set different reasoners successfully")
     void setOWLReasoner_changesReasoner() {
@@ -177,4 +209,157 @@ class OWLAPILiteFactoryTest {
             .contains("Number of classes: 3")
             .contains("Number of axioms");
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("Transaction buffers changes until commit and applies them in one batch")
+    void commit_appliesBufferedChangesInOneBatch() throws Exception {
+        OWLOntology ontology = factory.createOntology("http://test.com/tx#");
+        List<Integer> batches = new ArrayList<>();
+        ontology.getOWLOntologyManager().addOntologyChangeListener(changes -> batches.add(changes.size()));
+        
+        factory.beginTransaction();
+        factory.createClasses("TxA TxB");
+        factory.createObjectProperty("txPart");
+        factory.makeTransitive("txPart");
+        factory.createAxiom("TxA SubClassOf txPart some TxB");
+        
+        assertThat(ontology.getAxiomCount()).isZero();
+        assertThat(factory.inTransaction()).isTrue();
+        assertThat(factory.commit()).isEqualTo(5);
+        assertThat(batches).containsExactly(5);
+        assertThat(ontology.getAxiomCount()).isEqualTo(5);
+        assertThat(factory.inTransaction()).isFalse();
+    }
+    
+    @Test
+    @DisplayName("Rollback discards buffered changes")
+    void rollback_discardsBufferedChanges() throws Exception {
+        OWLOntology ontology = factory.createOntology("http://test.com/txrollback#");
+        factory.createClass("TxKept");
+        
+        factory.beginTransaction();
+        factory.createClass("TxDiscarded");
+        factory.removeClass("TxKept");
+        factory.rollback();
+        
+        assertThat(ontology.classesInSignature().map(c -> c.getIRI().getShortForm())).containsExactly("TxKept");
+        assertThat(factory.commit()).isZero();
+        assertThat(testOutput.toString()).contains("no open transaction to commit");
+    }
+    
+    @Test
+    @DisplayName("Removing several entities or resetting applies one batch")
+    void removeClasses_appliesOneBatch() throws Exception {
+        OWLOntology ontology = factory.createOntology("http://test.com/txremove#");
+        factory.createClasses("RmA RmB RmC");
+        factory.createIndividuals("rma rmb");
+        List<Integer> batches = new ArrayList<>();
+        ontology.getOWLOntologyManager().addOntologyChangeListener(changes -> batches.add(changes.size()));
+        
+        factory.removeClasses("RmA RmB");
+        factory.removeIndividuals("rma rmb");
+        assertThat(batches).containsExactly(2, 2);
+        assertThat(ontology.getAxiomCount()).isEqualTo(1);
+        
+        factory.createClass("RmD");
+        batches.clear();
+        factory.resetOntology();
+        assertThat(batches).containsExactly(2);
+        assertThat(ontology.getAxiomCount()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Commit reports changes to an ontology removed during the transaction")
+    void commit_afterOntologyRemoved_reportsError() throws Exception {
+        factory.createOntology("http://test.com/txkept#");
+        OWLOntology removed = factory.createOntology("http://test.com/txgone#");
+        factory.beginTransaction();
+        factory.createClasses("GoneA GoneB");
+        factory.removeOntology(removed);
+        
+        assertThat(factory.commit()).isZero();
+        assertThat(factory.inTransaction()).isFalse();
+        assertThat(testOutput.toString())
+            .contains("OWLAPI-Lite ERROR: 2 changes target an ontology which was removed");
+    }
+    
+    @Test
+    @DisplayName("Removing an ontology releases the dictionary entries only it used")
+    void removeOntology_releasesDictionaryEntries() throws Exception {
+        factory.createOntology("http://test.com/dictkept#");
+        factory.createClass("DictKept");
+        OWLOntology removed = factory.createOntology("http://test.com/dictgone#");
+        factory.createClass("DictGone");
+        EntityDictionary dictionary = factory.getDictionary();
+        assertThat(dictionary.lookup(IRI.create("http://test.com/dictgone#DictGone")))
+            .isNotEqualTo(EntityDictionary.NO_ID);
+        
+        factory.removeOntology(removed);
+        
+        assertThat(dictionary.lookup(IRI.create("http://test.com/dictgone#DictGone")))
+            .isEqualTo(EntityDictionary.NO_ID);
+        assertThat(dictionary.lookup(IRI.create("http://test.com/dictkept#DictKept")))
+            .isNotEqualTo(EntityDictionary.NO_ID);
+    }
+    
+    @Test
+    @DisplayName("A held AsyncReasoner queries the new reasoner after the reasoner is replaced")
+    void setOWLReasoner_rebindsHeldAsyncReasoner() throws Exception {
+        factory.createOntology("http://test.com/asyncrebind#");
+        factory.createClasses("RebindA RebindB");
+        factory.createAxiom("RebindA SubClassOf: RebindB");
+        AsyncReasoner held = factory.getAsyncReasoner();
+        
+        factory.setOWLReasoner(SelectedReasoner.JFACT);
+        
+        assertThat(held.getReasoner()).isSameAs(factory.owlReasoner);
+        assertThat(factory.getAsyncReasoner()).isSameAs(held);
+        assertThat(held.superClasses("RebindA").get())
+            .extracting(c -> c.getIRI().getShortForm())
+            .contains("RebindB");
+    }
+    
+    @Test
+    @DisplayName("Off-heap assertions made in a transaction are stored by commit and discarded by rollback")
+    void transaction_buffersOffHeapWrites() throws Exception {
+        factory.createOntology("http://test.com/txoffheap#");
+        factory.createClass("TxHeapC");
+        factory.createObjectProperty("txHeapP");
+        factory.setOffHeapABox(true);
+        OffHeapABoxStore store = factory.getOffHeapABox();
+        
+        factory.beginTransaction();
+        factory.createIndividuals("txheapa txheapb");
+        factory.createAxiom("txheapa Type: TxHeapC");
+        factory.createObjectPropertyAssertion("txheapa txHeapP txheapb");
+        assertThat(store.version()).isZero();
+        factory.rollback();
+        assertThat(store.version()).isZero();
+        
+        factory.beginTransaction();
+        factory.createIndividuals("txheapa txheapb");
+        factory.createAxiom("txheapa Type: TxHeapC");
+        factory.createObjectPropertyAssertion("txheapa txHeapP txheapb");
+        assertThat(factory.commit()).isEqualTo(4);
+        assertThat(store.individualCount()).isEqualTo(2);
+        assertThat(store.classAssertionCount()).isEqualTo(1);
+        assertThat(store.objectPropertyAssertionCount()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Bulk imports and off-heap switches are refused while a transaction is open")
+    void transaction_refusesBulkImports() throws Exception {
+        factory.createOntology("http://test.com/txbulk#");
+        factory.beginTransaction();
+        
+        assertThat(factory.createABoxImporter()).isNull();
+        assertThat(factory.createNTriplesLoader()).isNull();
+        factory.setOffHeapABox(true);
+        
+        assertThat(factory.getOffHeapABox()).isNull();
+        assertThat(testOutput.toString())
+            .contains("OWLAPI-Lite ERROR: bulk imports cannot be part of a transaction!")
+            .contains("OWLAPI-Lite ERROR: off-heap ABox storage cannot be changed inside a transaction!");
+        factory.rollback();
+    }
+}
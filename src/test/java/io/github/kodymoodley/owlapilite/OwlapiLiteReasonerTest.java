@@ -2,6 +2,7 @@
 package io.github.kodymoodley.owlapilite;
 
 import org.junit.jupiter.api.*;
+import org.semanticweb.owlapi.model.*;
 
 import io.github.kodymoodley.owlapilite.testutils.TestUtils;
 import static org.assertj.core.api.Assertions.*;
@@ -271,4 +272,93 @@ class OWLAPILiteReasonerTest {
         // Assert
         assertThat(output.strip()).isIn("OWL 2 EL", "OWL 2 DL");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should count and page instances and subclasses in a stable order")
+    void countAndPage_shouldBeStableAndConsistentWithSets() throws Exception {
+        createTestOntology("http://test.com/reasonerstest15#");
+        factory.createIndividuals("tom garfield");
+        factory.createAxiom("tom Type: Cat");
+        factory.createAxiom("garfield Type: Cat");
+
+        // Act
+        int instances = reasoner.countInstances("Animal");
+        java.util.List<org.semanticweb.owlapi.model.OWLNamedIndividual> first = reasoner.instancesOf("Animal", 0, 2);
+        java.util.List<org.semanticweb.owlapi.model.OWLNamedIndividual> rest = reasoner.instancesOf("Animal", 2, 50);
+
+        // Assert
+        assertThat(instances).isEqualTo(4).isEqualTo(reasoner.instancesOf("Animal").size());
+        assertThat(first).hasSize(2);
+        assertThat(rest).hasSize(2).doesNotContainAnyElementsOf(first);
+        assertThat(reasoner.instancesOf("Animal", 0, 2)).isEqualTo(first);
+        assertThat(reasoner.instancesOf("Animal", 10, 5)).isEmpty();
+        assertThat(reasoner.countSubClasses("Animal")).isEqualTo(reasoner.subClassesOf("Animal").size()).isEqualTo(3);
+        assertThat(reasoner.subClassesOf("Animal", 1, 1)).hasSize(1);
+        assertThatThrownBy(() -> reasoner.instancesOf("Animal", -1, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Cached counts should follow ontology changes")
+    void countInstances_afterOntologyChange_shouldBeRecomputed() throws Exception {
+        createTestOntology("http://test.com/reasonerstest16#");
+        assertThat(reasoner.countInstances("Mammal")).isEqualTo(2);
+
+        // Act
+        factory.createIndividuals("lassie");
+        factory.createAxiom("lassie Type: Dog");
+
+        // Assert
+        assertThat(reasoner.countInstances("Mammal")).isEqualTo(3);
+        String output = TestUtils.captureSystemOut(() -> reasoner.getInstances("Mammal", 1, 1));
+        assertThat(output).contains("(1 of 3 from offset 1)");
+    }
+
+    @Test
+    @DisplayName("Replacing the reasoner should stop the old one tracking changes")
+    void setOWLReasoner_disposesPreviousReasoner() throws Exception {
+        createTestOntology("http://test.com/reasonerstest17#");
+        OWLAPILiteReasoner previous = factory.owlReasoner;
+        java.lang.reflect.Field changes = OWLAPILiteReasoner.class.getDeclaredField("ontologyChanges");
+        changes.setAccessible(true);
+        java.util.concurrent.atomic.AtomicLong counter = (java.util.concurrent.atomic.AtomicLong) changes.get(previous);
+
+        // Act
+        factory.setOWLReasoner(SelectedReasoner.JFACT);
+        long before = counter.get();
+        factory.createIndividuals("garfield");
+
+        // Assert
+        assertThat(factory.owlReasoner).isNotSameAs(previous);
+        assertThat(counter.get()).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("Only changes in the imports closure should invalidate cached answers")
+    void ontologyChanges_outsideImportsClosure_areIgnored() throws Exception {
+        createTestOntology("http://test.com/reasonerstest18#");
+        java.lang.reflect.Field changes = OWLAPILiteReasoner.class.getDeclaredField("ontologyChanges");
+        changes.setAccessible(true);
+        java.util.concurrent.atomic.AtomicLong counter = (java.util.concurrent.atomic.AtomicLong) changes.get(reasoner);
+        OWLOntologyManager manager = reasoner.ontology.getOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        IRI otherIRI = IRI.create("http://test.com/reasonerstest18other");
+        OWLOntology other = manager.createOntology(otherIRI);
+        OWLImportsDeclaration importOther = df.getOWLImportsDeclaration(otherIRI);
+        try {
+            long before = counter.get();
+
+            // Act & Assert: an unrelated ontology of the same manager
+            other.add(df.getOWLDeclarationAxiom(df.getOWLClass(IRI.create(otherIRI + "#Unrelated"))));
+            assertThat(counter.get()).isEqualTo(before);
+
+            // once imported, its changes count
+            reasoner.ontology.applyChange(new AddImport(reasoner.ontology, importOther));
+            assertThat(counter.get()).isEqualTo(before + 1);
+            other.add(df.getOWLDeclarationAxiom(df.getOWLClass(IRI.create(otherIRI + "#Imported"))));
+            assertThat(counter.get()).isEqualTo(before + 2);
+        } finally {
+            reasoner.ontology.applyChange(new RemoveImport(reasoner.ontology, importOther));
+            manager.removeOntology(other);
+        }
+    }
+}
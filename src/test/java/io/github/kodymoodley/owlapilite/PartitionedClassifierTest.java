@@ -0,0 +1,211 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.semanticweb.HermiT.ReasonerFactory;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+/**
+ * Tests partitioned, parallel classification against whole-ontology
+ * classification
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class PartitionedClassifierTest {
+
+    private static final String NS = "http://test.com/partitioned#";
+
+    private OWLOntologyManager manager;
+    private OWLDataFactory df;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        manager = OWLManager.createOWLOntologyManager();
+        df = manager.getOWLDataFactory();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private OWLClass cls(String name) {
+        return df.getOWLClass(IRI.create(NS + name));
+    }
+
+    private OWLObjectProperty prop(String name) {
+        return df.getOWLObjectProperty(IRI.create(NS + name));
+    }
+
+    private List<String> differences(OWLOntology ontology) {
+        PartitionedClassifier.Taxonomy taxonomy = new PartitionedClassifier(new ReasonerFactory(), ontology)
+            .classify(executor);
+        OWLReasoner whole = new ReasonerFactory().createReasoner(ontology);
+        try {
+            return taxonomy.differences(whole);
+        } finally {
+            whole.dispose();
+        }
+    }
+
+    /**
+     * a random ontology of loosely connected modules: most axioms stay within a
+     * module, a few connect two modules
+     */
+    private OWLOntology randomOntology(long seed, int modules) throws Exception {
+        Random random = new Random(seed);
+        OWLOntology ontology = manager.createOntology(IRI.create(NS + "random" + seed));
+        int classes = 8;
+        List<OWLAxiom> axioms = new ArrayList<OWLAxiom>();
+        for (int m = 0; m < modules; m++) {
+            for (int i = 0; i < 12; i++) {
+                int other = random.nextInt(10) == 0 ? random.nextInt(modules) : m;
+                OWLClass a = cls("M" + m + "C" + random.nextInt(classes));
+                OWLClass b = cls("M" + other + "C" + random.nextInt(classes));
+                OWLClass c = cls("M" + m + "C" + random.nextInt(classes));
+                OWLObjectProperty r = prop("m" + m + "r" + random.nextInt(2));
+                switch (random.nextInt(7)) {
+                case 0: axioms.add(df.getOWLSubClassOfAxiom(a, b)); break;
+                case 1: axioms.add(df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(r, b))); break;
+                case 2: axioms.add(df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(r, b), c)); break;
+                case 3: axioms.add(df.getOWLSubClassOfAxiom(df.getOWLObjectIntersectionOf(a, b), c)); break;
+                case 4: if (random.nextInt(3) == 0) axioms.add(df.getOWLDisjointClassesAxiom(a, c)); break;
+                case 5: axioms.add(df.getOWLEquivalentClassesAxiom(a, df.getOWLObjectIntersectionOf(b,
+                    df.getOWLObjectSomeValuesFrom(r, c)))); break;
+                default: axioms.add(df.getOWLObjectPropertyDomainAxiom(r, c)); break;
+                }
+            }
+        }
+        // some corpora have an ABox, some also use nominals in the TBox
+        for (int i = 0; seed % 2 == 0 && i < 6; i++)
+            axioms.add(df.getOWLClassAssertionAxiom(cls("M0C" + random.nextInt(classes)),
+                df.getOWLNamedIndividual(IRI.create(NS + "i" + random.nextInt(3)))));
+        if (seed % 3 == 0)
+            axioms.add(df.getOWLSubClassOfAxiom(cls("M1C" + random.nextInt(classes)),
+                df.getOWLObjectHasValue(prop("m1r0"), df.getOWLNamedIndividual(IRI.create(NS + "i0")))));
+        manager.addAxioms(ontology, axioms.stream());
+        return ontology;
+    }
+
+    @Test
+    @DisplayName("Splits loosely connected modules into partitions")
+    void partitions_followSignatureConnectivity() throws Exception {
+        OWLOntology ontology = manager.createOntology(IRI.create(NS + "modules"));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(cls("Dog"), cls("Animal")));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(cls("Cat"), df.getOWLObjectSomeValuesFrom(prop("eats"),
+            cls("Animal"))));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(cls("Car"), cls("Vehicle")));
+        manager.addAxiom(ontology, df.getOWLDeclarationAxiom(cls("Lonely")));
+        // assertions do not connect partitions
+        manager.addAxiom(ontology, df.getOWLClassAssertionAxiom(cls("Dog"), df.getOWLNamedIndividual(IRI.create(NS + "x"))));
+        manager.addAxiom(ontology, df.getOWLClassAssertionAxiom(cls("Car"), df.getOWLNamedIndividual(IRI.create(NS + "x"))));
+
+        PartitionedClassifier classifier = new PartitionedClassifier(new ReasonerFactory(), ontology);
+        assertThat(classifier.getPartitions()).hasSize(3);
+        assertThat(classifier.getPartitions().get(0)).containsExactlyInAnyOrder(cls("Dog"), cls("Animal"), cls("Cat"),
+            prop("eats"));
+
+        PartitionedClassifier.Taxonomy taxonomy = classifier.classify(executor);
+        assertThat(taxonomy.getPartitionCount()).isEqualTo(2);
+        assertThat(taxonomy.superClassesOf(cls("Dog"))).containsExactlyInAnyOrder(cls("Animal"), df.getOWLThing());
+        assertThat(taxonomy.subClassesOf(cls("Vehicle"))).containsExactly(cls("Car"));
+        assertThat(taxonomy.superClassesOf(cls("Lonely"))).containsExactly(df.getOWLThing());
+        assertThat(differences(ontology)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Agrees with whole-ontology classification on non-local axioms and unsatisfiable classes")
+    void taxonomy_handlesGlobalAxioms() throws Exception {
+        OWLOntology ontology = manager.createOntology(IRI.create(NS + "global"));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(df.getOWLThing(), cls("Entity")));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(cls("Dog"), cls("Animal")));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(cls("Car"), cls("Vehicle")));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(cls("Robot"), df.getOWLObjectIntersectionOf(cls("Vehicle"),
+            df.getOWLObjectComplementOf(cls("Vehicle")))));
+
+        PartitionedClassifier.Taxonomy taxonomy = new PartitionedClassifier(new ReasonerFactory(), ontology)
+            .classify(executor);
+        assertThat(taxonomy.superClassesOf(cls("Dog"))).contains(cls("Entity"));
+        assertThat(taxonomy.getUnsatisfiableClasses()).containsExactly(cls("Robot"));
+        assertThat(differences(ontology)).isEmpty();
+
+        manager.addAxiom(ontology, df.getOWLClassAssertionAxiom(cls("Robot"), df.getOWLNamedIndividual(IRI.create(NS + "r2"))));
+        assertThat(new PartitionedClassifier(new ReasonerFactory(), ontology).classify(executor).isConsistent()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Agrees with whole-ontology classification on a corpus of random modular ontologies")
+    void taxonomy_matchesWholeClassificationOnCorpus() throws Exception {
+        for (long seed = 1; seed <= 12; seed++) {
+            OWLOntology ontology = randomOntology(seed, 2 + (int) (seed % 4));
+            assertThat(differences(ontology)).as("seed " + seed).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Answers hierarchy queries from the merged taxonomy until the ontology changes")
+    void factory_classifiesInParallel() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        factory.createOntology("http://test.com/parallelfactory#");
+        factory.createClasses("PcAnimal PcDog PcPuppy PcCar PcVehicle");
+        factory.createAxiom("PcDog subClassOf PcAnimal");
+        factory.createAxiom("PcPuppy subClassOf PcDog");
+        factory.createAxiom("PcCar subClassOf PcVehicle");
+        factory.setParallelClassification(true);
+
+        OWLAPILiteReasoner reasoner = factory.owlReasoner;
+        assertThat(reasoner.isClassifiedInParallel()).isTrue();
+        assertThat(reasoner.superClassesOf("PcPuppy")).extracting(c -> c.getIRI().getShortForm())
+            .containsExactlyInAnyOrder("PcDog", "PcAnimal");
+        assertThat(reasoner.subClassesOf("PcAnimal")).extracting(c -> c.getIRI().getShortForm())
+            .containsExactlyInAnyOrder("PcDog", "PcPuppy");
+        assertThat(reasoner.subClassesOf("PcAnimal or PcVehicle")).extracting(c -> c.getIRI().getShortForm())
+            .containsExactlyInAnyOrder("PcAnimal", "PcVehicle", "PcDog", "PcPuppy", "PcCar");
+
+        factory.createAxiom("PcVehicle subClassOf PcAnimal");
+        assertThat(reasoner.isClassifiedInParallel()).isFalse();
+        assertThat(reasoner.subClassesOf("PcAnimal")).extracting(c -> c.getIRI().getShortForm())
+            .containsExactlyInAnyOrder("PcDog", "PcPuppy", "PcCar", "PcVehicle");
+        factory.setParallelClassification(false);
+        assertThat(factory.owlReasoner.isClassifiedInParallel()).isFalse();
+    }
+}
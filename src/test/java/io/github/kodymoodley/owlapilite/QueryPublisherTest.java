@@ -0,0 +1,210 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Tests streaming of query results with backpressure through QueryPublisher
+ * and the AsyncReasoner publishers
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class QueryPublisherTest {
+
+    private OWLAPILiteFactory factory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        factory = OWLAPILiteFactory.getInstance();
+        factory.createOntology("http://test.com/querypublisher#");
+        factory.createClasses("QpAnimal QpCat QpDog");
+        factory.createIndividuals("qpfelix qptom qprex");
+        factory.createObjectProperties("qpchases");
+        factory.createAxiom("QpCat subClassOf QpAnimal");
+        factory.createAxiom("QpDog subClassOf QpAnimal");
+        factory.createAxiom("qpfelix Type: QpCat");
+        factory.createAxiom("qptom Type: QpCat");
+        factory.createAxiom("qprex Type: QpDog");
+        factory.createObjectPropertyAssertion("qprex qpchases qpfelix");
+        factory.createObjectPropertyAssertion("qprex qpchases qptom");
+    }
+
+    /**
+     * Subscriber which records what it receives and requests only on demand
+     */
+    private static class Recorder<T> implements Flow.Subscriber<T> {
+        final List<T> items = new ArrayList<>();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch terminated = new CountDownLatch(1);
+        volatile Flow.Subscription subscription;
+        volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public synchronized void onNext(T item) {
+            items.add(item);
+            notifyAll();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+
+        synchronized void awaitItems(int n) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 30000;
+            while (items.size() < n && System.currentTimeMillis() < deadline)
+                wait(100);
+        }
+    }
+
+    private static Set<String> names(List<? extends OWLEntity> entities) {
+        return entities.stream().map(e -> e.getIRI().getShortForm()).collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("Only the requested number of results are pulled from the source")
+    void request_limitsPulledResults() throws Exception {
+        int[] pulled = new int[1];
+        QueryPublisher<Integer> publisher = new QueryPublisher<>(
+                () -> IntStream.range(0, 1000).peek(i -> pulled[0]++).boxed(), Runnable::run,
+                new java.util.concurrent.locks.ReentrantLock());
+        Recorder<Integer> recorder = new Recorder<>();
+        publisher.subscribe(recorder);
+
+        assertThat(pulled[0]).isZero();
+        recorder.subscription.request(3);
+        assertThat(recorder.items).containsExactly(0, 1, 2);
+        assertThat(pulled[0]).isEqualTo(3);
+        recorder.subscription.request(2);
+        assertThat(recorder.items).containsExactly(0, 1, 2, 3, 4);
+        assertThat(recorder.completed).isFalse();
+
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertThat(recorder.items).hasSize(1000);
+        assertThat(recorder.completed).isTrue();
+    }
+
+    @Test
+    @DisplayName("Results are emitted after the lock is released")
+    void onNext_runsWithoutHoldingTheLock() throws Exception {
+        java.util.concurrent.locks.ReentrantLock lock = new java.util.concurrent.locks.ReentrantLock();
+        List<Boolean> held = new ArrayList<>();
+        QueryPublisher<Integer> publisher = new QueryPublisher<>(
+                () -> IntStream.range(0, 600).boxed(), Runnable::run, lock);
+        Recorder<Integer> recorder = new Recorder<>() {
+            @Override
+            public synchronized void onNext(Integer item) {
+                held.add(lock.isLocked());
+                super.onNext(item);
+            }
+        };
+        publisher.subscribe(recorder);
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        assertThat(recorder.items).hasSize(600);
+        assertThat(recorder.completed).isTrue();
+        assertThat(held).hasSize(600).containsOnly(false);
+    }
+
+    @Test
+    @DisplayName("Cancelling closes the source and stops emission; invalid requests fail")
+    void cancelAndInvalidRequest() {
+        boolean[] closed = new boolean[1];
+        QueryPublisher<Integer> publisher = new QueryPublisher<>(
+                () -> Stream.iterate(0, i -> i + 1).onClose(() -> closed[0] = true), Runnable::run,
+                new java.util.concurrent.locks.ReentrantLock());
+        Recorder<Integer> recorder = new Recorder<>();
+        publisher.subscribe(recorder);
+        recorder.subscription.request(2);
+        recorder.subscription.cancel();
+        recorder.subscription.request(5);
+        assertThat(recorder.items).containsExactly(0, 1);
+        assertThat(closed[0]).isTrue();
+        assertThat(recorder.completed).isFalse();
+
+        Recorder<Integer> invalid = new Recorder<>();
+        publisher.subscribe(invalid);
+        invalid.subscription.request(0);
+        assertThat(invalid.error.get()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Reasoner publishers stream the same answers as the set based queries")
+    void asyncPublishers_matchSetQueries() throws Exception {
+        try (AsyncReasoner async = new AsyncReasoner(factory.owlReasoner)) {
+            Recorder<OWLNamedIndividual> instances = new Recorder<>();
+            async.instancesPublisher("QpAnimal").subscribe(instances);
+            instances.subscription.request(1);
+            instances.awaitItems(1);
+            assertThat(instances.items).hasSize(1);
+            instances.subscription.request(Long.MAX_VALUE);
+            assertThat(instances.terminated.await(30, TimeUnit.SECONDS)).isTrue();
+            assertThat(names(instances.items)).containsExactlyInAnyOrder("qpfelix", "qptom", "qprex");
+
+            Recorder<OWLClass> subs = new Recorder<>();
+            async.subClassesPublisher("QpAnimal").subscribe(subs);
+            subs.subscription.request(Long.MAX_VALUE);
+            assertThat(subs.terminated.await(30, TimeUnit.SECONDS)).isTrue();
+            assertThat(names(subs.items)).isEqualTo(names(new ArrayList<>(factory.owlReasoner.subClassesOf("QpAnimal"))));
+
+            Recorder<OWLObjectPropertyAssertionAxiom> edges = new Recorder<>();
+            async.objectPropertyAssertionsPublisher("qpchases").subscribe(edges);
+            edges.subscription.request(Long.MAX_VALUE);
+            assertThat(edges.terminated.await(30, TimeUnit.SECONDS)).isTrue();
+            assertThat(edges.completed).isTrue();
+            assertThat(edges.items).extracting(a -> a.getObject().asOWLNamedIndividual().getIRI().getShortForm())
+                    .containsExactlyInAnyOrder("qpfelix", "qptom");
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.ClassExpressionNotInProfileException;
+import org.semanticweb.owlapi.reasoner.InconsistentOntologyException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+/**
+ * Tests the OWL 2 RL rule reasoner: materialisation, classification,
+ * incremental maintenance and its use through SelectedReasoner.RL
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class RLReasonerTest {
+
+    private static final String NS = "http://test.com/rl#";
+
+    private OWLOntologyManager manager;
+    private OWLDataFactory df;
+    private OWLOntology ontology;
+    private RLReasoner reasoner;
+
+    private OWLClass person, parent, animal, dog, cat, pet;
+    private OWLObjectProperty hasChild, hasDescendant, hasParent, owns, hasGrandchild;
+    private OWLNamedIndividual ann, bob, cid, rex, tom;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        df = manager.getOWLDataFactory();
+        ontology = manager.createOntology(IRI.create(NS));
+        person = df.getOWLClass(IRI.create(NS + "Person"));
+        parent = df.getOWLClass(IRI.create(NS + "Parent"));
+        animal = df.getOWLClass(IRI.create(NS + "Animal"));
+        dog = df.getOWLClass(IRI.create(NS + "Dog"));
+        cat = df.getOWLClass(IRI.create(NS + "Cat"));
+        pet = df.getOWLClass(IRI.create(NS + "Pet"));
+        hasChild = df.getOWLObjectProperty(IRI.create(NS + "hasChild"));
+        hasDescendant = df.getOWLObjectProperty(IRI.create(NS + "hasDescendant"));
+        hasParent = df.getOWLObjectProperty(IRI.create(NS + "hasParent"));
+        owns = df.getOWLObjectProperty(IRI.create(NS + "owns"));
+        hasGrandchild = df.getOWLObjectProperty(IRI.create(NS + "hasGrandchild"));
+        ann = df.getOWLNamedIndividual(IRI.create(NS + "ann"));
+        bob = df.getOWLNamedIndividual(IRI.create(NS + "bob"));
+        cid = df.getOWLNamedIndividual(IRI.create(NS + "cid"));
+        rex = df.getOWLNamedIndividual(IRI.create(NS + "rex"));
+        tom = df.getOWLNamedIndividual(IRI.create(NS + "tom"));
+        manager.addAxioms(ontology, Arrays.asList(
+            df.getOWLSubClassOfAxiom(dog, animal),
+            df.getOWLSubClassOfAxiom(cat, animal),
+            df.getOWLDisjointClassesAxiom(dog, cat),
+            df.getOWLEquivalentClassesAxiom(parent, df.getOWLObjectIntersectionOf(person,
+                df.getOWLObjectSomeValuesFrom(hasChild, person))),
+            df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(owns, animal), person),
+            df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(owns.getInverseProperty(), person), pet),
+            df.getOWLObjectPropertyDomainAxiom(hasChild, person),
+            df.getOWLObjectPropertyRangeAxiom(hasChild, person),
+            df.getOWLSubObjectPropertyOfAxiom(hasChild, hasDescendant),
+            df.getOWLTransitiveObjectPropertyAxiom(hasDescendant),
+            df.getOWLInverseObjectPropertiesAxiom(hasChild, hasParent),
+            df.getOWLSubPropertyChainOfAxiom(Arrays.asList(hasChild, hasChild), hasGrandchild),
+            df.getOWLObjectPropertyAssertionAxiom(hasChild, ann, bob),
+            df.getOWLObjectPropertyAssertionAxiom(hasChild, bob, cid),
+            df.getOWLClassAssertionAxiom(dog, rex)));
+        reasoner = (RLReasoner) new RLReasonerFactory().createNonBufferingReasoner(ontology);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reasoner.dispose();
+    }
+
+    private Set<OWLNamedIndividual> instances(OWLClassExpression ce) {
+        return reasoner.getInstances(ce, false).entities().collect(Collectors.toSet());
+    }
+
+    private Set<OWLNamedIndividual> values(OWLNamedIndividual i, OWLObjectPropertyExpression p) {
+        return reasoner.getObjectPropertyValues(i, p).entities().collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("Materialises domains, ranges, existentials and equivalences")
+    void instances_areMaterialised() {
+        assertThat(reasoner.isConsistent()).isTrue();
+        assertThat(instances(person)).containsExactlyInAnyOrder(ann, bob, cid);
+        assertThat(instances(parent)).containsExactlyInAnyOrder(ann, bob);
+        assertThat(instances(animal)).containsExactly(rex);
+        assertThat(instances(df.getOWLObjectSomeValuesFrom(hasChild, parent))).containsExactly(ann);
+        assertThat(instances(df.getOWLObjectHasValue(hasParent, bob))).containsExactly(cid);
+        assertThat(instances(df.getOWLObjectUnionOf(dog, parent))).containsExactlyInAnyOrder(ann, bob, rex);
+        assertThat(reasoner.getInstances(person, true).entities()).containsExactly(cid);
+        assertThat(reasoner.getTypes(rex, true).entities()).containsExactly(dog);
+    }
+
+    @Test
+    @DisplayName("Materialises sub-properties, inverses, transitivity and property chains")
+    void propertyValues_areMaterialised() {
+        assertThat(values(ann, hasDescendant)).containsExactlyInAnyOrder(bob, cid);
+        assertThat(values(ann, hasGrandchild)).containsExactly(cid);
+        assertThat(values(cid, hasParent)).containsExactly(bob);
+        assertThat(values(bob, hasChild.getInverseProperty())).containsExactly(ann);
+        assertThat(reasoner.isEntailed(df.getOWLObjectPropertyAssertionAxiom(hasDescendant, ann, cid))).isTrue();
+        assertThat(reasoner.isEntailed(df.getOWLObjectPropertyAssertionAxiom(hasDescendant, cid, ann))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Classifies named and complex classes")
+    void classHierarchy_isComputed() {
+        assertThat(reasoner.getSuperClasses(dog, true).entities()).containsExactly(animal);
+        assertThat(reasoner.getSuperClasses(parent, true).entities()).containsExactly(person);
+        assertThat(reasoner.getSubClasses(animal, true).entities()).containsExactlyInAnyOrder(dog, cat);
+        assertThat(reasoner.getSubClasses(df.getOWLThing(), true).entities())
+            .containsExactlyInAnyOrder(person, animal, pet);
+        assertThat(reasoner.getSuperClasses(df.getOWLObjectSomeValuesFrom(owns, dog), false).entities())
+            .contains(person, df.getOWLThing());
+        assertThat(reasoner.getEquivalentClasses(df.getOWLObjectIntersectionOf(person, parent)).entities())
+            .containsExactly(parent);
+        assertThat(reasoner.isEntailed(df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(hasChild, cat), parent)))
+            .isTrue();
+        assertThat(reasoner.isEntailed(df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(owns, cat), parent)))
+            .isFalse();
+        assertThat(reasoner.isSatisfiable(df.getOWLObjectIntersectionOf(dog, cat))).isFalse();
+        assertThat(reasoner.isEntailed(df.getOWLDisjointClassesAxiom(dog, cat))).isTrue();
+        assertThatThrownBy(() -> reasoner.getInstances(df.getOWLObjectComplementOf(dog), false))
+            .isInstanceOf(ClassExpressionNotInProfileException.class);
+    }
+
+    @Test
+    @DisplayName("Maintains assertions incrementally and recompiles on TBox changes")
+    void changes_areMaintained() {
+        OWLAxiom owner = df.getOWLObjectPropertyAssertionAxiom(owns, tom, rex);
+        manager.addAxiom(ontology, owner);
+        assertThat(instances(person)).contains(tom);
+        assertThat(instances(pet)).containsExactly(rex);
+
+        OWLAxiom bobChild = df.getOWLObjectPropertyAssertionAxiom(hasChild, bob, cid);
+        ontology.remove(bobChild);
+        assertThat(instances(parent)).containsExactly(ann);
+        assertThat(values(ann, hasDescendant)).containsExactly(bob);
+        assertThat(values(ann, hasGrandchild)).isEmpty();
+        assertThat(instances(person)).doesNotContain(cid);
+        ontology.remove(owner);
+        assertThat(instances(pet)).isEmpty();
+        assertThat(reasoner.getMaterialisations()).isEqualTo(1);
+
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(animal, pet));
+        assertThat(reasoner.getMaterialisations()).isEqualTo(2);
+        assertThat(instances(pet)).containsExactly(rex);
+        assertThat(reasoner.getSuperClasses(dog, false).entities()).contains(pet);
+    }
+
+    @Test
+    @DisplayName("Does not rematerialise for axioms the rules ignore")
+    void ignoredAxioms_doNotRematerialise() {
+        OWLDataProperty age = df.getOWLDataProperty(IRI.create(NS + "age"));
+        OWLAxiom ageOfAnn = df.getOWLDataPropertyAssertionAxiom(age, ann, 42);
+        ontology.add(ageOfAnn);
+        OWLAxiom different = df.getOWLDifferentIndividualsAxiom(ann, bob);
+        ontology.add(different);
+        assertThat(reasoner.getUnsupportedAxioms()).contains(ageOfAnn, different);
+        ontology.remove(ageOfAnn);
+        assertThat(reasoner.getUnsupportedAxioms()).doesNotContain(ageOfAnn).contains(different);
+        assertThat(reasoner.getMaterialisations()).isEqualTo(1);
+        assertThat(instances(parent)).containsExactlyInAnyOrder(ann, bob);
+    }
+
+    @Test
+    @DisplayName("Keeps a fact while another axiom still asserts it")
+    void sharedFacts_areRetractedWithTheLastAxiom() {
+        OWLAxiom child = df.getOWLObjectPropertyAssertionAxiom(hasChild, ann, bob);
+        OWLAxiom inverse = df.getOWLObjectPropertyAssertionAxiom(hasChild.getInverseProperty(), bob, ann);
+        ontology.add(inverse);
+        ontology.remove(child);
+        assertThat(reasoner.isEntailed(child)).isTrue();
+        assertThat(values(ann, hasChild)).containsExactly(bob);
+        ontology.remove(inverse);
+        assertThat(reasoner.isEntailed(child)).isFalse();
+        assertThat(values(ann, hasChild)).isEmpty();
+        assertThat(reasoner.getMaterialisations()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Detects inconsistency through disjoint classes")
+    void disjointness_makesOntologyInconsistent() {
+        OWLAxiom catRex = df.getOWLClassAssertionAxiom(cat, rex);
+        manager.addAxiom(ontology, catRex);
+        assertThat(reasoner.isConsistent()).isFalse();
+        assertThatThrownBy(() -> reasoner.getInstances(animal, false))
+            .isInstanceOf(InconsistentOntologyException.class);
+        ontology.remove(catRex);
+        assertThat(reasoner.isConsistent()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Reports axioms (partly) outside of the supported OWL 2 RL subset")
+    void unsupportedAxioms_areReported() {
+        OWLAxiom functional = df.getOWLFunctionalObjectPropertyAxiom(owns);
+        manager.addAxiom(ontology, functional);
+        List<OWLAxiom> unsupported = reasoner.getUnsupportedAxioms();
+        assertThat(unsupported).contains(functional)
+            .doesNotContain(df.getOWLTransitiveObjectPropertyAxiom(hasDescendant), df.getOWLDisjointClassesAxiom(dog, cat));
+    }
+
+    @Test
+    @DisplayName("Answers OWLAPILiteReasoner queries when RL is selected")
+    void selectedReasoner_plugsIntoFactory() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        factory.createOntology("http://test.com/rlfactory#");
+        factory.setOWLReasoner(SelectedReasoner.RL);
+        factory.createClasses("RlPerson RlParent");
+        factory.createIndividuals("rlann rlbob");
+        factory.createObjectProperties("rlhasChild");
+        factory.createAxiom("RlParent equivalentTo: RlPerson and rlhasChild some RlPerson");
+        factory.createAxiom("rlann Type: RlPerson");
+        factory.createAxiom("rlbob Type: RlPerson");
+        factory.createObjectPropertyAssertion("rlann rlhasChild rlbob");
+
+        assertThat(factory.owlReasoner.reasoner.getReasonerName()).isEqualTo(RLReasoner.NAME);
+        assertThat(factory.owlReasoner.instancesOf("RlParent")).extracting(i -> i.getIRI().getShortForm())
+            .containsExactly("rlann");
+        assertThat(factory.owlReasoner.subClassesOf("RlPerson")).extracting(c -> c.getIRI().getShortForm())
+            .containsExactly("RlParent");
+
+        factory.removeAxiom("rlann Type: RlPerson");
+        assertThat(factory.owlReasoner.instancesOf("RlParent")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Encodes individuals with the dictionary given to the factory")
+    void factoryDictionary_isShared() {
+        EntityDictionary dictionary = new EntityDictionary();
+        int annId = dictionary.encode(ann.getIRI());
+        RLReasoner shared = (RLReasoner) new RLReasonerFactory(dictionary).createNonBufferingReasoner(ontology);
+        try {
+            assertThat(dictionary.lookup(ann.getIRI())).isEqualTo(annId);
+            assertThat(dictionary.lookup(rex.getIRI())).isNotEqualTo(EntityDictionary.NO_ID);
+            assertThat(shared.getInstances(animal, false).entities()).containsExactly(rex);
+        } finally {
+            shared.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("Relations keep their pairs and indexes consistent through adds and removes")
+    void relation_addAndRemove() {
+        RuleEngine.Relation relation = new RuleEngine.Relation();
+        for (int s = 0; s < 200; s++)
+            for (int o = 0; o < 50; o++)
+                assertThat(relation.add(s, o)).isTrue();
+        assertThat(relation.add(7, 7)).isFalse();
+        for (int s = 0; s < 200; s += 2)
+            for (int o = 0; o < 50; o++)
+                relation.remove(s, o);
+
+        assertThat(relation.size()).isEqualTo(100 * 50);
+        for (int s = 0; s < 200; s++)
+            for (int o = 0; o < 50; o++)
+                assertThat(relation.contains(s, o)).isEqualTo(s % 2 == 1);
+        assertThat(relation.objects(4).size()).isZero();
+        assertThat(relation.objects(5).size()).isEqualTo(50);
+        assertThat(relation.subjects(3).size()).isEqualTo(100);
+        int[] pairs = new int[1];
+        relation.forEach((s, o) -> pairs[0]++);
+        assertThat(pairs[0]).isEqualTo(100 * 50);
+    }
+}
@@ -0,0 +1,173 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasoner;
+
+import io.github.kodymoodley.owlapilite.testutils.TestUtils;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+/**
+ * Tests the ServiceLoader based reasoner registry, selecting registered
+ * reasoners by name and the structural (no inference) reasoner
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class ReasonerRegistryTest {
+
+    /**
+     * third-party style provider (discovered through META-INF/services)
+     */
+    public static class RuleProvider extends LazyReasonerProvider {
+        public RuleProvider() {
+            super("RULES", "OWL 2 RL", CLASSIFICATION | INCREMENTAL, RLReasonerFactory.class.getName());
+        }
+    }
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        ReasonerRegistry.reload(ReasonerRegistry.class.getClassLoader());
+        SelectedReasoner.REASONERS.removeIf(r -> r.getProvider() == null);
+    }
+
+    @Test
+    @DisplayName("Registers the built-in reasoners with profiles and capabilities")
+    void builtIns_areRegistered() {
+        assertThat(ReasonerRegistry.getProviders()).extracting(ReasonerProvider::getName)
+            .containsExactly("JFACT", "ELK", "HERMIT", "RL", "STRUCTURAL");
+        ReasonerProvider elk = ReasonerRegistry.getProvider("elk");
+        assertThat(elk.getProfile()).isEqualTo("OWL 2 EL");
+        assertThat(elk.supports(ReasonerProvider.CLASSIFICATION)).isTrue();
+        assertThat(elk.supports(ReasonerProvider.CLASSIFICATION | ReasonerProvider.ENTAILMENT)).isFalse();
+        assertThat(ReasonerRegistry.getProviders(ReasonerProvider.DATA_PROPERTIES)).extracting(ReasonerProvider::getName)
+            .containsExactly("JFACT", "HERMIT");
+        assertThat(ReasonerRegistry.getProvider("HERMIT").isAvailable()).isTrue();
+        assertThat(ReasonerRegistry.getProvider("RL").createReasonerFactory()).isInstanceOf(RLReasonerFactory.class);
+        assertThat(SelectedReasoner.forName("hermit")).isSameAs(SelectedReasoner.HERMIT);
+        assertThat(SelectedReasoner.forName("nosuchreasoner")).isNull();
+    }
+
+    @Test
+    @DisplayName("Reports providers whose reasoner is not on the classpath as unavailable")
+    void missingReasoner_isUnavailable() {
+        ReasonerProvider missing = new LazyReasonerProvider("MISSING", "OWL 2 DL", ReasonerProvider.CLASSIFICATION,
+            "org.example.NoSuchReasonerFactory");
+        ReasonerRegistry.register(missing);
+
+        assertThat(missing.isAvailable()).isFalse();
+        assertThat(ReasonerRegistry.getProviders(ReasonerProvider.CLASSIFICATION)).doesNotContain(missing);
+        assertThatThrownBy(missing::createReasonerFactory)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("MISSING");
+        assertThat(SelectedReasoner.forName("MISSING").isAvailable()).isFalse();
+        assertThat(ReasonerRegistry.unregister("missing")).isSameAs(missing);
+    }
+
+    @Test
+    @DisplayName("Discovers providers with ServiceLoader and selects them by name")
+    void serviceLoader_discoversProviders() throws Exception {
+        Path services = tempDir.resolve("META-INF/services");
+        Files.createDirectories(services);
+        Files.write(services.resolve(ReasonerProvider.class.getName()),
+            Collections.singletonList(RuleProvider.class.getName()));
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { tempDir.toUri().toURL() },
+                ReasonerRegistry.class.getClassLoader())) {
+            ReasonerRegistry.reload(loader);
+        }
+
+        assertThat(ReasonerRegistry.getProviders()).extracting(ReasonerProvider::getName).endsWith("RULES");
+        OWLReasonerFactory rf = ReasonerRegistry.getProvider("rules").createReasonerFactory();
+        assertThat(rf.getReasonerName()).isEqualTo(RLReasoner.NAME);
+
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        factory.createOntology("http://test.com/registry#");
+        factory.setOWLReasoner("rules");
+        factory.createClasses("RgA RgB");
+        factory.createAxiom("RgA subClassOf RgB");
+
+        assertThat(factory.owlReasoner.reasoner.getReasonerName()).isEqualTo(RLReasoner.NAME);
+        assertThat(factory.owlReasoner.subClassesOf("RgB").stream().map(c -> c.getIRI().getShortForm())
+            .collect(Collectors.toList())).containsExactly("RgA");
+        assertThat(SelectedReasoner.REASONERS).contains(SelectedReasoner.forName("RULES"));
+    }
+
+    @Test
+    @DisplayName("Structural reasoner answers from told axioms and warns that answers may be incomplete")
+    void structuralReasoner_answersToldAxiomsOnly() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        factory.setOWLReasoner(SelectedReasoner.STRUCTURAL);
+        factory.createOntology("http://test.com/structural#");
+        factory.createClasses("StA StB StC");
+        factory.createIndividuals("stx");
+        factory.createObjectProperties("stp");
+        factory.createAxiom("StA subClassOf StB");
+        factory.createAxiom("StB subClassOf StC");
+        factory.createAxiom("stp some StB subClassOf StA");
+        factory.createAxiom("stx Type: StA");
+        factory.createObjectPropertyAssertion("stx stp stx");
+
+        OWLAPILiteReasoner reasoner = factory.owlReasoner;
+        assertThat(reasoner.reasoner).isInstanceOf(StructuralReasoner.class);
+        assertThat(reasoner.supports(ReasonerProvider.CLASSIFICATION)).isFalse();
+        // the told hierarchy is transitive, but nothing is inferred from the axioms
+        assertThat(reasoner.superClassesOf("StA")).extracting(c -> c.getIRI().getShortForm())
+            .containsExactlyInAnyOrder("StB", "StC");
+        assertThat(reasoner.instancesOf("StC")).extracting(i -> i.getIRI().getShortForm()).containsExactly("stx");
+        assertThat(reasoner.entails("StA subClassOf StB")).isTrue();
+        assertThat(reasoner.entails("stx Type: stp some StA")).isFalse();
+
+        String out = TestUtils.captureSystemOut(() -> reasoner.getSubClasses("StC"));
+        assertThat(out).contains("OWLAPI-Lite REASONING WARNING").contains("STRUCTURAL").contains("StA");
+        String consistency = TestUtils.captureSystemOut(() -> reasoner.isConsistent());
+        assertThat(consistency).contains("it is unknown whether <http://test.com/structural#> is consistent")
+            .doesNotContain("Yes - ");
+
+        factory.setOWLReasoner(SelectedReasoner.HERMIT);
+        assertThat(factory.owlReasoner.supports(ReasonerProvider.CLASSIFICATION)).isTrue();
+        assertThat(factory.owlReasoner.entails("stx Type: stp some StA")).isTrue();
+        assertThat(TestUtils.captureSystemOut(() -> factory.owlReasoner.getSubClasses("StC")))
+            .doesNotContain("WARNING");
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+/**
+ * Tests the prioritised reasoning job scheduler: lane isolation, concurrency
+ * limits and fair queuing between clients
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class ReasoningSchedulerTest {
+
+    private OWLAPILiteFactory factory;
+    private ReasoningScheduler scheduler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        factory = OWLAPILiteFactory.getInstance();
+        factory.createOntology("http://test.com/scheduler#");
+        factory.createClasses("RsAnimal RsMammal RsCat");
+        factory.createIndividuals("rstom");
+        factory.createAxiom("RsMammal subClassOf RsAnimal");
+        factory.createAxiom("RsCat subClassOf RsMammal");
+        factory.createAxiom("rstom Type: RsCat");
+        scheduler = new ReasoningScheduler(factory.owlReasoner);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(30, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Interactive queries use the primary reasoner and batch jobs their own instance")
+    void interactive_andBatch_useSeparateInstances() throws Exception {
+        CompletableFuture<OWLAPILiteReasoner> batch = scheduler.submit(ReasoningScheduler.BATCH, "etl", r -> r);
+        CompletableFuture<OWLAPILiteReasoner> interactive = scheduler.submit(ReasoningScheduler.INTERACTIVE, "alice", r -> r);
+
+        assertThat(await(scheduler.subClasses("alice", "RsAnimal"))).hasSize(2);
+        assertThat(await(scheduler.isEntailed("alice", "RsCat SubClassOf RsAnimal"))).isTrue();
+        assertThat(await(interactive)).isSameAs(factory.owlReasoner);
+        assertThat(await(batch)).isNotSameAs(factory.owlReasoner);
+    }
+
+    @Test
+    @DisplayName("Jobs wait while another holder of the shared lock uses the ontology")
+    void jobs_waitForSharedLock() throws Exception {
+        ReentrantLock lock = new ReentrantLock();
+        ReasoningScheduler locked = new ReasoningScheduler(factory.owlReasoner, lock);
+        try {
+            lock.lock();
+            CompletableFuture<Set<OWLClass>> query;
+            try {
+                query = locked.subClasses("alice", "RsAnimal");
+                Thread.sleep(200);
+                assertThat(query).isNotDone();
+                assertThat(locked.getRunning(ReasoningScheduler.INTERACTIVE)).isEqualTo(1);
+            } finally {
+                lock.unlock();
+            }
+            assertThat(await(query)).hasSize(2);
+        } finally {
+            locked.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Clients of a lane are served round robin")
+    void lane_servesClientsRoundRobin() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Object> blocker = scheduler.submit(ReasoningScheduler.INTERACTIVE, "a", r -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        CompletableFuture<?> last = null;
+        for (String job : new String[] { "a1", "a2", "a3" })
+            last = scheduler.submit(ReasoningScheduler.INTERACTIVE, "a", r -> order.add(job));
+        CompletableFuture<Boolean> b1 = scheduler.submit(ReasoningScheduler.INTERACTIVE, "b", r -> order.add("b1"));
+
+        assertThat(scheduler.getQueued(ReasoningScheduler.INTERACTIVE)).isEqualTo(4);
+        release.countDown();
+        await(blocker);
+        await(b1);
+        await(last);
+        assertThat(order).containsExactly("a1", "b1", "a2", "a3");
+    }
+
+    @Test
+    @DisplayName("A lane dispatches at most its concurrency limit of jobs at the same time")
+    void lane_respectsConcurrencyLimit() throws Exception {
+        scheduler.setLimit(ReasoningScheduler.EXPLANATION, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> jobs = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            jobs.add(scheduler.submit(ReasoningScheduler.EXPLANATION, "c" + i, r -> {
+                started.countDown();
+                try {
+                    return release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            }));
+        }
+
+        // the second dispatched job waits for the lock which the first one holds
+        assertThat(started.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(scheduler.getRunning(ReasoningScheduler.EXPLANATION)).isEqualTo(2);
+        assertThat(scheduler.getQueued(ReasoningScheduler.EXPLANATION)).isEqualTo(1);
+        release.countDown();
+        for (CompletableFuture<Boolean> job : jobs)
+            assertThat(await(job)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Materialisation and explanation jobs return their results")
+    void heavyJobs_returnResults() throws Exception {
+        OWLDataFactory df = OWLAPILiteReasoner.dataFactory;
+        OWLNamedIndividual tom = factory.owlReasoner.ontology.individualsInSignature().findFirst().get();
+        OWLClass animal = factory.owlReasoner.ontology.classesInSignature()
+            .filter(c -> c.getIRI().toString().endsWith("RsAnimal")).findFirst().get();
+
+        assertThat(await(scheduler.materialise("etl"))).contains(df.getOWLClassAssertionAxiom(animal, tom));
+        assertThat(await(scheduler.explanations("bob", "RsCat SubClassOf RsAnimal"))).hasSize(1);
+        assertThat(await(scheduler.instances("bob", "RsAnimal"))).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Factory provides a scheduler for the current reasoner")
+    void factory_getScheduler() {
+        ReasoningScheduler fromFactory = factory.getScheduler();
+
+        assertThat(fromFactory.getReasoner()).isSameAs(factory.owlReasoner);
+        assertThat(factory.getScheduler()).isSameAs(fromFactory);
+    }
+
+    @Test
+    @DisplayName("Replacing the reasoner closes the scheduler of the old one")
+    void factory_replacingReasoner_closesScheduler() throws Exception {
+        ReasoningScheduler old = factory.getScheduler();
+
+        factory.setOWLReasoner(SelectedReasoner.JFACT);
+
+        CompletableFuture<Set<OWLClass>> rejected = old.subClasses("alice", "RsAnimal");
+        assertThat(rejected).isCancelled();
+        ReasoningScheduler current = factory.getScheduler();
+        assertThat(current).isNotSameAs(old);
+        assertThat(current.getReasoner()).isSameAs(factory.owlReasoner);
+        assertThat(await(current.subClasses("alice", "RsAnimal"))).hasSize(2);
+    }
+}
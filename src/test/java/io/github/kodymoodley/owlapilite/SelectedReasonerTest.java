@@ -55,11 +55,13 @@ public class SelectedReasonerTest {
     @DisplayName("Should contain all expected reasoners")
     void REASONERS_shouldContainAllSupported() {
         assertThat(SelectedReasoner.REASONERS)
-            .hasSize(3)
+            .hasSize(5)
             .containsExactlyInAnyOrder(
                 SelectedReasoner.JFACT,
                 SelectedReasoner.ELK,
-                SelectedReasoner.HERMIT
+                SelectedReasoner.HERMIT,
+                SelectedReasoner.RL,
+                SelectedReasoner.STRUCTURAL
             );
     }
 }
\ No newline at end of file
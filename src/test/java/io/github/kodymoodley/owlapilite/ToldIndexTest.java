@@ -0,0 +1,153 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+/**
+ * Tests the told-axiom index and the entailment fast path which uses it
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class ToldIndexTest {
+
+    private static final String NS = "http://test.com/told#";
+
+    private OWLOntologyManager manager;
+    private OWLDataFactory df;
+    private OWLOntology ontology;
+    private ToldIndex index;
+
+    private OWLClass a, b, c, d;
+    private OWLObjectProperty p, q;
+    private OWLNamedIndividual x, y;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        df = manager.getOWLDataFactory();
+        ontology = manager.createOntology(IRI.create(NS));
+        a = df.getOWLClass(IRI.create(NS + "A"));
+        b = df.getOWLClass(IRI.create(NS + "B"));
+        c = df.getOWLClass(IRI.create(NS + "C"));
+        d = df.getOWLClass(IRI.create(NS + "D"));
+        p = df.getOWLObjectProperty(IRI.create(NS + "p"));
+        q = df.getOWLObjectProperty(IRI.create(NS + "q"));
+        x = df.getOWLNamedIndividual(IRI.create(NS + "x"));
+        y = df.getOWLNamedIndividual(IRI.create(NS + "y"));
+        ontology.add(df.getOWLSubClassOfAxiom(a, b));
+        ontology.add(df.getOWLEquivalentClassesAxiom(b, c));
+        ontology.add(df.getOWLClassAssertionAxiom(a, x));
+        ontology.add(df.getOWLSubObjectPropertyOfAxiom(p, q));
+        ontology.add(df.getOWLObjectPropertyAssertionAxiom(p, x, y));
+        index = new ToldIndex(ontology);
+        manager.addOntologyChangeListener(index);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.removeOntologyChangeListener(index);
+    }
+
+    @Test
+    @DisplayName("Answers positive checks from told edges and counts them")
+    void entails_followsToldEdges() {
+        assertThat(index.entails(df.getOWLSubClassOfAxiom(a, c))).isTrue();
+        assertThat(index.entails(df.getOWLSubClassOfAxiom(df.getOWLObjectIntersectionOf(a, d), c))).isTrue();
+        assertThat(index.entails(df.getOWLEquivalentClassesAxiom(c, b))).isTrue();
+        assertThat(index.entails(df.getOWLClassAssertionAxiom(c, x))).isTrue();
+        assertThat(index.entails(df.getOWLObjectPropertyAssertionAxiom(q, x, y))).isTrue();
+        assertThat(index.entails(df.getOWLObjectPropertyAssertionAxiom(q.getInverseProperty(), y, x))).isTrue();
+        assertThat(index.entails(df.getOWLSubClassOfAxiom(a, b,
+            Collections.singleton(df.getRDFSComment("annotated"))))).isTrue();
+        assertThat(index.getHits()).isEqualTo(7);
+
+        assertThat(index.entails(df.getOWLSubClassOfAxiom(c, a))).isFalse();
+        assertThat(index.entails(df.getOWLObjectPropertyAssertionAxiom(p, y, x))).isFalse();
+        assertThat(index.entails(df.getOWLClassAssertionAxiom(d, x))).isFalse();
+        assertThat(index.getMisses()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Keeps the indexes current when axioms are added and removed")
+    void changes_updateIndexes() {
+        assertThat(index.entails(df.getOWLSubClassOfAxiom(a, d))).isFalse();
+        ontology.add(df.getOWLSubClassOfAxiom(c, d));
+        assertThat(index.entails(df.getOWLSubClassOfAxiom(a, d))).isTrue();
+
+        // the edge B -> C is asserted twice; it disappears with the second axiom
+        ontology.add(df.getOWLSubClassOfAxiom(b, c));
+        ontology.remove(df.getOWLEquivalentClassesAxiom(b, c));
+        assertThat(index.entails(df.getOWLSubClassOfAxiom(a, d))).isTrue();
+        ontology.remove(df.getOWLSubClassOfAxiom(b, c));
+        assertThat(index.entails(df.getOWLSubClassOfAxiom(a, d))).isFalse();
+
+        ontology.remove(df.getOWLSubObjectPropertyOfAxiom(p, q));
+        assertThat(index.entails(df.getOWLObjectPropertyAssertionAxiom(q, x, y))).isFalse();
+        ontology.remove(df.getOWLObjectPropertyAssertionAxiom(p, x, y));
+        assertThat(index.entails(df.getOWLObjectPropertyAssertionAxiom(p, x, y))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Released indexes are rebuilt on the next check")
+    void clear_rebuildsOnNextUse() {
+        assertThat(index.entails(df.getOWLSubClassOfAxiom(a, c))).isTrue();
+        index.clear();
+        manager.removeOntologyChangeListener(index);
+        ontology.add(df.getOWLSubClassOfAxiom(c, d));
+
+        assertThat(index.entails(df.getOWLSubClassOfAxiom(a, d))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Skips the reasoner for told entailments in OWLAPILiteReasoner")
+    void reasoner_avoidsCallsForToldAxioms() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        factory.createOntology("http://test.com/toldfactory#");
+        factory.createClasses("TdA TdB TdC");
+        factory.createIndividuals("tdx");
+        factory.createAxiom("TdA subClassOf TdB");
+        factory.createAxiom("TdB subClassOf TdC");
+        factory.createAxiom("tdx Type: TdA");
+
+        OWLAPILiteReasoner reasoner = factory.owlReasoner;
+        assertThat(reasoner.entails("TdA subClassOf TdC")).isTrue();
+        assertThat(reasoner.entails("tdx Type: TdC")).isTrue();
+        assertThat(reasoner.getAvoidedReasonerCalls()).isEqualTo(2);
+        assertThat(reasoner.entails("TdA and TdB subClassOf TdC")).isTrue();
+        assertThat(reasoner.entails("TdC subClassOf TdA")).isFalse();
+        assertThat(reasoner.getAvoidedReasonerCalls()).isEqualTo(3);
+        assertThat(reasoner.getReasonerEntailmentCalls()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.kodymoodley.owlapilite;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+OWLAPI-Lite is a light-weight wrapper for the OWLAPI enabling more concise OWL ontology development.
+
+Copyright (C) <2020>  Kody Moodley
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU Affero General Public License as
+published by the Free Software Foundation, either version 3 of the
+License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU Affero General Public License for more details.
+
+You should have received a copy of the GNU Affero General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+/**
+ * Tests writing and restoring binary workspace snapshots
+ * 
+ * @author Kody Moodley
+ * @author https://kodymoodley.github.io
+ * @version 1.0.1
+ */
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WorkspaceSnapshotTest {
+
+    private static final String NS = "http://test.com/snapshot#";
+
+    @TempDir
+    Path tempDir;
+
+    private void resetSingleton() throws Exception {
+        java.lang.reflect.Field instanceField = OWLAPILiteFactory.class.getDeclaredField("obj");
+        instanceField.setAccessible(true);
+        instanceField.set(null, null);
+    }
+
+    @Test
+    @DisplayName("All axioms, annotations and ids survive a snapshot round trip")
+    void writeAndRead_restoresOntologiesExactly() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology(new OWLOntologyID(IRI.create(NS), IRI.create(NS + "v1")));
+        OWLClass a = df.getOWLClass(IRI.create(NS + "A"));
+        OWLClass b = df.getOWLClass(IRI.create(NS + "B"));
+        OWLObjectProperty p = df.getOWLObjectProperty(IRI.create(NS + "p"));
+        OWLDataProperty d = df.getOWLDataProperty(IRI.create(NS + "d"));
+        OWLNamedIndividual x = df.getOWLNamedIndividual(IRI.create(NS + "x"));
+        OWLNamedIndividual y = df.getOWLNamedIndividual(IRI.create(NS + "y"));
+        ontology.addAxioms(Stream.of(
+            df.getOWLDeclarationAxiom(a),
+            df.getOWLSubClassOfAxiom(a, b),
+            df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(p, b)),
+            df.getOWLEquivalentClassesAxiom(a, b),
+            df.getOWLClassAssertionAxiom(a, x),
+            df.getOWLObjectPropertyAssertionAxiom(p, x, y),
+            df.getOWLDataPropertyAssertionAxiom(d, x, df.getOWLLiteral(42)),
+            df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), a.getIRI(), df.getOWLLiteral("Ay", "en")),
+            df.getOWLTransitiveObjectPropertyAxiom(p),
+            df.getOWLFunctionalDataPropertyAxiom(d),
+            df.getOWLDifferentIndividualsAxiom(x, y),
+            df.getOWLSubClassOfAxiom(b, a, Collections.singleton(df.getRDFSComment("annotated")))
+        ).collect(Collectors.toSet()));
+        manager.applyChange(new AddOntologyAnnotation(ontology, df.getRDFSComment("ontology note")));
+        manager.applyChange(new AddImport(ontology, df.getOWLImportsDeclaration(IRI.create("http://test.com/other"))));
+
+        Path file = tempDir.resolve("workspace.snap");
+        WorkspaceSnapshot.write(file, manager, ontology, IRI.create(NS), Stream.of(a, p), new HashMap<>());
+
+        OWLOntologyManager target = OWLManager.createOWLOntologyManager();
+        WorkspaceSnapshot snapshot = WorkspaceSnapshot.read(file, target);
+
+        OWLOntology restored = snapshot.getSelectedOntology();
+        assertThat(restored.getOntologyID()).isEqualTo(ontology.getOntologyID());
+        assertThat(restored.axioms().collect(Collectors.toSet()))
+            .isEqualTo(ontology.axioms().collect(Collectors.toSet()));
+        assertThat(restored.annotations().collect(Collectors.toSet()))
+            .isEqualTo(ontology.annotations().collect(Collectors.toSet()));
+        assertThat(restored.importsDeclarations().count()).isEqualTo(1);
+        assertThat(snapshot.getNamespace().toString()).isEqualTo(NS);
+        assertThat(snapshot.getVocabulary()).containsExactly(a, p);
+
+        assertThat(WorkspaceSnapshot.read(file, target).getSkipped()).containsExactly(ontology.getOntologyID());
+    }
+
+    @Test
+    @DisplayName("Files which are not snapshots are rejected")
+    void read_withWrongSignature_throws() throws Exception {
+        Path file = tempDir.resolve("not-a-snapshot.snap");
+        Files.writeString(file, "Ontology(<http://test.com/x>)");
+
+        assertThatThrownBy(() -> WorkspaceSnapshot.read(file, OWLManager.createOWLOntologyManager()))
+            .isInstanceOf(java.io.IOException.class)
+            .hasMessageContaining("not a workspace snapshot");
+    }
+
+    @Test
+    @DisplayName("Rewriting a snapshot keeps the permissions of the file")
+    void write_keepsFilePermissions() throws Exception {
+        Assumptions.assumeTrue(tempDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ontology = manager.createOntology(IRI.create("http://test.com/snapperms"));
+        Path file = Files.createFile(tempDir.resolve("perms.snap"));
+        Files.setPosixFilePermissions(file, java.nio.file.attribute.PosixFilePermissions.fromString("rw-rw-r--"));
+
+        WorkspaceSnapshot.write(file, manager, ontology, null, Stream.empty(), Collections.emptyMap());
+
+        assertThat(java.nio.file.attribute.PosixFilePermissions.toString(Files.getPosixFilePermissions(file)))
+            .isEqualTo("rw-rw-r--");
+    }
+
+    @Test
+    @DisplayName("Factory restores parser vocabulary, selection and off-heap ABox from a snapshot")
+    void saveAndLoadWorkspaceSnapshot_restoresFactoryState() throws Exception {
+        resetSingleton();
+        OWLAPILiteFactory factory = OWLAPILiteFactory.getInstance();
+        factory.createOntology("http://test.com/snapfactory#");
+        factory.createClasses("Comet Asteroid");
+        factory.createObjectProperty("orbits");
+        factory.createAxiom("Comet DisjointWith: Asteroid");
+        factory.setOffHeapABox(true);
+        factory.createIndividual("halley");
+        factory.createAxiom("halley Type: Comet");
+        Path file = tempDir.resolve("factory.snap");
+        factory.saveWorkspaceSnapshot(file);
+        long axioms = factory.getOntology().getAxiomCount();
+
+        resetSingleton();
+        OWLAPILiteFactory restored = OWLAPILiteFactory.getInstance();
+        restored.loadWorkspaceSnapshot(file);
+
+        assertThat(restored.getOntology().getOntologyID().getOntologyIRI().get().toString())
+            .isEqualTo("http://test.com/snapfactory#");
+        assertThat(restored.getOntology().getAxiomCount()).isEqualTo(axioms);
+        assertThat(restored.getOffHeapABox().classAssertionCount()).isEqualTo(1);
+        assertThat(restored.createClassExpression("Comet and orbits some Asteroid")).isNotNull();
+    }
+}